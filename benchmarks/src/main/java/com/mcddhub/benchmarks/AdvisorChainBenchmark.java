@@ -0,0 +1,125 @@
+package com.mcddhub.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.mcddhub.demo01.AppConfig;
+import com.mcddhub.demo01.LoggingAdvisorProperties;
+import com.mcddhub.demo01.ObservabilityLoggerAdvisor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.AdvisedRequest;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
+
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead the {@link ChatClient} fluent API and its advisor chain add around a model that answers
+ * instantly: no advisor, the {@link SimpleLoggerAdvisor} demo01 used to register, and the
+ * {@link ObservabilityLoggerAdvisor} that replaced it, with debug logging on and off and with sampling.
+ * Log events go through a synchronous pattern-layout appender into a discarding stream, so formatting
+ * and appender cost are measured without disk I/O.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AdvisorChainBenchmark {
+
+    @Param({"DEBUG", "INFO"})
+    public String level;
+
+    @Param({"1.0", "0.1"})
+    public double sampleRate;
+
+    private ChatClient bare;
+    private ChatClient simpleLogged;
+    private ChatClient observabilityLogged;
+    private ObservabilityLoggerAdvisor observabilityLoggerAdvisor;
+
+    @Setup
+    public void setUp() {
+        routeLogsToNullAppender(Level.toLevel(level));
+        StubChatModel chatModel = new StubChatModel("Arr, me name be Bob!");
+        SimpleLoggerAdvisor simpleLoggerAdvisor = new SimpleLoggerAdvisor(
+            AdvisedRequest::userText,
+            response -> "" + response.getResult()
+        );
+        observabilityLoggerAdvisor = new AppConfig("http://localhost", "stub")
+            .observabilityLoggerAdvisor(new LoggingAdvisorProperties(sampleRate, 1000, 1024));
+        bare = client(chatModel).build();
+        simpleLogged = client(chatModel).defaultAdvisors(simpleLoggerAdvisor).build();
+        observabilityLogged = client(chatModel).defaultAdvisors(observabilityLoggerAdvisor).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        observabilityLoggerAdvisor.close();
+    }
+
+    @Benchmark
+    public String bare() {
+        return call(bare);
+    }
+
+    @Benchmark
+    public String simpleLoggerAdvisor() {
+        return call(simpleLogged);
+    }
+
+    @Benchmark
+    public String observabilityLoggerAdvisor() {
+        return call(observabilityLogged);
+    }
+
+    private static ChatClient.Builder client(StubChatModel chatModel) {
+        return ChatClient.builder(chatModel)
+            .defaultSystem("You are a friendly chat bot that answers question in the voice of a {voice}");
+    }
+
+    private static String call(ChatClient chatClient) {
+        return chatClient.prompt()
+            .system(system -> system.params(Map.of("voice", "pirate")))
+            .user("Tell me a joke")
+            .call()
+            .content();
+    }
+
+    private static void routeLogsToNullAppender(Level level) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %-5level [%thread] %logger{36} - %msg%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.addAppender(appender);
+        root.setLevel(Level.INFO);
+        context.getLogger("org.springframework.ai.chat.client.advisor").setLevel(level);
+        context.getLogger(ObservabilityLoggerAdvisor.class).setLevel(level);
+    }
+}
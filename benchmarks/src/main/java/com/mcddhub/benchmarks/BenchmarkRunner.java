@@ -0,0 +1,33 @@
+package com.mcddhub.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the shaded benchmarks jar. Runs every benchmark in this package (or the ones
+ * selected by the usual JMH command line) and writes the results as JSON so that runs from different
+ * releases can be diffed, e.g. {@code java -jar target/benchmarks.jar -rff target/jmh-result.json}.
+ */
+public final class BenchmarkRunner {
+
+    static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(BenchmarkRunner.class.getPackageName() + ".*Benchmark");
+        }
+        options.parent(commandLine)
+            .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+            .result(commandLine.getResult().orElse(DEFAULT_RESULT));
+        new Runner(options.build()).run();
+    }
+}
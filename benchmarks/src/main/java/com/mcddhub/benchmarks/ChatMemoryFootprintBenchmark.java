@@ -0,0 +1,126 @@
+package com.mcddhub.benchmarks;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import com.mcddhub.demo01.ConversationMemory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.memory.InMemoryChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap retained by {@code conversations} active conversations of {@code turns} question/answer pairs in
+ * demo01's {@link ConversationMemory}, next to Spring AI's {@link InMemoryChatMemory} holding the same
+ * messages. The footprint is in the {@code retainedBytes} and {@code bytesPerConversation} secondary
+ * results, measured from heap usage after a full GC before and after filling; the primary score (fill
+ * time, including those GCs) is only a rough indication.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ChatMemoryFootprintBenchmark {
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public long retainedBytes;
+        public long bytesPerConversation;
+    }
+
+    @Param({"100000"})
+    public int conversations;
+
+    @Param({"3"})
+    public int turns;
+
+    @Param({"2000"})
+    public int tokenBudget;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final Encoding encoding = Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
+
+    private long baseline;
+    private Object store;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        store = null;
+        baseline = usedHeapAfterGc();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        store = null;
+    }
+
+    @Benchmark
+    public Object conversationMemory(Footprint footprint) {
+        ConversationMemory conversationMemory = new ConversationMemory(encoding, tokenBudget, conversations,
+            Duration.ofHours(1), null, Runnable::run);
+        for (int c = 0; c < conversations; c++) {
+            String id = "conversation-" + c;
+            for (int t = 0; t < turns; t++) {
+                conversationMemory.append(id, question(c, t), answer(c, t));
+            }
+        }
+        return measure(conversationMemory, footprint);
+    }
+
+    @Benchmark
+    public Object inMemoryChatMemory(Footprint footprint) {
+        InMemoryChatMemory chatMemory = new InMemoryChatMemory();
+        for (int c = 0; c < conversations; c++) {
+            String id = "conversation-" + c;
+            for (int t = 0; t < turns; t++) {
+                chatMemory.add(id, List.of(new UserMessage(question(c, t)), new AssistantMessage(answer(c, t))));
+            }
+        }
+        return measure(chatMemory, footprint);
+    }
+
+    private Object measure(Object filled, Footprint footprint) {
+        store = filled;
+        footprint.retainedBytes = usedHeapAfterGc() - baseline;
+        footprint.bytesPerConversation = footprint.retainedBytes / conversations;
+        return filled;
+    }
+
+    private long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static String question(int conversation, int turn) {
+        return "Conversation " + conversation + ", question " + turn + ": what is the weather in Hangzhou tomorrow?";
+    }
+
+    private static String answer(int conversation, int turn) {
+        return "Conversation " + conversation + ", answer " + turn + ": sunny turning cloudy, around 32 degrees.";
+    }
+}
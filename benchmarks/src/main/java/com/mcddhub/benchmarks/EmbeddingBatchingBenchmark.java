@@ -0,0 +1,108 @@
+package com.mcddhub.benchmarks;
+
+import com.mcddhub.demo03.embedding.BatchingEmbeddingModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Per-request vs. micro-batched embedding throughput against a stub with a 20 ms round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(64)
+public class EmbeddingBatchingBenchmark {
+
+    @Param({"direct", "batched"})
+    public String mode;
+
+    private EmbeddingModel model;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StubEmbeddingModel stub = new StubEmbeddingModel(1536, Duration.ofMillis(20));
+        // the upstream allows as many concurrent connections in both modes
+        model = "direct".equals(mode)
+            ? stub
+            : new BatchingEmbeddingModel(stub, 25, Duration.ofMillis(5), 64);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (model instanceof BatchingEmbeddingModel batching) {
+            batching.close();
+        }
+    }
+
+    @Benchmark
+    public List<Double> embed() {
+        return model.embed("query-" + ThreadLocalRandom.current().nextInt(10_000));
+    }
+
+    /**
+     * Deterministic embedding model that sleeps for a fixed round trip per call, whatever the batch size.
+     */
+    private static class StubEmbeddingModel implements EmbeddingModel {
+
+        private final int dimensions;
+        private final long latencyNanos;
+
+        StubEmbeddingModel(int dimensions, Duration latency) {
+            this.dimensions = dimensions;
+            this.latencyNanos = latency.toNanos();
+        }
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            LockSupport.parkNanos(latencyNanos);
+            List<Embedding> embeddings = new ArrayList<>();
+            for (String text : request.getInstructions()) {
+                Random random = new Random(text.hashCode());
+                List<Double> vector = new ArrayList<>(dimensions);
+                for (int i = 0; i < dimensions; i++) {
+                    vector.add(random.nextGaussian());
+                }
+                embeddings.add(new Embedding(vector, embeddings.size()));
+            }
+            return new EmbeddingResponse(embeddings);
+        }
+
+        @Override
+        public List<Double> embed(Document document) {
+            return embed(document.getContent());
+        }
+
+        @Override
+        public int dimensions() {
+            return dimensions;
+        }
+    }
+}
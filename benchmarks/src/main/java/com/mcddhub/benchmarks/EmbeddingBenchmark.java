@@ -0,0 +1,110 @@
+package com.mcddhub.benchmarks;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
+import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingModel;
+import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingOptions;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mcddhub.testsupport.dashscope.DashScopeStubServer;
+import com.mcddhub.testsupport.dashscope.StubSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedding-response handling: decoding a DashScope embeddings payload with Jackson on its own, and
+ * the full {@link DashScopeEmbeddingModel} round trip against the local stub server (which answers
+ * with zero latency, so the difference is client-side request building, HTTP and conversion).
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmbeddingBenchmark {
+
+    record Payload(Output output, Usage usage, @JsonProperty("request_id") String requestId) {
+    }
+
+    record Output(List<Item> embeddings) {
+    }
+
+    record Item(@JsonProperty("text_index") int textIndex, List<Double> embedding) {
+    }
+
+    record Usage(@JsonProperty("total_tokens") int totalTokens) {
+    }
+
+    @Param({"8"})
+    public int texts;
+
+    @Param({"1536"})
+    public int dimensions;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private DashScopeStubServer server;
+    private DashScopeEmbeddingModel embeddingModel;
+    private List<String> inputs;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = DashScopeStubServer.start(StubSettings.instant().withDimensions(dimensions));
+        embeddingModel = new DashScopeEmbeddingModel(
+            new DashScopeApi(server.baseUrl(), "stub", null),
+            MetadataMode.EMBED,
+            DashScopeEmbeddingOptions.builder()
+                .withModel("text-embedding-v2")
+                .build());
+        inputs = new ArrayList<>();
+        for (int i = 0; i < texts; i++) {
+            inputs.add("第 " + i + " 段文本, 用于衡量向量响应的反序列化开销。");
+        }
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < texts; i++) {
+            List<Double> vector = new ArrayList<>(dimensions);
+            for (int d = 0; d < dimensions; d++) {
+                vector.add(random.nextGaussian());
+            }
+            items.add(new Item(i, vector));
+        }
+        payload = objectMapper.writeValueAsBytes(new Payload(new Output(items), new Usage(texts * 16), "bench"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public Payload decodePayload() throws IOException {
+        return objectMapper.readValue(payload, Payload.class);
+    }
+
+    @Benchmark
+    public EmbeddingResponse embedAgainstStub() {
+        return embeddingModel.embedForResponse(inputs);
+    }
+}
@@ -0,0 +1,84 @@
+package com.mcddhub.benchmarks;
+
+import com.mcddhub.demo03.embedding.MappedEmbeddingStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup load (index rebuild from the mapped file) and lookup latency of {@link MappedEmbeddingStore}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class EmbeddingCacheBenchmark {
+
+    private static final int DIMENSIONS = 1536;
+
+    @Param({"10000", "50000"})
+    public int entries;
+
+    private Path file;
+    private MappedEmbeddingStore store;
+    private MappedEmbeddingStore.Key[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("embedding-cache", ".bin");
+        keys = new MappedEmbeddingStore.Key[entries];
+        Random random = new Random(42);
+        float[] vector = new float[DIMENSIONS];
+        try (MappedEmbeddingStore writer = new MappedEmbeddingStore(file, DIMENSIONS, entries)) {
+            for (int i = 0; i < entries; i++) {
+                for (int d = 0; d < DIMENSIONS; d++) {
+                    vector[d] = (float) random.nextGaussian();
+                }
+                keys[i] = MappedEmbeddingStore.keyOf("text-embedding-v2", DIMENSIONS, "chunk-" + i);
+                writer.put(keys[i], vector);
+            }
+        }
+        store = new MappedEmbeddingStore(file, DIMENSIONS, entries);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public int startupLoad() {
+        try (MappedEmbeddingStore reopened = new MappedEmbeddingStore(file, DIMENSIONS, entries)) {
+            return reopened.size();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 3, time = 3)
+    public float[] lookup() {
+        return store.get(keys[ThreadLocalRandom.current().nextInt(entries)]);
+    }
+}
@@ -0,0 +1,67 @@
+package com.mcddhub.benchmarks;
+
+import com.mcddhub.demo03.entity.Response;
+import com.mcddhub.demo03.function.MockWeatherService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.model.function.FunctionCallbackWrapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Function-calling overhead for demo03's weather tool: generating the JSON schema of
+ * {@link MockWeatherService.Request}, wrapping the function as a callback (which generates the
+ * schema again), and invoking the callback with the arguments the model sends back.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FunctionSchemaBenchmark {
+
+    private static final String ARGUMENTS = "{\"city\":\"杭州\",\"date\":\"2024-08-22\"}";
+
+    private final MockWeatherService weatherService = new MockWeatherService();
+
+    private FunctionCallback callback;
+
+    @Setup
+    public void setUp() {
+        callback = wrap();
+    }
+
+    @Benchmark
+    public String schema() {
+        return ModelOptionsUtils.getJsonSchema(MockWeatherService.Request.class, false);
+    }
+
+    @Benchmark
+    public FunctionCallback wrapCallback() {
+        return wrap();
+    }
+
+    @Benchmark
+    public String invokeCallback() {
+        return callback.call(ARGUMENTS);
+    }
+
+    private FunctionCallback wrap() {
+        return FunctionCallbackWrapper.<MockWeatherService.Request, Response>builder(weatherService)
+            .withName("getWeatherFunction")
+            .withDescription("根据日期和城市查询天气")
+            .withInputType(MockWeatherService.Request.class)
+            .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.mcddhub.benchmarks;
+
+import com.mcddhub.demo06.store.HnswIndex;
+import com.mcddhub.demo06.store.VectorPages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recall@k against query throughput for the HNSW index, compared with the exact scan.
+ * <p>
+ * The corpus is clustered Gaussian data, which is closer to real embeddings than uniform noise. Recall for
+ * each {@code efSearch} is printed during setup; run with {@code -p size=1000000} for the 1M-chunk case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx8g"})
+public class HnswRecallBenchmark {
+
+    private static final int K = 10;
+    private static final int QUERIES = 1000;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"128"})
+    public int dimensions;
+
+    @Param({"16", "64", "256"})
+    public int efSearch;
+
+    private HnswIndex index;
+    private float[][] queries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        float[][] centroids = new float[256][];
+        for (int i = 0; i < centroids.length; i++) {
+            centroids[i] = gaussian(random, 1.0);
+        }
+        index = new HnswIndex(new VectorPages(dimensions, 4096), 16, 200, 42);
+        for (int i = 0; i < size; i++) {
+            index.add(around(centroids[random.nextInt(centroids.length)], random));
+        }
+        queries = new float[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = around(centroids[random.nextInt(centroids.length)], random);
+        }
+
+        int found = 0;
+        for (float[] query : queries) {
+            int[] expected = index.exactSearch(query, K, node -> true).nodes();
+            int[] actual = index.search(query, K, efSearch, node -> true).nodes();
+            Arrays.sort(expected);
+            for (int node : actual) {
+                if (Arrays.binarySearch(expected, node) >= 0) {
+                    found++;
+                }
+            }
+        }
+        System.out.printf("%n# recall@%d (size=%d, efSearch=%d): %.4f%n",
+            K, size, efSearch, (double) found / (QUERIES * K));
+    }
+
+    @Benchmark
+    public HnswIndex.Hits hnsw() {
+        return index.search(queries[ThreadLocalRandom.current().nextInt(QUERIES)], K, efSearch, node -> true);
+    }
+
+    @Benchmark
+    public HnswIndex.Hits exact() {
+        return index.exactSearch(queries[ThreadLocalRandom.current().nextInt(QUERIES)], K, node -> true);
+    }
+
+    private float[] around(float[] centroid, SplittableRandom random) {
+        float[] noise = gaussian(random, 0.35);
+        for (int i = 0; i < dimensions; i++) {
+            noise[i] += centroid[i];
+        }
+        return VectorPages.normalize(noise);
+    }
+
+    private float[] gaussian(SplittableRandom random, double scale) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            double u = 1 - random.nextDouble();
+            double v = random.nextDouble();
+            vector[i] = (float) (scale * Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v));
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,201 @@
+package com.mcddhub.benchmarks;
+
+import com.mcddhub.demo06.search.Bm25Index;
+import com.mcddhub.demo06.search.HybridRetriever;
+import com.mcddhub.demo06.store.HnswIndex;
+import com.mcddhub.demo06.store.HnswVectorStore;
+import com.mcddhub.demo06.store.VectorPages;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build time, heap use and query latency of the BM25 index, and latency of hybrid search on top of it.
+ * <p>
+ * Chunks are synthetic Chinese text: Han characters drawn from a skewed distribution, so a few are in most
+ * chunks like real function words, followed by an order number that occurs once. Queries mix a common
+ * character, a rarer one and an order number. The embedding model is a local hash projection, so the
+ * hybrid figures cover fusion and both retrievers but not the embedding round trip. The keyword index
+ * footprint is in the {@code retainedBytes} secondary result of {@link #keywordIndexFootprint}, measured
+ * from heap usage after a full GC before and after building. Run with {@code -p size=1000000} for the
+ * 1M-chunk case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx8g"})
+public class HybridSearchBenchmark {
+
+    private static final int K = 10;
+    private static final int QUERIES = 1000;
+    private static final int CHARACTERS = 3000;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public long retainedBytes;
+    }
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"64"})
+    public int dimensions;
+
+    private String[] chunks;
+    private String[] queries;
+    private Bm25Index keywordIndex;
+    private HybridRetriever retriever;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        chunks = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < 60; j++) {
+                text.appendCodePoint(character(random));
+                if (j % 12 == 11) {
+                    text.append("，");
+                }
+            }
+            chunks[i] = text.append(" 订单编号 ").append(i).toString();
+        }
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = new StringBuilder()
+                .appendCodePoint(character(random))
+                .appendCodePoint(0x4E00 + random.nextInt(CHARACTERS))
+                .append(" ")
+                .append(random.nextInt(size))
+                .toString();
+        }
+
+        keywordIndex = new Bm25Index(1.2f, 0.75f);
+        HnswVectorStore vectorStore = new HnswVectorStore(new HashEmbeddingModel(dimensions),
+            new HnswIndex(new VectorPages(dimensions, 4096), 16, 100, 42), 64, false, 256, keywordIndex);
+        List<Document> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            batch.add(new Document("chunk-" + i, chunks[i], Map.of()));
+            if (batch.size() == 1024 || i == size - 1) {
+                vectorStore.add(batch);
+                batch.clear();
+            }
+        }
+        keywordIndex.trimToSize();
+        executor = Executors.newFixedThreadPool(4);
+        retriever = new HybridRetriever(vectorStore, keywordIndex, executor, 60, 50);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Bm25Index build() {
+        Bm25Index index = new Bm25Index(1.2f, 0.75f);
+        for (int i = 0; i < chunks.length; i++) {
+            index.add("chunk-" + i, chunks[i]);
+        }
+        index.trimToSize();
+        return index;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Bm25Index keywordIndexFootprint(Footprint footprint) {
+        long before = usedHeapAfterGc();
+        Bm25Index index = build();
+        footprint.retainedBytes = usedHeapAfterGc() - before;
+        return index;
+    }
+
+    @Benchmark
+    public List<Bm25Index.Hit> keyword() {
+        return keywordIndex.search(queries[ThreadLocalRandom.current().nextInt(QUERIES)], K);
+    }
+
+    @Benchmark
+    public List<Document> hybrid() {
+        return retriever.search(queries[ThreadLocalRandom.current().nextInt(QUERIES)], K);
+    }
+
+    private static int character(SplittableRandom random) {
+        double u = random.nextDouble();
+        return 0x4E00 + (int) (u * u * u * CHARACTERS);
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static class HashEmbeddingModel implements EmbeddingModel {
+
+        private final int dimensions;
+
+        HashEmbeddingModel(int dimensions) {
+            this.dimensions = dimensions;
+        }
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            List<Embedding> embeddings = new ArrayList<>();
+            for (String text : request.getInstructions()) {
+                double[] vector = new double[dimensions];
+                text.codePoints().forEach(c -> vector[Math.floorMod(c * 0x9E3779B1, dimensions)]++);
+                List<Double> embedding = new ArrayList<>(dimensions);
+                for (double value : vector) {
+                    embedding.add(value);
+                }
+                embeddings.add(new Embedding(embedding, embeddings.size()));
+            }
+            return new EmbeddingResponse(embeddings);
+        }
+
+        @Override
+        public List<Double> embed(Document document) {
+            return embed(document.getContent());
+        }
+    }
+}
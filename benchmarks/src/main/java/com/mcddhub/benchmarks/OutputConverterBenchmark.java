@@ -0,0 +1,68 @@
+package com.mcddhub.benchmarks;
+
+import com.mcddhub.demo01.ActorFilms;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.core.ParameterizedTypeReference;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BeanOutputConverter} parsing of the {@code List<ActorFilms>} answer demo01 asks for, plus the
+ * cost of building the converter itself (it derives a JSON schema from the target type).
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OutputConverterBenchmark {
+
+    private static final ParameterizedTypeReference<List<ActorFilms>> TYPE = new ParameterizedTypeReference<>() {
+    };
+
+    @Param({"2", "20"})
+    public int actors;
+
+    private BeanOutputConverter<List<ActorFilms>> converter;
+    private String answer;
+
+    @Setup
+    public void setUp() {
+        converter = new BeanOutputConverter<>(TYPE);
+        StringBuilder json = new StringBuilder("```json\n[");
+        for (int i = 0; i < actors; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"actor\":\"Actor ").append(i).append("\",\"movies\":[");
+            for (int m = 0; m < 5; m++) {
+                json.append(m > 0 ? "," : "").append("\"Movie ").append(i).append('-').append(m).append('"');
+            }
+            json.append("]}");
+        }
+        answer = json.append("]\n```").toString();
+    }
+
+    @Benchmark
+    public List<ActorFilms> convert() {
+        return converter.convert(answer);
+    }
+
+    @Benchmark
+    public String newConverterFormat() {
+        return new BeanOutputConverter<>(TYPE).getFormat();
+    }
+}
@@ -0,0 +1,82 @@
+package com.mcddhub.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.chat.prompt.PromptTemplate;
+import org.springframework.ai.chat.prompt.SystemPromptTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a prompt: plain message construction versus rendering the templates used by
+ * demo01 and demo04, both by parsing the template on every call and by reusing a parsed one.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PromptBenchmark {
+
+    static final String SYSTEM_TEMPLATE = """
+        You are a helpful AI assistant that helps people find information.
+        Your name is {name}
+        You should reply to the user's request with your name and also in the style of a {voice}.
+        """;
+
+    static final String USER_TEMPLATE = "Tell me about three famous pirates from the {era} and why they did.";
+
+    private final Map<String, Object> systemModel = Map.of("name", "Bob", "voice", "pirate");
+    private final Map<String, Object> userModel = Map.of("era", "Golden Age of Piracy");
+
+    private PromptTemplate userTemplate;
+    private SystemPromptTemplate systemTemplate;
+
+    @Setup
+    public void setUp() {
+        userTemplate = new PromptTemplate(USER_TEMPLATE);
+        systemTemplate = new SystemPromptTemplate(SYSTEM_TEMPLATE);
+    }
+
+    @Benchmark
+    public Prompt plainMessages() {
+        List<Message> messages = List.of(
+            new SystemMessage("You are a helpful AI assistant. Your name is Bob."),
+            new UserMessage("Tell me about three famous pirates from the Golden Age of Piracy and why they did."));
+        return new Prompt(messages);
+    }
+
+    @Benchmark
+    public Prompt templatePerCall() {
+        Message system = new SystemPromptTemplate(SYSTEM_TEMPLATE).createMessage(systemModel);
+        Message user = new PromptTemplate(USER_TEMPLATE).createMessage(userModel);
+        return new Prompt(List.of(system, user));
+    }
+
+    @Benchmark
+    public Prompt templateReused() {
+        Message system = systemTemplate.createMessage(systemModel);
+        Message user = userTemplate.createMessage(userModel);
+        return new Prompt(List.of(system, user));
+    }
+
+    @Benchmark
+    public String render() {
+        return userTemplate.render(userModel);
+    }
+}
@@ -0,0 +1,63 @@
+package com.mcddhub.benchmarks;
+
+import com.mcddhub.demo04.template.CompiledTemplate;
+import com.mcddhub.demo04.template.PromptTemplateRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.prompt.PromptTemplate;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering the {@code system-voice} template from 8 threads: a new Spring AI {@link PromptTemplate} per
+ * call (what {@code ChatClient} does for {@code system(sp -> sp.param(...))}), against the compiled
+ * template with named and positional values. Run with {@code -prof gc} to compare allocation.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PromptTemplateBenchmark {
+
+    private final Map<String, Object> values = Map.of("name", "Bob", "voice", "pirate");
+
+    private String text;
+    private CompiledTemplate compiled;
+
+    @Setup
+    public void setUp() throws IOException {
+        text = new ClassPathResource("prompts/system-voice.st").getContentAsString(StandardCharsets.UTF_8);
+        compiled = new PromptTemplateRegistry("classpath:/prompts/", ".st").get("system-voice");
+    }
+
+    @Benchmark
+    public String promptTemplatePerCall() {
+        return new PromptTemplate(text, values).render();
+    }
+
+    @Benchmark
+    public String compiledNamed() {
+        return compiled.render(values);
+    }
+
+    @Benchmark
+    public String compiledPositional() {
+        return compiled.render("Bob", "pirate");
+    }
+}
@@ -0,0 +1,89 @@
+package com.mcddhub.benchmarks;
+
+import com.mcddhub.demo03.similarity.ScalarSimilarityKernel;
+import com.mcddhub.demo03.similarity.Similarity;
+import com.mcddhub.demo03.similarity.SimilarityKernel;
+import com.mcddhub.demo03.similarity.VectorApiSimilarityKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar vs Vector API kernels for one pair and for one query against a packed block of 1536-dim embeddings.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SimilarityBenchmark {
+
+    private static final int DIMENSIONS = 1536;
+
+    @Param({"scalar", "vector"})
+    public String kernelName;
+
+    @Param({"1000"})
+    public int count;
+
+    private SimilarityKernel kernel;
+    private float[] query;
+    private float[] other;
+    private float[] packed;
+    private float[] scores;
+
+    @Setup
+    public void setUp() {
+        kernel = "vector".equals(kernelName) ? new VectorApiSimilarityKernel() : new ScalarSimilarityKernel();
+        Random random = new Random(42);
+        query = Similarity.normalize(randomVector(random, DIMENSIONS));
+        other = Similarity.normalize(randomVector(random, DIMENSIONS));
+        packed = new float[DIMENSIONS * count];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(Similarity.normalize(randomVector(random, DIMENSIONS)), 0, packed, i * DIMENSIONS,
+                DIMENSIONS);
+        }
+        scores = new float[count];
+    }
+
+    @Benchmark
+    public float dot() {
+        return kernel.dot(query, other);
+    }
+
+    @Benchmark
+    public float cosine() {
+        return kernel.cosine(query, other);
+    }
+
+    @Benchmark
+    public float squaredL2() {
+        return kernel.squaredL2(query, other);
+    }
+
+    @Benchmark
+    public float[] cosineBatchNormalized() {
+        kernel.cosineBatchNormalized(query, packed, count, scores);
+        return scores;
+    }
+
+    private static float[] randomVector(Random random, int dimensions) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,93 @@
+package com.mcddhub.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mcddhub.demo05.converter.StreamingJsonArrayParser;
+import com.mcddhub.demo05.entity.ActorFilms;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.core.ParameterizedTypeReference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Structured output over a streamed answer of {@code actors} entries split into 4-char tokens: what
+ * {@code .entity()} does today (join all tokens, then {@link BeanOutputConverter}) against the
+ * incremental parser, for the whole list and for the first element only. Run with {@code -prof gc}
+ * to compare allocation per answer.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StructuredOutputBenchmark {
+
+    @Param({"10", "500"})
+    public int actors;
+
+    private List<String> tokens;
+    private BeanOutputConverter<List<ActorFilms>> beanOutputConverter;
+    private StreamingJsonArrayParser<ActorFilms> parser;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder("```json\n[");
+        for (int i = 0; i < actors; i++) {
+            json.append(i > 0 ? ",\n" : "").append("{\"actor\":\"演员 ").append(i).append("\",\"movies\":[");
+            for (int m = 0; m < 5; m++) {
+                json.append(m > 0 ? "," : "").append("\"电影 ").append(i).append('-').append(m).append('"');
+            }
+            json.append("]}");
+        }
+        json.append("]\n```");
+        tokens = new ArrayList<>();
+        for (int i = 0; i < json.length(); i += 4) {
+            tokens.add(json.substring(i, Math.min(json.length(), i + 4)));
+        }
+        beanOutputConverter = new BeanOutputConverter<>(new ParameterizedTypeReference<>() {
+        });
+        parser = new StreamingJsonArrayParser<>(new ObjectMapper(), ActorFilms.class);
+    }
+
+    @Benchmark
+    public List<ActorFilms> joinThenConvert() {
+        StringBuilder answer = new StringBuilder();
+        for (String token : tokens) {
+            answer.append(token);
+        }
+        return beanOutputConverter.convert(answer.toString());
+    }
+
+    @Benchmark
+    public void streamingParse(Blackhole blackhole) {
+        parser.reset();
+        for (String token : tokens) {
+            parser.feed(token, blackhole::consume);
+        }
+        parser.finish();
+    }
+
+    @Benchmark
+    public ActorFilms streamingFirstElement() {
+        parser.reset();
+        ActorFilms[] first = new ActorFilms[1];
+        for (int i = 0; i < tokens.size() && first[0] == null; i++) {
+            parser.feed(tokens.get(i), element -> first[0] = element);
+        }
+        return first[0];
+    }
+}
@@ -0,0 +1,24 @@
+package com.mcddhub.benchmarks;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.List;
+
+/**
+ * Chat model that answers every prompt with the same text, so that only client-side work is measured.
+ */
+record StubChatModel(String answer) implements ChatModel {
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        return new ChatResponse(List.of(new Generation(answer)));
+    }
+
+    public ChatOptions getDefaultOptions() {
+        return null;
+    }
+}
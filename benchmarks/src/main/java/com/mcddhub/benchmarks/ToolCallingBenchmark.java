@@ -0,0 +1,94 @@
+package com.mcddhub.benchmarks;
+
+import com.mcddhub.demo03.tool.MemoizingFunction;
+import com.mcddhub.demo03.tool.ToolCallExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Latency of one model turn that asks for {@code calls} tools taking {@code toolMillis} each, run
+ * sequentially, in parallel, and in parallel with memoized results.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+public class ToolCallingBenchmark {
+
+    private record WeatherRequest(String city, String date) {
+    }
+
+    @Param({"4"})
+    public int calls;
+
+    @Param({"50"})
+    public long toolMillis;
+
+    private ToolCallExecutor sequential;
+    private ToolCallExecutor parallel;
+    private List<ToolCallExecutor.ToolInvocation> slowCalls;
+    private List<ToolCallExecutor.ToolInvocation> memoizedCalls;
+
+    @Setup
+    public void setUp() {
+        sequential = new ToolCallExecutor(false, Duration.ofSeconds(10), Map.of());
+        parallel = new ToolCallExecutor(true, Duration.ofSeconds(10), Map.of());
+        Function<WeatherRequest, String> weather = request -> {
+            try {
+                Thread.sleep(toolMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return request.city() + " 晴转多云";
+        };
+        MemoizingFunction<WeatherRequest, String> memoized = new MemoizingFunction<>(weather, Duration.ofMinutes(10),
+            100);
+        slowCalls = new ArrayList<>();
+        memoizedCalls = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            WeatherRequest request = new WeatherRequest("city-" + i, "2024-08-22");
+            slowCalls.add(new ToolCallExecutor.ToolInvocation("getWeatherFunction", () -> weather.apply(request)));
+            memoizedCalls.add(new ToolCallExecutor.ToolInvocation("getWeatherFunction", () -> memoized.apply(request)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        sequential.close();
+        parallel.close();
+    }
+
+    @Benchmark
+    public List<String> sequential() {
+        return sequential.invokeAll(slowCalls);
+    }
+
+    @Benchmark
+    public List<String> parallel() {
+        return parallel.invokeAll(slowCalls);
+    }
+
+    @Benchmark
+    public List<String> parallelMemoized() {
+        return parallel.invokeAll(memoizedCalls);
+    }
+}
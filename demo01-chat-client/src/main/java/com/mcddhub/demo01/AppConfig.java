@@ -1,19 +1,109 @@
 package com.mcddhub.demo01;
 
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
+import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingModel;
+import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingOptions;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.EncodingType;
+import com.mcddhub.runtimesupport.transport.EmbeddingRetryInterceptor;
 import org.springframework.ai.chat.client.AdvisedRequest;
-import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
+@EnableConfigurationProperties({SemanticCacheProperties.class, LoggingAdvisorProperties.class,
+    ChatMemoryProperties.class})
 public class AppConfig {
+    private static final RetryTemplate NO_RETRY = RetryTemplate.builder().maxAttempts(1).build();
 
-    @Bean
-    public SimpleLoggerAdvisor simpleLoggerAdvisor() {
-        return new SimpleLoggerAdvisor(
+    private final DashScopeApi dashScopeApi;
+
+    public AppConfig(@Value("${spring.ai.dashscope.base-url:https://dashscope.aliyuncs.com}") String baseUrl,
+                     @Value("${spring.ai.dashscope.api-key}") String apiKey,
+                     RestClient.Builder restClientBuilder,
+                     WebClient.Builder webClientBuilder) {
+        // built from the Boot builders so that RestClientCustomizers, e.g. the virtual-thread mode, apply
+        this.dashScopeApi = new DashScopeApi(baseUrl, apiKey, null, restClientBuilder, webClientBuilder,
+            RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ObservabilityLoggerAdvisor observabilityLoggerAdvisor(LoggingAdvisorProperties properties) {
+        return new ObservabilityLoggerAdvisor(
             AdvisedRequest::userText,
-            response -> "" + response.getResult()
-        );
+            response -> response.getResult() == null ? null : response.getResult().getOutput().getContent(),
+            properties.sampleRate(),
+            properties.maxLength(),
+            properties.bufferSize());
+    }
+
+    @Bean
+    public EmbeddingModel embeddingModel(ObjectProvider<EmbeddingRetryInterceptor> embeddingRetryInterceptor) {
+        return new DashScopeEmbeddingModel(
+            dashScopeApi,
+            MetadataMode.EMBED,
+            DashScopeEmbeddingOptions.builder()
+                .withModel("text-embedding-v2")
+                .build(),
+            // the transport's interceptor retries at the HTTP layer; retrying here too multiplies the attempts
+            embeddingRetryInterceptor.getIfAvailable() != null ? NO_RETRY : RetryUtils.DEFAULT_RETRY_TEMPLATE);
+    }
+
+    @Bean
+    public SemanticCacheAdvisor semanticCacheAdvisor(EmbeddingModel embeddingModel,
+                                                     SemanticCacheProperties properties) {
+        return new SemanticCacheAdvisor(
+            embeddingModel,
+            properties.similarityThreshold(),
+            properties.maxEntries(),
+            properties.ttl());
+    }
+
+    @Bean
+    public ConversationMemory conversationMemory(ChatModel chatModel, ChatMemoryProperties properties,
+                                                 @Qualifier("summaryExecutor") ExecutorService summaryExecutor) {
+        return new ConversationMemory(
+            Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE),
+            properties.tokenBudget(),
+            properties.maxConversations(),
+            properties.idleTimeout(),
+            properties.summarize() ? new ChatModelSummarizer(chatModel, properties.summaryWords()) : null,
+            summaryExecutor);
+    }
+
+    /**
+     * Summaries are blocking model calls; they must not run on the request thread or on the thread that
+     * completes a stream.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService summaryExecutor(ChatMemoryProperties properties) {
+        return new ThreadPoolExecutor(properties.summaryThreads(), properties.summaryThreads(), 0,
+            TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.summaryQueueCapacity()), runnable -> {
+                Thread thread = new Thread(runnable, "chat-memory-summary");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @Bean
+    public ChatMemoryAdvisor chatMemoryAdvisor(ConversationMemory conversationMemory) {
+        return new ChatMemoryAdvisor(conversationMemory);
     }
 
 }
@@ -0,0 +1,106 @@
+package com.mcddhub.demo01;
+
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Writes log messages from a single background thread so that callers never wait on formatting or
+ * on a synchronous appender.
+ * <p>
+ * Messages are queued as unrendered {@link Supplier}s in a fixed-size ring buffer and only turned into
+ * strings on the writer thread. When the buffer is full the message is dropped and counted rather than
+ * blocking the caller.
+ */
+public class AsyncLogWriter implements AutoCloseable {
+
+    private static final int BATCH_SIZE = 256;
+
+    private final Logger logger;
+    private final BlockingQueue<Supplier<String>> buffer;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public AsyncLogWriter(Logger logger, int capacity) {
+        this.logger = logger;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::drain, "async-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a message for the debug level. Returns {@code false} if it was dropped.
+     */
+    public boolean debug(Supplier<String> message) {
+        if (running && buffer.offer(message)) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+            "written", written.sum(),
+            "dropped", dropped.sum(),
+            "failed", failed.sum(),
+            "queued", buffer.size());
+    }
+
+    /**
+     * Stops accepting messages and writes the ones already queued.
+     */
+    @Override
+    public void close() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        List<Supplier<String>> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !buffer.isEmpty()) {
+            try {
+                Supplier<String> first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                if (running) {
+                    continue;
+                }
+            }
+            buffer.drainTo(batch, BATCH_SIZE - batch.size());
+            for (Supplier<String> message : batch) {
+                write(message);
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(Supplier<String> message) {
+        try {
+            logger.debug(message.get());
+            written.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+        }
+    }
+}
@@ -3,19 +3,22 @@ package com.mcddhub.demo01;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping("/demo01")
@@ -25,9 +28,26 @@ public class ChatClientController {
 
     private final ChatClient chatClient;
 
-    public ChatClientController(ChatClient.Builder builder, SimpleLoggerAdvisor loggerAdvisor) {
+    private final SemanticCacheAdvisor semanticCacheAdvisor;
+
+    private final ObservabilityLoggerAdvisor loggerAdvisor;
+
+    private final ChatClient memoryChatClient;
+
+    private final ConversationMemory conversationMemory;
+
+    public ChatClientController(ChatClient.Builder builder, ObservabilityLoggerAdvisor loggerAdvisor,
+                                SemanticCacheAdvisor semanticCacheAdvisor, ChatModel chatModel,
+                                ChatMemoryAdvisor chatMemoryAdvisor, ConversationMemory conversationMemory) {
+        this.semanticCacheAdvisor = semanticCacheAdvisor;
+        this.loggerAdvisor = loggerAdvisor;
+        this.conversationMemory = conversationMemory;
+        // answers depend on the history, so this client must not share the semantic cache
+        this.memoryChatClient = ChatClient.builder(chatModel)
+            .defaultAdvisors(chatMemoryAdvisor, loggerAdvisor)
+            .build();
         this.chatClient = builder
-            .defaultAdvisors(loggerAdvisor)
+            .defaultAdvisors(semanticCacheAdvisor, loggerAdvisor)
 //            .defaultSystem("You are a friendly chat bot that answers question in the voice of a {voice}")
             .build();
     }
@@ -41,17 +61,41 @@ public class ChatClientController {
             .content();
     }
 
-    @GetMapping("/streams")
-    public String stream(String input) {
-        Flux<String> content = this.chatClient
-            .prompt()
-            .user(input)
-            .stream()
-            .content();
-        return Objects.requireNonNull(content.collectList().block())
-            .stream()
-            .reduce((a, b) -> a + b)
-            .orElseThrow(() -> new RuntimeException("No streams available"));
+    @GetMapping(value = "/streams", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> stream(String input) {
+        return Flux.defer(() -> {
+            // before the advisors run: the semantic cache embeds the prompt while the stream is being built
+            long start = System.nanoTime();
+            AtomicBoolean first = new AtomicBoolean(true);
+            return this.chatClient
+                .prompt()
+                .user(input)
+                .stream()
+                .content()
+                .concatMap(token -> {
+                    ServerSentEvent<String> event = ServerSentEvent.builder(token).event("token").build();
+                    if (!first.compareAndSet(true, false)) {
+                        return Flux.just(event);
+                    }
+                    long ttft = Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    logger.debug("time to first token: {} ms", ttft);
+                    return Flux.just(ServerSentEvent.builder(String.valueOf(ttft)).event("ttft").build(), event);
+                })
+                .doOnCancel(() -> logger.debug("stream cancelled by client after {} ms",
+                    Duration.ofNanos(System.nanoTime() - start).toMillis()));
+        });
+    }
+
+    @GetMapping(value = "/streams/blocking", produces = MediaType.TEXT_PLAIN_VALUE)
+    public String streamBlocking(String input) {
+        return Objects.requireNonNull(this.chatClient
+                .prompt()
+                .user(input)
+                .stream()
+                .content()
+                .collect(StringBuilder::new, StringBuilder::append)
+                .block())
+            .toString();
     }
 
     @GetMapping("/return-chat-response")
@@ -61,9 +105,9 @@ public class ChatClientController {
             .user(input)
             .call()
             .chatResponse();
-        logger.info("the chat response: {}", chatResponse);
-        logger.info("the chat response`s results: : {}", chatResponse.getResults());
-        logger.info("the chat response`s metadata: {}", chatResponse.getMetadata().toString());
+        logger.debug("the chat response: {}", chatResponse);
+        logger.debug("the chat response`s results: : {}", chatResponse.getResults());
+        logger.debug("the chat response`s metadata: {}", chatResponse.getMetadata());
 
         return chatResponse.toString();
     }
@@ -80,12 +124,40 @@ public class ChatClientController {
     @GetMapping("/completion")
     public Map<String, String> completion(
         @RequestParam(value = "input", defaultValue = "Tell me a joker") String input,
-        @RequestParam(value = "voice", defaultValue = "Pirate") String voice) {
+        @RequestParam(value = "voice", defaultValue = "Pirate") String voice,
+        @RequestParam(value = "no-cache", defaultValue = "false") boolean noCache) {
         return Map.of("completion", this.chatClient
             .prompt()
             .system(sp -> sp.param("voice", voice))
+            .advisors(a -> a.param(SemanticCacheAdvisor.BYPASS, noCache))
             .user(input)
             .call()
             .content());
     }
+
+    @GetMapping("/semantic-cache/stats")
+    public Map<String, Object> semanticCacheStats() {
+        return this.semanticCacheAdvisor.stats();
+    }
+
+    @GetMapping("/memory/chat")
+    public String memoryChat(@RequestParam(value = "conversation-id", defaultValue = "default") String conversationId,
+                             @RequestParam("input") String input) {
+        return this.memoryChatClient
+            .prompt()
+            .advisors(a -> a.param(ChatMemoryAdvisor.CONVERSATION_ID, conversationId))
+            .user(input)
+            .call()
+            .content();
+    }
+
+    @GetMapping("/memory/stats")
+    public Map<String, Object> memoryStats() {
+        return this.conversationMemory.stats();
+    }
+
+    @GetMapping("/logging/stats")
+    public Map<String, Object> loggingStats() {
+        return this.loggerAdvisor.stats();
+    }
 }
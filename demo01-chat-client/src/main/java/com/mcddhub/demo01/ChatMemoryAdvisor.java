@@ -0,0 +1,95 @@
+package com.mcddhub.demo01;
+
+import org.springframework.ai.chat.client.AdvisedRequest;
+import org.springframework.ai.chat.client.RequestResponseAdvisor;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps multi-turn conversations in a {@link ConversationMemory}: the stored history is sent ahead of the
+ * user text, and the user text is stored together with the answer once it arrives, so a failed call leaves
+ * no unanswered question behind. The conversation is chosen by the
+ * {@link #CONVERSATION_ID} advisor param. A running summary, if any, is added to the system text through
+ * a template param so that braces in it are not mistaken for placeholders.
+ */
+public class ChatMemoryAdvisor implements RequestResponseAdvisor {
+
+    public static final String CONVERSATION_ID = "chat_memory_conversation_id";
+
+    public static final String DEFAULT_CONVERSATION_ID = "default";
+
+    private static final String SUMMARY_PARAM = "chat_memory_summary";
+
+    private static final String USER_TEXT = "chat_memory_user_text";
+
+    private final ConversationMemory memory;
+
+    public ChatMemoryAdvisor(ConversationMemory memory) {
+        this.memory = memory;
+    }
+
+    @Override
+    public AdvisedRequest adviseRequest(AdvisedRequest request, Map<String, Object> context) {
+        if (request.userText() == null) {
+            return request;
+        }
+        context.put(USER_TEXT, request.userText());
+        ConversationMemory.History history = memory.history(conversationId(context));
+        if (history.messages().isEmpty() && history.summary() == null) {
+            return request;
+        }
+        List<Message> messages = new ArrayList<>(history.messages());
+        messages.addAll(request.messages());
+        AdvisedRequest.Builder builder = AdvisedRequest.from(request).withMessages(messages);
+        if (history.summary() != null) {
+            String systemText = request.systemText() == null ? "" : request.systemText() + "\n\n";
+            Map<String, Object> systemParams = new HashMap<>(request.systemParams());
+            systemParams.put(SUMMARY_PARAM, history.summary());
+            builder.withSystemText(systemText + "Summary of the earlier conversation:\n{" + SUMMARY_PARAM + "}")
+                .withSystemParams(systemParams);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public ChatResponse adviseResponse(ChatResponse response, Map<String, Object> context) {
+        if (response.getResult() != null && response.getResult().getOutput().getContent() != null) {
+            store(context, response.getResult().getOutput().getContent());
+        }
+        return response;
+    }
+
+    @Override
+    public Flux<ChatResponse> adviseResponse(Flux<ChatResponse> fluxResponse, Map<String, Object> context) {
+        StringBuilder answer = new StringBuilder();
+        return fluxResponse
+            .doOnNext(response -> {
+                if (response.getResult() != null && response.getResult().getOutput().getContent() != null) {
+                    answer.append(response.getResult().getOutput().getContent());
+                }
+            })
+            .doOnComplete(() -> {
+                if (!answer.isEmpty()) {
+                    store(context, answer.toString());
+                }
+            });
+    }
+
+    private void store(Map<String, Object> context, String answer) {
+        Object userText = context.get(USER_TEXT);
+        if (userText != null) {
+            memory.append(conversationId(context), userText.toString(), answer);
+        }
+    }
+
+    private static String conversationId(Map<String, Object> context) {
+        Object id = context.get(CONVERSATION_ID);
+        return id == null ? DEFAULT_CONVERSATION_ID : id.toString();
+    }
+}
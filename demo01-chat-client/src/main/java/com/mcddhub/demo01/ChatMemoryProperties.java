@@ -0,0 +1,22 @@
+package com.mcddhub.demo01;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param summaryThreads       threads that run the summarizer when {@code summarize} is on
+ * @param summaryQueueCapacity summaries that may wait for one of the {@code summaryThreads}; beyond that, the
+ *                             dropped turns wait for the conversation's next turn
+ */
+@ConfigurationProperties("demo01.chat-memory")
+public record ChatMemoryProperties(
+    @DefaultValue("2000") int tokenBudget,
+    @DefaultValue("100000") int maxConversations,
+    @DefaultValue("30m") Duration idleTimeout,
+    @DefaultValue("false") boolean summarize,
+    @DefaultValue("150") int summaryWords,
+    @DefaultValue("2") int summaryThreads,
+    @DefaultValue("256") int summaryQueueCapacity) {
+}
@@ -0,0 +1,38 @@
+package com.mcddhub.demo01;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.List;
+
+/**
+ * {@link ConversationMemory.Summarizer} that asks the chat model to merge dropped turns into the running
+ * summary.
+ */
+public class ChatModelSummarizer implements ConversationMemory.Summarizer {
+
+    private final ChatModel chatModel;
+    private final int maxWords;
+
+    public ChatModelSummarizer(ChatModel chatModel, int maxWords) {
+        this.chatModel = chatModel;
+        this.maxWords = maxWords;
+    }
+
+    @Override
+    public String summarize(String previousSummary, List<Message> dropped) {
+        StringBuilder prompt = new StringBuilder()
+            .append("Update the summary of a conversation with the messages below. Keep names, facts and ")
+            .append("decisions, drop small talk, and answer with the summary only, in at most ")
+            .append(maxWords).append(" words.\n\n");
+        if (previousSummary != null) {
+            prompt.append("Current summary:\n").append(previousSummary).append("\n\n");
+        }
+        prompt.append("Messages:\n");
+        for (Message message : dropped) {
+            prompt.append(message.getMessageType().getValue()).append(": ").append(message.getContent()).append('\n');
+        }
+        return chatModel.call(new Prompt(prompt.toString())).getResult().getOutput().getContent();
+    }
+}
@@ -0,0 +1,400 @@
+package com.mcddhub.demo01;
+
+import com.knuddels.jtokkit.api.Encoding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-memory history of many conversations, each kept within a token budget.
+ * <p>
+ * History is stored a whole turn (question and answer) at a time. Every message is tokenized once, when it
+ * is appended, and each conversation keeps a running total, so staying within budget never re-tokenizes the
+ * history. When a new turn pushes a conversation over budget, its oldest turns are dropped; with a
+ * {@link Summarizer}, they are then folded into a running summary that counts against the same budget. The
+ * summarizer runs on {@code summaryExecutor}, never on the caller's thread, one call per conversation at a
+ * time; turns dropped while it runs are folded in by the next call. When the executor rejects the work, the
+ * dropped turns wait for the next append of that conversation.
+ * <p>
+ * A conversation stores its messages in three parallel ring arrays (role, text, token count) rather than
+ * one object per message. Conversations idle for longer than {@code idleTimeout} are evicted, as is the
+ * least recently used one once there are {@code maxConversations}.
+ */
+public class ConversationMemory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationMemory.class);
+
+    /**
+     * Folds dropped messages into the running summary of a conversation.
+     */
+    @FunctionalInterface
+    public interface Summarizer {
+
+        String summarize(String previousSummary, List<Message> dropped);
+    }
+
+    /**
+     * The stored messages of a conversation, oldest first, plus the running summary if any.
+     */
+    public record History(List<Message> messages, String summary) {
+    }
+
+    /**
+     * Rough per-message framing cost (role markers and separators) on top of the content tokens.
+     */
+    static final int TOKENS_PER_MESSAGE = 4;
+
+    private static final byte USER = 0;
+    private static final byte ASSISTANT = 1;
+
+    private final Encoding encoding;
+    private final int tokenBudget;
+    private final long idleMillis;
+    private final Summarizer summarizer;
+    private final Executor summaryExecutor;
+    private final Clock clock;
+
+    private final Lock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Conversation> conversations;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder summaries = new LongAdder();
+    private final LongAdder summariesRejected = new LongAdder();
+    private final LongAdder summariesFailed = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * @param summarizer      folds dropped turns into a summary, or {@code null} to just drop them
+     * @param summaryExecutor runs the summarizer; should be bounded, as every conversation over budget submits
+     */
+    public ConversationMemory(Encoding encoding, int tokenBudget, int maxConversations, Duration idleTimeout,
+                              Summarizer summarizer, Executor summaryExecutor) {
+        this(encoding, tokenBudget, maxConversations, idleTimeout, summarizer, summaryExecutor, Clock.systemUTC());
+    }
+
+    ConversationMemory(Encoding encoding, int tokenBudget, int maxConversations, Duration idleTimeout,
+                       Summarizer summarizer, Executor summaryExecutor, Clock clock) {
+        this.encoding = encoding;
+        this.tokenBudget = tokenBudget;
+        this.idleMillis = idleTimeout.toMillis();
+        this.summarizer = summarizer;
+        this.summaryExecutor = summaryExecutor;
+        this.clock = clock;
+        this.conversations = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Conversation> eldest) {
+                if (size() > maxConversations) {
+                    evicted.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Appends a turn, dropping (or summarizing) the oldest turns as needed to keep the conversation within
+     * budget. With a summarizer, the dropped turns are handed to {@code summaryExecutor}; this does not wait
+     * for the summary.
+     */
+    public void append(String conversationId, String userText, String answer) {
+        int userTokens = encoding.countTokens(userText) + TOKENS_PER_MESSAGE;
+        int answerTokens = encoding.countTokens(answer) + TOKENS_PER_MESSAGE;
+        Conversation conversation = conversation(conversationId);
+        conversation.lock.lock();
+        try {
+            conversation.add(USER, userText, userTokens);
+            conversation.add(ASSISTANT, answer, answerTokens);
+            appended.add(2);
+            trim(conversation);
+            if (summarizer == null || conversation.summarizing || conversation.pending.isEmpty()) {
+                return;
+            }
+            conversation.summarizing = true;
+        } finally {
+            conversation.lock.unlock();
+        }
+        try {
+            summaryExecutor.execute(() -> summarizeQuietly(conversation));
+        } catch (RejectedExecutionException e) {
+            summariesRejected.increment();
+            conversation.lock.lock();
+            try {
+                conversation.summarizing = false;
+            } finally {
+                conversation.lock.unlock();
+            }
+        }
+    }
+
+    public History history(String conversationId) {
+        Conversation conversation = find(conversationId);
+        if (conversation == null) {
+            return new History(List.of(), null);
+        }
+        conversation.lock.lock();
+        try {
+            return conversation.history(conversation.size);
+        } finally {
+            conversation.lock.unlock();
+        }
+    }
+
+    /**
+     * Tokens currently held for a conversation, including its summary.
+     */
+    public int tokens(String conversationId) {
+        Conversation conversation = find(conversationId);
+        if (conversation == null) {
+            return 0;
+        }
+        conversation.lock.lock();
+        try {
+            return conversation.totalTokens + conversation.summaryTokens;
+        } finally {
+            conversation.lock.unlock();
+        }
+    }
+
+    public void clear(String conversationId) {
+        lock.lock();
+        try {
+            conversations.remove(conversationId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return conversations.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+            "conversations", size(),
+            "appended", appended.sum(),
+            "dropped", dropped.sum(),
+            "summaries", summaries.sum(),
+            "summariesRejected", summariesRejected.sum(),
+            "summariesFailed", summariesFailed.sum(),
+            "evicted", evicted.sum());
+    }
+
+    private Conversation conversation(String conversationId) {
+        long now = clock.millis();
+        lock.lock();
+        try {
+            expireIdle(now);
+            Conversation conversation = conversations.get(conversationId);
+            if (conversation == null) {
+                conversation = new Conversation();
+                conversations.put(conversationId, conversation);
+            }
+            conversation.lastAccess = now;
+            return conversation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Conversation find(String conversationId) {
+        long now = clock.millis();
+        lock.lock();
+        try {
+            expireIdle(now);
+            Conversation conversation = conversations.get(conversationId);
+            if (conversation != null) {
+                conversation.lastAccess = now;
+            }
+            return conversation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The map is in access order, so idle conversations are at the head and the scan stops at the first
+     * live one.
+     */
+    private void expireIdle(long now) {
+        Iterator<Conversation> iterator = conversations.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().lastAccess < idleMillis) {
+                return;
+            }
+            iterator.remove();
+            evicted.increment();
+        }
+    }
+
+    /**
+     * Drops the oldest turns while over budget, never the turn just appended. Dropped messages are queued
+     * for the summarizer, if any; with nothing left to drop, the summary goes too.
+     */
+    private void trim(Conversation conversation) {
+        while (conversation.size > 2 && conversation.totalTokens + conversation.summaryTokens > tokenBudget) {
+            // a turn is a question and the answers that follow it
+            do {
+                Message message = conversation.removeOldest();
+                dropped.increment();
+                if (summarizer != null) {
+                    conversation.pending.add(message);
+                }
+            } while (conversation.size > 2 && conversation.roleAt(0) != USER);
+        }
+        if (conversation.totalTokens + conversation.summaryTokens > tokenBudget) {
+            conversation.summary = null;
+            conversation.summaryTokens = 0;
+        }
+    }
+
+    private void summarizeQuietly(Conversation conversation) {
+        try {
+            summarize(conversation);
+        } catch (RuntimeException e) {
+            // the dropped turns are lost; the conversation keeps its previous summary
+            summariesFailed.increment();
+            logger.warn("summarizing a conversation failed", e);
+        }
+    }
+
+    /**
+     * Folds the queued messages into the summary until none are left. The caller owns
+     * {@link Conversation#summarizing}; the summarizer is called without holding the conversation lock.
+     */
+    private void summarize(Conversation conversation) {
+        while (true) {
+            List<Message> messages;
+            String previousSummary;
+            conversation.lock.lock();
+            try {
+                if (conversation.pending.isEmpty()) {
+                    conversation.summarizing = false;
+                    return;
+                }
+                messages = conversation.pending;
+                conversation.pending = new ArrayList<>();
+                previousSummary = conversation.summary;
+            } finally {
+                conversation.lock.unlock();
+            }
+            String summary;
+            try {
+                summary = summarizer.summarize(previousSummary, messages);
+            } catch (RuntimeException e) {
+                conversation.lock.lock();
+                try {
+                    conversation.summarizing = false;
+                } finally {
+                    conversation.lock.unlock();
+                }
+                throw e;
+            }
+            int summaryTokens = summary == null ? 0 : encoding.countTokens(summary) + TOKENS_PER_MESSAGE;
+            summaries.increment();
+            conversation.lock.lock();
+            try {
+                conversation.summary = summary;
+                conversation.summaryTokens = summaryTokens;
+                trim(conversation);
+            } finally {
+                conversation.lock.unlock();
+            }
+        }
+    }
+
+    private static final class Conversation {
+
+        private final Lock lock = new ReentrantLock();
+        private byte[] roles = new byte[4];
+        private String[] texts = new String[4];
+        private int[] tokens = new int[4];
+        private int head;
+        private int size;
+        private int totalTokens;
+        private String summary;
+        private int summaryTokens;
+        private List<Message> pending = new ArrayList<>();
+        private boolean summarizing;
+        private volatile long lastAccess;
+
+        void add(byte role, String text, int tokenCount) {
+            if (size == texts.length) {
+                grow();
+            }
+            int tail = (head + size) % texts.length;
+            roles[tail] = role;
+            texts[tail] = text;
+            tokens[tail] = tokenCount;
+            size++;
+            totalTokens += tokenCount;
+        }
+
+        byte roleAt(int index) {
+            return roles[(head + index) % texts.length];
+        }
+
+        Message removeOldest() {
+            Message message = message(0);
+            totalTokens -= tokens[head];
+            texts[head] = null;
+            head = (head + 1) % texts.length;
+            size--;
+            return message;
+        }
+
+        /**
+         * The oldest {@code count} messages, oldest first.
+         */
+        History history(int count) {
+            List<Message> messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                messages.add(message(i));
+            }
+            return new History(messages, summary);
+        }
+
+        private Message message(int index) {
+            int slot = (head + index) % texts.length;
+            return roles[slot] == USER ? new UserMessage(texts[slot]) : new AssistantMessage(texts[slot]);
+        }
+
+        private void grow() {
+            int capacity = texts.length * 2;
+            byte[] newRoles = new byte[capacity];
+            String[] newTexts = new String[capacity];
+            int[] newTokens = new int[capacity];
+            for (int i = 0; i < size; i++) {
+                int slot = (head + i) % texts.length;
+                newRoles[i] = roles[slot];
+                newTexts[i] = texts[slot];
+                newTokens[i] = tokens[slot];
+            }
+            roles = newRoles;
+            texts = newTexts;
+            tokens = newTokens;
+            head = 0;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.mcddhub.demo01;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("demo01.logging-advisor")
+public record LoggingAdvisorProperties(
+    @DefaultValue("1.0") double sampleRate,
+    @DefaultValue("1000") int maxLength,
+    @DefaultValue("1024") int bufferSize) {
+}
@@ -0,0 +1,123 @@
+package com.mcddhub.demo01;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.AdvisedRequest;
+import org.springframework.ai.chat.client.RequestResponseAdvisor;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cheaper replacement for {@code SimpleLoggerAdvisor}.
+ * <ul>
+ *     <li>Nothing is rendered unless the logger is enabled for debug.</li>
+ *     <li>Only a {@code sampleRate} fraction of exchanges is logged; a request and its response are
+ *     either both logged or both skipped, and share an id.</li>
+ *     <li>Rendered text is cut to {@code maxLength} characters.</li>
+ *     <li>Rendering and writing happen on the {@link AsyncLogWriter} thread, not the caller's.</li>
+ * </ul>
+ * Streamed responses are logged once, when the stream completes, from content collected up to
+ * {@code maxLength} characters.
+ */
+public class ObservabilityLoggerAdvisor implements RequestResponseAdvisor, AutoCloseable {
+
+    private static final String EXCHANGE_ID = "observability_logger_exchange_id";
+
+    private final Logger logger;
+    private final Function<AdvisedRequest, String> requestToString;
+    private final Function<ChatResponse, String> responseToString;
+    private final double sampleRate;
+    private final int maxLength;
+    private final AsyncLogWriter writer;
+
+    private final AtomicLong exchangeIds = new AtomicLong();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    public ObservabilityLoggerAdvisor(Function<AdvisedRequest, String> requestToString,
+                                      Function<ChatResponse, String> responseToString,
+                                      double sampleRate, int maxLength, int bufferSize) {
+        this(LoggerFactory.getLogger(ObservabilityLoggerAdvisor.class), requestToString, responseToString,
+            sampleRate, maxLength, bufferSize);
+    }
+
+    ObservabilityLoggerAdvisor(Logger logger, Function<AdvisedRequest, String> requestToString,
+                               Function<ChatResponse, String> responseToString,
+                               double sampleRate, int maxLength, int bufferSize) {
+        this.logger = logger;
+        this.requestToString = requestToString;
+        this.responseToString = responseToString;
+        this.sampleRate = sampleRate;
+        this.maxLength = maxLength;
+        this.writer = new AsyncLogWriter(logger, bufferSize);
+    }
+
+    @Override
+    public AdvisedRequest adviseRequest(AdvisedRequest request, Map<String, Object> context) {
+        if (!logger.isDebugEnabled()) {
+            return request;
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            skipped.increment();
+            return request;
+        }
+        sampled.increment();
+        long id = exchangeIds.incrementAndGet();
+        context.put(EXCHANGE_ID, id);
+        writer.debug(() -> "request #" + id + ": " + truncate(requestToString.apply(request)));
+        return request;
+    }
+
+    @Override
+    public ChatResponse adviseResponse(ChatResponse response, Map<String, Object> context) {
+        if (context.get(EXCHANGE_ID) instanceof Long id) {
+            writer.debug(() -> "response #" + id + ": " + truncate(responseToString.apply(response)));
+        }
+        return response;
+    }
+
+    @Override
+    public Flux<ChatResponse> adviseResponse(Flux<ChatResponse> fluxResponse, Map<String, Object> context) {
+        if (!(context.get(EXCHANGE_ID) instanceof Long id)) {
+            return fluxResponse;
+        }
+        StringBuilder content = new StringBuilder();
+        return fluxResponse
+            .doOnNext(response -> {
+                if (content.length() < maxLength && response.getResult() != null
+                    && response.getResult().getOutput().getContent() != null) {
+                    content.append(response.getResult().getOutput().getContent());
+                }
+            })
+            .doOnComplete(() -> writer.debug(() -> "streamed response #" + id + ": " + truncate(content)));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(writer.stats());
+        stats.put("sampled", sampled.sum());
+        stats.put("skipped", skipped.sum());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+    }
+
+    private String truncate(CharSequence text) {
+        if (text == null) {
+            return "null";
+        }
+        if (text.length() <= maxLength) {
+            return text.toString();
+        }
+        return text.subSequence(0, maxLength) + "...(" + (text.length() - maxLength) + " more chars)";
+    }
+}
@@ -0,0 +1,234 @@
+package com.mcddhub.demo01;
+
+import org.springframework.ai.chat.client.AdvisedRequest;
+import org.springframework.ai.chat.client.RequestResponseAdvisor;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.embedding.EmbeddingModel;
+import reactor.core.publisher.Flux;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Answers near-identical prompts from earlier responses instead of calling the model.
+ * <p>
+ * Entries are partitioned by system text, system params (e.g. {@code voice}) and user params, so only
+ * prompts rendered the same way are compared by cosine similarity of their user text embeddings.
+ * Set {@link #BYPASS} to {@code true} in the advisor params to skip the cache for a single request.
+ */
+public class SemanticCacheAdvisor implements RequestResponseAdvisor {
+
+    public static final String BYPASS = "semantic_cache_bypass";
+
+    private static final String LOOKUP = "semantic_cache_lookup";
+
+    private final EmbeddingModel embeddingModel;
+    private final double similarityThreshold;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    private final Lock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, Entry> entries;
+    private final AtomicLong ids = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+
+    public SemanticCacheAdvisor(EmbeddingModel embeddingModel, double similarityThreshold, int maxEntries,
+                                Duration ttl) {
+        this(embeddingModel, similarityThreshold, maxEntries, ttl, Clock.systemUTC());
+    }
+
+    SemanticCacheAdvisor(EmbeddingModel embeddingModel, double similarityThreshold, int maxEntries,
+                         Duration ttl, Clock clock) {
+        this.embeddingModel = embeddingModel;
+        this.similarityThreshold = similarityThreshold;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public AdvisedRequest adviseRequest(AdvisedRequest request, Map<String, Object> context) {
+        if (isBypassed(request, context)) {
+            bypasses.increment();
+            return request;
+        }
+        Lookup lookup = new Lookup(partitionOf(request), normalize(embeddingModel.embed(request.userText())));
+        ChatResponse cached = find(lookup);
+        if (cached != null) {
+            hits.increment();
+            return AdvisedRequest.from(request)
+                .withChatModel(new CachedChatModel(cached))
+                .build();
+        }
+        misses.increment();
+        context.put(LOOKUP, lookup);
+        return request;
+    }
+
+    @Override
+    public ChatResponse adviseResponse(ChatResponse response, Map<String, Object> context) {
+        if (context.get(LOOKUP) instanceof Lookup lookup) {
+            put(lookup, response);
+        }
+        return response;
+    }
+
+    @Override
+    public Flux<ChatResponse> adviseResponse(Flux<ChatResponse> fluxResponse, Map<String, Object> context) {
+        if (!(context.get(LOOKUP) instanceof Lookup lookup)) {
+            return fluxResponse;
+        }
+        StringBuilder answer = new StringBuilder();
+        return fluxResponse
+            .doOnNext(response -> {
+                if (response.getResult() != null && response.getResult().getOutput().getContent() != null) {
+                    answer.append(response.getResult().getOutput().getContent());
+                }
+            })
+            .doOnComplete(() -> put(lookup, new ChatResponse(List.of(new Generation(answer.toString())))));
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return Map.of(
+            "hits", hitCount,
+            "misses", missCount,
+            "bypasses", bypasses.sum(),
+            "hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups,
+            "size", size());
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ChatResponse find(Lookup lookup) {
+        long now = clock.millis();
+        lock.lock();
+        try {
+            Long bestId = null;
+            double bestScore = similarityThreshold;
+            Iterator<Map.Entry<Long, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, Entry> candidate = iterator.next();
+                Entry entry = candidate.getValue();
+                if (entry.expiresAt() <= now) {
+                    iterator.remove();
+                    continue;
+                }
+                if (!entry.partition().equals(lookup.partition())) {
+                    continue;
+                }
+                double score = dot(entry.vector(), lookup.vector());
+                if (score >= bestScore) {
+                    bestScore = score;
+                    bestId = candidate.getKey();
+                }
+            }
+            // get() moves the entry to the tail of the access order
+            return bestId == null ? null : entries.get(bestId).response();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(Lookup lookup, ChatResponse response) {
+        Entry entry = new Entry(lookup.partition(), lookup.vector(), response, clock.millis() + ttlMillis);
+        lock.lock();
+        try {
+            entries.put(ids.incrementAndGet(), entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isBypassed(AdvisedRequest request, Map<String, Object> context) {
+        return Boolean.parseBoolean(String.valueOf(context.get(BYPASS)))
+            || request.userText() == null
+            || !request.functionNames().isEmpty()
+            || !request.functionCallbacks().isEmpty();
+    }
+
+    private static String partitionOf(AdvisedRequest request) {
+        return request.systemText() + '\u0000'
+            + new TreeMap<>(request.systemParams()) + '\u0000'
+            + new TreeMap<>(request.userParams());
+    }
+
+    private static float[] normalize(List<Double> embedding) {
+        float[] vector = new float[embedding.size()];
+        double norm = 0;
+        for (int i = 0; i < vector.length; i++) {
+            double value = embedding.get(i);
+            vector[i] = (float) value;
+            norm += value * value;
+        }
+        float scale = norm == 0 ? 0f : (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return -1;
+        }
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private record Lookup(String partition, float[] vector) {
+    }
+
+    private record Entry(String partition, float[] vector, ChatResponse response, long expiresAt) {
+    }
+
+    private record CachedChatModel(ChatResponse response) implements ChatModel {
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            return response;
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.just(response);
+        }
+
+        public ChatOptions getDefaultOptions() {
+            return null;
+        }
+    }
+}
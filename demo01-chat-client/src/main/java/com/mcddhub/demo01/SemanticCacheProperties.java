@@ -0,0 +1,13 @@
+package com.mcddhub.demo01;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("demo01.semantic-cache")
+public record SemanticCacheProperties(
+    @DefaultValue("0.95") double similarityThreshold,
+    @DefaultValue("1000") int maxEntries,
+    @DefaultValue("10m") Duration ttl) {
+}
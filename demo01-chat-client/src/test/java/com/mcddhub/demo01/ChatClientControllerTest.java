@@ -32,4 +32,11 @@ class ChatClientControllerTest {
             .when().get("/demo01/streams?input=给我讲个笑话吧")
             .then().statusCode(HttpStatus.SC_OK);
     }
+
+    @Test
+    void should_get_3_joker_blocking() {
+        given()
+            .when().get("/demo01/streams/blocking?input=给我讲个笑话吧")
+            .then().statusCode(HttpStatus.SC_OK);
+    }
 }
\ No newline at end of file
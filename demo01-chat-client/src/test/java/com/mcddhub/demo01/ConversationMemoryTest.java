@@ -0,0 +1,258 @@
+package com.mcddhub.demo01;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.AdvisedRequest;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversationMemoryTest {
+
+    private static final Encoding ENCODING = Encodings.newLazyEncodingRegistry()
+        .getEncoding(EncodingType.CL100K_BASE);
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void should_count_tokens_incrementally() {
+        ConversationMemory memory = memory(10_000, 10, null);
+
+        memory.append("c1", "Tell me a joke about pirates",
+            "Why couldn't the pirate play cards? He was sitting on the deck.");
+
+        assertEquals(cost("Tell me a joke about pirates")
+            + cost("Why couldn't the pirate play cards? He was sitting on the deck."), memory.tokens("c1"));
+        assertEquals(2, memory.history("c1").messages().size());
+    }
+
+    @Test
+    void should_drop_whole_turns_to_stay_within_budget() {
+        String question = "question number one about the weather in Hangzhou";
+        String answer = "answer number one: sunny with some clouds and 32 degrees";
+        int turn = cost(question) + cost(answer);
+        ConversationMemory memory = memory(turn * 2, 10, null);
+
+        for (int i = 0; i < 4; i++) {
+            memory.append("c1", question, answer);
+        }
+        ConversationMemory.History history = memory.history("c1");
+
+        assertTrue(memory.tokens("c1") <= turn * 2);
+        assertEquals(List.of(MessageType.USER, MessageType.ASSISTANT, MessageType.USER, MessageType.ASSISTANT),
+            history.messages().stream().map(Message::getMessageType).toList());
+    }
+
+    @Test
+    void should_fold_dropped_turns_into_summary() {
+        String question = "Tell me a long story about pirates sailing the seven seas";
+        String answer = "Once upon a time there was a pirate named Bob who sailed far";
+        String followUp = "And then what happened?";
+        String followUpAnswer = "Bob found a treasure";
+        int budget = cost(question) + cost(answer) + cost(followUp) + cost(followUpAnswer) - 1;
+        List<List<Message>> summarized = new ArrayList<>();
+        ConversationMemory memory = memory(budget, 10, (previous, dropped) -> {
+            summarized.add(dropped);
+            return "user asked about pirates";
+        });
+
+        memory.append("c1", question, answer);
+        memory.append("c1", followUp, followUpAnswer);
+        ConversationMemory.History history = memory.history("c1");
+
+        assertEquals(1, summarized.size());
+        assertEquals(2, summarized.get(0).size());
+        assertEquals("user asked about pirates", history.summary());
+        assertEquals(List.of(followUp, followUpAnswer), history.messages().stream().map(Message::getContent).toList());
+        assertTrue(memory.tokens("c1") <= budget);
+    }
+
+    @Test
+    void should_summarize_outside_the_conversation_lock() {
+        String question = "question number one about the weather in Hangzhou";
+        String answer = "answer number one: sunny with some clouds and 32 degrees";
+        int turn = cost(question) + cost(answer);
+        List<String> previousSummaries = new ArrayList<>();
+        ConversationMemory[] memory = new ConversationMemory[1];
+        memory[0] = memory(turn * 2 + 10, 10, (previous, dropped) -> {
+            previousSummaries.add(previous);
+            if (previous == null) {
+                // a turn appended while summarizing neither blocks nor is lost
+                CompletableFuture.runAsync(() -> memory[0].append("c1", question, answer))
+                    .orTimeout(5, TimeUnit.SECONDS)
+                    .join();
+            }
+            return previous == null ? "S1" : "S2";
+        });
+
+        for (int i = 0; i < 3; i++) {
+            memory[0].append("c1", question, answer);
+        }
+
+        assertEquals(Arrays.asList(null, "S1"), previousSummaries);
+        assertEquals("S2", memory[0].history("c1").summary());
+        assertEquals(4, memory[0].history("c1").messages().size());
+    }
+
+    @Test
+    void should_summarize_on_the_executor_and_keep_rejected_turns_for_later() {
+        String question = "question number one about the weather in Hangzhou";
+        String answer = "answer number one: sunny with some clouds and 32 degrees";
+        int turn = cost(question) + cost(answer);
+        List<Integer> droppedPerCall = new ArrayList<>();
+        Deque<Runnable> queued = new ArrayDeque<>();
+        AtomicBoolean reject = new AtomicBoolean(true);
+        ConversationMemory memory = memory(turn * 2 + 10, 10, (previous, dropped) -> {
+            droppedPerCall.add(dropped.size());
+            return "summary";
+        }, command -> {
+            if (reject.get()) {
+                throw new RejectedExecutionException("full");
+            }
+            queued.add(command);
+        });
+
+        for (int i = 0; i < 3; i++) {
+            memory.append("c1", question, answer);
+        }
+        assertEquals(1L, memory.stats().get("summariesRejected"));
+
+        reject.set(false);
+        memory.append("c1", question, answer);
+
+        assertTrue(droppedPerCall.isEmpty(), "append must not wait for the summary");
+        assertEquals(1, queued.size());
+        queued.poll().run();
+        // the turn dropped while the executor was full is folded in together with the new one
+        assertEquals(List.of(4), droppedPerCall);
+        assertEquals("summary", memory.history("c1").summary());
+    }
+
+    @Test
+    void should_evict_idle_and_least_recently_used_conversations() {
+        ConversationMemory memory = memory(1000, 2, null);
+
+        memory.append("c1", "hello", "hi");
+        memory.append("c2", "hello", "hi");
+        memory.append("c1", "again", "hi again");
+        memory.append("c3", "hello", "hi");
+        assertEquals(0, memory.tokens("c2"));
+        assertEquals(2, memory.size());
+
+        clock.advance(Duration.ofMinutes(31));
+        memory.append("c4", "hello", "hi");
+        assertEquals(1, memory.size());
+        assertEquals(3L, memory.stats().get("evicted"));
+    }
+
+    @Test
+    void should_send_history_ahead_of_user_text() {
+        ConversationMemory memory = memory(1000, 10, (previous, dropped) -> "summary");
+        ChatMemoryAdvisor advisor = new ChatMemoryAdvisor(memory);
+        Map<String, Object> context = new HashMap<>(Map.of(ChatMemoryAdvisor.CONVERSATION_ID, "alice"));
+
+        advisor.adviseRequest(request("My name is Alice"), context);
+        advisor.adviseResponse(new ChatResponse(List.of(new Generation("Nice to meet you, Alice"))), context);
+        AdvisedRequest advised = advisor.adviseRequest(request("What is my name?"), context);
+
+        assertEquals(List.of("My name is Alice", "Nice to meet you, Alice"),
+            advised.messages().stream().map(Message::getContent).toList());
+        assertEquals("What is my name?", advised.userText());
+        assertTrue(memory.history("bob").messages().isEmpty());
+    }
+
+    @Test
+    void should_not_store_a_question_without_its_answer() {
+        ConversationMemory memory = memory(1000, 10, null);
+        ChatMemoryAdvisor advisor = new ChatMemoryAdvisor(memory);
+        Map<String, Object> context = new HashMap<>(Map.of(ChatMemoryAdvisor.CONVERSATION_ID, "alice"));
+
+        advisor.adviseRequest(request("My name is Alice"), context);
+
+        assertTrue(memory.history("alice").messages().isEmpty());
+    }
+
+    private ConversationMemory memory(int budget, int maxConversations, ConversationMemory.Summarizer summarizer) {
+        // summaries run inline, so the tests above can look at them right after append
+        return memory(budget, maxConversations, summarizer, Runnable::run);
+    }
+
+    private ConversationMemory memory(int budget, int maxConversations, ConversationMemory.Summarizer summarizer,
+                                      Executor summaryExecutor) {
+        return new ConversationMemory(ENCODING, budget, maxConversations, Duration.ofMinutes(30), summarizer,
+            summaryExecutor, clock);
+    }
+
+    private static int cost(String text) {
+        return ENCODING.countTokens(text) + ConversationMemory.TOKENS_PER_MESSAGE;
+    }
+
+    private static AdvisedRequest request(String userText) {
+        return AdvisedRequest.builder()
+            .withChatModel(new NoChatModel())
+            .withUserText(userText)
+            .build();
+    }
+
+    private static class NoChatModel implements ChatModel {
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            throw new UnsupportedOperationException();
+        }
+
+        public ChatOptions getDefaultOptions() {
+            return null;
+        }
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-10-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.mcddhub.demo01;
+
+import com.mcddhub.testsupport.dashscope.DashScopeStubServer;
+import com.mcddhub.testsupport.load.LoadHarness;
+import com.mcddhub.testsupport.load.LoadReport;
+import com.mcddhub.testsupport.load.LoadScenario;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the demo01 endpoints against a local {@link DashScopeStubServer}, so the numbers reflect this
+ * application's own overhead. Run with {@code mvn test -Dload=true -Dtest=Demo01LoadTest}; {@code load.rps} and
+ * {@code load.seconds} change the rate and length of each scenario.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "load", matches = "true")
+class Demo01LoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(Demo01LoadTest.class);
+    private static final DashScopeStubServer stub = DashScopeStubServer.start();
+    private static final int RPS = Integer.getInteger("load.rps", 20);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.seconds", 20));
+
+    @LocalServerPort
+    private Integer port;
+
+    @DynamicPropertySource
+    static void dashScope(DynamicPropertyRegistry registry) {
+        registry.add("spring.ai.dashscope.base-url", stub::baseUrl);
+        registry.add("spring.ai.dashscope.api-key", () -> "stub");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void should_report_latency_per_endpoint() throws InterruptedException {
+        try (LoadHarness harness = new LoadHarness("http://localhost:" + port)) {
+            List<LoadReport> reports = harness.runAll(List.of(
+                LoadScenario.get("demo01 sync", "/demo01/sync?input=给我讲个笑话吧", RPS, DURATION),
+                LoadScenario.get("demo01 streams", "/demo01/streams?input=给我讲个笑话吧", RPS, DURATION),
+                LoadScenario.get("demo01 completion", "/demo01/completion?input=给我讲个笑话吧", RPS, DURATION),
+                LoadScenario.get("demo01 completion no-cache", "/demo01/completion?input=给我讲个笑话吧&no-cache=true", RPS, DURATION)));
+
+            String table = LoadReport.table(reports);
+            logger.info("\n{}stub requests: {}", table, stub.requestCounts());
+            assertTrue(reports.stream().allMatch(report -> report.errors() == 0), table);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.mcddhub.demo01;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.AdvisedRequest;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObservabilityLoggerAdvisorTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger("test." + getClass().getSimpleName());
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.detachAndStopAllAppenders();
+        logger.addAppender(appender);
+        logger.setAdditive(false);
+        logger.setLevel(Level.DEBUG);
+    }
+
+    @Test
+    void should_log_request_and_response_with_the_same_id() {
+        ObservabilityLoggerAdvisor advisor = advisor(1.0, 1000);
+
+        roundTrip(advisor, "tell me a joke", "why did the chicken...");
+        advisor.close();
+
+        assertEquals(List.of("request #1: tell me a joke", "response #1: why did the chicken..."), messages());
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void should_not_render_anything_when_debug_is_disabled() {
+        logger.setLevel(Level.INFO);
+        ObservabilityLoggerAdvisor advisor = advisor(1.0, 1000);
+
+        roundTrip(advisor, "tell me a joke", "no");
+        advisor.close();
+
+        assertEquals(0, renders.get());
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void should_skip_unsampled_exchanges() {
+        ObservabilityLoggerAdvisor advisor = advisor(0.0, 1000);
+
+        for (int i = 0; i < 10; i++) {
+            roundTrip(advisor, "tell me a joke", "no");
+        }
+        advisor.close();
+
+        assertEquals(0, renders.get());
+        assertEquals(10L, advisor.stats().get("skipped"));
+    }
+
+    @Test
+    void should_truncate_long_text() {
+        ObservabilityLoggerAdvisor advisor = advisor(1.0, 5);
+
+        roundTrip(advisor, "0123456789", "abc");
+        advisor.close();
+
+        assertEquals(List.of("request #1: 01234...(5 more chars)", "response #1: abc"), messages());
+    }
+
+    @Test
+    void should_log_streamed_response_once_on_completion() {
+        ObservabilityLoggerAdvisor advisor = advisor(1.0, 1000);
+        Map<String, Object> context = new HashMap<>();
+        advisor.adviseRequest(request("tell me a joke"), context);
+
+        advisor.adviseResponse(Flux.just(response("why "), response("not")), context).blockLast();
+        advisor.close();
+
+        assertEquals(List.of("request #1: tell me a joke", "streamed response #1: why not"), messages());
+    }
+
+    private ObservabilityLoggerAdvisor advisor(double sampleRate, int maxLength) {
+        return new ObservabilityLoggerAdvisor(logger,
+            request -> {
+                renders.incrementAndGet();
+                return request.userText();
+            },
+            response -> {
+                renders.incrementAndGet();
+                return response.getResult().getOutput().getContent();
+            },
+            sampleRate, maxLength, 16);
+    }
+
+    private void roundTrip(ObservabilityLoggerAdvisor advisor, String userText, String answer) {
+        Map<String, Object> context = new HashMap<>();
+        advisor.adviseRequest(request(userText), context);
+        advisor.adviseResponse(response(answer), context);
+    }
+
+    private List<String> messages() {
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+    }
+
+    private static AdvisedRequest request(String userText) {
+        return AdvisedRequest.builder()
+            .withChatModel(new NoChatModel())
+            .withUserText(userText)
+            .build();
+    }
+
+    private static ChatResponse response(String answer) {
+        return new ChatResponse(List.of(new Generation(answer)));
+    }
+
+    private static class NoChatModel implements ChatModel {
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            throw new UnsupportedOperationException();
+        }
+
+        public ChatOptions getDefaultOptions() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.mcddhub.demo01;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.AdvisedRequest;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SemanticCacheAdvisorTest {
+
+    private final ChatModel upstream = new FixedChatModel("upstream");
+
+    private MutableClock clock;
+    private SemanticCacheAdvisor advisor;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        advisor = new SemanticCacheAdvisor(new LetterEmbeddingModel(), 0.95, 2, Duration.ofMinutes(1), clock);
+    }
+
+    @Test
+    void should_answer_similar_prompt_from_cache() {
+        roundTrip(request("Tell me a joke about pirates", "Pirate"), "Arr!");
+
+        AdvisedRequest advised = advisor.adviseRequest(request("tell me a joke about pirates!", "Pirate"),
+            new HashMap<>());
+
+        assertNotSame(upstream, advised.chatModel());
+        assertEquals("Arr!", advised.chatModel().call(new Prompt("ignored")).getResult().getOutput().getContent());
+        assertEquals(1L, advisor.stats().get("hits"));
+    }
+
+    @Test
+    void should_keep_voices_apart() {
+        roundTrip(request("Tell me a joke about pirates", "Pirate"), "Arr!");
+
+        AdvisedRequest advised = advisor.adviseRequest(request("Tell me a joke about pirates", "Writer"),
+            new HashMap<>());
+
+        assertSame(upstream, advised.chatModel());
+        assertEquals(2L, advisor.stats().get("misses"));
+    }
+
+    @Test
+    void should_skip_cache_when_bypassed() {
+        roundTrip(request("Tell me a joke about pirates", "Pirate"), "Arr!");
+        Map<String, Object> context = new HashMap<>(Map.of(SemanticCacheAdvisor.BYPASS, true));
+
+        AdvisedRequest advised = advisor.adviseRequest(request("Tell me a joke about pirates", "Pirate"), context);
+
+        assertSame(upstream, advised.chatModel());
+        assertEquals(1L, advisor.stats().get("bypasses"));
+    }
+
+    @Test
+    void should_expire_and_evict_entries() {
+        roundTrip(request("aaaa", "Pirate"), "a");
+        roundTrip(request("bbbb", "Pirate"), "b");
+        roundTrip(request("cccc", "Pirate"), "c");
+        assertEquals(2, advisor.size());
+
+        clock.advance(Duration.ofMinutes(2));
+        AdvisedRequest advised = advisor.adviseRequest(request("cccc", "Pirate"), new HashMap<>());
+
+        assertSame(upstream, advised.chatModel());
+        assertEquals(0, advisor.size());
+    }
+
+    private void roundTrip(AdvisedRequest request, String answer) {
+        Map<String, Object> context = new HashMap<>();
+        advisor.adviseRequest(request, context);
+        advisor.adviseResponse(new ChatResponse(List.of(new Generation(answer))), context);
+    }
+
+    private AdvisedRequest request(String userText, String voice) {
+        return AdvisedRequest.builder()
+            .withChatModel(upstream)
+            .withUserText(userText)
+            .withSystemParams(Map.of("voice", voice))
+            .build();
+    }
+
+    private record FixedChatModel(String answer) implements ChatModel {
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            return new ChatResponse(List.of(new Generation(answer)));
+        }
+
+        public ChatOptions getDefaultOptions() {
+            return null;
+        }
+    }
+
+    private static class LetterEmbeddingModel implements EmbeddingModel {
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            List<Embedding> embeddings = new ArrayList<>();
+            for (String text : request.getInstructions()) {
+                double[] counts = new double[26];
+                for (char c : text.toLowerCase().toCharArray()) {
+                    if (c >= 'a' && c <= 'z') {
+                        counts[c - 'a']++;
+                    }
+                }
+                List<Double> vector = new ArrayList<>();
+                for (double count : counts) {
+                    vector.add(count);
+                }
+                embeddings.add(new Embedding(vector, embeddings.size()));
+            }
+            return new EmbeddingResponse(embeddings);
+        }
+
+        @Override
+        public List<Double> embed(Document document) {
+            return embed(document.getContent());
+        }
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-10-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.mcddhub.demo02.audio;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Puts audio where the transcription model can fetch it: DashScope's recording transcription takes file URLs,
+ * not request bodies.
+ */
+public interface AudioUploader {
+
+    /**
+     * @return the URL the model should fetch the audio from
+     */
+    URI upload(String name, byte[] audio) throws IOException;
+
+    void delete(URI location) throws IOException;
+}
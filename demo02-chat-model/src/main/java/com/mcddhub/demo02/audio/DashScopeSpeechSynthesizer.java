@@ -0,0 +1,22 @@
+package com.mcddhub.demo02.audio;
+
+import com.alibaba.cloud.ai.dashscope.audio.synthesis.SpeechSynthesisModel;
+import com.alibaba.cloud.ai.dashscope.audio.synthesis.SpeechSynthesisPrompt;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+
+public class DashScopeSpeechSynthesizer implements SpeechSynthesizer {
+
+    private final SpeechSynthesisModel speechSynthesisModel;
+
+    public DashScopeSpeechSynthesizer(SpeechSynthesisModel speechSynthesisModel) {
+        this.speechSynthesisModel = speechSynthesisModel;
+    }
+
+    @Override
+    public Flux<ByteBuffer> synthesize(String text) {
+        return speechSynthesisModel.stream(new SpeechSynthesisPrompt(text))
+            .mapNotNull(response -> response.getResult() == null ? null : response.getResult().getOutput().getAudio());
+    }
+}
@@ -0,0 +1,94 @@
+package com.mcddhub.demo02.audio;
+
+import com.alibaba.cloud.ai.dashscope.audio.transcription.AudioTranscriptionModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
+import org.springframework.ai.audio.transcription.AudioTranscriptionResponse;
+import org.springframework.core.io.UrlResource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+
+/**
+ * Sends each segment to DashScope as its own recognition request. DashScope fetches recordings by URL, so the
+ * segment is wrapped in a WAV header, which states the PCM format, sample rate and channels explicitly, uploaded,
+ * and deleted again once it has been transcribed. The segment is copied once, into that WAV file; the copy is
+ * as large as a segment, not as the upload.
+ */
+public class DashScopeTranscriber implements Transcriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashScopeTranscriber.class);
+    private static final int WAV_HEADER_BYTES = 44;
+    private static final int BITS_PER_SAMPLE = 16;
+
+    private final AudioTranscriptionModel audioTranscriptionModel;
+    private final AudioUploader uploader;
+    private final int sampleRate;
+    private final int channels;
+
+    /**
+     * @param uploader   where segments are put for the model to fetch; transcription fails while it is
+     *                   {@code null}
+     * @param sampleRate of the uploaded 16-bit PCM
+     * @param channels   of the uploaded 16-bit PCM
+     */
+    public DashScopeTranscriber(AudioTranscriptionModel audioTranscriptionModel, AudioUploader uploader,
+                                int sampleRate, int channels) {
+        this.audioTranscriptionModel = audioTranscriptionModel;
+        this.uploader = uploader;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+    }
+
+    @Override
+    public String transcribe(ByteBuffer segment) {
+        if (uploader == null) {
+            throw new IllegalStateException("demo02.audio.upload-url is not set; DashScope transcribes from a URL");
+        }
+        URI location;
+        try {
+            location = uploader.upload(UUID.randomUUID() + ".wav", wav(segment, sampleRate, channels));
+        } catch (IOException e) {
+            // not an UncheckedIOException: the controller reads that as the client having gone away
+            throw new IllegalStateException("uploading the segment failed: " + e.getMessage(), e);
+        }
+        try {
+            AudioTranscriptionResponse response = audioTranscriptionModel.call(
+                new AudioTranscriptionPrompt(new UrlResource(location)));
+            return response.getResult() == null ? "" : response.getResult().getOutput();
+        } catch (IOException e) {
+            throw new IllegalStateException("not a URL: " + location, e);
+        } finally {
+            try {
+                uploader.delete(location);
+            } catch (IOException e) {
+                logger.warn("could not delete the uploaded segment {}", location, e);
+            }
+        }
+    }
+
+    /**
+     * The 16-bit little-endian PCM in {@code pcm} as a WAV file.
+     */
+    static byte[] wav(ByteBuffer pcm, int sampleRate, int channels) {
+        int dataBytes = pcm.remaining();
+        int blockAlign = channels * BITS_PER_SAMPLE / 8;
+        ByteBuffer wav = ByteBuffer.allocate(WAV_HEADER_BYTES + dataBytes).order(ByteOrder.LITTLE_ENDIAN);
+        wav.put(new byte[]{'R', 'I', 'F', 'F'}).putInt(WAV_HEADER_BYTES - 8 + dataBytes)
+            .put(new byte[]{'W', 'A', 'V', 'E'})
+            .put(new byte[]{'f', 'm', 't', ' '}).putInt(16)
+            .putShort((short) 1)
+            .putShort((short) channels)
+            .putInt(sampleRate)
+            .putInt(sampleRate * blockAlign)
+            .putShort((short) blockAlign)
+            .putShort((short) BITS_PER_SAMPLE)
+            .put(new byte[]{'d', 'a', 't', 'a'}).putInt(dataBytes)
+            .put(pcm);
+        return wav.array();
+    }
+}
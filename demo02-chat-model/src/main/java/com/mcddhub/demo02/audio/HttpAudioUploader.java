@@ -0,0 +1,55 @@
+package com.mcddhub.demo02.audio;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Uploads with a plain HTTP {@code PUT} under {@code baseUrl}, e.g. an object storage prefix that accepts writes
+ * from this application and that DashScope can read, and removes the object again with {@code DELETE}.
+ */
+public class HttpAudioUploader implements AudioUploader {
+
+    private final HttpClient httpClient;
+    private final URI baseUrl;
+    private final Duration timeout;
+
+    public HttpAudioUploader(HttpClient httpClient, URI baseUrl, Duration timeout) {
+        this.httpClient = httpClient;
+        // resolve() drops the last path segment of a base without a trailing slash
+        this.baseUrl = baseUrl.toString().endsWith("/") ? baseUrl : URI.create(baseUrl + "/");
+        this.timeout = timeout;
+    }
+
+    @Override
+    public URI upload(String name, byte[] audio) throws IOException {
+        URI location = baseUrl.resolve(name);
+        send(HttpRequest.newBuilder(location)
+            .timeout(timeout)
+            .header("Content-Type", "audio/wav")
+            .PUT(HttpRequest.BodyPublishers.ofByteArray(audio))
+            .build());
+        return location;
+    }
+
+    @Override
+    public void delete(URI location) throws IOException {
+        send(HttpRequest.newBuilder(location).timeout(timeout).DELETE().build());
+    }
+
+    private void send(HttpRequest request) throws IOException {
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while sending " + request.method() + " " + request.uri(), e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(request.method() + " " + request.uri() + " returned " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.mcddhub.demo02.audio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Transcribes an upload of any length in fixed-size segments, so a request holds one segment of audio at a
+ * time however long the recording is.
+ * <p>
+ * The upload is read straight into the backing array of a single {@code segmentBytes} buffer, which is reused
+ * for every segment; the transcriber gets a read-only view of it rather than a copy. Each segment's transcript
+ * is handed to the caller as soon as the model answers, before the next segment is read. Segments are cut at
+ * byte offsets, so uploads should be raw PCM and {@code segmentBytes} a multiple of its frame size.
+ */
+public class SegmentedTranscription {
+
+    /**
+     * @param offset where the segment starts in the upload, in bytes
+     */
+    public record Segment(int index, long offset, int bytes, String text) {
+    }
+
+    /**
+     * @param segments segments transcribed
+     * @param bytes    audio bytes read
+     */
+    public record Summary(int segments, long bytes) {
+    }
+
+    private final Transcriber transcriber;
+    private final int segmentBytes;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder segments = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public SegmentedTranscription(Transcriber transcriber, int segmentBytes) {
+        if (segmentBytes <= 0) {
+            throw new IllegalArgumentException("segmentBytes must be positive: " + segmentBytes);
+        }
+        this.transcriber = transcriber;
+        this.segmentBytes = segmentBytes;
+    }
+
+    public Summary transcribe(InputStream audio, Consumer<Segment> onSegment) throws IOException {
+        requests.increment();
+        ByteBuffer segment = ByteBuffer.allocate(segmentBytes);
+        int index = 0;
+        long offset = 0;
+        try {
+            int read;
+            while ((read = audio.read(segment.array(), segment.position(), segment.remaining())) >= 0) {
+                segment.position(segment.position() + read);
+                if (!segment.hasRemaining()) {
+                    offset += send(segment, index++, offset, onSegment);
+                }
+            }
+            if (segment.position() > 0) {
+                offset += send(segment, index++, offset, onSegment);
+            }
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            throw e;
+        }
+        return new Summary(index, offset);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", requests.sum());
+        stats.put("segments", segments.sum());
+        stats.put("bytes", bytes.sum());
+        stats.put("failed", failed.sum());
+        stats.put("segmentBytes", segmentBytes);
+        return stats;
+    }
+
+    private int send(ByteBuffer segment, int index, long offset, Consumer<Segment> onSegment) {
+        segment.flip();
+        int length = segment.remaining();
+        String text = transcriber.transcribe(segment.asReadOnlyBuffer());
+        segment.clear();
+        segments.increment();
+        bytes.add(length);
+        onSegment.accept(new Segment(index, offset, length, text));
+        return length;
+    }
+}
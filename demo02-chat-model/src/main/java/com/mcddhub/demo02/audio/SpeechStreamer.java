@@ -0,0 +1,86 @@
+package com.mcddhub.demo02.audio;
+
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Copies synthesized audio to the client chunk by chunk, flushing after each so the servlet container sends
+ * it with chunked transfer encoding while synthesis is still running.
+ * <p>
+ * The synthesizer is read with backpressure: at most {@code maxBufferedChunks} chunks are requested ahead of
+ * the client, and they wait while the client is slow. A synthesizer that ignores backpressure and gets further
+ * ahead overflows that queue and fails the response rather than growing the heap. A client that goes away
+ * cancels synthesis.
+ */
+public class SpeechStreamer {
+
+    private static final int COPY_BUFFER_BYTES = 8 * 1024;
+
+    private final SpeechSynthesizer synthesizer;
+    private final int maxBufferedChunks;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder aborted = new LongAdder();
+
+    public SpeechStreamer(SpeechSynthesizer synthesizer, int maxBufferedChunks) {
+        this.synthesizer = synthesizer;
+        this.maxBufferedChunks = maxBufferedChunks;
+    }
+
+    /**
+     * @return the number of audio bytes written
+     */
+    public long writeTo(String text, OutputStream out) throws IOException {
+        requests.increment();
+        Flux<ByteBuffer> audio = synthesizer.synthesize(text);
+        long written = 0;
+        byte[] copy = null;
+        // closing the stream cancels synthesis when the client disconnects or the model fails
+        try (Stream<ByteBuffer> stream = audio.toStream(maxBufferedChunks)) {
+            Iterator<ByteBuffer> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                ByteBuffer chunk = iterator.next();
+                int length = chunk.remaining();
+                if (chunk.hasArray()) {
+                    out.write(chunk.array(), chunk.arrayOffset() + chunk.position(), length);
+                } else {
+                    if (copy == null) {
+                        copy = new byte[COPY_BUFFER_BYTES];
+                    }
+                    while (chunk.hasRemaining()) {
+                        int n = Math.min(copy.length, chunk.remaining());
+                        chunk.get(copy, 0, n);
+                        out.write(copy, 0, n);
+                    }
+                }
+                out.flush();
+                written += length;
+                chunks.increment();
+                bytes.add(length);
+            }
+        } catch (IOException | RuntimeException e) {
+            aborted.increment();
+            throw e;
+        }
+        return written;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", requests.sum());
+        stats.put("chunks", chunks.sum());
+        stats.put("bytes", bytes.sum());
+        stats.put("aborted", aborted.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,13 @@
+package com.mcddhub.demo02.audio;
+
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Text to speech as a stream of encoded audio chunks, emitted as the model produces them.
+ */
+public interface SpeechSynthesizer {
+
+    Flux<ByteBuffer> synthesize(String text);
+}
@@ -0,0 +1,11 @@
+package com.mcddhub.demo02.audio;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Speech to text for one segment of an audio stream. The buffer is only valid during the call.
+ */
+public interface Transcriber {
+
+    String transcribe(ByteBuffer segment);
+}
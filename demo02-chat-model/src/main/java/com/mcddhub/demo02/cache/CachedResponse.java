@@ -0,0 +1,6 @@
+package com.mcddhub.demo02.cache;
+
+import org.springframework.ai.chat.model.ChatResponse;
+
+public record CachedResponse(ChatResponse response, long totalTokens) {
+}
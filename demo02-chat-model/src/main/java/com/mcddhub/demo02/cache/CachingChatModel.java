@@ -0,0 +1,235 @@
+package com.mcddhub.demo02.cache;
+
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Exact-match cache in front of a {@link ChatModel}.
+ * <p>
+ * Prompts are keyed by their whitespace-normalized messages plus model and temperature. Concurrent calls
+ * with the same key share one upstream call. Responses live in a bounded LRU map on heap and, when a
+ * {@link DiskResponseStore} is given, in a second tier on disk. Streaming calls are passed through.
+ * <p>
+ * Only prompts sampled at temperature {@code 0}, set on the prompt or else on the model's default options,
+ * are cached unless {@code anyTemperature} is set: a cached answer to a sampled prompt would replay that one
+ * sample to every later caller.
+ */
+public class CachingChatModel implements ChatModel {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ChatModel delegate;
+    private final DiskResponseStore diskStore;
+    private final boolean anyTemperature;
+
+    private final Lock lock = new ReentrantLock();
+    private final LinkedHashMap<String, CachedResponse> heap;
+    private final Map<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder uncached = new LongAdder();
+    private final LongAdder savedTokens = new LongAdder();
+
+    /**
+     * @param diskStore      second tier, or {@code null} for the heap only
+     * @param anyTemperature cache prompts sampled at any temperature, not only at {@code 0}
+     */
+    public CachingChatModel(ChatModel delegate, int maxEntries, DiskResponseStore diskStore,
+                            boolean anyTemperature) {
+        this.delegate = delegate;
+        this.diskStore = diskStore;
+        this.anyTemperature = anyTemperature;
+        this.heap = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        if (!cacheable(prompt)) {
+            uncached.increment();
+            return delegate.call(prompt);
+        }
+        String key = keyOf(prompt);
+        CachedResponse cached = lookup(key);
+        if (cached != null) {
+            return saved(cached);
+        }
+
+        CompletableFuture<CachedResponse> mine = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return saved(join(leader));
+        }
+        try {
+            // the previous leader may have finished between lookup() and putIfAbsent()
+            cached = lookup(key);
+            if (cached != null) {
+                mine.complete(cached);
+                return saved(cached);
+            }
+            misses.increment();
+            ChatResponse response = delegate.call(prompt);
+            CachedResponse fresh = new CachedResponse(response, totalTokens(response));
+            store(key, fresh);
+            mine.complete(fresh);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return delegate.stream(prompt);
+    }
+
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum() + coalesced.sum();
+        long lookups = hitCount + misses.sum();
+        return Map.of(
+            "hits", hits.sum(),
+            "diskHits", diskHits.sum(),
+            "coalesced", coalesced.sum(),
+            "misses", misses.sum(),
+            "uncached", uncached.sum(),
+            "hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups,
+            "savedTokens", savedTokens.sum(),
+            "size", size());
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return heap.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean cacheable(Prompt prompt) {
+        if (anyTemperature) {
+            return true;
+        }
+        Float temperature = temperatureOf(prompt.getOptions());
+        if (temperature == null) {
+            temperature = temperatureOf(delegate.getDefaultOptions());
+        }
+        return temperature != null && temperature == 0f;
+    }
+
+    private static Float temperatureOf(ChatOptions options) {
+        return options instanceof DashScopeChatOptions dashScope ? dashScope.getTemperature() : null;
+    }
+
+    private CachedResponse lookup(String key) {
+        lock.lock();
+        try {
+            CachedResponse response = heap.get(key);
+            if (response != null) {
+                hits.increment();
+                return response;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (diskStore == null) {
+            return null;
+        }
+        CachedResponse response = diskStore.get(key);
+        if (response != null) {
+            diskHits.increment();
+            hits.increment();
+            putOnHeap(key, response);
+        }
+        return response;
+    }
+
+    private void store(String key, CachedResponse response) {
+        putOnHeap(key, response);
+        if (diskStore != null) {
+            diskStore.put(key, response);
+        }
+    }
+
+    private void putOnHeap(String key, CachedResponse response) {
+        lock.lock();
+        try {
+            heap.put(key, response);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ChatResponse saved(CachedResponse cached) {
+        savedTokens.add(cached.totalTokens());
+        return cached.response();
+    }
+
+    private static CachedResponse join(CompletableFuture<CachedResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static long totalTokens(ChatResponse response) {
+        if (response.getMetadata() == null) {
+            return 0;
+        }
+        Usage usage = response.getMetadata().getUsage();
+        Long total = usage == null ? null : usage.getTotalTokens();
+        return total == null ? 0 : total;
+    }
+
+    static String keyOf(Prompt prompt) {
+        StringBuilder key = new StringBuilder();
+        for (Message message : prompt.getInstructions()) {
+            key.append(message.getMessageType().getValue()).append(':');
+            String content = message.getContent();
+            if (content != null) {
+                key.append(WHITESPACE.matcher(content.strip()).replaceAll(" "));
+            }
+            key.append('\n');
+        }
+        if (prompt.getOptions() instanceof DashScopeChatOptions options) {
+            key.append("model=").append(options.getModel())
+                .append(";temperature=").append(options.getTemperature());
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,159 @@
+package com.mcddhub.demo02.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Second-level response cache that keeps one file per prompt key, evicting the oldest files first.
+ * Only the answer text and total token count are persisted.
+ * <p>
+ * Writing a key's file and evicting it hold the same lock stripe, so an eviction cannot delete a file that a
+ * concurrent put of that key has just written, nor leave the key queued without a file.
+ */
+public class DiskResponseStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskResponseStore.class);
+
+    private static final String SUFFIX = ".answer";
+    private static final int STRIPES = 64;
+
+    private final Path directory;
+    private final int maxEntries;
+    private final Queue<Path> files = new ConcurrentLinkedQueue<>();
+    // the paths in files, so a rewritten key is queued once and its live file is not evicted as a stale entry
+    private final Set<Path> queued = ConcurrentHashMap.newKeySet();
+    private final Lock[] stripes = new Lock[STRIPES];
+
+    public DiskResponseStore(Path directory, int maxEntries) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> existing = Files.list(directory)) {
+                existing.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(DiskResponseStore::lastModified))
+                    .forEach(this::enqueue);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public CachedResponse get(String key) {
+        try {
+            String stored = Files.readString(fileOf(key), StandardCharsets.UTF_8);
+            int newline = stored.indexOf('\n');
+            ChatResponse response = new ChatResponse(List.of(new Generation(stored.substring(newline + 1))));
+            return new CachedResponse(response, Long.parseLong(stored.substring(0, newline)));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("failed to read cached answer for {}", fileOf(key), e);
+            return null;
+        }
+    }
+
+    public void put(String key, CachedResponse cached) {
+        Generation result = cached.response().getResult();
+        if (result == null || result.getOutput().getContent() == null) {
+            return;
+        }
+        Path file = fileOf(key);
+        try {
+            Path tmp = Files.createTempFile(directory, "answer", ".tmp");
+            Files.writeString(tmp, cached.totalTokens() + "\n" + result.getOutput().getContent(),
+                StandardCharsets.UTF_8);
+            Lock lock = stripeOf(file);
+            lock.lock();
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                enqueue(file);
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            logger.warn("failed to write cached answer to {}", file, e);
+            return;
+        }
+        // outside the stripe of file: an eviction takes the stripe of the file it evicts
+        while (queued.size() > maxEntries) {
+            Path eldest = files.poll();
+            if (eldest == null) {
+                break;
+            }
+            evict(eldest);
+        }
+    }
+
+    private void evict(Path file) {
+        Lock lock = stripeOf(file);
+        lock.lock();
+        try {
+            queued.remove(file);
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("failed to evict cached answer {}", file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock stripeOf(Path file) {
+        return stripes[Math.floorMod(file.hashCode(), STRIPES)];
+    }
+
+    /**
+     * Files currently kept; may briefly exceed {@code maxEntries} while a put is evicting.
+     */
+    public int size() {
+        return queued.size();
+    }
+
+    private void enqueue(Path file) {
+        if (queued.add(file)) {
+            files.add(file);
+        }
+    }
+
+    private Path fileOf(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(digest) + SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.mcddhub.demo02.config;
+
+import com.alibaba.cloud.ai.dashscope.audio.synthesis.SpeechSynthesisModel;
+import com.alibaba.cloud.ai.dashscope.audio.transcription.AudioTranscriptionModel;
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatModel;
+import com.mcddhub.demo02.audio.AudioUploader;
+import com.mcddhub.demo02.audio.DashScopeSpeechSynthesizer;
+import com.mcddhub.demo02.audio.DashScopeTranscriber;
+import com.mcddhub.demo02.audio.HttpAudioUploader;
+import com.mcddhub.demo02.audio.SegmentedTranscription;
+import com.mcddhub.demo02.audio.SpeechStreamer;
+import com.mcddhub.demo02.cache.CachingChatModel;
+import com.mcddhub.demo02.cache.DiskResponseStore;
+import com.mcddhub.demo02.image.ImageJobQueue;
+import com.mcddhub.demo02.image.ImageStore;
+import com.mcddhub.demo02.metrics.ChatMetrics;
+import com.mcddhub.demo02.metrics.MeteredChatModel;
+import com.mcddhub.demo02.metrics.MetricsAdvisor;
+import com.mcddhub.demo02.routing.CircuitBreaker;
+import com.mcddhub.demo02.routing.ModelRoute;
+import com.mcddhub.demo02.routing.RoutingChatModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.image.ImageModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@EnableConfigurationProperties({ChatCacheProperties.class, ChatMetricsProperties.class,
+    ModelRoutingProperties.class, ImageJobProperties.class, AudioProperties.class})
+public class AppConfig {
+
+    @Bean
+    @Primary
+    public CachingChatModel cachingChatModel(MeteredChatModel meteredChatModel,
+                                             ObjectProvider<RoutingChatModel> routingChatModel,
+                                             ChatCacheProperties properties) {
+        DiskResponseStore diskStore = properties.diskDirectory() == null
+            ? null
+            : new DiskResponseStore(properties.diskDirectory(), properties.diskMaxEntries());
+        ChatModel upstream = routingChatModel.getIfAvailable(() -> meteredChatModel);
+        return new CachingChatModel(upstream, properties.maxEntries(), diskStore, properties.anyTemperature());
+    }
+
+    /**
+     * Between the cache and the metrics, so only misses are routed and every hedged copy is measured under
+     * the model it went to.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "demo02.routing", name = "enabled")
+    public RoutingChatModel routingChatModel(MeteredChatModel meteredChatModel,
+                                             @Qualifier("modelRoutingExecutor") ExecutorService executor,
+                                             ModelRoutingProperties properties) {
+        List<ModelRoute> routes = properties.models().stream()
+            .map(model -> new ModelRoute(
+                model,
+                meteredChatModel,
+                properties.maxConcurrency().getOrDefault(model, properties.defaultMaxConcurrency()),
+                new CircuitBreaker(properties.ewmaAlpha(), properties.failureRateThreshold(),
+                    properties.minimumCalls(), properties.openDuration()),
+                properties.ewmaAlpha(),
+                properties.latencyWindow()))
+            .toList();
+        return new RoutingChatModel(meteredChatModel, routes, executor, properties.hedgePercentile(),
+            properties.minSamples(), properties.initialHedgeDelay(), properties.minHedgeDelay());
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    @ConditionalOnProperty(prefix = "demo02.routing", name = "enabled")
+    public ExecutorService modelRoutingExecutor() {
+        AtomicInteger ids = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "model-router-" + ids.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sits below the cache, so it measures and counts tokens only for calls that reach DashScope.
+     */
+    @Bean
+    public MeteredChatModel meteredChatModel(DashScopeChatModel dashScopeChatModel, MeterRegistry meterRegistry,
+                                             ChatMetricsProperties properties) {
+        return new MeteredChatModel(dashScopeChatModel,
+            new ChatMetrics(meterRegistry, "chat_model", properties.maxModels()));
+    }
+
+    @Bean
+    public MetricsAdvisor metricsAdvisor(MeterRegistry meterRegistry, ChatMetricsProperties properties) {
+        return new MetricsAdvisor(new ChatMetrics(meterRegistry, "chat_client", properties.maxModels()));
+    }
+
+    @Bean(destroyMethod = "close")
+    public ImageJobQueue imageJobQueue(ImageModel imageModel, ImageJobProperties properties) {
+        Path directory = properties.directory() == null
+            ? Path.of(System.getProperty("java.io.tmpdir"), "demo02-images")
+            : properties.directory();
+        HttpClient httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(properties.fetchTimeout())
+            .build();
+        return new ImageJobQueue(imageModel, new ImageStore(directory, properties.maxStored()), httpClient,
+            properties.workers(), properties.eventThreads(), properties.queueCapacity(), properties.maxJobs(),
+            properties.fetchTimeout());
+    }
+
+    @Bean
+    public SpeechStreamer speechStreamer(SpeechSynthesisModel speechSynthesisModel, AudioProperties properties) {
+        return new SpeechStreamer(new DashScopeSpeechSynthesizer(speechSynthesisModel),
+            properties.maxBufferedChunks());
+    }
+
+    @Bean
+    public SegmentedTranscription segmentedTranscription(AudioTranscriptionModel audioTranscriptionModel,
+                                                         AudioProperties properties) {
+        AudioUploader uploader = properties.uploadUrl() == null ? null : new HttpAudioUploader(
+            HttpClient.newBuilder().connectTimeout(properties.uploadTimeout()).build(),
+            properties.uploadUrl(),
+            properties.uploadTimeout());
+        return new SegmentedTranscription(
+            new DashScopeTranscriber(audioTranscriptionModel, uploader, properties.sampleRate(), properties.channels()),
+            Math.toIntExact(properties.segmentSize().toBytes()));
+    }
+}
@@ -0,0 +1,28 @@
+package com.mcddhub.demo02.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * @param segmentSize        audio sent upstream per transcription request; a multiple of the PCM frame size
+ * @param maxBufferedChunks  synthesized chunks held for a slow client before the response is failed
+ * @param speechContentType  content type of the synthesized audio
+ * @param sampleRate         sample rate of uploaded 16-bit PCM
+ * @param channels           channels of uploaded 16-bit PCM
+ * @param uploadUrl          where segments are {@code PUT} for DashScope to fetch; transcription fails while unset
+ * @param uploadTimeout      timeout for putting and deleting one segment
+ */
+@ConfigurationProperties("demo02.audio")
+public record AudioProperties(
+    @DefaultValue("256KB") DataSize segmentSize,
+    @DefaultValue("16") int maxBufferedChunks,
+    @DefaultValue("audio/mpeg") String speechContentType,
+    @DefaultValue("16000") int sampleRate,
+    @DefaultValue("1") int channels,
+    URI uploadUrl,
+    @DefaultValue("30s") Duration uploadTimeout) {
+}
@@ -0,0 +1,18 @@
+package com.mcddhub.demo02.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * @param anyTemperature also cache prompts sampled at a temperature above {@code 0}; every later identical
+ *                       prompt then gets the same sample
+ */
+@ConfigurationProperties("demo02.chat-cache")
+public record ChatCacheProperties(
+    @DefaultValue("1000") int maxEntries,
+    Path diskDirectory,
+    @DefaultValue("10000") int diskMaxEntries,
+    @DefaultValue("false") boolean anyTemperature) {
+}
@@ -0,0 +1,9 @@
+package com.mcddhub.demo02.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("demo02.metrics")
+public record ChatMetricsProperties(
+    @DefaultValue("20") int maxModels) {
+}
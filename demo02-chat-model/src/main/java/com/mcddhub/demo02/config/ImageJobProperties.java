@@ -0,0 +1,31 @@
+package com.mcddhub.demo02.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * @param model         image model used when a request does not name one
+ * @param workers       concurrent generations
+ * @param eventThreads  threads that deliver job status events, so a slow SSE client never holds a worker
+ * @param queueCapacity jobs that may wait for a worker before submissions are refused with 503
+ * @param maxJobs       finished jobs remembered for polling and deduplication
+ * @param directory     where fetched images are stored; the JVM temp directory when unset
+ * @param maxStored     images kept on disk
+ * @param fetchTimeout  timeout for downloading an image from the URL the model returned
+ * @param eventsTimeout how long an SSE subscription to a job stays open
+ */
+@ConfigurationProperties("demo02.images")
+public record ImageJobProperties(
+    @DefaultValue("flux-dev") String model,
+    @DefaultValue("2") int workers,
+    @DefaultValue("2") int eventThreads,
+    @DefaultValue("32") int queueCapacity,
+    @DefaultValue("1000") int maxJobs,
+    Path directory,
+    @DefaultValue("1000") int maxStored,
+    @DefaultValue("30s") Duration fetchTimeout,
+    @DefaultValue("5m") Duration eventsTimeout) {
+}
@@ -0,0 +1,41 @@
+package com.mcddhub.demo02.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @param enabled               whether calls go through the router at all; off unless set
+ * @param models                models calls are routed between; prompts naming one of them go there first, and
+ *                              prompts naming another model are not routed
+ * @param maxConcurrency        concurrent calls per model, e.g. {@code qwen-max: 8}
+ * @param defaultMaxConcurrency limit for models not listed in {@code maxConcurrency}
+ * @param ewmaAlpha             weight of the newest sample in the latency and error EWMAs
+ * @param latencyWindow         number of recent latencies per model the hedge percentile is taken over
+ * @param minSamples            latencies a model needs before its percentile is trusted
+ * @param hedgePercentile       a call still running past this percentile of its model's latency is hedged
+ * @param initialHedgeDelay     hedge delay for a model with fewer than {@code minSamples} latencies
+ * @param minHedgeDelay         lower bound of the hedge delay
+ * @param failureRateThreshold  error EWMA at which a model's breaker opens
+ * @param minimumCalls          calls since the breaker last closed before it may open
+ * @param openDuration          how long an open breaker waits before letting a probe call through
+ */
+@ConfigurationProperties("demo02.routing")
+public record ModelRoutingProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue({"qwen-plus", "qwen-turbo"}) List<String> models,
+    @DefaultValue Map<String, Integer> maxConcurrency,
+    @DefaultValue("16") int defaultMaxConcurrency,
+    @DefaultValue("0.2") double ewmaAlpha,
+    @DefaultValue("200") int latencyWindow,
+    @DefaultValue("20") int minSamples,
+    @DefaultValue("0.95") double hedgePercentile,
+    @DefaultValue("5s") Duration initialHedgeDelay,
+    @DefaultValue("200ms") Duration minHedgeDelay,
+    @DefaultValue("0.5") double failureRateThreshold,
+    @DefaultValue("10") int minimumCalls,
+    @DefaultValue("30s") Duration openDuration) {
+}
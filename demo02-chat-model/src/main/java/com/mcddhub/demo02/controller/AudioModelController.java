@@ -1,30 +1,114 @@
 package com.mcddhub.demo02.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mcddhub.demo02.audio.SegmentedTranscription;
+import com.mcddhub.demo02.audio.SpeechStreamer;
+import com.mcddhub.demo02.config.AudioProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Speech in both directions without holding a whole clip in memory. Synthesized audio is written to the client
+ * chunk by chunk as the model produces it. Uploads for transcription, multipart or a raw request body, are read
+ * in fixed-size segments, and each segment's transcript is written back as one line of NDJSON as soon as it is
+ * known, followed by a summary line.
+ */
 @RestController
 @RequestMapping("/demo02/audios")
 public class AudioModelController {
 
     private static final Logger logger = LoggerFactory.getLogger(AudioModelController.class);
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final SpeechStreamer speechStreamer;
+    private final SegmentedTranscription segmentedTranscription;
+    private final AudioProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public AudioModelController(SpeechStreamer speechStreamer, SegmentedTranscription segmentedTranscription,
+                                AudioProperties properties, ObjectMapper objectMapper) {
+        this.speechStreamer = speechStreamer;
+        this.segmentedTranscription = segmentedTranscription;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
 
     @GetMapping("/speech")
-    public String speech(String text) {
+    public ResponseEntity<StreamingResponseBody> speech(String text) {
+        if (text == null || text.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(properties.speechContentType()))
+            .body(out -> speechStreamer.writeTo(text, out));
+    }
 
-        logger.warn("unimplemented");
+    @PostMapping(value = "/transcription", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> transcription(@RequestParam("file") MultipartFile file) {
+        return transcribe(file::getInputStream);
+    }
 
-        return "unimplemented";
+    @PostMapping(value = "/transcription", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "audio/*"},
+        produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> transcription(InputStream body) {
+        return transcribe(() -> body);
     }
 
-    @GetMapping("/transcription")
-    public String transcription(String text) {
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("speech", speechStreamer.stats());
+        stats.put("transcription", segmentedTranscription.stats());
+        return stats;
+    }
+
+    private ResponseEntity<StreamingResponseBody> transcribe(AudioSource source) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(NDJSON))
+            .body(out -> {
+                try (InputStream audio = source.open()) {
+                    SegmentedTranscription.Summary summary = segmentedTranscription.transcribe(audio,
+                        segment -> writeLine(out, segment));
+                    writeLine(out, summary);
+                } catch (UncheckedIOException e) {
+                    // the client went away while a transcript was being written
+                    throw e.getCause();
+                } catch (RuntimeException e) {
+                    // the response is already committed, so the failure can only be reported in the body
+                    logger.warn("transcription failed", e);
+                    writeLine(out, Map.of("error", e.getMessage() == null ? e.toString() : e.getMessage()));
+                }
+            });
+    }
+
+    private void writeLine(OutputStream out, Object line) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        logger.warn("unimplemented");
+    private interface AudioSource {
 
-        return "unimplemented";
+        InputStream open() throws IOException;
     }
 }
@@ -0,0 +1,24 @@
+package com.mcddhub.demo02.controller;
+
+import com.mcddhub.demo02.cache.CachingChatModel;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/demo02/chat-cache")
+public class ChatCacheController {
+
+    private final CachingChatModel cachingChatModel;
+
+    public ChatCacheController(CachingChatModel cachingChatModel) {
+        this.cachingChatModel = cachingChatModel;
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return cachingChatModel.stats();
+    }
+}
@@ -1,6 +1,8 @@
 package com.mcddhub.demo02.controller;
 
 import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import com.mcddhub.demo02.metrics.MetricsAdvisor;
+import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
@@ -15,8 +17,13 @@ public class ChatModelController {
 
     private final ChatModel chatModel;
 
-    public ChatModelController(ChatModel chatModel) {
+    private final ChatClient chatClient;
+
+    public ChatModelController(ChatModel chatModel, MetricsAdvisor metricsAdvisor) {
         this.chatModel = chatModel;
+        this.chatClient = ChatClient.builder(chatModel)
+            .defaultAdvisors(metricsAdvisor)
+            .build();
     }
 
     @GetMapping("/single-by-string")
@@ -34,6 +41,10 @@ public class ChatModelController {
         return response.getResult().getOutput().getContent();
     }
 
+    /**
+     * qwen-plus is tried first; with {@code demo02.routing} on, a slow or failing qwen-plus is hedged or
+     * replaced by another routed model.
+     */
     @GetMapping("/chat-with-qwen-plus")
     public String chatWithQwenPlus(String input) {
         return this.chatModel
@@ -44,11 +55,25 @@ public class ChatModelController {
                     .withTemperature(0.4F).build()).getContents());
     }
 
-    @GetMapping("/stream")
-    public String stream(String input) {
-        StringBuilder builder = new StringBuilder();
-        Flux<ChatResponse> responseFlux = chatModel.stream(new Prompt(input));
-        responseFlux.toStream().toList().forEach(resp -> builder.append(resp.getResult().getOutput().getContent()));
-        return builder.toString();
+    @GetMapping(value = "/stream", produces = "text/plain;charset=UTF-8")
+    public Flux<String> stream(String input) {
+        return chatModel.stream(new Prompt(input))
+            .mapNotNull(resp -> resp.getResult() == null ? null : resp.getResult().getOutput().getContent());
+    }
+
+    @GetMapping("/client")
+    public String client(String input) {
+        return chatClient.prompt()
+            .user(input)
+            .call()
+            .content();
+    }
+
+    @GetMapping(value = "/client-stream", produces = "text/plain;charset=UTF-8")
+    public Flux<String> clientStream(String input) {
+        return chatClient.prompt()
+            .user(input)
+            .stream()
+            .content();
     }
 }
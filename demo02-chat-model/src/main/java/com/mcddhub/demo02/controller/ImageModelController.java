@@ -1,28 +1,130 @@
 package com.mcddhub.demo02.controller;
 
-import com.knuddels.jtokkit.api.ModelType;
-import org.springframework.ai.image.*;
+import com.mcddhub.demo02.config.ImageJobProperties;
+import com.mcddhub.demo02.image.ImageJob;
+import com.mcddhub.demo02.image.ImageJobQueue;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Image generation as jobs: a submission answers {@code 202} with the job right away, and the image is
+ * generated on the {@link ImageJobQueue} workers. Clients poll the job, or subscribe to its status events, and
+ * download the image from {@code /jobs/{id}/content} once it has succeeded.
+ */
 @RestController
 @RequestMapping("/demo02/images")
 public class ImageModelController {
-    private final ImageModel imageModel;
 
-    public ImageModelController(ImageModel imageModel) {
-        this.imageModel = imageModel;
+    private final ImageJobQueue imageJobQueue;
+    private final ImageJobProperties properties;
+
+    public ImageModelController(ImageJobQueue imageJobQueue, ImageJobProperties properties) {
+        this.imageJobQueue = imageJobQueue;
+        this.properties = properties;
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<ImageJob.Status> submit(String input, String model, Integer width, Integer height) {
+        if (input == null || input.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        ImageJob job = imageJobQueue.submit(input, model == null ? properties.model() : model, width, height);
+        return ResponseEntity.accepted()
+            .location(URI.create("/demo02/images/jobs/" + job.id()))
+            .body(job.status());
     }
 
     @GetMapping("/generate")
-    public String image(String input) {
-        ImageOptions options = ImageOptionsBuilder.builder()
-            .withModel("flux-dev")
-            .build();
-        ImagePrompt prompt = new ImagePrompt(input, options);
-        ImageResponse response = imageModel.call(prompt);
-        String result = response.getResult().getOutput().toString();
-        return "redirect:" + result;
+    public ResponseEntity<ImageJob.Status> image(String input) {
+        return submit(input, null, null, null);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ImageJob.Status> status(@PathVariable String id) {
+        ImageJob job = imageJobQueue.get(id);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job.status());
+    }
+
+    /**
+     * Sends the job's status as a {@code status} event now and on every change, and completes after the final
+     * one.
+     */
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable String id) {
+        ImageJob job = imageJobQueue.get(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        SseEmitter emitter = new SseEmitter(properties.eventsTimeout().toMillis());
+        AtomicBoolean done = new AtomicBoolean();
+        Consumer<ImageJob.Status> listener = status -> {
+            if (done.get()) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("status").data(status, MediaType.APPLICATION_JSON));
+                if (status.done() && done.compareAndSet(false, true)) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                done.set(true);
+            }
+        };
+        emitter.onCompletion(() -> job.unsubscribe(listener));
+        emitter.onTimeout(() -> job.unsubscribe(listener));
+        emitter.onError(e -> job.unsubscribe(listener));
+        job.subscribe(listener);
+        return ResponseEntity.ok(emitter);
+    }
+
+    @GetMapping("/jobs/{id}/content")
+    public ResponseEntity<Resource> content(@PathVariable String id) throws IOException {
+        ImageJob job = imageJobQueue.get(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.status().state() != ImageJob.State.SUCCEEDED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        Path file = job.file();
+        if (file == null || !Files.exists(file)) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        return ResponseEntity.ok()
+            .contentType(contentType(file))
+            .contentLength(Files.size(file))
+            .body(new FileSystemResource(file));
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return imageJobQueue.stats();
+    }
+
+    private static MediaType contentType(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            String type = URLConnection.guessContentTypeFromStream(in);
+            return type == null ? MediaType.APPLICATION_OCTET_STREAM : MediaType.parseMediaType(type);
+        }
     }
 }
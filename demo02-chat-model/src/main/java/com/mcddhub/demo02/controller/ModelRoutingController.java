@@ -0,0 +1,26 @@
+package com.mcddhub.demo02.controller;
+
+import com.mcddhub.demo02.routing.RoutingChatModel;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/demo02/routing")
+@ConditionalOnProperty(prefix = "demo02.routing", name = "enabled", matchIfMissing = true)
+public class ModelRoutingController {
+
+    private final RoutingChatModel routingChatModel;
+
+    public ModelRoutingController(RoutingChatModel routingChatModel) {
+        this.routingChatModel = routingChatModel;
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return routingChatModel.stats();
+    }
+}
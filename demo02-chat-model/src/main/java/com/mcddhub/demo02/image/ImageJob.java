@@ -0,0 +1,214 @@
+package com.mcddhub.demo02.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * One image generation, shared by every submission with the same prompt and options. Listeners get a
+ * {@link Status} on every state change and are dropped once the job is done.
+ * <p>
+ * Listeners are called on the {@code notifier} executor, never on the thread that changes the state, so a
+ * listener writing to a slow client cannot hold up the image worker. A job hands the notifier one notification
+ * at a time, so each listener sees the states in order.
+ */
+public class ImageJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageJob.class);
+
+    public enum State {QUEUED, RUNNING, SUCCEEDED, FAILED}
+
+    /**
+     * @param imageUrl where the model put the image, if it returned a URL
+     * @param cached   whether the image came from an earlier job instead of the model
+     */
+    public record Status(String id, State state, String prompt, String model, String imageUrl, boolean cached,
+                         String error, Instant createdAt, Instant finishedAt) {
+
+        public boolean done() {
+            return state == State.SUCCEEDED || state == State.FAILED;
+        }
+    }
+
+    private final String id;
+    private final String key;
+    private final String prompt;
+    private final String model;
+    private final Instant createdAt = Instant.now();
+    private final Executor notifier;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Consumer<Status>> listeners = new ArrayList<>();
+    private final ArrayDeque<Runnable> notifications = new ArrayDeque<>();
+    private boolean notifying;
+    private State state = State.QUEUED;
+    private boolean cached;
+    private String imageUrl;
+    private Path file;
+    private String error;
+    private Instant finishedAt;
+
+    ImageJob(String id, String key, String prompt, String model, Executor notifier) {
+        this.id = id;
+        this.key = key;
+        this.prompt = prompt;
+        this.model = model;
+        this.notifier = notifier;
+    }
+
+    static ImageJob cached(String id, String key, String prompt, String model, Path file, Executor notifier) {
+        ImageJob job = new ImageJob(id, key, prompt, model, notifier);
+        job.cached = true;
+        job.file = file;
+        job.state = State.SUCCEEDED;
+        job.finishedAt = job.createdAt;
+        return job;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    String key() {
+        return key;
+    }
+
+    String prompt() {
+        return prompt;
+    }
+
+    String model() {
+        return model;
+    }
+
+    /**
+     * The stored image once the job has succeeded.
+     */
+    public Path file() {
+        lock.lock();
+        try {
+            return file;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Status status() {
+        lock.lock();
+        try {
+            return new Status(id, state, prompt, model, imageUrl, cached, error, createdAt, finishedAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Calls {@code listener} with the current status and then on every change until the job is done, on the
+     * notifier.
+     */
+    public void subscribe(Consumer<Status> listener) {
+        lock.lock();
+        try {
+            Status status = status();
+            if (!status.done()) {
+                listeners.add(listener);
+            }
+            notify(() -> listener.accept(status));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void unsubscribe(Consumer<Status> listener) {
+        lock.lock();
+        try {
+            listeners.remove(listener);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void running() {
+        update(State.RUNNING, null, null, null);
+    }
+
+    void succeeded(String imageUrl, Path file) {
+        update(State.SUCCEEDED, imageUrl, file, null);
+    }
+
+    void failed(String error) {
+        update(State.FAILED, null, null, error);
+    }
+
+    private void update(State state, String imageUrl, Path file, String error) {
+        lock.lock();
+        try {
+            this.state = state;
+            this.imageUrl = imageUrl;
+            this.file = file;
+            this.error = error;
+            if (state == State.SUCCEEDED || state == State.FAILED) {
+                this.finishedAt = Instant.now();
+            }
+            Status status = status();
+            List<Consumer<Status>> targets = List.copyOf(listeners);
+            if (status.done()) {
+                listeners.clear();
+            }
+            if (!targets.isEmpty()) {
+                notify(() -> targets.forEach(listener -> listener.accept(status)));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues {@code notification} behind the earlier ones, and starts a drain on the notifier unless one is
+     * already running. Called with the lock held, so notifications are queued in the order of the changes.
+     */
+    private void notify(Runnable notification) {
+        notifications.add(notification);
+        if (notifying) {
+            return;
+        }
+        notifying = true;
+        try {
+            notifier.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // the queue is closing; nobody is left to deliver to
+            notifications.clear();
+            notifying = false;
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Runnable notification;
+            lock.lock();
+            try {
+                notification = notifications.poll();
+                if (notification == null) {
+                    notifying = false;
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            try {
+                notification.run();
+            } catch (RuntimeException e) {
+                logger.warn("image job {} listener failed", id, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.mcddhub.demo02.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.image.Image;
+import org.springframework.ai.image.ImageModel;
+import org.springframework.ai.image.ImageOptionsBuilder;
+import org.springframework.ai.image.ImagePrompt;
+import org.springframework.ai.image.ImageResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Runs image generations on a small worker pool of their own, so slow generations neither hold request threads
+ * nor compete with chat calls for them.
+ * <p>
+ * {@link #submit} returns at once with a job. Jobs are keyed by a SHA-256 of model, size and
+ * whitespace-normalized prompt: a submission whose key matches a queued, running or finished job gets that job
+ * back, and one whose image is still in the {@link ImageStore} gets a finished job without calling the model.
+ * The model's image, a URL or base64, is fetched into the store, streaming URLs straight to disk. At most
+ * {@code queueCapacity} jobs wait for a worker; further submissions fail with {@link ImageQueueFullException}.
+ * The last {@code maxJobs} jobs are remembered for polling. Status changes reach subscribers through
+ * {@code eventThreads} threads of their own, so the workers never wait on a subscriber.
+ */
+public class ImageJobQueue implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageJobQueue.class);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ImageModel imageModel;
+    private final ImageStore store;
+    private final HttpClient httpClient;
+    private final Duration fetchTimeout;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService notifier;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, ImageJob> jobs;
+    private final Map<String, ImageJob> jobsByKey = new HashMap<>();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public ImageJobQueue(ImageModel imageModel, ImageStore store, HttpClient httpClient, int workers,
+                         int eventThreads, int queueCapacity, int maxJobs, Duration fetchTimeout) {
+        this.imageModel = imageModel;
+        this.store = store;
+        this.httpClient = httpClient;
+        this.fetchTimeout = fetchTimeout;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger ids = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "image-job-" + ids.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        AtomicInteger eventIds = new AtomicInteger();
+        this.notifier = Executors.newFixedThreadPool(eventThreads, runnable -> {
+            Thread thread = new Thread(runnable, "image-events-" + eventIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.jobs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ImageJob> eldest) {
+                if (size() <= maxJobs) {
+                    return false;
+                }
+                jobsByKey.remove(eldest.getValue().key(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    public ImageJob submit(String prompt, String model, Integer width, Integer height) {
+        submitted.increment();
+        String key = keyOf(prompt, model, width, height);
+        ImageJob job;
+        lock.lock();
+        try {
+            ImageJob existing = jobsByKey.get(key);
+            if (existing != null && !evicted(existing)) {
+                deduplicated.increment();
+                // touch it, so a popular job stays remembered
+                jobs.get(existing.id());
+                return existing;
+            }
+            Path stored = store.get(key);
+            if (stored != null) {
+                cacheHits.increment();
+                job = ImageJob.cached(UUID.randomUUID().toString(), key, prompt, model, stored, notifier);
+                remember(job);
+                return job;
+            }
+            job = new ImageJob(UUID.randomUUID().toString(), key, prompt, model, notifier);
+            remember(job);
+        } finally {
+            lock.unlock();
+        }
+
+        ImageJob queued = job;
+        try {
+            workers.execute(() -> run(queued, width, height));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            lock.lock();
+            try {
+                jobs.remove(job.id());
+                jobsByKey.remove(key, job);
+            } finally {
+                lock.unlock();
+            }
+            ImageQueueFullException full = new ImageQueueFullException(queueCapacity);
+            // an identical submission may already have been handed this job
+            job.failed(full.getMessage());
+            throw full;
+        }
+        return job;
+    }
+
+    public ImageJob get(String id) {
+        lock.lock();
+        try {
+            return jobs.get(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("submitted", submitted.sum());
+        stats.put("deduplicated", deduplicated.sum());
+        stats.put("cacheHits", cacheHits.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("succeeded", succeeded.sum());
+        stats.put("failed", failed.sum());
+        stats.put("queued", workers.getQueue().size());
+        stats.put("running", workers.getActiveCount());
+        stats.put("queueCapacity", queueCapacity);
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        notifier.shutdownNow();
+    }
+
+    private void run(ImageJob job, Integer width, Integer height) {
+        job.running();
+        try {
+            ImagePrompt prompt = new ImagePrompt(job.prompt(), ImageOptionsBuilder.builder()
+                .withModel(job.model())
+                .withWidth(width)
+                .withHeight(height)
+                .build());
+            ImageResponse response = imageModel.call(prompt);
+            Image image = response == null || response.getResult() == null ? null : response.getResult().getOutput();
+            if (image == null || image.getUrl() == null && image.getB64Json() == null) {
+                throw new IllegalStateException("the model returned no image");
+            }
+            Path file = store.put(job.key(), fetch(image));
+            succeeded.increment();
+            job.succeeded(image.getUrl(), file);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            failed.increment();
+            logger.warn("image job {} failed", job.id(), e);
+            // a failed job must not be handed to the next identical submission
+            forget(job);
+            job.failed(e.getMessage() == null ? e.toString() : e.getMessage());
+        }
+    }
+
+    private Path fetch(Image image) throws IOException, InterruptedException {
+        Path tmp = store.newTempFile();
+        try {
+            if (image.getB64Json() != null) {
+                Files.write(tmp, Base64.getMimeDecoder().decode(image.getB64Json()));
+                return tmp;
+            }
+            HttpResponse<Path> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create(image.getUrl())).timeout(fetchTimeout).GET().build(),
+                HttpResponse.BodyHandlers.ofFile(tmp));
+            if (response.statusCode() != 200) {
+                throw new IOException("fetching " + image.getUrl() + " returned " + response.statusCode());
+            }
+            return tmp;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    /**
+     * Whether a finished job's image has since been evicted from the store, so it has to be generated again.
+     */
+    private static boolean evicted(ImageJob job) {
+        Path file = job.file();
+        return job.status().state() == ImageJob.State.SUCCEEDED && (file == null || !Files.exists(file));
+    }
+
+    private void remember(ImageJob job) {
+        jobs.put(job.id(), job);
+        jobsByKey.put(job.key(), job);
+    }
+
+    private void forget(ImageJob job) {
+        lock.lock();
+        try {
+            jobsByKey.remove(job.key(), job);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static String keyOf(String prompt, String model, Integer width, Integer height) {
+        String normalized = model + '\n' + width + 'x' + height + '\n'
+            + WHITESPACE.matcher(prompt.strip()).replaceAll(" ");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
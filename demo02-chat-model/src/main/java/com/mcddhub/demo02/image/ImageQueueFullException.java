@@ -0,0 +1,12 @@
+package com.mcddhub.demo02.image;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ImageQueueFullException extends RuntimeException {
+
+    public ImageQueueFullException(int capacity) {
+        super("all " + capacity + " image job slots are taken, try again later");
+    }
+}
@@ -0,0 +1,88 @@
+package com.mcddhub.demo02.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/**
+ * Generated images on local disk, one file per job key, evicting the oldest files first. Files are written to
+ * a temporary name and moved into place, so a reader never sees a partial image.
+ */
+public class ImageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStore.class);
+
+    private static final String SUFFIX = ".image";
+
+    private final Path directory;
+    private final int maxEntries;
+    private final Queue<Path> files = new ConcurrentLinkedQueue<>();
+
+    public ImageStore(Path directory, int maxEntries) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> existing = Files.list(directory)) {
+                existing.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(ImageStore::lastModified))
+                    .forEach(files::add);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The stored image for {@code key}, or {@code null}.
+     */
+    public Path get(String key) {
+        Path file = fileOf(key);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    public Path newTempFile() throws IOException {
+        return Files.createTempFile(directory, "image", ".tmp");
+    }
+
+    /**
+     * Moves a file written to {@link #newTempFile()} into place as the image for {@code key}.
+     */
+    public Path put(String key, Path tmp) throws IOException {
+        Path file = fileOf(key);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        files.add(file);
+        while (files.size() > maxEntries) {
+            Path eldest = files.poll();
+            if (eldest != null) {
+                try {
+                    Files.deleteIfExists(eldest);
+                } catch (IOException e) {
+                    logger.warn("failed to evict stored image {}", eldest, e);
+                }
+            }
+        }
+        return file;
+    }
+
+    private Path fileOf(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.mcddhub.demo02.metrics;
+
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for chat calls, shared by {@link MeteredChatModel} and {@link MetricsAdvisor}.
+ * <p>
+ * Every meter is tagged with {@code source} (which component recorded it), {@code model} and, where it
+ * applies, {@code mode} ({@code call} or {@code stream}); nothing derived from prompt text ends up in a
+ * tag. Meters are registered once per model and looked up from a map afterwards, so recording does not
+ * allocate. Once {@code maxModels} distinct models have been seen, further ones share the
+ * {@value #OTHER_MODEL} tag.
+ * <ul>
+ *     <li>{@code gen_ai.client.operation.duration}: total latency, tagged {@code outcome}: {@code success},
+ *     {@code error}, or {@code cancelled} for streams the subscriber gave up on</li>
+ *     <li>{@code gen_ai.client.time_to_first_token}: streams only</li>
+ *     <li>{@code gen_ai.client.inter_token_gap}: time between streamed chunks</li>
+ *     <li>{@code gen_ai.client.token.usage}: prompt and completion tokens, tagged {@code type}</li>
+ *     <li>{@code gen_ai.client.errors}: failed calls; divide by the duration count for an error rate</li>
+ * </ul>
+ */
+public class ChatMetrics {
+
+    static final String OTHER_MODEL = "other";
+    static final String DEFAULT_MODEL = "default";
+
+    private final MeterRegistry registry;
+    private final String source;
+    private final int maxModels;
+    private final Map<String, ModelMeters> meters = new ConcurrentHashMap<>();
+
+    public ChatMetrics(MeterRegistry registry, String source, int maxModels) {
+        this.registry = registry;
+        this.source = source;
+        this.maxModels = maxModels;
+    }
+
+    /**
+     * The model a prompt goes to: the one in its options, otherwise the one in {@code defaults}.
+     */
+    public static String modelOf(ChatOptions options, ChatOptions defaults) {
+        if (options instanceof DashScopeChatOptions dashScope && dashScope.getModel() != null) {
+            return dashScope.getModel();
+        }
+        if (defaults instanceof DashScopeChatOptions dashScope && dashScope.getModel() != null) {
+            return dashScope.getModel();
+        }
+        return DEFAULT_MODEL;
+    }
+
+    public ModelMeters forModel(String model) {
+        ModelMeters found = meters.get(model);
+        if (found != null) {
+            return found;
+        }
+        if (meters.size() >= maxModels) {
+            model = OTHER_MODEL;
+        }
+        return meters.computeIfAbsent(model, ModelMeters::new);
+    }
+
+    public Stream startStream(String model, long startNanos) {
+        return new Stream(forModel(model), startNanos);
+    }
+
+    public final class ModelMeters {
+
+        private final Timer callDuration;
+        private final Timer callErrorDuration;
+        private final Timer streamDuration;
+        private final Timer streamErrorDuration;
+        private final Timer streamCancelledDuration;
+        private final Timer timeToFirstToken;
+        private final Timer interTokenGap;
+        private final Counter promptTokens;
+        private final Counter completionTokens;
+        private final Counter callErrors;
+        private final Counter streamErrors;
+
+        private ModelMeters(String model) {
+            this.callDuration = duration(model, "call", "success");
+            this.callErrorDuration = duration(model, "call", "error");
+            this.streamDuration = duration(model, "stream", "success");
+            this.streamErrorDuration = duration(model, "stream", "error");
+            this.streamCancelledDuration = duration(model, "stream", "cancelled");
+            this.timeToFirstToken = Timer.builder("gen_ai.client.time_to_first_token")
+                .tags("source", source, "model", model)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+            this.interTokenGap = Timer.builder("gen_ai.client.inter_token_gap")
+                .tags("source", source, "model", model)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+            this.promptTokens = tokens(model, "prompt");
+            this.completionTokens = tokens(model, "completion");
+            this.callErrors = errors(model, "call");
+            this.streamErrors = errors(model, "stream");
+        }
+
+        public void recordCall(long startNanos, ChatResponse response) {
+            callDuration.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            recordUsage(response);
+        }
+
+        public void recordCallError(long startNanos) {
+            callErrorDuration.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            callErrors.increment();
+        }
+
+        private void recordUsage(ChatResponse response) {
+            if (response == null || response.getMetadata() == null) {
+                return;
+            }
+            Usage usage = response.getMetadata().getUsage();
+            if (usage == null) {
+                return;
+            }
+            Long prompt = usage.getPromptTokens();
+            Long completion = usage.getGenerationTokens();
+            if (prompt != null && prompt > 0) {
+                promptTokens.increment(prompt);
+            }
+            if (completion != null && completion > 0) {
+                completionTokens.increment(completion);
+            }
+        }
+
+        private Timer duration(String model, String mode, String outcome) {
+            return Timer.builder("gen_ai.client.operation.duration")
+                .tags("source", source, "model", model, "mode", mode, "outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofMinutes(2))
+                .register(registry);
+        }
+
+        private Counter tokens(String model, String type) {
+            return Counter.builder("gen_ai.client.token.usage")
+                .tags("source", source, "model", model, "type", type)
+                .baseUnit("tokens")
+                .register(registry);
+        }
+
+        private Counter errors(String model, String mode) {
+            return Counter.builder("gen_ai.client.errors")
+                .tags("source", source, "model", model, "mode", mode)
+                .register(registry);
+        }
+    }
+
+    /**
+     * Per-subscription state of a streamed call. DashScope repeats the running usage on every chunk,
+     * so only the last one seen is counted.
+     */
+    public static final class Stream {
+
+        private final ModelMeters meters;
+        private final long startNanos;
+        private boolean started;
+        private long lastChunkNanos;
+        private ChatResponse lastWithUsage;
+
+        private Stream(ModelMeters meters, long startNanos) {
+            this.meters = meters;
+            this.startNanos = startNanos;
+        }
+
+        public void onNext(ChatResponse response) {
+            long now = System.nanoTime();
+            if (!started) {
+                started = true;
+                meters.timeToFirstToken.record(now - startNanos, TimeUnit.NANOSECONDS);
+            } else {
+                meters.interTokenGap.record(now - lastChunkNanos, TimeUnit.NANOSECONDS);
+            }
+            lastChunkNanos = now;
+            if (response.getMetadata() != null && response.getMetadata().getUsage() != null) {
+                lastWithUsage = response;
+            }
+        }
+
+        public void onComplete() {
+            meters.streamDuration.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            meters.recordUsage(lastWithUsage);
+        }
+
+        public void onError() {
+            meters.streamErrorDuration.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            meters.streamErrors.increment();
+        }
+
+        /**
+         * The subscriber went away before the stream ended; the tokens generated until then are still counted.
+         */
+        public void onCancel() {
+            meters.streamCancelledDuration.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            meters.recordUsage(lastWithUsage);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.mcddhub.demo02.metrics;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+/**
+ * Records {@link ChatMetrics} for every call and stream that reaches the wrapped model.
+ */
+public class MeteredChatModel implements ChatModel {
+
+    private final ChatModel delegate;
+    private final ChatMetrics metrics;
+
+    public MeteredChatModel(ChatModel delegate, ChatMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        ChatMetrics.ModelMeters meters = metrics.forModel(ChatMetrics.modelOf(prompt.getOptions(),
+            delegate.getDefaultOptions()));
+        long start = System.nanoTime();
+        ChatResponse response;
+        try {
+            response = delegate.call(prompt);
+        } catch (RuntimeException e) {
+            meters.recordCallError(start);
+            throw e;
+        }
+        meters.recordCall(start, response);
+        return response;
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        String model = ChatMetrics.modelOf(prompt.getOptions(), delegate.getDefaultOptions());
+        return Flux.defer(() -> {
+            ChatMetrics.Stream stream = metrics.startStream(model, System.nanoTime());
+            return delegate.stream(prompt)
+                .doOnNext(stream::onNext)
+                .doOnComplete(stream::onComplete)
+                .doOnError(e -> stream.onError())
+                .doOnCancel(stream::onCancel);
+        });
+    }
+
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+}
@@ -0,0 +1,55 @@
+package com.mcddhub.demo02.metrics;
+
+import org.springframework.ai.chat.client.AdvisedRequest;
+import org.springframework.ai.chat.client.RequestResponseAdvisor;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * Records {@link ChatMetrics} for {@code ChatClient} calls, as seen from the advisor chain.
+ * <p>
+ * Durations include the advisors registered after this one. A blocking call that throws never reaches
+ * {@link #adviseResponse(ChatResponse, Map)}, so call errors are only counted by {@link MeteredChatModel};
+ * stream errors are counted here too.
+ */
+public class MetricsAdvisor implements RequestResponseAdvisor {
+
+    private static final String START = "metrics_advisor_start";
+    private static final String MODEL = "metrics_advisor_model";
+
+    private final ChatMetrics metrics;
+
+    public MetricsAdvisor(ChatMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public AdvisedRequest adviseRequest(AdvisedRequest request, Map<String, Object> context) {
+        context.put(START, System.nanoTime());
+        context.put(MODEL, ChatMetrics.modelOf(request.chatOptions(), request.chatModel().getDefaultOptions()));
+        return request;
+    }
+
+    @Override
+    public ChatResponse adviseResponse(ChatResponse response, Map<String, Object> context) {
+        if (context.get(START) instanceof Long start && context.get(MODEL) instanceof String model) {
+            metrics.forModel(model).recordCall(start, response);
+        }
+        return response;
+    }
+
+    @Override
+    public Flux<ChatResponse> adviseResponse(Flux<ChatResponse> fluxResponse, Map<String, Object> context) {
+        if (!(context.get(START) instanceof Long start && context.get(MODEL) instanceof String model)) {
+            return fluxResponse;
+        }
+        ChatMetrics.Stream stream = metrics.startStream(model, start);
+        return fluxResponse
+            .doOnNext(stream::onNext)
+            .doOnComplete(stream::onComplete)
+            .doOnError(e -> stream.onError())
+            .doOnCancel(stream::onCancel);
+    }
+}
@@ -0,0 +1,122 @@
+package com.mcddhub.demo02.routing;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-model breaker over an exponentially weighted error rate.
+ * <p>
+ * It opens once at least {@code minimumCalls} calls have completed since it last closed and the error rate
+ * reaches {@code failureRateThreshold}. After {@code openDuration} a single probe call is let through: success
+ * closes the breaker and forgets the old errors, failure opens it for another {@code openDuration}.
+ */
+public class CircuitBreaker {
+
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final double alpha;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private State state = State.CLOSED;
+    private double errorRate;
+    private long callsSinceClosed;
+    private long openedAt;
+
+    public CircuitBreaker(double alpha, double failureRateThreshold, int minimumCalls, Duration openDuration) {
+        this.alpha = alpha;
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = minimumCalls;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Whether a call may go to the model now. Moves an open breaker whose wait is over to half-open, in which
+     * case the caller is the probe and must report its outcome.
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            return switch (state) {
+                case CLOSED -> true;
+                case HALF_OPEN -> false;
+                case OPEN -> {
+                    if (System.nanoTime() - openedAt < openNanos) {
+                        yield false;
+                    }
+                    state = State.HALF_OPEN;
+                    yield true;
+                }
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                state = State.CLOSED;
+                errorRate = 0;
+                callsSinceClosed = 0;
+                return;
+            }
+            errorRate = (1 - alpha) * errorRate;
+            callsSinceClosed++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            errorRate = alpha + (1 - alpha) * errorRate;
+            callsSinceClosed++;
+            if (state == State.HALF_OPEN
+                || state == State.CLOSED && callsSinceClosed >= minimumCalls && errorRate >= failureRateThreshold) {
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A call that was let through never reported, e.g. it lost a hedge. A half-open breaker lets the next
+     * call probe instead.
+     */
+    public void onCancel() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                state = State.OPEN;
+                openedAt = System.nanoTime() - openNanos;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double errorRate() {
+        lock.lock();
+        try {
+            return errorRate;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
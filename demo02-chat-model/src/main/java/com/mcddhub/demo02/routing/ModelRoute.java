@@ -0,0 +1,161 @@
+package com.mcddhub.demo02.routing;
+
+import org.springframework.ai.chat.model.ChatModel;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One model {@link RoutingChatModel} can send a prompt to, with its live state: a latency EWMA and a window of
+ * recent latencies for the hedge threshold, a concurrency limit and a {@link CircuitBreaker}.
+ */
+public class ModelRoute {
+
+    private final String model;
+    private final ChatModel chatModel;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final CircuitBreaker breaker;
+    private final double alpha;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] window;
+    private int windowNext;
+    private int windowSize;
+    private double latencyEwmaNanos;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder wins = new LongAdder();
+
+    public ModelRoute(String model, ChatModel chatModel, int maxConcurrency, CircuitBreaker breaker, double alpha,
+                      int windowSize) {
+        this.model = model;
+        this.chatModel = chatModel;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.breaker = breaker;
+        this.alpha = alpha;
+        this.window = new long[windowSize];
+    }
+
+    public String model() {
+        return model;
+    }
+
+    ChatModel chatModel() {
+        return chatModel;
+    }
+
+    /**
+     * Takes a concurrency slot if one is free and the breaker lets the call through; never waits.
+     */
+    boolean tryAcquire() {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            return false;
+        }
+        if (!breaker.tryAcquire()) {
+            permits.release();
+            rejected.increment();
+            return false;
+        }
+        calls.increment();
+        return true;
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    void recordSuccess() {
+        breaker.onSuccess();
+    }
+
+    void recordFailure() {
+        failures.increment();
+        breaker.onFailure();
+    }
+
+    void recordCancelled() {
+        cancelled.increment();
+        breaker.onCancel();
+    }
+
+    void recordWin() {
+        wins.increment();
+    }
+
+    void recordLatency(long nanos) {
+        lock.lock();
+        try {
+            latencyEwmaNanos = windowSize == 0 ? nanos : alpha * nanos + (1 - alpha) * latencyEwmaNanos;
+            window[windowNext] = nanos;
+            windowNext = (windowNext + 1) % window.length;
+            windowSize = Math.min(windowSize + 1, window.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Expected cost of sending the next call here, lower is better: the latency EWMA inflated by the error
+     * rate and by how busy the model already is. A model without samples scores 0, so it gets tried.
+     */
+    double score() {
+        double busy = 1 + (double) (maxConcurrency - permits.availablePermits()) / maxConcurrency;
+        return latencyEwmaNanos() / Math.max(0.05, 1 - breaker.errorRate()) * busy;
+    }
+
+    private double latencyEwmaNanos() {
+        lock.lock();
+        try {
+            return latencyEwmaNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The given percentile of the recent latencies, or {@code -1} with fewer than {@code minSamples} of them.
+     */
+    long percentileNanos(double percentile, int minSamples) {
+        long[] sorted;
+        lock.lock();
+        try {
+            if (windowSize == 0 || windowSize < minSamples) {
+                return -1;
+            }
+            sorted = Arrays.copyOf(window, windowSize);
+        } finally {
+            lock.unlock();
+        }
+        Arrays.sort(sorted);
+        return sorted[Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    public CircuitBreaker.State state() {
+        return breaker.state();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", breaker.state());
+        stats.put("latencyEwmaMillis", Math.round(latencyEwmaNanos() / 1e4) / 100.0);
+        stats.put("errorRate", Math.round(breaker.errorRate() * 1000) / 1000.0);
+        stats.put("inFlight", maxConcurrency - permits.availablePermits());
+        stats.put("maxConcurrency", maxConcurrency);
+        stats.put("calls", calls.sum());
+        stats.put("wins", wins.sum());
+        stats.put("failures", failures.sum());
+        stats.put("cancelled", cancelled.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+}
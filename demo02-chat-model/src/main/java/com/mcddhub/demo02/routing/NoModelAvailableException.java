@@ -0,0 +1,15 @@
+package com.mcddhub.demo02.routing;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class NoModelAvailableException extends RuntimeException {
+
+    public NoModelAvailableException(List<ModelRoute> routes) {
+        super("no model can take the call, all are at their concurrency limit or have an open breaker: "
+            + routes.stream().map(route -> route.model() + "=" + route.state()).toList());
+    }
+}
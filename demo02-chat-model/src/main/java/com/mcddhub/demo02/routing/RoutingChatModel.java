@@ -0,0 +1,322 @@
+package com.mcddhub.demo02.routing;
+
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends each prompt to one of several models, chosen by their live latency and error rate.
+ * <p>
+ * Only prompts without options, or with {@link DashScopeChatOptions} that name no model or one of the routed
+ * models, are routed; any other prompt goes to {@code delegate} untouched, so a caller that asks for a model
+ * gets that model. A prompt that names one of the routed models goes there first, as long as that model has a
+ * free slot and a closed breaker; a prompt that names none goes to the model with the lowest
+ * {@link ModelRoute#score()}. If the call
+ * is still running after the chosen model's {@code hedgePercentile} latency, a hedged copy goes to the next
+ * best model and whichever answers first wins; the other call is cancelled. A call that fails before a hedge
+ * was sent falls back to the next best model right away. Models at their concurrency limit or with an open
+ * breaker are skipped, and when none is left the call fails with {@link NoModelAvailableException}.
+ * <p>
+ * Streams are not hedged, since both copies would be billed for every token; they only fall back when the
+ * chosen model fails before the first chunk.
+ */
+public class RoutingChatModel implements ChatModel {
+
+    private final ChatModel delegate;
+    private final List<ModelRoute> routes;
+    private final ExecutorService executor;
+    private final double hedgePercentile;
+    private final int minSamples;
+    private final long initialHedgeDelayNanos;
+    private final long minHedgeDelayNanos;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder unavailable = new LongAdder();
+
+    /**
+     * @param delegate answers the prompts that are not routed
+     */
+    public RoutingChatModel(ChatModel delegate, List<ModelRoute> routes, ExecutorService executor,
+                            double hedgePercentile, int minSamples, Duration initialHedgeDelay,
+                            Duration minHedgeDelay) {
+        this.delegate = delegate;
+        this.routes = List.copyOf(routes);
+        this.executor = executor;
+        this.hedgePercentile = hedgePercentile;
+        this.minSamples = minSamples;
+        this.initialHedgeDelayNanos = initialHedgeDelay.toNanos();
+        this.minHedgeDelayNanos = minHedgeDelay.toNanos();
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        if (!routed(prompt)) {
+            bypassed.increment();
+            return delegate.call(prompt);
+        }
+        calls.increment();
+        List<ModelRoute> ranked = rank(prompt);
+        BlockingQueue<Attempt> finished = new LinkedBlockingQueue<>();
+        Attempt primary = launch(prompt, ranked, null, finished);
+        if (primary == null) {
+            unavailable.increment();
+            throw new NoModelAvailableException(routes);
+        }
+        Attempt backup = null;
+        boolean hedge = false;
+        try {
+            Attempt first = finished.poll(hedgeDelayNanos(primary.route), TimeUnit.NANOSECONDS);
+            if (first == null) {
+                backup = launch(prompt, ranked, primary.route, finished);
+                hedge = backup != null;
+                if (hedge) {
+                    hedged.increment();
+                }
+                first = finished.take();
+            }
+            if (first.error == null) {
+                return win(first, first == backup && hedge);
+            }
+
+            if (backup == null) {
+                backup = launch(prompt, ranked, primary.route, finished);
+                if (backup == null) {
+                    throw first.error;
+                }
+                fallbacks.increment();
+            }
+            Attempt second = finished.take();
+            if (second.error == null) {
+                return win(second, second == backup && hedge);
+            }
+            second.error.addSuppressed(first.error);
+            throw second.error;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for " + primary.route.model(), e);
+        } finally {
+            primary.cancel();
+            if (backup != null) {
+                backup.cancel();
+            }
+        }
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> {
+            if (!routed(prompt)) {
+                bypassed.increment();
+                return delegate.stream(prompt);
+            }
+            calls.increment();
+            return stream(prompt, rank(prompt), null, null);
+        });
+    }
+
+    private Flux<ChatResponse> stream(Prompt prompt, List<ModelRoute> ranked, ModelRoute failed,
+                                      Throwable failure) {
+        ModelRoute route = acquire(ranked, failed);
+        if (route == null) {
+            if (failure != null) {
+                return Flux.error(failure);
+            }
+            unavailable.increment();
+            return Flux.error(new NoModelAvailableException(routes));
+        }
+        if (failure != null) {
+            fallbacks.increment();
+        }
+        AtomicBoolean emitted = new AtomicBoolean();
+        return route.chatModel().stream(pinned(prompt, route.model()))
+            .doOnNext(response -> emitted.set(true))
+            .doFinally(signal -> {
+                route.release();
+                if (signal == SignalType.ON_ERROR) {
+                    route.recordFailure();
+                } else if (signal == SignalType.CANCEL && !emitted.get()) {
+                    route.recordCancelled();
+                } else {
+                    route.recordSuccess();
+                    route.recordWin();
+                }
+            })
+            .onErrorResume(e -> emitted.get() || failure != null
+                ? Flux.error(e)
+                : stream(prompt, ranked, route, e));
+    }
+
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("calls", calls.sum());
+        stats.put("bypassed", bypassed.sum());
+        stats.put("hedged", hedged.sum());
+        stats.put("hedgeWins", hedgeWins.sum());
+        stats.put("fallbacks", fallbacks.sum());
+        stats.put("unavailable", unavailable.sum());
+        Map<String, Object> models = new LinkedHashMap<>();
+        for (ModelRoute route : routes) {
+            Map<String, Object> model = route.stats();
+            model.put("hedgeAfterMillis", Math.round(hedgeDelayNanos(route) / 1e4) / 100.0);
+            models.put(route.model(), model);
+        }
+        stats.put("models", models);
+        return stats;
+    }
+
+    private boolean routed(Prompt prompt) {
+        if (prompt.getOptions() == null) {
+            return true;
+        }
+        if (!(prompt.getOptions() instanceof DashScopeChatOptions options)) {
+            return false;
+        }
+        String requested = options.getModel();
+        return requested == null || routes.stream().anyMatch(route -> route.model().equals(requested));
+    }
+
+    /**
+     * The routes by ascending score, with the model the prompt asks for, if it is one of them, in front.
+     */
+    private List<ModelRoute> rank(Prompt prompt) {
+        String requested = prompt.getOptions() instanceof DashScopeChatOptions options ? options.getModel() : null;
+        // scores move while calls complete, so sort on a snapshot
+        Map<ModelRoute, Double> scores = new HashMap<>();
+        for (ModelRoute route : routes) {
+            scores.put(route, route.score());
+        }
+        List<ModelRoute> ranked = new ArrayList<>(routes);
+        ranked.sort(Comparator.comparing((ModelRoute route) -> !route.model().equals(requested))
+            .thenComparing(scores::get));
+        return ranked;
+    }
+
+    private ModelRoute acquire(List<ModelRoute> ranked, ModelRoute exclude) {
+        for (ModelRoute route : ranked) {
+            if (route != exclude && route.tryAcquire()) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private Attempt launch(Prompt prompt, List<ModelRoute> ranked, ModelRoute exclude,
+                           BlockingQueue<Attempt> finished) {
+        ModelRoute route = acquire(ranked, exclude);
+        if (route == null) {
+            return null;
+        }
+        Attempt attempt = new Attempt(route);
+        Prompt routed = pinned(prompt, route.model());
+        attempt.future = executor.submit(() -> attempt.run(routed, finished));
+        return attempt;
+    }
+
+    private long hedgeDelayNanos(ModelRoute route) {
+        long threshold = route.percentileNanos(hedgePercentile, minSamples);
+        return Math.max(minHedgeDelayNanos, threshold < 0 ? initialHedgeDelayNanos : threshold);
+    }
+
+    private ChatResponse win(Attempt winner, boolean hedge) {
+        winner.route.recordWin();
+        if (hedge) {
+            hedgeWins.increment();
+        }
+        return winner.response;
+    }
+
+    /**
+     * A copy of the prompt addressed to {@code model}, keeping the rest of its options. The options are copied
+     * field by field: a JSON round trip would drop the {@code @JsonIgnore} ones, such as function callbacks.
+     */
+    static Prompt pinned(Prompt prompt, String model) {
+        DashScopeChatOptions options = DashScopeChatOptions.builder().build();
+        if (prompt.getOptions() instanceof DashScopeChatOptions dashScope) {
+            ReflectionUtils.shallowCopyFieldState(dashScope, options);
+        }
+        options.setModel(model);
+        return new Prompt(prompt.getInstructions(), options);
+    }
+
+    /**
+     * One call to one model. Exactly one of the task and {@link #cancel()} claims it, and that side releases the
+     * model's slot, so a task cancelled before it started does not leak it.
+     */
+    private static class Attempt {
+
+        private final ModelRoute route;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile Future<?> future;
+        private volatile boolean cancelled;
+        private volatile ChatResponse response;
+        private volatile RuntimeException error;
+
+        Attempt(ModelRoute route) {
+            this.route = route;
+        }
+
+        void run(Prompt prompt, BlockingQueue<Attempt> finished) {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                response = route.chatModel().call(prompt);
+                route.recordLatency(System.nanoTime() - start);
+                route.recordSuccess();
+            } catch (RuntimeException e) {
+                error = e;
+                if (cancelled) {
+                    route.recordCancelled();
+                } else {
+                    route.recordFailure();
+                }
+            } finally {
+                route.release();
+                finished.add(this);
+            }
+        }
+
+        void cancel() {
+            if (response != null || error != null) {
+                return;
+            }
+            cancelled = true;
+            if (future != null) {
+                future.cancel(true);
+            }
+            if (claimed.compareAndSet(false, true)) {
+                route.release();
+                route.recordCancelled();
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.mcddhub.demo02.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashScopeTranscriberTest {
+
+    @Test
+    void should_declare_the_pcm_format_in_the_wav_header() {
+        byte[] pcm = new byte[3200];
+        ByteBuffer wav = ByteBuffer.wrap(DashScopeTranscriber.wav(ByteBuffer.wrap(pcm).asReadOnlyBuffer(), 16000, 1))
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+        assertEquals(44 + pcm.length, wav.capacity());
+        assertEquals("RIFF", new String(wav.array(), 0, 4));
+        assertEquals(36 + pcm.length, wav.getInt(4));
+        assertEquals("WAVE", new String(wav.array(), 8, 4));
+        assertEquals(1, wav.getShort(20));
+        assertEquals(1, wav.getShort(22));
+        assertEquals(16000, wav.getInt(24));
+        assertEquals(32000, wav.getInt(28));
+        assertEquals(2, wav.getShort(32));
+        assertEquals(16, wav.getShort(34));
+        assertEquals("data", new String(wav.array(), 36, 4));
+        assertEquals(pcm.length, wav.getInt(40));
+    }
+}
@@ -0,0 +1,81 @@
+package com.mcddhub.demo02.audio;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpAudioUploaderTest {
+
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private URI baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/bucket/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            requests.add(exchange.getRequestMethod() + " " + path);
+            int status = 200;
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    try (InputStream body = exchange.getRequestBody()) {
+                        objects.put(path, body.readAllBytes());
+                    }
+                }
+                case "DELETE" -> status = objects.remove(path) == null ? 404 : 204;
+                default -> status = 405;
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/bucket/audio");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void should_put_the_audio_under_the_base_url_and_delete_it() throws IOException {
+        HttpAudioUploader uploader = new HttpAudioUploader(HttpClient.newHttpClient(), baseUrl, Duration.ofSeconds(5));
+        byte[] wav = {'R', 'I', 'F', 'F', 1, 2, 3, 4};
+
+        URI location = uploader.upload("segment.wav", wav);
+
+        assertEquals(baseUrl + "/segment.wav", location.toString());
+        assertArrayEquals(wav, objects.get("/bucket/audio/segment.wav"));
+
+        uploader.delete(location);
+
+        assertTrue(objects.isEmpty());
+        assertEquals(List.of("PUT /bucket/audio/segment.wav", "DELETE /bucket/audio/segment.wav"), requests);
+    }
+
+    @Test
+    void should_fail_when_the_store_refuses_the_audio() {
+        HttpAudioUploader uploader = new HttpAudioUploader(HttpClient.newHttpClient(),
+            URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/elsewhere/"), Duration.ofSeconds(5));
+
+        IOException e = assertThrows(IOException.class, () -> uploader.upload("segment.wav", new byte[8]));
+
+        assertTrue(e.getMessage().endsWith("returned 404"), e.getMessage());
+    }
+}
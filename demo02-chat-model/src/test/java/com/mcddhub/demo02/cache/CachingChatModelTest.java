@@ -0,0 +1,210 @@
+package com.mcddhub.demo02.cache;
+
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingChatModelTest {
+
+    private static final String PIRATES = "Generate the names of 5 famous pirates.";
+
+    @Test
+    void should_collapse_concurrent_identical_calls() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountingChatModel upstream = new CountingChatModel(release);
+        CachingChatModel model = new CachingChatModel(upstream, 10, null, false);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<ChatResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> model.call(qwenPlus(PIRATES))));
+            }
+            while ((long) model.stats().get("coalesced") < 15) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<ChatResponse> future : futures) {
+                assertEquals("answer-1", future.get(5, TimeUnit.SECONDS).getResult().getOutput().getContent());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, upstream.calls.get());
+        assertEquals("answer-1", model.call(qwenPlus("  Generate the names of 5   famous pirates. "))
+            .getResult().getOutput().getContent());
+        assertEquals(1, upstream.calls.get());
+    }
+
+    @Test
+    void should_key_on_model_and_temperature() {
+        CountingChatModel upstream = new CountingChatModel(new CountDownLatch(0));
+        CachingChatModel model = new CachingChatModel(upstream, 10, null, true);
+
+        model.call(qwenPlus(PIRATES));
+        model.call(new Prompt(PIRATES, DashScopeChatOptions.builder()
+            .withModel("qwen-plus")
+            .withTemperature(0.8F).build()));
+        model.call(new Prompt(PIRATES));
+
+        assertEquals(3, upstream.calls.get());
+    }
+
+    @Test
+    void should_serve_from_disk_after_heap_eviction(@TempDir Path directory) {
+        CountingChatModel upstream = new CountingChatModel(new CountDownLatch(0));
+        CachingChatModel model = new CachingChatModel(upstream, 1, new DiskResponseStore(directory, 10), false);
+
+        model.call(qwenPlus("first"));
+        model.call(qwenPlus("second"));
+        ChatResponse response = model.call(qwenPlus("first"));
+
+        assertEquals("answer-1", response.getResult().getOutput().getContent());
+        assertEquals(2, upstream.calls.get());
+        assertEquals(1L, model.stats().get("diskHits"));
+    }
+
+    @Test
+    void should_only_cache_prompts_at_temperature_zero_by_default() {
+        CountingChatModel upstream = new CountingChatModel(new CountDownLatch(0));
+        CachingChatModel model = new CachingChatModel(upstream, 10, null, false);
+        Prompt sampled = new Prompt(PIRATES, DashScopeChatOptions.builder()
+            .withModel("qwen-plus")
+            .withTemperature(0.8F).build());
+
+        model.call(sampled);
+        model.call(sampled);
+        // no temperature on the prompt or the model's defaults: the service samples
+        model.call(new Prompt(PIRATES));
+        model.call(qwenPlus(PIRATES));
+        model.call(qwenPlus(PIRATES));
+
+        assertEquals(4, upstream.calls.get());
+        assertEquals(3L, model.stats().get("uncached"));
+        assertEquals(1L, model.stats().get("hits"));
+    }
+
+    @Test
+    void should_use_the_default_temperature_when_the_prompt_sets_none() {
+        CountingChatModel upstream = new CountingChatModel(new CountDownLatch(0),
+            DashScopeChatOptions.builder().withModel("qwen-plus").withTemperature(0F).build());
+        CachingChatModel model = new CachingChatModel(upstream, 10, null, false);
+
+        model.call(new Prompt(PIRATES));
+        model.call(new Prompt(PIRATES));
+
+        assertEquals(1, upstream.calls.get());
+    }
+
+    @Test
+    void should_keep_queued_keys_and_files_in_step_under_concurrent_puts(@TempDir Path directory) throws Exception {
+        DiskResponseStore store = new DiskResponseStore(directory, 2);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        store.put("key-" + (i + thread) % 3, answer("answer-" + i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long files;
+        try (Stream<Path> answers = Files.list(directory)) {
+            files = answers.filter(path -> path.toString().endsWith(".answer")).count();
+        }
+        long readable = IntStream.range(0, 3).filter(i -> store.get("key-" + i) != null).count();
+        // every queued key still has its file and no evicted key left one behind
+        assertEquals(store.size(), files);
+        assertEquals(files, readable);
+        assertTrue(files <= 2, "files: " + files);
+    }
+
+    @Test
+    void should_keep_a_rewritten_key_once_in_the_eviction_order(@TempDir Path directory) {
+        DiskResponseStore store = new DiskResponseStore(directory, 2);
+
+        store.put("first", answer("old"));
+        store.put("first", answer("new"));
+        store.put("second", answer("second"));
+
+        assertEquals("new", store.get("first").response().getResult().getOutput().getContent());
+        assertEquals("second", store.get("second").response().getResult().getOutput().getContent());
+
+        store.put("third", answer("third"));
+
+        assertNull(store.get("first"));
+        assertNotNull(store.get("second"));
+        assertNotNull(store.get("third"));
+    }
+
+    private static CachedResponse answer(String text) {
+        return new CachedResponse(new ChatResponse(List.of(new Generation(text))), 1);
+    }
+
+    private static Prompt qwenPlus(String text) {
+        return new Prompt(text, DashScopeChatOptions.builder()
+            .withModel("qwen-plus")
+            .withTemperature(0F).build());
+    }
+
+    private static class CountingChatModel implements ChatModel {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch release;
+        private final ChatOptions defaultOptions;
+
+        CountingChatModel(CountDownLatch release) {
+            this(release, null);
+        }
+
+        CountingChatModel(CountDownLatch release, ChatOptions defaultOptions) {
+            this.release = release;
+            this.defaultOptions = defaultOptions;
+        }
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            int call = calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ChatResponse(List.of(new Generation("answer-" + call)));
+        }
+
+        public ChatOptions getDefaultOptions() {
+            return defaultOptions;
+        }
+    }
+}
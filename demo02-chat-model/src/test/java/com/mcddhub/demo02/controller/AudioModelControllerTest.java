@@ -0,0 +1,373 @@
+package com.mcddhub.demo02.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mcddhub.demo02.audio.SegmentedTranscription;
+import com.mcddhub.demo02.audio.SpeechStreamer;
+import com.mcddhub.demo02.audio.SpeechSynthesizer;
+import com.mcddhub.demo02.audio.Transcriber;
+import com.mcddhub.demo02.config.AudioProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AudioModelControllerTest {
+
+    private static final int CHUNK_BYTES = 64 * 1024;
+    private static final int SEGMENT_BYTES = 256 * 1024;
+    private static final int MAX_BUFFERED_CHUNKS = 4;
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void should_stream_speech_chunk_by_chunk_with_bounded_buffering() throws IOException {
+        // 64 MB of audio
+        SpeechResult result = speak(1024);
+
+        assertEquals(1024L * CHUNK_BYTES, result.bytes());
+        assertTrue(result.maxAhead() <= MAX_BUFFERED_CHUNKS + 1,
+            "synthesis ran " + result.maxAhead() + " chunks ahead of the client");
+    }
+
+    @Test
+    void should_send_each_speech_chunk_before_synthesis_finishes() throws Exception {
+        Sinks.Many<ByteBuffer> sink = Sinks.many().unicast().onBackpressureBuffer();
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller(text -> sink.asFlux(), segment -> "")).build();
+
+        MvcResult result = mockMvc.perform(get("/demo02/audios/speech").param("text", "tell me a long story"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < 8; i++) {
+            byte[] chunk = new byte[1000];
+            Arrays.fill(chunk, (byte) i);
+            assertTrue(sink.tryEmitNext(ByteBuffer.wrap(chunk)).isSuccess());
+            expected.write(chunk);
+            awaitBody(result.getResponse(), expected.toByteArray());
+        }
+        sink.tryEmitComplete();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("audio/mpeg"))
+            // without a length the container sends the body with chunked transfer encoding
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_LENGTH))
+            .andExpect(content().bytes(expected.toByteArray()));
+    }
+
+    @Test
+    void should_cancel_synthesis_when_the_client_goes_away() {
+        SyntheticSpeech speech = new SyntheticSpeech(1_000);
+        AudioModelController controller = controller(speech, segment -> "");
+        OutputStream disconnecting = new OutputStream() {
+            private int writes;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (++writes > 3) {
+                    throw new IOException("broken pipe");
+                }
+            }
+        };
+
+        assertThrows(IOException.class,
+            () -> controller.speech("hello").getBody().writeTo(disconnecting));
+
+        assertTrue(speech.cancelled.get());
+        assertTrue(speech.produced.get() < 10, speech.produced.get() + " chunks synthesized");
+        assertEquals(1L, ((Map<?, ?>) controller.stats().get("speech")).get("aborted"));
+    }
+
+    @Test
+    void should_reject_blank_speech_text() {
+        assertEquals(400, controller(new SyntheticSpeech(1), segment -> "").speech(" ").getStatusCode().value());
+    }
+
+    @Test
+    void should_transcribe_a_long_upload_one_segment_at_a_time() throws IOException {
+        // 64 MB of audio, streamed from a generator rather than held anywhere
+        TranscriptionResult result = transcribe(64L * 1024 * 1024 + 100);
+
+        assertEquals(257 + 1, result.lineCount());
+        assertEquals(0, result.first().get("index").asInt());
+        assertEquals(SEGMENT_BYTES, result.first().get("bytes").asInt());
+        assertEquals(256, result.lastSegment().get("index").asInt());
+        assertEquals(256L * SEGMENT_BYTES, result.lastSegment().get("offset").asLong());
+        assertEquals(100, result.lastSegment().get("bytes").asInt());
+        assertEquals("segment 256", result.lastSegment().get("text").asText());
+        assertEquals(257, result.summary().get("segments").asInt());
+        assertEquals(64L * 1024 * 1024 + 100, result.summary().get("bytes").asLong());
+        assertTrue(result.maxReadAhead() <= SEGMENT_BYTES,
+            "read " + result.maxReadAhead() + " bytes of upload ahead of the transcripts");
+        assertTrue(result.readAtFirstLine() <= SEGMENT_BYTES,
+            "the first transcript waited for " + result.readAtFirstLine() + " bytes of upload");
+    }
+
+    @Test
+    void should_transcribe_a_multipart_upload() throws Exception {
+        byte[] audio = new byte[SEGMENT_BYTES * 2 + 100];
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+            controller(new SyntheticSpeech(1), segment -> "heard " + segment.remaining())).build();
+
+        MvcResult result = mockMvc.perform(multipart("/demo02/audios/transcription")
+                .file(new MockMultipartFile("file", "speech.pcm", "audio/pcm", audio)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        assertTranscribedInThreeSegments(mockMvc, result);
+    }
+
+    @Test
+    void should_transcribe_a_raw_request_body() throws Exception {
+        byte[] audio = new byte[SEGMENT_BYTES * 2 + 100];
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+            controller(new SyntheticSpeech(1), segment -> "heard " + segment.remaining())).build();
+
+        MvcResult result = mockMvc.perform(post("/demo02/audios/transcription")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(audio))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        assertTranscribedInThreeSegments(mockMvc, result);
+    }
+
+    @Test
+    void should_report_a_failing_segment_in_the_body() throws IOException {
+        AudioModelController controller = controller(new SyntheticSpeech(1), segment -> {
+            throw new IllegalStateException("quota exceeded");
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        controller.transcription(new SyntheticAudio(SEGMENT_BYTES * 3L)).getBody().writeTo(out);
+
+        List<JsonNode> lines = lines(out.toString(StandardCharsets.UTF_8));
+        assertEquals(1, lines.size());
+        assertEquals("quota exceeded", lines.get(0).get("error").asText());
+    }
+
+    private void assertTranscribedInThreeSegments(MockMvc mockMvc, MvcResult result) throws Exception {
+        String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString(StandardCharsets.UTF_8);
+
+        List<JsonNode> lines = lines(body);
+        assertEquals(4, lines.size(), body);
+        assertEquals("heard " + SEGMENT_BYTES, lines.get(0).get("text").asText());
+        assertEquals("heard 100", lines.get(2).get("text").asText());
+        assertEquals(SEGMENT_BYTES * 2L, lines.get(2).get("offset").asLong());
+        assertEquals(3, lines.get(3).get("segments").asInt());
+        assertEquals(SEGMENT_BYTES * 2L + 100, lines.get(3).get("bytes").asLong());
+    }
+
+    private SpeechResult speak(int chunks) throws IOException {
+        SyntheticSpeech speech = new SyntheticSpeech(chunks);
+        AudioModelController controller = controller(speech, segment -> "");
+
+        AtomicLong bytes = new AtomicLong();
+        AtomicLong maxAhead = new AtomicLong();
+        controller.speech("tell me a long story").getBody().writeTo(new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                // chunks synthesized but not yet written, this one included
+                maxAhead.accumulateAndGet(speech.produced.get() - bytes.get() / CHUNK_BYTES, Math::max);
+                bytes.addAndGet(len);
+            }
+        });
+        return new SpeechResult(bytes.get(), maxAhead.get());
+    }
+
+    private TranscriptionResult transcribe(long length) throws IOException {
+        SyntheticAudio audio = new SyntheticAudio(length);
+        AtomicInteger segments = new AtomicInteger();
+        AtomicLong transcribed = new AtomicLong();
+        AtomicLong maxReadAhead = new AtomicLong();
+        AudioModelController controller = controller(new SyntheticSpeech(1), segment -> {
+            assertTrue(segment.isReadOnly());
+            assertTrue(segment.remaining() <= SEGMENT_BYTES);
+            maxReadAhead.accumulateAndGet(audio.position - transcribed.get(), Math::max);
+            transcribed.addAndGet(segment.remaining());
+            return "segment " + segments.getAndIncrement();
+        });
+
+        // keeps only the first and the last two lines, so the test itself does not grow with the upload
+        List<String> kept = new ArrayList<>();
+        AtomicInteger lineCount = new AtomicInteger();
+        AtomicLong readAtFirstLine = new AtomicLong(-1);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        controller.transcription(audio).getBody().writeTo(new OutputStream() {
+            @Override
+            public void write(int b) {
+                if (b != '\n') {
+                    line.write(b);
+                    return;
+                }
+                readAtFirstLine.compareAndSet(-1, audio.position);
+                lineCount.incrementAndGet();
+                kept.add(line.toString(StandardCharsets.UTF_8));
+                line.reset();
+                if (kept.size() > 3) {
+                    kept.remove(1);
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                for (int i = off; i < off + len; i++) {
+                    write(b[i]);
+                }
+            }
+        });
+        return new TranscriptionResult(lineCount.get(), objectMapper.readTree(kept.get(0)),
+            objectMapper.readTree(kept.get(kept.size() - 2)), objectMapper.readTree(kept.get(kept.size() - 1)),
+            maxReadAhead.get(), readAtFirstLine.get());
+    }
+
+    private AudioModelController controller(SpeechSynthesizer synthesizer, Transcriber transcriber) {
+        return new AudioModelController(new SpeechStreamer(synthesizer, MAX_BUFFERED_CHUNKS),
+            new SegmentedTranscription(transcriber, SEGMENT_BYTES),
+            new AudioProperties(DataSize.ofBytes(SEGMENT_BYTES), MAX_BUFFERED_CHUNKS, "audio/mpeg", 16000, 1, null,
+                Duration.ofSeconds(30)),
+            objectMapper);
+    }
+
+    private List<JsonNode> lines(String ndjson) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Waits until the chunks sent so far are visible in the servlet response, while synthesis has not finished.
+     */
+    private static void awaitBody(MockHttpServletResponse response, byte[] expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!Arrays.equals(response.getContentAsByteArray(), expected)) {
+            assertTrue(System.nanoTime() < deadline, "chunk not written to the response: expected "
+                + expected.length + " bytes, got " + response.getContentAsByteArray().length);
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @param maxAhead the most chunks synthesized but not yet written to the client
+     */
+    private record SpeechResult(long bytes, long maxAhead) {
+    }
+
+    /**
+     * @param maxReadAhead the most upload bytes read but not yet transcribed
+     */
+    private record TranscriptionResult(int lineCount, JsonNode first, JsonNode lastSegment, JsonNode summary,
+                                       long maxReadAhead, long readAtFirstLine) {
+    }
+
+    /**
+     * Synthesizes {@code chunks} fresh 64 KB chunks lazily, as the subscriber asks for them.
+     */
+    private static class SyntheticSpeech implements SpeechSynthesizer {
+
+        private final int chunks;
+        private final AtomicInteger produced = new AtomicInteger();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        SyntheticSpeech(int chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public Flux<ByteBuffer> synthesize(String text) {
+            return Flux.range(0, chunks)
+                .map(i -> {
+                    produced.incrementAndGet();
+                    return ByteBuffer.allocate(CHUNK_BYTES);
+                })
+                .doOnCancel(() -> cancelled.set(true));
+        }
+    }
+
+    /**
+     * An upload of {@code length} bytes generated on the fly, recording how far it has been read.
+     */
+    private static class SyntheticAudio extends InputStream {
+
+        private final long length;
+        private volatile long position;
+
+        SyntheticAudio(long length) {
+            this.length = length;
+        }
+
+        @Override
+        public int read() {
+            return position < length ? (int) (position++ & 0xff) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= length) {
+                return -1;
+            }
+            // a network upload arrives in small reads
+            int n = (int) Math.min(Math.min(len, 16 * 1024), length - position);
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) (position + i);
+            }
+            position += n;
+            return n;
+        }
+    }
+}
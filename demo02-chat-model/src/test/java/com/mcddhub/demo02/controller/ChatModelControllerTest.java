@@ -0,0 +1,87 @@
+package com.mcddhub.demo02.controller;
+
+import com.mcddhub.demo02.metrics.ChatMetrics;
+import com.mcddhub.demo02.metrics.MetricsAdvisor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ChatModelControllerTest {
+
+    private static final int CHUNKS = 200;
+
+    @Test
+    void should_write_each_chunk_to_the_response_before_the_next_is_produced() throws Exception {
+        Sinks.Many<ChatResponse> sink = Sinks.many().unicast().onBackpressureBuffer();
+        ChatModelController controller = new ChatModelController(new SinkChatModel(sink.asFlux()),
+            new MetricsAdvisor(new ChatMetrics(new SimpleMeterRegistry(), "chat_client", 20)));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        MvcResult result = mockMvc.perform(get("/demo02/chats/stream").param("input", "tell me a long story"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < CHUNKS; i++) {
+            String token = "token-" + i + " ";
+            assertTrue(sink.tryEmitNext(new ChatResponse(List.of(new Generation(token)))).isSuccess());
+            expected.append(token);
+            awaitBody(result.getResponse(), expected.toString());
+        }
+        sink.tryEmitComplete();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().string(expected.toString()));
+    }
+
+    /**
+     * Waits until the chunks written so far are visible in the servlet response, while the model has not finished.
+     */
+    private static void awaitBody(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!response.getContentAsString(StandardCharsets.UTF_8).equals(expected)) {
+            assertTrue(System.nanoTime() < deadline, "chunk not written to the response: expected \"" + expected
+                + "\", got \"" + response.getContentAsString(StandardCharsets.UTF_8) + "\"");
+            Thread.onSpinWait();
+        }
+    }
+
+    private record SinkChatModel(Flux<ChatResponse> chunks) implements ChatModel {
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return chunks;
+        }
+
+        public ChatOptions getDefaultOptions() {
+            return null;
+        }
+    }
+}
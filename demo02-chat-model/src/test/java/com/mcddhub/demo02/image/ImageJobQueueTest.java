@@ -0,0 +1,268 @@
+package com.mcddhub.demo02.image;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.image.Image;
+import org.springframework.ai.image.ImageGeneration;
+import org.springframework.ai.image.ImageModel;
+import org.springframework.ai.image.ImagePrompt;
+import org.springframework.ai.image.ImageResponse;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageJobQueueTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n', 1, 2, 3, 4};
+
+    @TempDir
+    Path directory;
+
+    private final List<ImageJobQueue> queues = new ArrayList<>();
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        queues.forEach(ImageJobQueue::close);
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void should_return_at_once_and_generate_in_the_background() throws Exception {
+        StubImageModel model = new StubImageModel(new CountDownLatch(1));
+        ImageJobQueue queue = queue(model, 2, 4);
+
+        long start = System.nanoTime();
+        ImageJob job = queue.submit("鳄鱼", "flux-dev", null, null);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertFalse(job.status().done());
+
+        model.release.countDown();
+        ImageJob.Status status = await(job);
+
+        assertEquals(ImageJob.State.SUCCEEDED, status.state());
+        assertArrayEquals(PNG, Files.readAllBytes(job.file()));
+        assertEquals("flux-dev", model.models.get(0));
+        assertSame(job, queue.get(job.id()));
+    }
+
+    @Test
+    void should_share_one_job_between_identical_submissions() throws Exception {
+        StubImageModel model = new StubImageModel(new CountDownLatch(1));
+        ImageJobQueue queue = queue(model, 2, 4);
+
+        ImageJob first = queue.submit("a crocodile", "flux-dev", 512, 512);
+        for (int i = 0; i < 9; i++) {
+            assertSame(first, queue.submit("  a   crocodile ", "flux-dev", 512, 512));
+        }
+        ImageJob larger = queue.submit("a crocodile", "flux-dev", 1024, 1024);
+        model.release.countDown();
+        await(first);
+        await(larger);
+
+        assertNotSame(first, larger);
+        assertSame(first, queue.submit("a crocodile", "flux-dev", 512, 512));
+        assertEquals(2, model.calls.get());
+        assertEquals(10L, queue.stats().get("deduplicated"));
+    }
+
+    @Test
+    void should_serve_a_repeated_prompt_from_disk() throws Exception {
+        StubImageModel model = new StubImageModel(new CountDownLatch(0));
+        await(queue(model, 1, 4).submit("鳄鱼", "flux-dev", null, null));
+
+        ImageJobQueue restarted = queue(model, 1, 4);
+        ImageJob job = restarted.submit("鳄鱼", "flux-dev", null, null);
+
+        assertTrue(job.status().cached());
+        assertEquals(ImageJob.State.SUCCEEDED, job.status().state());
+        assertArrayEquals(PNG, Files.readAllBytes(job.file()));
+        assertEquals(1, model.calls.get());
+        assertEquals(1L, restarted.stats().get("cacheHits"));
+    }
+
+    @Test
+    void should_refuse_jobs_beyond_the_queue_capacity() throws Exception {
+        StubImageModel model = new StubImageModel(new CountDownLatch(1));
+        ImageJobQueue queue = queue(model, 1, 1);
+
+        ImageJob running = queue.submit("one", "flux-dev", null, null);
+        model.started.await(5, TimeUnit.SECONDS);
+        ImageJob queued = queue.submit("two", "flux-dev", null, null);
+
+        assertThrows(ImageQueueFullException.class, () -> queue.submit("three", "flux-dev", null, null));
+        assertEquals(1L, queue.stats().get("rejected"));
+        model.release.countDown();
+        assertEquals(ImageJob.State.SUCCEEDED, await(running).state());
+        assertEquals(ImageJob.State.SUCCEEDED, await(queued).state());
+    }
+
+    @Test
+    void should_stream_an_image_url_to_disk() throws Exception {
+        byte[] large = new byte[4 * 1024 * 1024];
+        System.arraycopy(PNG, 0, large, 0, PNG.length);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/image.png", exchange -> {
+            exchange.sendResponseHeaders(200, large.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(large);
+            }
+        });
+        server.start();
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/image.png";
+        ImageJobQueue queue = queue(prompt -> response(new Image(url, null)), 1, 4);
+
+        ImageJob.Status status = await(queue.submit("鳄鱼", "flux-dev", null, null));
+
+        assertEquals(url, status.imageUrl());
+        assertEquals(large.length, Files.size(queue.get(status.id()).file()));
+    }
+
+    @Test
+    void should_fail_the_job_and_generate_again_on_the_next_submission() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        ImageJobQueue queue = queue(prompt -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new IllegalStateException("quota exceeded");
+            }
+            return response(new Image(null, Base64.getEncoder().encodeToString(PNG)));
+        }, 1, 4);
+
+        ImageJob failed = queue.submit("鳄鱼", "flux-dev", null, null);
+        assertEquals(ImageJob.State.FAILED, await(failed).state());
+        assertEquals("quota exceeded", failed.status().error());
+
+        ImageJob retried = queue.submit("鳄鱼", "flux-dev", null, null);
+        assertNotSame(failed, retried);
+        assertEquals(ImageJob.State.SUCCEEDED, await(retried).state());
+    }
+
+    @Test
+    void should_notify_subscribers_until_the_job_is_done() throws Exception {
+        StubImageModel model = new StubImageModel(new CountDownLatch(1));
+        ImageJob job = queue(model, 1, 4).submit("鳄鱼", "flux-dev", null, null);
+        List<ImageJob.State> states = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        job.subscribe(status -> {
+            states.add(status.state());
+            if (status.done()) {
+                done.countDown();
+            }
+        });
+        model.release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(ImageJob.State.SUCCEEDED, states.get(states.size() - 1));
+        assertTrue(states.size() >= 2, states.toString());
+    }
+
+    @Test
+    void should_keep_generating_while_a_subscriber_is_stuck() throws Exception {
+        StubImageModel model = new StubImageModel(new CountDownLatch(0));
+        ImageJobQueue queue = queue(model, 1, 4);
+        CountDownLatch stuck = new CountDownLatch(1);
+        ImageJob first = queue.submit("one", "flux-dev", null, null);
+        first.subscribe(status -> {
+            try {
+                if (status.done()) {
+                    stuck.await(30, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        ImageJob second = queue.submit("two", "flux-dev", null, null);
+
+        try {
+            assertEquals(ImageJob.State.SUCCEEDED, poll(first).state());
+            assertEquals(ImageJob.State.SUCCEEDED, poll(second).state());
+            assertEquals(2, model.calls.get());
+        } finally {
+            stuck.countDown();
+        }
+    }
+
+    private ImageJobQueue queue(ImageModel model, int workers, int queueCapacity) {
+        ImageJobQueue queue = new ImageJobQueue(model, new ImageStore(directory, 100), HttpClient.newHttpClient(),
+            workers, 1, queueCapacity, 100, Duration.ofSeconds(5));
+        queues.add(queue);
+        return queue;
+    }
+
+    private static ImageJob.Status await(ImageJob job) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        job.subscribe(status -> {
+            if (status.done()) {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS), "job did not finish: " + job.status());
+        return job.status();
+    }
+
+    /**
+     * Waits for the job by polling its status, for when the subscribers cannot be relied on.
+     */
+    private static ImageJob.Status poll(ImageJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!job.status().done()) {
+            assertTrue(System.nanoTime() < deadline, "job did not finish: " + job.status());
+            Thread.sleep(10);
+        }
+        return job.status();
+    }
+
+    private static ImageResponse response(Image image) {
+        return new ImageResponse(List.of(new ImageGeneration(image)));
+    }
+
+    /**
+     * Returns {@link #PNG} as base64 once {@code release} opens, counting calls and recording the model asked for.
+     */
+    private static class StubImageModel implements ImageModel {
+
+        private final CountDownLatch release;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+        private final List<String> models = new CopyOnWriteArrayList<>();
+
+        StubImageModel(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public ImageResponse call(ImagePrompt prompt) {
+            calls.incrementAndGet();
+            models.add(prompt.getOptions().getModel());
+            started.countDown();
+            try {
+                if (!release.await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("never released");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return response(new Image(null, Base64.getEncoder().encodeToString(PNG)));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.mcddhub.demo02.metrics;
+
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeteredChatModelTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MeteredChatModel model = new MeteredChatModel(new UsageChatModel(),
+        new ChatMetrics(registry, "chat_model", 2));
+
+    @Test
+    void should_record_latency_and_tokens_per_model() {
+        model.call(new Prompt("hello"));
+        model.call(new Prompt("hello", DashScopeChatOptions.builder().withModel("qwen-plus").build()));
+        model.call(new Prompt("hello", DashScopeChatOptions.builder().withModel("qwen-plus").build()));
+
+        assertEquals(1, registry.get("gen_ai.client.operation.duration").tags("model", "qwen-turbo", "mode", "call",
+            "outcome", "success").timer().count());
+        assertEquals(2, registry.get("gen_ai.client.operation.duration").tags("model", "qwen-plus", "mode", "call",
+            "outcome", "success").timer().count());
+        assertEquals(20.0, registry.get("gen_ai.client.token.usage").tags("model", "qwen-plus", "type", "prompt")
+            .counter().count());
+        assertEquals(6.0, registry.get("gen_ai.client.token.usage").tags("model", "qwen-plus", "type", "completion")
+            .counter().count());
+    }
+
+    @Test
+    void should_count_errors() {
+        assertThrows(IllegalStateException.class, () -> model.call(new Prompt("fail")));
+
+        assertEquals(1.0, registry.get("gen_ai.client.errors").tags("model", "qwen-turbo", "mode", "call")
+            .counter().count());
+        assertEquals(1, registry.get("gen_ai.client.operation.duration").tags("model", "qwen-turbo", "mode", "call",
+            "outcome", "error").timer().count());
+    }
+
+    @Test
+    void should_record_first_token_and_gaps_on_streams() {
+        List<ChatResponse> chunks = model.stream(new Prompt("hello")).collectList().block();
+
+        assertEquals(3, chunks.size());
+        assertEquals(1, registry.get("gen_ai.client.time_to_first_token").timer().count());
+        assertEquals(2, registry.get("gen_ai.client.inter_token_gap").timer().count());
+        // usage is cumulative on every chunk, so only the last one counts
+        assertEquals(3.0, registry.get("gen_ai.client.token.usage").tags("type", "completion").counter().count());
+    }
+
+    @Test
+    void should_fold_excess_models_into_other() {
+        for (String name : List.of("a", "b", "c", "d")) {
+            model.call(new Prompt("hello", DashScopeChatOptions.builder().withModel(name).build()));
+        }
+
+        assertEquals(2, registry.get("gen_ai.client.operation.duration").tags("model", ChatMetrics.OTHER_MODEL,
+            "mode", "call", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void should_record_cancelled_streams_with_their_own_outcome() {
+        ChatResponse first = model.stream(new Prompt("hello")).blockFirst();
+
+        assertNotNull(first);
+        assertEquals(1, registry.get("gen_ai.client.operation.duration").tags("mode", "stream",
+            "outcome", "cancelled").timer().count());
+        assertEquals(0, registry.get("gen_ai.client.operation.duration").tags("mode", "stream",
+            "outcome", "success").timer().count());
+        assertEquals(1.0, registry.get("gen_ai.client.token.usage").tags("type", "completion").counter().count());
+    }
+
+    private static ChatResponse response(String content, long promptTokens, long completionTokens) {
+        Usage usage = new Usage() {
+            @Override
+            public Long getPromptTokens() {
+                return promptTokens;
+            }
+
+            @Override
+            public Long getGenerationTokens() {
+                return completionTokens;
+            }
+        };
+        return new ChatResponse(List.of(new Generation(content)),
+            ChatResponseMetadata.builder().withUsage(usage).build());
+    }
+
+    private static class UsageChatModel implements ChatModel {
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            if (prompt.getContents().equals("fail")) {
+                throw new IllegalStateException("upstream failed");
+            }
+            return response("answer", 10, 3);
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.just(response("a", 10, 1), response("b", 10, 2), response("c", 10, 3));
+        }
+
+        public ChatOptions getDefaultOptions() {
+            return DashScopeChatOptions.builder().withModel("qwen-turbo").build();
+        }
+    }
+}
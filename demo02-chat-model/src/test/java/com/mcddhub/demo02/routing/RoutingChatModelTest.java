@@ -0,0 +1,292 @@
+package com.mcddhub.demo02.routing;
+
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingChatModelTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutingChatModelTest.class);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void should_route_unpinned_prompts_to_the_faster_model() {
+        StubModel slow = new StubModel(call -> 40);
+        StubModel fast = new StubModel(call -> 5);
+        RoutingChatModel router = router(route("qwen-plus", slow, 8), route("qwen-turbo", fast, 8));
+
+        for (int i = 0; i < 30; i++) {
+            router.call(new Prompt("hello"));
+        }
+
+        assertEquals(1, slow.calls.get(), "the slow model is only tried once: " + router.stats());
+        assertEquals(29, fast.calls.get());
+        assertEquals("qwen-turbo", fast.lastModel);
+    }
+
+    @Test
+    void should_hedge_tail_calls_and_cancel_the_loser() {
+        // every 10th call to qwen-plus hangs for two seconds, like a brownout tail
+        StubModel primary = new StubModel(call -> call % 10 == 9 ? 2_000 : 5);
+        StubModel alternate = new StubModel(call -> 10);
+        RoutingChatModel router = router(route("qwen-plus", primary, 8), route("qwen-turbo", alternate, 8));
+
+        long[] latencies = new long[100];
+        for (int i = 0; i < latencies.length; i++) {
+            long start = System.nanoTime();
+            ChatResponse response = router.call(qwenPlus("hello"));
+            latencies[i] = System.nanoTime() - start;
+            assertNotNull(response.getResult().getOutput().getContent());
+        }
+        Arrays.sort(latencies);
+
+        Map<String, Object> stats = router.stats();
+        logger.info("p50 {} ms, max {} ms, {}", latencies[49] / 1_000_000, latencies[99] / 1_000_000, stats);
+        assertTrue((long) stats.get("hedgeWins") >= 10, stats.toString());
+        assertTrue(latencies[99] < Duration.ofMillis(500).toNanos(), "max " + latencies[99] / 1_000_000 + " ms");
+        awaitInterrupted(primary, 10);
+        assertEquals(0, primary.inFlight.get());
+    }
+
+    @Test
+    void should_fall_back_and_open_the_breaker_of_a_failing_model() {
+        StubModel failing = new StubModel(call -> 1).failingFrom(0);
+        StubModel healthy = new StubModel(call -> 1);
+        RoutingChatModel router = router(route("qwen-plus", failing, 8), route("qwen-turbo", healthy, 8));
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("qwen-turbo", router.call(qwenPlus("hello")).getResult().getOutput().getContent());
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, failingRoute(router).get("state"));
+        assertTrue(failing.calls.get() < 20, "breaker never opened: " + failing.calls.get() + " calls");
+        assertEquals(20, healthy.calls.get());
+    }
+
+    @Test
+    void should_probe_and_close_the_breaker_once_the_model_recovers() throws InterruptedException {
+        StubModel flaky = new StubModel(call -> 1).failingUntil(5);
+        StubModel healthy = new StubModel(call -> 1);
+        RoutingChatModel router = new RoutingChatModel(new StubModel(call -> 0),
+            List.of(route("qwen-plus", flaky, 8, Duration.ofMillis(100)), route("qwen-turbo", healthy, 8)),
+            executor, 0.95, 5, Duration.ofMillis(50), Duration.ofMillis(20));
+
+        for (int i = 0; i < 10; i++) {
+            router.call(qwenPlus("hello"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, failingRoute(router).get("state"));
+        Thread.sleep(150);
+
+        assertEquals("qwen-plus", router.call(qwenPlus("hello")).getResult().getOutput().getContent());
+        assertEquals(CircuitBreaker.State.CLOSED, failingRoute(router).get("state"));
+    }
+
+    @Test
+    void should_cap_concurrent_calls_per_model() throws Exception {
+        StubModel primary = new StubModel(call -> 100);
+        StubModel alternate = new StubModel(call -> 100);
+        RoutingChatModel router = router(route("qwen-plus", primary, 2), route("qwen-turbo", alternate, 2));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return router.call(qwenPlus("hello")).getResult().getOutput().getContent();
+                } catch (NoModelAvailableException e) {
+                    return "busy";
+                }
+            }));
+        }
+        start.countDown();
+        List<String> answers = new ArrayList<>();
+        for (Future<String> result : results) {
+            answers.add(result.get(5, TimeUnit.SECONDS));
+        }
+
+        assertTrue(primary.peak.get() <= 2, "peak " + primary.peak.get());
+        assertTrue(alternate.peak.get() <= 2, "peak " + alternate.peak.get());
+        assertEquals(2L, answers.stream().filter("busy"::equals).count(), answers.toString());
+        assertEquals(2L, router.stats().get("unavailable"));
+    }
+
+    @Test
+    void should_fall_back_when_a_stream_fails_before_its_first_chunk() {
+        StubModel failing = new StubModel(call -> 1).failingFrom(0);
+        StubModel healthy = new StubModel(call -> 1);
+        RoutingChatModel router = router(route("qwen-plus", failing, 8), route("qwen-turbo", healthy, 8));
+
+        List<ChatResponse> chunks = router.stream(qwenPlus("hello")).collectList().block();
+
+        assertEquals(List.of("qwen-turbo", "qwen-turbo"),
+            chunks.stream().map(chunk -> chunk.getResult().getOutput().getContent()).toList());
+        assertEquals(1L, router.stats().get("fallbacks"));
+        assertEquals(0, failing.inFlight.get());
+    }
+
+    @Test
+    void should_leave_prompts_naming_another_model_alone() {
+        StubModel plus = new StubModel(call -> 0);
+        StubModel turbo = new StubModel(call -> 0);
+        StubModel delegate = new StubModel(call -> 0);
+        RoutingChatModel router = new RoutingChatModel(delegate,
+            List.of(route("qwen-plus", plus, 8), route("qwen-turbo", turbo, 8)),
+            executor, 0.95, 5, Duration.ofMillis(50), Duration.ofMillis(20));
+
+        ChatResponse response = router.call(
+            new Prompt("hello", DashScopeChatOptions.builder().withModel("qwen-max").build()));
+        List<ChatResponse> streamed = router.stream(
+            new Prompt("hello", DashScopeChatOptions.builder().withModel("qwen-max").build())).collectList().block();
+
+        assertEquals("qwen-max", response.getResult().getOutput().getContent());
+        assertEquals("qwen-max", streamed.get(0).getResult().getOutput().getContent());
+        assertEquals(2, delegate.calls.get());
+        assertEquals(0, plus.calls.get() + turbo.calls.get());
+        assertEquals(2L, router.stats().get("bypassed"));
+    }
+
+    @Test
+    void should_keep_the_other_options_when_pinning_a_model() {
+        DashScopeChatOptions options = DashScopeChatOptions.builder()
+            .withModel("qwen-plus")
+            .withTemperature(0.3f)
+            .build();
+        options.setFunctions(Set.of("getWeatherFunction"));
+
+        DashScopeChatOptions pinned = (DashScopeChatOptions) RoutingChatModel.pinned(new Prompt("hello", options),
+            "qwen-turbo").getOptions();
+
+        assertEquals("qwen-turbo", pinned.getModel());
+        assertEquals(options.getTemperature(), pinned.getTemperature());
+        assertEquals(Set.of("getWeatherFunction"), pinned.getFunctions());
+        assertEquals("qwen-plus", options.getModel());
+    }
+
+    private RoutingChatModel router(ModelRoute... routes) {
+        return new RoutingChatModel(new StubModel(call -> 0), List.of(routes), executor, 0.95, 5,
+            Duration.ofMillis(50), Duration.ofMillis(20));
+    }
+
+    private static ModelRoute route(String model, StubModel stub, int maxConcurrency) {
+        return route(model, stub, maxConcurrency, Duration.ofSeconds(30));
+    }
+
+    private static ModelRoute route(String model, StubModel stub, int maxConcurrency, Duration openDuration) {
+        return new ModelRoute(model, stub, maxConcurrency, new CircuitBreaker(0.2, 0.5, 5, openDuration), 0.2, 100);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> failingRoute(RoutingChatModel router) {
+        return (Map<String, Object>) ((Map<String, Object>) router.stats().get("models")).get("qwen-plus");
+    }
+
+    private static Prompt qwenPlus(String text) {
+        return new Prompt(text, DashScopeChatOptions.builder().withModel("qwen-plus").build());
+    }
+
+    private static void awaitInterrupted(StubModel stub, int expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (stub.interrupted.get() < expected && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertTrue(stub.interrupted.get() >= expected, stub.interrupted.get() + " cancelled calls");
+    }
+
+    /**
+     * Answers with the model its prompt was pinned to, after a latency picked per call by {@code latency}, and
+     * counts calls, concurrent calls and calls interrupted by a cancel.
+     */
+    private static class StubModel implements ChatModel {
+
+        private final IntUnaryOperator latency;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+        private final AtomicInteger interrupted = new AtomicInteger();
+        private int failFrom = Integer.MAX_VALUE;
+        private int failUntil = 0;
+        private volatile String lastModel;
+
+        StubModel(IntUnaryOperator latency) {
+            this.latency = latency;
+        }
+
+        StubModel failingFrom(int call) {
+            this.failFrom = call;
+            return this;
+        }
+
+        StubModel failingUntil(int call) {
+            this.failFrom = 0;
+            this.failUntil = call;
+            return this;
+        }
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            int call = calls.getAndIncrement();
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(latency.applyAsInt(call));
+                if (call >= failFrom && (failUntil == 0 || call < failUntil)) {
+                    throw new IllegalStateException("upstream failed");
+                }
+                return answer(prompt);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+                throw new IllegalStateException("cancelled", e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            int call = calls.getAndIncrement();
+            if (call >= failFrom && (failUntil == 0 || call < failUntil)) {
+                return Flux.error(new IllegalStateException("upstream failed"));
+            }
+            return Flux.just(answer(prompt), answer(prompt));
+        }
+
+        private ChatResponse answer(Prompt prompt) {
+            lastModel = ((DashScopeChatOptions) prompt.getOptions()).getModel();
+            return new ChatResponse(List.of(new Generation(lastModel)));
+        }
+
+        public ChatOptions getDefaultOptions() {
+            return DashScopeChatOptions.builder().withModel("qwen-turbo").build();
+        }
+    }
+}
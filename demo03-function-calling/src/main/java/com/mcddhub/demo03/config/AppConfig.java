@@ -1,35 +1,136 @@
 package com.mcddhub.demo03.config;
 
+import com.alibaba.cloud.ai.autoconfigure.dashscope.DashScopeChatProperties;
 import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatModel;
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
 import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingModel;
 import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingOptions;
+import com.mcddhub.demo03.embedding.BatchingEmbeddingModel;
+import com.mcddhub.demo03.embedding.CachingEmbeddingModel;
+import com.mcddhub.demo03.embedding.MappedEmbeddingStore;
 import com.mcddhub.demo03.entity.Response;
 import com.mcddhub.demo03.function.MockOrderService;
+import com.mcddhub.demo03.function.MockWeatherService;
+import com.mcddhub.demo03.tool.MemoizingFunction;
+import com.mcddhub.demo03.tool.ParallelToolCallingChatModel;
+import com.mcddhub.demo03.tool.ToolCallExecutor;
+import com.mcddhub.runtimesupport.transport.EmbeddingRetryInterceptor;
 import org.springframework.ai.document.MetadataMode;
-import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.model.function.FunctionCallbackContext;
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Description;
+import org.springframework.context.annotation.Primary;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.function.Function;
 
 @Configuration
+@EnableConfigurationProperties({EmbeddingBatchProperties.class, EmbeddingCacheProperties.class,
+    FunctionCallingProperties.class})
 public class AppConfig {
-    DashScopeApi dashScopeApi = new DashScopeApi(System.getenv("DASHSCOPE_API_KEY"));
+    private static final RetryTemplate NO_RETRY = RetryTemplate.builder().maxAttempts(1).build();
 
+    private final DashScopeApi dashScopeApi;
+
+    public AppConfig(@Value("${spring.ai.dashscope.base-url:https://dashscope.aliyuncs.com}") String baseUrl,
+                     @Value("${spring.ai.dashscope.api-key}") String apiKey,
+                     RestClient.Builder restClientBuilder,
+                     WebClient.Builder webClientBuilder) {
+        // built from the Boot builders so that RestClientCustomizers, e.g. the virtual-thread mode, apply
+        this.dashScopeApi = new DashScopeApi(baseUrl, apiKey, null, restClientBuilder, webClientBuilder,
+            RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER);
+    }
+
+    /**
+     * When the DashScope transport is on, {@link EmbeddingRetryInterceptor} already retries every embedding
+     * call, so the model must not retry on top of it.
+     */
     @Bean
-    public EmbeddingModel embeddingModel() {
+    public DashScopeEmbeddingModel dashScopeEmbeddingModel(
+        ObjectProvider<EmbeddingRetryInterceptor> embeddingRetryInterceptor) {
         return new DashScopeEmbeddingModel(
             dashScopeApi,
             MetadataMode.EMBED,
             DashScopeEmbeddingOptions.builder()
                 .withModel("text-embedding-v2")
-                .build());
+                .build(),
+            embeddingRetryInterceptor.getIfAvailable() != null ? NO_RETRY : RetryUtils.DEFAULT_RETRY_TEMPLATE);
+    }
+
+    @Bean
+    public BatchingEmbeddingModel batchingEmbeddingModel(DashScopeEmbeddingModel dashScopeEmbeddingModel,
+                                                         EmbeddingBatchProperties properties) {
+        return new BatchingEmbeddingModel(
+            dashScopeEmbeddingModel,
+            properties.maxBatchSize(),
+            properties.maxLinger(),
+            properties.maxConcurrentBatches());
+    }
+
+    @Bean
+    @Primary
+    public CachingEmbeddingModel embeddingModel(BatchingEmbeddingModel batchingEmbeddingModel,
+                                                EmbeddingCacheProperties properties) {
+        return new CachingEmbeddingModel(
+            batchingEmbeddingModel,
+            new MappedEmbeddingStore(properties.file(), properties.dimensions(), properties.maxEntries()),
+            properties.model(),
+            properties.dimensions());
     }
 
+    @Bean(destroyMethod = "close")
+    public ToolCallExecutor toolCallExecutor(FunctionCallingProperties properties) {
+        return new ToolCallExecutor(properties.parallel(), properties.defaultTimeout(), properties.timeouts());
+    }
+
+    /**
+     * Replaces the auto-configured chat model, so it starts from that model's options: everything set under
+     * {@code spring.ai.dashscope.chat.options}, with {@code demo03.function-calling.model} overriding the model.
+     */
+    @Bean
+    public DashScopeChatModel dashScopeChatModel(FunctionCallbackContext functionCallbackContext,
+                                                 ToolCallExecutor toolCallExecutor,
+                                                 FunctionCallingProperties properties,
+                                                 DashScopeChatProperties chatProperties) {
+        DashScopeChatOptions options = DashScopeChatOptions.builder().build();
+        // field by field, so that options not written as JSON, e.g. function callbacks, are kept as well
+        ReflectionUtils.shallowCopyFieldState(chatProperties.getOptions(), options);
+        if (properties.model() != null) {
+            options.setModel(properties.model());
+        }
+        return new ParallelToolCallingChatModel(
+            dashScopeApi,
+            options,
+            functionCallbackContext,
+            RetryUtils.DEFAULT_RETRY_TEMPLATE,
+            toolCallExecutor);
+    }
+
+    /**
+     * Not memoized: orders change, so a cached answer could be stale.
+     */
     @Bean
     @Description("根据用户编号和订单编号查询订单信息")
     public Function<MockOrderService.Request, Response> getOrderFunction(MockOrderService mockOrderService) {
         return mockOrderService::getOrder;
     }
+
+    /**
+     * Memoized: the weather for a given date and city does not change within {@code memoize-ttl}.
+     */
+    @Bean
+    @Description("根据日期和城市查询天气")
+    public MemoizingFunction<MockWeatherService.Request, Response> getWeatherFunction(
+        MockWeatherService mockWeatherService, FunctionCallingProperties properties) {
+        return new MemoizingFunction<>(mockWeatherService, properties.memoizeTtl(), properties.memoizeMaxEntries());
+    }
 }
@@ -0,0 +1,13 @@
+package com.mcddhub.demo03.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("demo03.embedding.batch")
+public record EmbeddingBatchProperties(
+    @DefaultValue("25") int maxBatchSize,
+    @DefaultValue("5ms") Duration maxLinger,
+    @DefaultValue("4") int maxConcurrentBatches) {
+}
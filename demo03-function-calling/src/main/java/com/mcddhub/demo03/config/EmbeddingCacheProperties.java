@@ -0,0 +1,21 @@
+package com.mcddhub.demo03.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * @param file       the memory-mapped store; it is sized up front to {@code maxEntries} slots of
+ *                   {@code dimensions} floats, about 31 MB at the defaults
+ * @param maxEntries vectors kept before the oldest unread ones are overwritten
+ * @param model      model assumed for requests whose options do not name one
+ * @param dimensions vector length; vectors of any other length are not cached
+ */
+@ConfigurationProperties("demo03.embedding.cache")
+public record EmbeddingCacheProperties(
+    Path file,
+    @DefaultValue("5000") int maxEntries,
+    @DefaultValue("text-embedding-v2") String model,
+    @DefaultValue("1536") int dimensions) {
+}
@@ -0,0 +1,26 @@
+package com.mcddhub.demo03.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * @param model      chat model for function calling; unset keeps the starter's default chat model
+ * @param timeouts   per-function timeouts by function name, falling back to {@code defaultTimeout}
+ * @param memoizeTtl how long {@code getWeatherFunction} answers are reused; order lookups are never memoized
+ */
+@ConfigurationProperties("demo03.function-calling")
+public record FunctionCallingProperties(
+    String model,
+    @DefaultValue("true") boolean parallel,
+    @DefaultValue("10s") Duration defaultTimeout,
+    Map<String, Duration> timeouts,
+    @DefaultValue("10m") Duration memoizeTtl,
+    @DefaultValue("1000") int memoizeMaxEntries) {
+
+    public FunctionCallingProperties {
+        timeouts = timeouts == null ? Map.of() : timeouts;
+    }
+}
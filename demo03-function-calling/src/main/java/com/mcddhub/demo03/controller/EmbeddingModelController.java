@@ -1,5 +1,6 @@
 package com.mcddhub.demo03.controller;
 
+import com.mcddhub.demo03.similarity.Similarity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.embedding.EmbeddingModel;
@@ -32,10 +33,14 @@ public class EmbeddingModelController {
     }
 
     @GetMapping("/similar")
-    public Map<String, EmbeddingResponse> similar() {
-        EmbeddingResponse embeddingResponse = this.embeddingModel
-            .embedForResponse(List.of("Hello World", "World is big and salvation is near"));
+    public Map<String, Object> similar(@RequestParam(value = "a", defaultValue = "Hello World") String a,
+                                       @RequestParam(value = "b", defaultValue = "World is big and salvation is near") String b) {
+        EmbeddingResponse embeddingResponse = this.embeddingModel.embedForResponse(List.of(a, b));
         logger.info("dimensions {}",this.embeddingModel.dimensions());
-        return Map.of("embed", embeddingResponse);
+        float[] first = Similarity.normalize(Similarity.toFloats(embeddingResponse.getResults().get(0).getOutput()));
+        float[] second = Similarity.normalize(Similarity.toFloats(embeddingResponse.getResults().get(1).getOutput()));
+        return Map.of("embed", embeddingResponse,
+            "similarity", Similarity.kernel().dot(first, second),
+            "kernel", Similarity.kernel().name());
     }
 }
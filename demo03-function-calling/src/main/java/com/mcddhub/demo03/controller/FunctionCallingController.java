@@ -1,27 +1,35 @@
 package com.mcddhub.demo03.controller;
 
+import com.mcddhub.demo03.entity.Response;
 import com.mcddhub.demo03.function.MockWeatherService;
+import com.mcddhub.demo03.tool.MemoizingFunction;
+import com.mcddhub.demo03.tool.ToolCallExecutor;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/demo03/function")
 public class FunctionCallingController {
 
-    private final MockWeatherService mockWeatherService;
     private final ChatClient chatClient;
+    private final ToolCallExecutor toolCallExecutor;
+    private final MemoizingFunction<MockWeatherService.Request, Response> getWeatherFunction;
 
-    public FunctionCallingController(MockWeatherService mockWeatherService, ChatClient.Builder builder) {
-        this.mockWeatherService = mockWeatherService;
+    public FunctionCallingController(ChatClient.Builder builder, ToolCallExecutor toolCallExecutor,
+                                     MemoizingFunction<MockWeatherService.Request, Response> getWeatherFunction) {
         this.chatClient = builder.build();
+        this.toolCallExecutor = toolCallExecutor;
+        this.getWeatherFunction = getWeatherFunction;
     }
 
     @GetMapping("/weather-service")
     public String weatherService(String subject) {
         return chatClient.prompt()
-            .function("getWeatherFunction", "根据城市查询天气", mockWeatherService)
+            .functions("getWeatherFunction")
             .user(subject)
             .call()
             .content();
@@ -36,5 +44,10 @@ public class FunctionCallingController {
             .content();
     }
 
-
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return Map.of(
+            "executor", toolCallExecutor.stats(),
+            "getWeatherFunction", getWeatherFunction.stats());
+    }
 }
@@ -0,0 +1,181 @@
+package com.mcddhub.demo03.embedding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gathers concurrent single-text embedding requests into one upstream batch.
+ * <p>
+ * A batch is sent once it holds {@code maxBatchSize} texts or {@code maxLinger} has passed since its first
+ * request arrived. Identical texts in a batch are embedded once. Multi-text requests already are batches
+ * and go straight to the delegate.
+ */
+public class BatchingEmbeddingModel implements EmbeddingModel, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingEmbeddingModel.class);
+
+    private final EmbeddingModel delegate;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService senders;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder texts = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    public BatchingEmbeddingModel(EmbeddingModel delegate, int maxBatchSize, Duration maxLinger,
+                                  int maxConcurrentBatches) {
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerNanos = maxLinger.toNanos();
+        AtomicInteger ids = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(maxConcurrentBatches, runnable -> {
+            Thread thread = new Thread(runnable, "embedding-batch-" + ids.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = new Thread(this::dispatch, "embedding-batch-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        if (request.getInstructions().size() != 1) {
+            return delegate.call(request);
+        }
+        Pending pending = new Pending(request.getInstructions().get(0), request.getOptions());
+        if (!running) {
+            throw new IllegalStateException("embedding batcher is closed");
+        }
+        queue.add(pending);
+        try {
+            return new EmbeddingResponse(List.of(new Embedding(pending.result.join(), 0)));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Double> embed(Document document) {
+        return delegate.embed(document);
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+
+    public Map<String, Long> stats() {
+        return Map.of(
+            "batches", batches.sum(),
+            "texts", texts.sum(),
+            "deduplicated", deduplicated.sum());
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        dispatcher.interrupt();
+        senders.shutdown();
+        List<Pending> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(p -> p.result.completeExceptionally(new IllegalStateException("embedding batcher is closed")));
+    }
+
+    private void dispatch() {
+        while (running) {
+            try {
+                List<Pending> batch = new ArrayList<>(maxBatchSize);
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxLingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                senders.execute(() -> send(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        Map<EmbeddingOptions, List<Pending>> byOptions = new IdentityHashMap<>();
+        for (Pending pending : batch) {
+            byOptions.computeIfAbsent(pending.options, o -> new ArrayList<>()).add(pending);
+        }
+        byOptions.forEach(this::send);
+    }
+
+    private void send(EmbeddingOptions options, List<Pending> group) {
+        Map<String, List<Pending>> byText = new LinkedHashMap<>();
+        for (Pending pending : group) {
+            byText.computeIfAbsent(pending.text, t -> new ArrayList<>()).add(pending);
+        }
+        List<String> distinct = new ArrayList<>(byText.keySet());
+        batches.increment();
+        texts.add(group.size());
+        deduplicated.add(group.size() - distinct.size());
+        try {
+            EmbeddingResponse response = delegate.call(new EmbeddingRequest(distinct, options));
+            List<Embedding> results = response.getResults();
+            for (int i = 0; i < results.size(); i++) {
+                Embedding embedding = results.get(i);
+                int index = embedding.getIndex() == null ? i : embedding.getIndex();
+                byText.get(distinct.get(index)).forEach(p -> p.result.complete(embedding.getOutput()));
+            }
+            group.forEach(p -> p.result.completeExceptionally(
+                new IllegalStateException("no embedding returned for text")));
+        } catch (RuntimeException e) {
+            logger.warn("embedding batch of {} texts failed", distinct.size(), e);
+            group.forEach(p -> p.result.completeExceptionally(e));
+        }
+    }
+
+    private static final class Pending {
+
+        private final String text;
+        private final EmbeddingOptions options;
+        private final CompletableFuture<List<Double>> result = new CompletableFuture<>();
+
+        private Pending(String text, EmbeddingOptions options) {
+            this.text = text;
+            this.options = options;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.mcddhub.demo03.embedding;
+
+import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingOptions;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves embeddings from a {@link MappedEmbeddingStore} and only sends the texts it has not seen before
+ * to the delegate. Keys are derived from the model name, the dimensions and the text; the model is the one
+ * named in the request's options, or the default one.
+ */
+public class CachingEmbeddingModel implements EmbeddingModel, AutoCloseable {
+
+    private final EmbeddingModel delegate;
+    private final MappedEmbeddingStore store;
+    private final String model;
+    private final int dimensions;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachingEmbeddingModel(EmbeddingModel delegate, MappedEmbeddingStore store, String model,
+                                 int dimensions) {
+        this.delegate = delegate;
+        this.store = store;
+        this.model = model;
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<String> texts = request.getInstructions();
+        String requestModel = modelOf(request.getOptions());
+        float[][] vectors = new float[texts.size()][];
+        List<String> missing = new ArrayList<>();
+        List<Integer> missingAt = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            vectors[i] = store.get(keyOf(requestModel, texts.get(i)));
+            if (vectors[i] == null) {
+                missing.add(texts.get(i));
+                missingAt.add(i);
+            }
+        }
+        hits.add(texts.size() - missing.size());
+        misses.add(missing.size());
+
+        if (!missing.isEmpty()) {
+            EmbeddingResponse response = delegate.call(new EmbeddingRequest(missing, request.getOptions()));
+            List<Embedding> results = response.getResults();
+            for (int i = 0; i < results.size(); i++) {
+                Embedding embedding = results.get(i);
+                int index = embedding.getIndex() == null ? i : embedding.getIndex();
+                float[] vector = toFloats(embedding.getOutput());
+                vectors[missingAt.get(index)] = vector;
+                if (vector.length == dimensions) {
+                    store.put(keyOf(requestModel, missing.get(index)), vector);
+                }
+            }
+        }
+
+        List<Embedding> embeddings = new ArrayList<>(texts.size());
+        for (int i = 0; i < vectors.length; i++) {
+            if (vectors[i] == null) {
+                throw new IllegalStateException("the embedding model returned no vector for input " + i
+                    + " of " + vectors.length);
+            }
+            embeddings.add(new Embedding(toDoubles(vectors[i]), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    public float[] embedToFloats(String text) {
+        float[] vector = store.get(keyOf(model, text));
+        if (vector != null) {
+            hits.increment();
+            return vector;
+        }
+        return toFloats(embed(text));
+    }
+
+    @Override
+    public List<Double> embed(Document document) {
+        return embed(document.getFormattedContent(MetadataMode.EMBED));
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public Map<String, Long> stats() {
+        return Map.of(
+            "hits", hits.sum(),
+            "misses", misses.sum(),
+            "size", (long) store.size(),
+            "capacity", (long) store.capacity());
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+
+    private String modelOf(EmbeddingOptions options) {
+        if (options instanceof DashScopeEmbeddingOptions dashScope && dashScope.getModel() != null) {
+            return dashScope.getModel();
+        }
+        return model;
+    }
+
+    private MappedEmbeddingStore.Key keyOf(String model, String text) {
+        return MappedEmbeddingStore.keyOf(model, dimensions, text);
+    }
+
+    private static float[] toFloats(List<Double> embedding) {
+        float[] vector = new float[embedding.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = embedding.get(i).floatValue();
+        }
+        return vector;
+    }
+
+    private static List<Double> toDoubles(float[] vector) {
+        List<Double> embedding = new ArrayList<>(vector.length);
+        for (float value : vector) {
+            embedding.add((double) value);
+        }
+        return embedding;
+    }
+}
@@ -0,0 +1,228 @@
+package com.mcddhub.demo03.embedding;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fixed-capacity, memory-mapped store of embedding vectors keyed by a content hash.
+ * <p>
+ * The file holds a small header followed by {@code capacity} slots of
+ * {@code [state:int][hashHi:long][hashLo:long][vector:float * dimensions]}. Only the slot index is kept on
+ * heap; it is rebuilt by scanning the slot headers when the file is opened. When the store is full the
+ * CLOCK policy picks the slot to overwrite, giving recently read entries a second chance. Reads set their
+ * reference bit with a compare-and-set rather than a monitor, so a reader never blocks while holding one.
+ */
+public class MappedEmbeddingStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x454D4231;
+    private static final int HEADER_BYTES = 16;
+    private static final int SLOT_HEADER_BYTES = 4 + 8 + 8;
+    private static final int USED = 1;
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final int dimensions;
+    private final int capacity;
+    private final int slotBytes;
+    private final int slotsPerSegment;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] segments;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Key, Integer> index;
+    private final Key[] keys;
+    private final AtomicLongArray referenced;
+    private int size;
+    private int unused;
+    private int hand;
+
+    public MappedEmbeddingStore(Path file, int dimensions, int capacity) {
+        this.dimensions = dimensions;
+        this.capacity = capacity;
+        this.slotBytes = SLOT_HEADER_BYTES + dimensions * Float.BYTES;
+        this.slotsPerSegment = (int) Math.min(capacity, MAX_SEGMENT_BYTES / slotBytes);
+        this.index = new HashMap<>(capacity * 4 / 3 + 1);
+        this.keys = new Key[capacity];
+        this.referenced = new AtomicLongArray((capacity + 63) >>> 6);
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.order(ByteOrder.nativeOrder());
+            boolean compatible = header.getInt(0) == MAGIC
+                && header.getInt(4) == dimensions
+                && header.getInt(8) == capacity;
+            if (!compatible) {
+                channel.truncate(HEADER_BYTES);
+            }
+            int segmentCount = (capacity + slotsPerSegment - 1) / slotsPerSegment;
+            this.segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                int slots = Math.min(slotsPerSegment, capacity - i * slotsPerSegment);
+                long offset = HEADER_BYTES + (long) i * slotsPerSegment * slotBytes;
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, offset, (long) slots * slotBytes);
+                segments[i].order(ByteOrder.nativeOrder());
+            }
+            if (compatible) {
+                load();
+            } else {
+                header.putInt(0, MAGIC).putInt(4, dimensions).putInt(8, capacity).putInt(12, 0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Key keyOf(String model, int dimensions, String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Integer.toString(dimensions).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            long hi = 0;
+            long lo = 0;
+            for (int i = 0; i < 8; i++) {
+                hi = (hi << 8) | (hash[i] & 0xFF);
+                lo = (lo << 8) | (hash[i + 8] & 0xFF);
+            }
+            return new Key(hi, lo);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public float[] get(Key key) {
+        lock.readLock().lock();
+        try {
+            Integer slot = index.get(key);
+            if (slot == null) {
+                return null;
+            }
+            float[] vector = new float[dimensions];
+            MappedByteBuffer segment = segments[slot / slotsPerSegment];
+            int offset = (slot % slotsPerSegment) * slotBytes + SLOT_HEADER_BYTES;
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] = segment.getFloat(offset + i * Float.BYTES);
+            }
+            referenced.getAndAccumulate(slot >>> 6, 1L << slot, (word, bit) -> word | bit);
+            return vector;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Key key, float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException(
+                "expected " + dimensions + " dimensions but got " + vector.length);
+        }
+        lock.writeLock().lock();
+        try {
+            Integer existing = index.get(key);
+            int slot = existing != null ? existing : nextFreeSlot();
+            MappedByteBuffer segment = segments[slot / slotsPerSegment];
+            int offset = (slot % slotsPerSegment) * slotBytes;
+            // clear the state first so a torn write is never loaded as a valid entry
+            segment.putInt(offset, 0);
+            for (int i = 0; i < dimensions; i++) {
+                segment.putFloat(offset + SLOT_HEADER_BYTES + i * Float.BYTES, vector[i]);
+            }
+            segment.putLong(offset + 4, key.hi()).putLong(offset + 12, key.lo());
+            segment.putInt(offset, USED);
+            keys[slot] = key;
+            index.put(key, slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int nextFreeSlot() {
+        while (unused < capacity) {
+            int candidate = unused++;
+            if (keys[candidate] == null) {
+                size++;
+                return candidate;
+            }
+        }
+        while (true) {
+            int candidate = hand;
+            hand = (hand + 1) % capacity;
+            long bit = 1L << candidate;
+            if ((referenced.getAndAccumulate(candidate >>> 6, ~bit, (word, mask) -> word & mask) & bit) != 0) {
+                continue;
+            }
+            index.remove(keys[candidate]);
+            return candidate;
+        }
+    }
+
+    private void load() {
+        for (int slot = 0; slot < capacity; slot++) {
+            MappedByteBuffer segment = segments[slot / slotsPerSegment];
+            int offset = (slot % slotsPerSegment) * slotBytes;
+            if (segment.getInt(offset) == USED) {
+                Key key = new Key(segment.getLong(offset + 4), segment.getLong(offset + 12));
+                keys[slot] = key;
+                index.put(key, slot);
+            }
+        }
+        size = index.size();
+    }
+
+    public record Key(long hi, long lo) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.mcddhub.demo03.similarity;
+
+public final class ScalarSimilarityKernel implements SimilarityKernel {
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        check(a, b.length);
+        return dot(a, b, 0);
+    }
+
+    @Override
+    public float squaredL2(float[] a, float[] b) {
+        check(a, b.length);
+        return squaredL2(a, b, 0);
+    }
+
+    @Override
+    public void dotBatch(float[] query, float[] packed, int count, float[] out) {
+        checkBatch(query, packed, count, out);
+        for (int i = 0; i < count; i++) {
+            out[i] = dot(query, packed, i * query.length);
+        }
+    }
+
+    @Override
+    public void squaredL2Batch(float[] query, float[] packed, int count, float[] out) {
+        checkBatch(query, packed, count, out);
+        for (int i = 0; i < count; i++) {
+            out[i] = squaredL2(query, packed, i * query.length);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    private static float dot(float[] a, float[] b, int offset) {
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[offset + i];
+        }
+        return sum;
+    }
+
+    private static float squaredL2(float[] a, float[] b, int offset) {
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            float diff = a[i] - b[offset + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    static void check(float[] query, int dimensions) {
+        if (query.length != dimensions) {
+            throw new IllegalArgumentException(
+                "dimension mismatch: " + query.length + " vs " + dimensions);
+        }
+    }
+
+    /**
+     * {@code packed} may be longer than the {@code count} vectors it holds, e.g. a buffer with spare capacity.
+     */
+    static void checkBatch(float[] query, float[] packed, int count, float[] out) {
+        if (count < 0) {
+            throw new IllegalArgumentException("negative count: " + count);
+        }
+        if (packed.length < (long) count * query.length) {
+            throw new IllegalArgumentException("packed holds " + packed.length + " floats, "
+                + count + " vectors of " + query.length + " need " + (long) count * query.length);
+        }
+        if (out.length < count) {
+            throw new IllegalArgumentException("out holds " + out.length + " scores, " + count + " needed");
+        }
+    }
+}
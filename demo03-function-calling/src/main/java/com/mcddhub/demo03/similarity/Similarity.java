@@ -0,0 +1,62 @@
+package com.mcddhub.demo03.similarity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Picks the fastest available {@link SimilarityKernel}: the Vector API one when the
+ * {@code jdk.incubator.vector} module is resolved, the scalar one otherwise or when
+ * {@code -Ddemo03.similarity.scalar=true} is set.
+ */
+public final class Similarity {
+
+    private static final Logger logger = LoggerFactory.getLogger(Similarity.class);
+
+    private static final SimilarityKernel KERNEL = select();
+
+    private Similarity() {
+    }
+
+    public static SimilarityKernel kernel() {
+        return KERNEL;
+    }
+
+    public static float[] normalize(float[] vector) {
+        float norm = (float) Math.sqrt(KERNEL.dot(vector, vector));
+        float[] normalized = new float[vector.length];
+        if (norm == 0f) {
+            return normalized;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] / norm;
+        }
+        return normalized;
+    }
+
+    public static float[] toFloats(List<Double> embedding) {
+        float[] vector = new float[embedding.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = embedding.get(i).floatValue();
+        }
+        return vector;
+    }
+
+    private static SimilarityKernel select() {
+        if (!Boolean.getBoolean("demo03.similarity.scalar")
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                SimilarityKernel kernel = (SimilarityKernel) Class
+                    .forName("com.mcddhub.demo03.similarity.VectorApiSimilarityKernel")
+                    .getDeclaredConstructor()
+                    .newInstance();
+                logger.info("using {} similarity kernel", kernel.name());
+                return kernel;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.warn("Vector API similarity kernel unavailable, falling back to scalar", e);
+            }
+        }
+        return new ScalarSimilarityKernel();
+    }
+}
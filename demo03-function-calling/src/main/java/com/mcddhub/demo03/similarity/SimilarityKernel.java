@@ -0,0 +1,36 @@
+package com.mcddhub.demo03.similarity;
+
+/**
+ * Similarity and distance kernels over {@code float[]} vectors.
+ * <p>
+ * Batch variants compare one query against {@code count} vectors packed back to back in {@code packed}
+ * (vector {@code i} starts at {@code i * query.length}) and write one score per vector into {@code out}.
+ */
+public interface SimilarityKernel {
+
+    float dot(float[] a, float[] b);
+
+    float squaredL2(float[] a, float[] b);
+
+    default float cosine(float[] a, float[] b) {
+        float norms = (float) Math.sqrt(dot(a, a) * (double) dot(b, b));
+        return norms == 0f ? 0f : dot(a, b) / norms;
+    }
+
+    default float l2(float[] a, float[] b) {
+        return (float) Math.sqrt(squaredL2(a, b));
+    }
+
+    void dotBatch(float[] query, float[] packed, int count, float[] out);
+
+    void squaredL2Batch(float[] query, float[] packed, int count, float[] out);
+
+    /**
+     * Cosine similarity for a query and vectors that were all normalised with {@link Similarity#normalize}.
+     */
+    default void cosineBatchNormalized(float[] unitQuery, float[] packedUnitVectors, int count, float[] out) {
+        dotBatch(unitQuery, packedUnitVectors, count, out);
+    }
+
+    String name();
+}
@@ -0,0 +1,82 @@
+package com.mcddhub.demo03.similarity;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link SimilarityKernel} written against the incubating JDK Vector API. Needs
+ * {@code --add-modules jdk.incubator.vector} at compile and run time; load it through {@link Similarity}.
+ */
+public final class VectorApiSimilarityKernel implements SimilarityKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        ScalarSimilarityKernel.check(a, b.length);
+        return dot(a, b, 0);
+    }
+
+    @Override
+    public float squaredL2(float[] a, float[] b) {
+        ScalarSimilarityKernel.check(a, b.length);
+        return squaredL2(a, b, 0);
+    }
+
+    @Override
+    public void dotBatch(float[] query, float[] packed, int count, float[] out) {
+        ScalarSimilarityKernel.checkBatch(query, packed, count, out);
+        for (int i = 0; i < count; i++) {
+            out[i] = dot(query, packed, i * query.length);
+        }
+    }
+
+    @Override
+    public void squaredL2Batch(float[] query, float[] packed, int count, float[] out) {
+        ScalarSimilarityKernel.checkBatch(query, packed, count, out);
+        for (int i = 0; i < count; i++) {
+            out[i] = squaredL2(query, packed, i * query.length);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector-api(" + SPECIES.vectorBitSize() + " bit)";
+    }
+
+    private static float dot(float[] a, float[] b, int offset) {
+        int length = a.length;
+        int bound = SPECIES.loopBound(length);
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, offset + i);
+            acc = va.fma(vb, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[i] * b[offset + i];
+        }
+        return sum;
+    }
+
+    private static float squaredL2(float[] a, float[] b, int offset) {
+        int length = a.length;
+        int bound = SPECIES.loopBound(length);
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector diff = FloatVector.fromArray(SPECIES, a, i)
+                .sub(FloatVector.fromArray(SPECIES, b, offset + i));
+            acc = diff.fma(diff, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            float diff = a[i] - b[offset + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,80 @@
+package com.mcddhub.demo03.tool;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Caches the results of an idempotent function by its request for a fixed time to live. Requests are
+ * expected to be records (or otherwise implement {@code equals}/{@code hashCode}), e.g. weather by city and
+ * date. Concurrent calls with the same request share one invocation; failures are not cached.
+ */
+public class MemoizingFunction<I, O> implements Function<I, O> {
+
+    private final Function<I, O> delegate;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Clock clock;
+
+    private final Map<I, Entry<O>> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private record Entry<O>(CompletableFuture<O> value, long expiresAt) {
+    }
+
+    public MemoizingFunction(Function<I, O> delegate, Duration ttl, int maxEntries) {
+        this(delegate, ttl, maxEntries, Clock.systemUTC());
+    }
+
+    MemoizingFunction(Function<I, O> delegate, Duration ttl, int maxEntries, Clock clock) {
+        this.delegate = delegate;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    @Override
+    public O apply(I request) {
+        long now = clock.millis();
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        }
+        Entry<O> fresh = new Entry<>(new CompletableFuture<>(), now + ttlMillis);
+        Entry<O> current = entries.compute(request,
+            (key, entry) -> entry != null && entry.expiresAt() > now ? entry : fresh);
+        if (current != fresh) {
+            hits.increment();
+            try {
+                return current.value().join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        misses.increment();
+        try {
+            O value = delegate.apply(request);
+            fresh.value().complete(value);
+            if (entries.size() > maxEntries) {
+                entries.remove(request, fresh);
+            }
+            return value;
+        } catch (RuntimeException e) {
+            entries.remove(request, fresh);
+            fresh.value().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+            "hits", hits.sum(),
+            "misses", misses.sum(),
+            "size", entries.size());
+    }
+}
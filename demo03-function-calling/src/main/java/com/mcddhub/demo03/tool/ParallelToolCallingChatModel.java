@@ -0,0 +1,52 @@
+package com.mcddhub.demo03.tool;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatModel;
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.model.function.FunctionCallbackContext;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link DashScopeChatModel} that hands all tool calls of a turn to a {@link ToolCallExecutor} instead of
+ * running them one after another.
+ */
+public class ParallelToolCallingChatModel extends DashScopeChatModel {
+
+    private final ToolCallExecutor toolCallExecutor;
+
+    public ParallelToolCallingChatModel(DashScopeApi dashScopeApi, DashScopeChatOptions options,
+                                        FunctionCallbackContext functionCallbackContext, RetryTemplate retryTemplate,
+                                        ToolCallExecutor toolCallExecutor) {
+        super(dashScopeApi, options, functionCallbackContext, retryTemplate);
+        this.toolCallExecutor = toolCallExecutor;
+    }
+
+    @Override
+    protected ToolResponseMessage executeFunctions(AssistantMessage assistantMessage) {
+        List<AssistantMessage.ToolCall> toolCalls = assistantMessage.getToolCalls();
+        List<ToolCallExecutor.ToolInvocation> invocations = new ArrayList<>(toolCalls.size());
+        for (AssistantMessage.ToolCall toolCall : toolCalls) {
+            FunctionCallback callback = this.functionCallbackRegister.get(toolCall.name());
+            if (callback == null) {
+                throw new IllegalStateException("No function callback found for function name: " + toolCall.name());
+            }
+            invocations.add(new ToolCallExecutor.ToolInvocation(toolCall.name(),
+                () -> callback.call(toolCall.arguments())));
+        }
+
+        List<String> results = toolCallExecutor.invokeAll(invocations);
+        List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>(toolCalls.size());
+        for (int i = 0; i < toolCalls.size(); i++) {
+            AssistantMessage.ToolCall toolCall = toolCalls.get(i);
+            responses.add(new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(), results.get(i)));
+        }
+        return new ToolResponseMessage(responses, Map.of());
+    }
+}
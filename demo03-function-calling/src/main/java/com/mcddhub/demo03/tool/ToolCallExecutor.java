@@ -0,0 +1,136 @@
+package com.mcddhub.demo03.tool;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the tool calls the model requested in one turn, each on its own virtual thread when the JVM has them
+ * (a cached platform thread pool otherwise), so the turn takes as long as its slowest call instead of the sum.
+ * <p>
+ * Every function has a timeout. A call that times out or throws is answered with an {@code {"error": ...}}
+ * JSON result instead of failing the whole turn, so the model can still respond with what it has.
+ */
+public class ToolCallExecutor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolCallExecutor.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ExecutorService executor;
+    private final boolean parallel;
+    private final Duration defaultTimeout;
+    private final Map<String, Duration> timeouts;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder parallelTurns = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public record ToolInvocation(String name, Callable<String> call) {
+    }
+
+    public ToolCallExecutor(boolean parallel, Duration defaultTimeout, Map<String, Duration> timeouts) {
+        this.executor = newExecutor();
+        this.parallel = parallel;
+        this.defaultTimeout = defaultTimeout;
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * Invokes all calls and returns their results in the same order.
+     */
+    public List<String> invokeAll(List<ToolInvocation> invocations) {
+        calls.add(invocations.size());
+        List<String> results = new ArrayList<>(invocations.size());
+        if (!parallel) {
+            for (ToolInvocation invocation : invocations) {
+                long start = System.nanoTime();
+                results.add(await(invocation, executor.submit(invocation.call()), start));
+            }
+            return results;
+        }
+        if (invocations.size() > 1) {
+            parallelTurns.increment();
+        }
+        long start = System.nanoTime();
+        List<Future<String>> futures = new ArrayList<>(invocations.size());
+        for (ToolInvocation invocation : invocations) {
+            futures.add(executor.submit(invocation.call()));
+        }
+        for (int i = 0; i < invocations.size(); i++) {
+            results.add(await(invocations.get(i), futures.get(i), start));
+        }
+        return results;
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+            "calls", calls.sum(),
+            "parallelTurns", parallelTurns.sum(),
+            "timedOut", timedOut.sum(),
+            "failed", failed.sum());
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private String await(ToolInvocation invocation, Future<String> future, long startNanos) {
+        Duration timeout = timeouts.getOrDefault(invocation.name(), defaultTimeout);
+        long remaining = timeout.toNanos() - (System.nanoTime() - startNanos);
+        try {
+            return future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            logger.warn("function {} timed out after {}", invocation.name(), timeout);
+            return error(invocation.name() + " timed out after " + timeout.toMillis() + "ms");
+        } catch (ExecutionException e) {
+            failed.increment();
+            logger.warn("function {} failed", invocation.name(), e.getCause());
+            return error(invocation.name() + " failed: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return error(invocation.name() + " was interrupted");
+        }
+    }
+
+    private static String error(String message) {
+        try {
+            return objectMapper.writeValueAsString(Map.of("error", message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ExecutorService newExecutor() {
+        try {
+            // Executors.newVirtualThreadPerTaskExecutor() is Java 21+, the module still targets 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger ids = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "tool-call-" + ids.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
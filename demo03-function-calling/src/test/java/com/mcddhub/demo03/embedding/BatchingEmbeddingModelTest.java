@@ -0,0 +1,51 @@
+package com.mcddhub.demo03.embedding;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchingEmbeddingModelTest {
+
+    @Test
+    void should_batch_concurrent_requests_and_fan_out_vectors() throws Exception {
+        StubEmbeddingModel stub = new StubEmbeddingModel(8, Duration.ofMillis(20));
+        ExecutorService executor = Executors.newFixedThreadPool(40);
+        try (BatchingEmbeddingModel model = new BatchingEmbeddingModel(stub, 25, Duration.ofMillis(50), 2)) {
+            List<String> texts = new ArrayList<>();
+            List<Future<List<Double>>> futures = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                String text = "text-" + (i % 30);
+                texts.add(text);
+                futures.add(executor.submit(() -> model.embed(text)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(stub.vectorOf(texts.get(i)), futures.get(i).get(5, TimeUnit.SECONDS));
+            }
+
+            assertTrue(stub.batchSizes().size() < 40, "requests were not batched: " + stub.batchSizes());
+            assertTrue(stub.batchSizes().stream().allMatch(size -> size <= 25));
+            assertEquals(40L, model.stats().get("texts"));
+            assertEquals(40L - stub.batchSizes().stream().mapToInt(Integer::intValue).sum(),
+                model.stats().get("deduplicated"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void should_pass_multi_text_requests_through() {
+        StubEmbeddingModel stub = new StubEmbeddingModel(8, Duration.ZERO);
+        try (BatchingEmbeddingModel model = new BatchingEmbeddingModel(stub, 25, Duration.ofMillis(5), 1)) {
+            assertEquals(2, model.embed(List.of("Hello World", "World is big and salvation is near")).size());
+            assertEquals(List.of(2), stub.batchSizes());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.mcddhub.demo03.embedding;
+
+import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingOptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingEmbeddingModelTest {
+
+    private static final List<String> TEXTS = List.of("Hello World", "World is big and salvation is near");
+
+    @Test
+    void should_only_embed_unseen_texts_and_start_warm(@TempDir Path directory) {
+        Path file = directory.resolve("embeddings.bin");
+        StubEmbeddingModel stub = new StubEmbeddingModel(16, Duration.ZERO);
+
+        try (CachingEmbeddingModel model = open(stub, file, 8)) {
+            List<List<Double>> first = model.embed(TEXTS);
+            List<List<Double>> second = model.embed(List.of("Hello World", "a new text"));
+
+            assertEquals(2, first.size());
+            assertEquals(first.get(0), second.get(0));
+            assertEquals(List.of(2, 1), stub.batchSizes());
+        }
+
+        StubEmbeddingModel restarted = new StubEmbeddingModel(16, Duration.ZERO);
+        try (CachingEmbeddingModel model = open(restarted, file, 8)) {
+            model.embed(TEXTS);
+
+            assertTrue(restarted.batchSizes().isEmpty());
+            assertEquals(2L, model.stats().get("hits"));
+            assertEquals(3L, model.stats().get("size"));
+        }
+    }
+
+    @Test
+    void should_evict_when_full(@TempDir Path directory) {
+        StubEmbeddingModel stub = new StubEmbeddingModel(16, Duration.ZERO);
+        try (CachingEmbeddingModel model = open(stub, directory.resolve("embeddings.bin"), 2)) {
+            model.embed("a");
+            model.embed("b");
+            model.embed("c");
+
+            assertEquals(2L, model.stats().get("size"));
+            assertEquals(3, stub.batchSizes().size());
+        }
+    }
+
+    @Test
+    void should_not_share_vectors_between_models(@TempDir Path directory) {
+        StubEmbeddingModel stub = new StubEmbeddingModel(16, Duration.ZERO);
+        try (CachingEmbeddingModel model = open(stub, directory.resolve("embeddings.bin"), 8)) {
+            model.embed("Hello World");
+            model.call(new EmbeddingRequest(List.of("Hello World"),
+                DashScopeEmbeddingOptions.builder().withModel("text-embedding-v1").build()));
+            model.call(new EmbeddingRequest(List.of("Hello World"),
+                DashScopeEmbeddingOptions.builder().withModel("stub").build()));
+
+            assertEquals(List.of(1, 1), stub.batchSizes());
+            assertEquals(2L, model.stats().get("size"));
+        }
+    }
+
+    @Test
+    void should_cache_document_embeddings(@TempDir Path directory) {
+        StubEmbeddingModel stub = new StubEmbeddingModel(16, Duration.ZERO);
+        try (CachingEmbeddingModel model = open(stub, directory.resolve("embeddings.bin"), 8)) {
+            List<Double> first = model.embed(new Document("Hello World"));
+            List<Double> second = model.embed(new Document("Hello World"));
+
+            assertEquals(first, second);
+            assertEquals(List.of(1), stub.batchSizes());
+        }
+    }
+
+    @Test
+    void should_fail_naming_the_input_the_delegate_left_out(@TempDir Path directory) {
+        StubEmbeddingModel stub = new StubEmbeddingModel(16, Duration.ZERO) {
+            @Override
+            public EmbeddingResponse call(EmbeddingRequest request) {
+                List<Embedding> all = super.call(request).getResults();
+                return new EmbeddingResponse(all.size() > 1 ? all.subList(0, all.size() - 1) : all);
+            }
+        };
+        try (CachingEmbeddingModel model = open(stub, directory.resolve("embeddings.bin"), 8)) {
+            model.embed("Hello World");
+
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> model.embed(List.of("Hello World", "a", "b")));
+
+            assertTrue(e.getMessage().contains("input 2 of 3"), e.getMessage());
+        }
+    }
+
+    private static CachingEmbeddingModel open(StubEmbeddingModel stub, Path file, int capacity) {
+        return new CachingEmbeddingModel(stub, new MappedEmbeddingStore(file, 16, capacity), "stub", 16);
+    }
+}
@@ -0,0 +1,65 @@
+package com.mcddhub.demo03.embedding;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Deterministic embedding model that sleeps for a fixed round trip per call, whatever the batch size.
+ */
+public class StubEmbeddingModel implements EmbeddingModel {
+
+    private final int dimensions;
+    private final long latencyNanos;
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    public StubEmbeddingModel(int dimensions, Duration latency) {
+        this.dimensions = dimensions;
+        this.latencyNanos = latency.toNanos();
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        batchSizes.add(request.getInstructions().size());
+        if (latencyNanos > 0) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+        List<Embedding> embeddings = new ArrayList<>();
+        for (String text : request.getInstructions()) {
+            embeddings.add(new Embedding(vectorOf(text), embeddings.size()));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public List<Double> embed(Document document) {
+        return embed(document.getContent());
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public List<Integer> batchSizes() {
+        return batchSizes;
+    }
+
+    public List<Double> vectorOf(String text) {
+        Random random = new Random(text.hashCode());
+        List<Double> vector = new ArrayList<>(dimensions);
+        for (int i = 0; i < dimensions; i++) {
+            vector.add(random.nextGaussian());
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,91 @@
+package com.mcddhub.demo03.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SimilarityKernelTest {
+
+    private final SimilarityKernel scalar = new ScalarSimilarityKernel();
+    private final SimilarityKernel vector = new VectorApiSimilarityKernel();
+
+    @Test
+    void vector_kernel_matches_scalar_kernel() {
+        Random random = new Random(7);
+        // 1539 is not a multiple of any lane count, so the scalar tail is exercised too
+        int dimensions = 1539;
+        float[] a = randomVector(random, dimensions);
+        float[] b = randomVector(random, dimensions);
+
+        assertThat(vector.dot(a, b)).isCloseTo(scalar.dot(a, b), within(1e-2f));
+        assertThat(vector.squaredL2(a, b)).isCloseTo(scalar.squaredL2(a, b), within(1e-2f));
+        assertThat(vector.cosine(a, b)).isCloseTo(scalar.cosine(a, b), within(1e-5f));
+        assertThat(vector.l2(a, b)).isCloseTo(scalar.l2(a, b), within(1e-3f));
+    }
+
+    @Test
+    void batch_matches_pairwise() {
+        Random random = new Random(11);
+        int dimensions = 1536;
+        int count = 32;
+        float[] query = Similarity.normalize(randomVector(random, dimensions));
+        float[] packed = new float[dimensions * count];
+        float[][] vectors = new float[count][];
+        for (int i = 0; i < count; i++) {
+            vectors[i] = Similarity.normalize(randomVector(random, dimensions));
+            System.arraycopy(vectors[i], 0, packed, i * dimensions, dimensions);
+        }
+
+        float[] cosines = new float[count];
+        float[] distances = new float[count];
+        vector.cosineBatchNormalized(query, packed, count, cosines);
+        vector.squaredL2Batch(query, packed, count, distances);
+
+        for (int i = 0; i < count; i++) {
+            assertThat(cosines[i]).isCloseTo(scalar.cosine(query, vectors[i]), within(1e-4f));
+            assertThat(distances[i]).isCloseTo(scalar.squaredL2(query, vectors[i]), within(1e-4f));
+        }
+    }
+
+    @Test
+    void normalize_handles_zero_vector() {
+        assertThat(Similarity.normalize(new float[]{0f, 0f})).containsExactly(0f, 0f);
+        assertThat(Similarity.kernel().cosine(new float[]{3f, 4f}, new float[]{6f, 8f})).isCloseTo(1f, within(1e-6f));
+    }
+
+    @Test
+    void rejects_dimension_mismatch() {
+        assertThatThrownBy(() -> vector.dot(new float[4], new float[5]))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void batch_checks_packed_and_out_sizes() {
+        float[] query = new float[4];
+        for (SimilarityKernel kernel : new SimilarityKernel[]{scalar, vector}) {
+            assertThatThrownBy(() -> kernel.dotBatch(query, new float[11], 3, new float[3]))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("need 12");
+            assertThatThrownBy(() -> kernel.squaredL2Batch(query, new float[12], 3, new float[2]))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("3 needed");
+
+            float[] out = new float[3];
+            // spare capacity past the last vector is fine
+            kernel.dotBatch(new float[]{1f, 0f, 0f, 0f}, new float[]{1, 0, 0, 0, 2, 0, 0, 0, 9, 9}, 2, out);
+            assertThat(out).containsExactly(1f, 2f, 0f);
+        }
+    }
+
+    private static float[] randomVector(Random random, int dimensions) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
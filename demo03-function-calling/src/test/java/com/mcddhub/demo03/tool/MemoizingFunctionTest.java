@@ -0,0 +1,74 @@
+package com.mcddhub.demo03.tool;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoizingFunctionTest {
+
+    private record Request(String city, String date) {
+    }
+
+    @Test
+    void should_reuse_results_until_they_expire() {
+        MutableClock clock = new MutableClock();
+        AtomicInteger invocations = new AtomicInteger();
+        MemoizingFunction<Request, String> function = new MemoizingFunction<>(
+            request -> request.city() + invocations.incrementAndGet(), Duration.ofMinutes(10), 100, clock);
+
+        assertEquals("杭州1", function.apply(new Request("杭州", "2024-08-22")));
+        assertEquals("杭州1", function.apply(new Request("杭州", "2024-08-22")));
+        assertEquals("杭州2", function.apply(new Request("杭州", "2024-08-23")));
+
+        clock.advance(Duration.ofMinutes(11));
+        assertEquals("杭州3", function.apply(new Request("杭州", "2024-08-22")));
+        assertEquals(1L, function.stats().get("hits"));
+        assertEquals(3L, function.stats().get("misses"));
+    }
+
+    @Test
+    void should_not_cache_failures() {
+        AtomicInteger invocations = new AtomicInteger();
+        MemoizingFunction<Request, String> function = new MemoizingFunction<>(request -> {
+            if (invocations.incrementAndGet() == 1) {
+                throw new IllegalStateException("unavailable");
+            }
+            return "ok";
+        }, Duration.ofMinutes(10), 100);
+
+        Request request = new Request("上海", "2024-08-22");
+        assertThrows(IllegalStateException.class, () -> function.apply(request));
+        assertEquals("ok", function.apply(request));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-08-22T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
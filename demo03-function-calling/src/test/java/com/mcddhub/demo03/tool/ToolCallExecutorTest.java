@@ -0,0 +1,58 @@
+package com.mcddhub.demo03.tool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ToolCallExecutorTest {
+
+    private final ToolCallExecutor executor = new ToolCallExecutor(true, Duration.ofSeconds(5),
+        Map.of("slowFunction", Duration.ofMillis(100)));
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void should_run_calls_in_parallel_and_keep_order() {
+        long start = System.nanoTime();
+        List<String> results = executor.invokeAll(List.of(
+            sleeping("getWeatherFunction", 200, "杭州"),
+            sleeping("getWeatherFunction", 200, "上海"),
+            sleeping("getOrderFunction", 200, "2001")));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(List.of("杭州", "上海", "2001"), results);
+        assertTrue(elapsed < 500, "calls did not overlap: " + elapsed + "ms");
+    }
+
+    @Test
+    void should_answer_timeouts_and_failures_with_an_error() {
+        List<String> results = executor.invokeAll(List.of(
+            sleeping("slowFunction", 2_000, "too late"),
+            new ToolCallExecutor.ToolInvocation("brokenFunction", () -> {
+                throw new IllegalStateException("boom");
+            }),
+            sleeping("getOrderFunction", 10, "2001")));
+
+        assertTrue(results.get(0).contains("timed out"), results.get(0));
+        assertTrue(results.get(1).contains("boom"), results.get(1));
+        assertEquals("2001", results.get(2));
+        assertEquals(1L, executor.stats().get("timedOut"));
+        assertEquals(1L, executor.stats().get("failed"));
+    }
+
+    private static ToolCallExecutor.ToolInvocation sleeping(String name, long millis, String result) {
+        return new ToolCallExecutor.ToolInvocation(name, () -> {
+            Thread.sleep(millis);
+            return result;
+        });
+    }
+}
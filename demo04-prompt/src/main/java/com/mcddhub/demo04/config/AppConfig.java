@@ -0,0 +1,18 @@
+package com.mcddhub.demo04.config;
+
+import com.mcddhub.demo04.template.PromptTemplateRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PromptTemplateProperties.class)
+public class AppConfig {
+
+    @Bean
+    public PromptTemplateRegistry promptTemplateRegistry(PromptTemplateProperties properties) {
+        PromptTemplateRegistry registry = new PromptTemplateRegistry(properties.location(), properties.suffix());
+        registry.preload();
+        return registry;
+    }
+}
@@ -0,0 +1,10 @@
+package com.mcddhub.demo04.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("demo04.prompt-templates")
+public record PromptTemplateProperties(
+    @DefaultValue("classpath:/prompts/") String location,
+    @DefaultValue(".st") String suffix) {
+}
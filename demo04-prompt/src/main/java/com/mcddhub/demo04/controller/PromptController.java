@@ -0,0 +1,49 @@
+package com.mcddhub.demo04.controller;
+
+import com.mcddhub.demo04.template.CompiledTemplate;
+import com.mcddhub.demo04.template.PromptTemplateRegistry;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/demo04/prompt")
+public class PromptController {
+
+    private final ChatClient chatClient;
+
+    private final PromptTemplateRegistry templates;
+
+    private final CompiledTemplate systemVoice;
+
+    private final CompiledTemplate pirates;
+
+    public PromptController(ChatClient.Builder builder, PromptTemplateRegistry templates) {
+        this.chatClient = builder.build();
+        this.templates = templates;
+        // fail at startup, not per request, if a template and its caller disagree on parameters
+        this.systemVoice = templates.get("system-voice").requireParameters("name", "voice");
+        this.pirates = templates.get("pirates").requireParameters("era");
+    }
+
+    @GetMapping("/pirates")
+    public String pirates(@RequestParam(value = "name", defaultValue = "Bob") String name,
+                          @RequestParam(value = "voice", defaultValue = "pirate") String voice,
+                          @RequestParam(value = "era", defaultValue = "Golden Age of Piracy") String era) {
+        return this.chatClient.prompt()
+            .system(systemVoice.render(Map.of("name", name, "voice", voice)))
+            .user(pirates.render(era))
+            .call()
+            .content();
+    }
+
+    @GetMapping("/templates")
+    public Set<String> templates() {
+        return this.templates.names();
+    }
+}
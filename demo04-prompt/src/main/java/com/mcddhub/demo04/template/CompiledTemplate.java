@@ -0,0 +1,205 @@
+package com.mcddhub.demo04.template;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A prompt template parsed once into alternating literal segments and parameter slots.
+ * <p>
+ * Placeholders use the same {@code {name}} syntax as Spring AI's {@code PromptTemplate}, where a name is a
+ * Java identifier. Any other brace is literal text, so JSON examples need no escaping; {@code \{} writes a
+ * literal brace in front of {@code name}. Rendering appends literals and values to a caller-supplied or
+ * thread-local buffer without re-parsing anything.
+ */
+public final class CompiledTemplate {
+
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    private final String name;
+    private final String[] literals;
+    private final int[] slots;
+    private final String[] parameters;
+    private final int estimatedLength;
+
+    private CompiledTemplate(String name, String[] literals, int[] slots, String[] parameters) {
+        this.name = name;
+        this.literals = literals;
+        this.slots = slots;
+        this.parameters = parameters;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.estimatedLength = length + 16 * slots.length;
+    }
+
+    /**
+     * Parses {@code text}.
+     *
+     * @throws IllegalArgumentException if a placeholder is not closed
+     */
+    public static CompiledTemplate compile(String name, String text) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        Set<String> parameters = new LinkedHashSet<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length() && text.charAt(i + 1) == '{') {
+                literal.append('{');
+                i += 2;
+                continue;
+            }
+            int end = c == '{' ? placeholderEnd(text, i) : -1;
+            if (end < 0) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            if (end == text.length()) {
+                throw new IllegalArgumentException("template '" + name + "': placeholder "
+                    + text.substring(i, Math.min(end, i + 40)) + " at offset " + i + " is not closed");
+            }
+            String parameter = text.substring(i + 1, end);
+            parameters.add(parameter);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            slots.add(indexOf(parameters, parameter));
+            i = end + 1;
+        }
+        literals.add(literal.toString());
+        return new CompiledTemplate(name, literals.toArray(String[]::new),
+            slots.stream().mapToInt(Integer::intValue).toArray(), parameters.toArray(String[]::new));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Parameter names in order of first appearance; positional {@link #render(Object...)} follows it.
+     */
+    public List<String> parameters() {
+        return List.of(parameters);
+    }
+
+    /**
+     * Checks, typically when wiring a caller, that this template uses exactly {@code names}.
+     *
+     * @throws IllegalStateException listing missing and unexpected parameters
+     */
+    public CompiledTemplate requireParameters(String... names) {
+        Set<String> expected = new LinkedHashSet<>(Arrays.asList(names));
+        Set<String> actual = new LinkedHashSet<>(Arrays.asList(parameters));
+        if (!expected.equals(actual)) {
+            Set<String> missing = new LinkedHashSet<>(expected);
+            missing.removeAll(actual);
+            Set<String> unexpected = new LinkedHashSet<>(actual);
+            unexpected.removeAll(expected);
+            throw new IllegalStateException("template '" + name + "' does not match its caller: missing "
+                + missing + ", unexpected " + unexpected);
+        }
+        return this;
+    }
+
+    public String render(Map<String, ?> values) {
+        StringBuilder buffer = buffer();
+        try {
+            return renderTo(values, buffer).toString();
+        } finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * Renders with values given in {@link #parameters()} order, skipping the map lookups.
+     */
+    public String render(Object... values) {
+        if (values.length != parameters.length) {
+            throw new IllegalArgumentException("template '" + name + "' takes " + parameters.length
+                + " values " + parameters() + " but got " + values.length);
+        }
+        StringBuilder buffer = buffer();
+        try {
+            buffer.append(literals[0]);
+            for (int i = 0; i < slots.length; i++) {
+                buffer.append(values[slots[i]]).append(literals[i + 1]);
+            }
+            return buffer.toString();
+        } finally {
+            release(buffer);
+        }
+    }
+
+    public StringBuilder renderTo(Map<String, ?> values, StringBuilder out) {
+        out.ensureCapacity(out.length() + estimatedLength);
+        out.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            String parameter = parameters[slots[i]];
+            Object value = values.get(parameter);
+            if (value == null && !values.containsKey(parameter)) {
+                throw new IllegalArgumentException("template '" + name + "' is missing a value for '" + parameter
+                    + "'");
+            }
+            out.append(value).append(literals[i + 1]);
+        }
+        return out;
+    }
+
+    public Message createSystemMessage(Map<String, ?> values) {
+        return new SystemMessage(render(values));
+    }
+
+    public Message createUserMessage(Map<String, ?> values) {
+        return new UserMessage(render(values));
+    }
+
+    private static int placeholderEnd(String text, int open) {
+        int i = open + 1;
+        if (i >= text.length() || !Character.isJavaIdentifierStart(text.charAt(i))) {
+            return -1;
+        }
+        while (i < text.length() && Character.isJavaIdentifierPart(text.charAt(i))) {
+            i++;
+        }
+        // "{name" followed by anything but '}' is literal text, unless the template ends right there
+        if (i < text.length() && text.charAt(i) != '}') {
+            return -1;
+        }
+        return i;
+    }
+
+    private static int indexOf(Set<String> parameters, String parameter) {
+        int index = 0;
+        for (String candidate : parameters) {
+            if (candidate.equals(parameter)) {
+                return index;
+            }
+            index++;
+        }
+        throw new IllegalStateException(parameter);
+    }
+
+    private static StringBuilder buffer() {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    private static void release(StringBuilder buffer) {
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.mcddhub.demo04.template;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link CompiledTemplate}s loaded from {@code <location>/<name><suffix>} on the classpath and cached by
+ * name. {@link #preload()} compiles every template under the location at startup, so a broken template
+ * fails the application rather than the first request that uses it.
+ */
+public class PromptTemplateRegistry {
+
+    private final ResourcePatternResolver resolver;
+    private final String location;
+    private final String suffix;
+    private final Map<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+    public PromptTemplateRegistry(String location, String suffix) {
+        this(new PathMatchingResourcePatternResolver(), location, suffix);
+    }
+
+    PromptTemplateRegistry(ResourcePatternResolver resolver, String location, String suffix) {
+        this.resolver = resolver;
+        this.location = location.endsWith("/") ? location : location + "/";
+        this.suffix = suffix;
+    }
+
+    /**
+     * Compiles every template under the location and returns how many were found.
+     */
+    public int preload() {
+        try {
+            Resource[] resources = resolver.getResources(location + "*" + suffix);
+            for (Resource resource : resources) {
+                String filename = resource.getFilename();
+                if (filename != null) {
+                    String name = filename.substring(0, filename.length() - suffix.length());
+                    templates.computeIfAbsent(name, key -> compile(key, resource));
+                }
+            }
+            return resources.length;
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot list prompt templates under " + location, e);
+        }
+    }
+
+    /**
+     * The compiled template called {@code name}, loading it on first use.
+     *
+     * @throws IllegalArgumentException if there is no such template
+     */
+    public CompiledTemplate get(String name) {
+        CompiledTemplate template = templates.get(name);
+        if (template != null) {
+            return template;
+        }
+        return templates.computeIfAbsent(name, key -> {
+            Resource resource = resolver.getResource(location + key + suffix);
+            if (!resource.exists()) {
+                throw new IllegalArgumentException("no prompt template '" + key + "' at " + location + key + suffix);
+            }
+            return compile(key, resource);
+        });
+    }
+
+    public Set<String> names() {
+        return new TreeSet<>(templates.keySet());
+    }
+
+    private static CompiledTemplate compile(String name, Resource resource) {
+        try {
+            return CompiledTemplate.compile(name, resource.getContentAsString(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot read prompt template " + resource, e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.mcddhub.demo04.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledTemplateTest {
+
+    @Test
+    void should_render_named_and_positional_values() {
+        CompiledTemplate template = CompiledTemplate.compile("greeting", "Hi {name}, talk like a {voice}. Bye {name}!");
+
+        assertEquals(List.of("name", "voice"), template.parameters());
+        assertEquals("Hi Bob, talk like a pirate. Bye Bob!", template.render(Map.of("name", "Bob", "voice", "pirate")));
+        assertEquals("Hi Bob, talk like a pirate. Bye Bob!", template.render("Bob", "pirate"));
+    }
+
+    @Test
+    void should_keep_other_braces_literal() {
+        CompiledTemplate template = CompiledTemplate.compile("json",
+            "Answer as {\"actor\": \"...\"} for {topic}, not \\{topic} or { topic }.");
+
+        assertEquals(List.of("topic"), template.parameters());
+        assertEquals("Answer as {\"actor\": \"...\"} for films, not {topic} or { topic }.",
+            template.render(Map.of("topic", "films")));
+    }
+
+    @Test
+    void should_reject_broken_templates_and_mismatched_callers() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("broken", "Hello {name"));
+
+        CompiledTemplate template = CompiledTemplate.compile("greeting", "Hi {name}");
+        assertThrows(IllegalStateException.class, () -> template.requireParameters("name", "voice"));
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of("voice", "pirate")));
+        assertThrows(IllegalArgumentException.class, () -> template.render("Bob", "pirate"));
+        assertSame(template, template.requireParameters("name"));
+    }
+
+    @Test
+    void should_load_and_cache_templates_from_classpath() {
+        PromptTemplateRegistry registry = new PromptTemplateRegistry("classpath:/prompts/", ".st");
+
+        assertTrue(registry.preload() >= 2);
+        assertSame(registry.get("system-voice"), registry.get("system-voice"));
+        assertEquals(List.of("name", "voice"), registry.get("system-voice").parameters());
+        assertThrows(IllegalArgumentException.class, () -> registry.get("missing"));
+    }
+}
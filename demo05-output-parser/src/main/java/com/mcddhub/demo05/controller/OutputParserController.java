@@ -0,0 +1,52 @@
+package com.mcddhub.demo05.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mcddhub.demo05.converter.StreamingEntityConverter;
+import com.mcddhub.demo05.entity.ActorFilms;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/demo05")
+public class OutputParserController {
+
+    private static final String FILMOGRAPHY = "Generate the filmography of {count} random actors, five movies each.";
+
+    private final ChatClient chatClient;
+
+    private final StreamingEntityConverter<ActorFilms> actorFilmsConverter;
+
+    public OutputParserController(ChatClient.Builder builder, ObjectMapper objectMapper) {
+        this.chatClient = builder.build();
+        this.actorFilmsConverter = new StreamingEntityConverter<>(objectMapper,
+            new ParameterizedTypeReference<List<ActorFilms>>() {
+            });
+    }
+
+    @GetMapping("/actor-films")
+    public List<ActorFilms> actorFilms(@RequestParam(value = "count", defaultValue = "5") int count) {
+        return this.chatClient.prompt()
+            .user(u -> u.text(FILMOGRAPHY).param("count", count))
+            .call()
+            .entity(new ParameterizedTypeReference<>() {
+            });
+    }
+
+    @GetMapping(value = "/actor-films/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ActorFilms> actorFilmsStream(@RequestParam(value = "count", defaultValue = "5") int count) {
+        return actorFilmsConverter.convert(this.chatClient.prompt()
+            .user(u -> u.text(FILMOGRAPHY + "\n{format}")
+                .param("count", count)
+                .param("format", actorFilmsConverter.getFormat()))
+            .stream()
+            .content());
+    }
+}
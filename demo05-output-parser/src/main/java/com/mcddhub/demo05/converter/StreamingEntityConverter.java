@@ -0,0 +1,57 @@
+package com.mcddhub.demo05.converter;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.core.ParameterizedTypeReference;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming counterpart of {@code ChatClient...call().entity(new ParameterizedTypeReference<List<T>>() {})}:
+ * turns the streamed content of an answer into a {@code Flux<T>} that emits each list element as soon
+ * as it has been parsed, rather than a {@code List<T>} once the whole answer has been buffered and run
+ * through a full Jackson parse.
+ * <p>
+ * {@link #getFormat()} is the same format instruction {@link BeanOutputConverter} would add to the
+ * prompt for {@code List<T>}; it is computed once because it involves generating a JSON schema.
+ */
+public class StreamingEntityConverter<T> {
+
+    private final ObjectMapper objectMapper;
+    private final JavaType elementType;
+    private final String format;
+
+    public StreamingEntityConverter(ObjectMapper objectMapper, ParameterizedTypeReference<List<T>> listType) {
+        this.objectMapper = objectMapper;
+        this.elementType = objectMapper.constructType(listType.getType()).getContentType();
+        this.format = new BeanOutputConverter<>(listType).getFormat();
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * Parses {@code content} as it arrives. The returned flux fails with {@link IllegalStateException}
+     * if the answer ends before the array is closed, and with {@link java.io.UncheckedIOException} on
+     * malformed JSON.
+     */
+    public Flux<T> convert(Flux<String> content) {
+        return Flux.defer(() -> {
+            StreamingJsonArrayParser<T> parser = new StreamingJsonArrayParser<>(objectMapper, elementType);
+            return content
+                .concatMapIterable(chunk -> {
+                    List<T> completed = new ArrayList<>(1);
+                    parser.feed(chunk, completed::add);
+                    return completed.isEmpty() ? List.of() : completed;
+                })
+                .concatWith(Flux.defer(() -> {
+                    parser.finish();
+                    return Flux.empty();
+                }));
+        });
+    }
+}
@@ -0,0 +1,216 @@
+package com.mcddhub.demo05.converter;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Incremental parser for a JSON array that arrives in arbitrary text chunks, such as the tokens of a
+ * streamed model answer. Each element is bound to {@code T} and handed to the sink as soon as its
+ * closing bracket has been read, instead of after the whole answer has been collected.
+ * <p>
+ * Anything before the opening {@code [} (a markdown fence, a sentence of preamble) and anything after
+ * the matching {@code ]} is ignored. Chunks are UTF-8 encoded into a byte buffer that is reused for the
+ * whole stream and fed to Jackson's non-blocking parser, so the only per-element allocation is the
+ * token buffer the element is bound from.
+ * <p>
+ * Not thread-safe; {@link #reset()} makes the instance reusable for the next response.
+ */
+public class StreamingJsonArrayParser<T> {
+
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader reader;
+
+    private JsonParser parser;
+    private byte[] bytes = new byte[256];
+    private char pendingHighSurrogate;
+    private boolean started;
+    private boolean closed;
+    private int depth;
+    private TokenBuffer element;
+    private long elements;
+
+    public StreamingJsonArrayParser(ObjectMapper objectMapper, Class<T> elementType) {
+        this(objectMapper, objectMapper.constructType(elementType));
+    }
+
+    public StreamingJsonArrayParser(ObjectMapper objectMapper, JavaType elementType) {
+        this.objectMapper = objectMapper;
+        this.reader = objectMapper.readerFor(elementType);
+        reset();
+    }
+
+    /**
+     * Feeds the next chunk of the answer and passes every element it completes to {@code sink}.
+     */
+    public void feed(CharSequence chunk, Consumer<? super T> sink) {
+        if (closed || chunk.length() == 0) {
+            return;
+        }
+        int from = 0;
+        if (!started) {
+            from = indexOf(chunk, '[');
+            if (from < 0) {
+                return;
+            }
+            started = true;
+        }
+        int length = encode(chunk, from);
+        if (length == 0) {
+            return;
+        }
+        try {
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(bytes, 0, length);
+            drain(sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Signals the end of the answer.
+     *
+     * @throws IllegalStateException if the array was never opened or not closed
+     */
+    public void finish() {
+        if (!closed) {
+            throw new IllegalStateException(started
+                ? "answer ended inside the JSON array after " + elements + " elements"
+                : "answer does not contain a JSON array");
+        }
+    }
+
+    public long elements() {
+        return elements;
+    }
+
+    public void reset() {
+        try {
+            if (parser != null) {
+                parser.close();
+            }
+            parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pendingHighSurrogate = 0;
+        started = false;
+        closed = false;
+        depth = 0;
+        element = null;
+        elements = 0;
+    }
+
+    private void drain(Consumer<? super T> sink) throws IOException {
+        JsonToken token;
+        while (!closed && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+            if (depth == 0) {
+                if (token != JsonToken.START_ARRAY) {
+                    throw new IllegalStateException("expected a JSON array but found " + token);
+                }
+                depth = 1;
+                continue;
+            }
+            if (depth == 1 && token == JsonToken.END_ARRAY) {
+                closed = true;
+                break;
+            }
+            if (element == null) {
+                element = new TokenBuffer(objectMapper, false);
+            }
+            element.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+            if (depth == 1) {
+                try (JsonParser elementParser = element.asParser(objectMapper)) {
+                    elementParser.nextToken();
+                    sink.accept(reader.readValue(elementParser));
+                }
+                element = null;
+                elements++;
+            }
+        }
+    }
+
+    /**
+     * UTF-8 encodes {@code chunk} from {@code from} into {@link #bytes}, carrying a trailing high
+     * surrogate over to the next chunk. Unpaired surrogates are replaced with U+FFFD, as
+     * {@link String#getBytes} does.
+     */
+    private int encode(CharSequence chunk, int from) {
+        int end = chunk.length();
+        ensureCapacity((end - from + 1) * 3);
+        int length = 0;
+        int i = from;
+        if (pendingHighSurrogate != 0 && i < end) {
+            if (Character.isLowSurrogate(chunk.charAt(i))) {
+                length = encodeCodePoint(Character.toCodePoint(pendingHighSurrogate, chunk.charAt(i++)), length);
+            } else {
+                length = encodeCodePoint(REPLACEMENT, length);
+            }
+            pendingHighSurrogate = 0;
+        }
+        while (i < end) {
+            char c = chunk.charAt(i++);
+            if (c < 0x80) {
+                bytes[length++] = (byte) c;
+            } else if (Character.isHighSurrogate(c)) {
+                if (i == end) {
+                    pendingHighSurrogate = c;
+                } else if (Character.isLowSurrogate(chunk.charAt(i))) {
+                    length = encodeCodePoint(Character.toCodePoint(c, chunk.charAt(i++)), length);
+                } else {
+                    length = encodeCodePoint(REPLACEMENT, length);
+                }
+            } else if (Character.isLowSurrogate(c)) {
+                length = encodeCodePoint(REPLACEMENT, length);
+            } else {
+                length = encodeCodePoint(c, length);
+            }
+        }
+        return length;
+    }
+
+    private int encodeCodePoint(int codePoint, int at) {
+        if (codePoint < 0x800) {
+            bytes[at++] = (byte) (0xC0 | codePoint >> 6);
+        } else if (codePoint < 0x10000) {
+            bytes[at++] = (byte) (0xE0 | codePoint >> 12);
+            bytes[at++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        } else {
+            bytes[at++] = (byte) (0xF0 | codePoint >> 18);
+            bytes[at++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            bytes[at++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        }
+        bytes[at++] = (byte) (0x80 | codePoint & 0x3F);
+        return at;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (bytes.length < capacity) {
+            bytes = new byte[Math.max(capacity, bytes.length * 2)];
+        }
+    }
+
+    private static int indexOf(CharSequence chunk, char c) {
+        for (int i = 0; i < chunk.length(); i++) {
+            if (chunk.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
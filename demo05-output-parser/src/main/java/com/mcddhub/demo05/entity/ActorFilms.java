@@ -0,0 +1,6 @@
+package com.mcddhub.demo05.entity;
+
+import java.util.List;
+
+public record ActorFilms(String actor, List<String> movies) {
+}
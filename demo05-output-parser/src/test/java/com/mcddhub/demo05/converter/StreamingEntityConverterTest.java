@@ -0,0 +1,40 @@
+package com.mcddhub.demo05.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mcddhub.demo05.entity.ActorFilms;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingEntityConverterTest {
+
+    private final StreamingEntityConverter<ActorFilms> converter = new StreamingEntityConverter<>(new ObjectMapper(),
+        new ParameterizedTypeReference<List<ActorFilms>>() {
+        });
+
+    @Test
+    void should_convert_streamed_content_into_elements() {
+        Flux<String> content = Flux.just("```json\n[{\"actor\":\"A\",", "\"movies\":[\"x\"]},{\"actor\"",
+            ":\"B\",\"movies\":[]}]", "\n```");
+
+        List<ActorFilms> films = converter.convert(content).collectList().block();
+
+        assertEquals(List.of(new ActorFilms("A", List.of("x")), new ActorFilms("B", List.of())), films);
+    }
+
+    @Test
+    void should_fail_when_stream_ends_inside_the_array() {
+        Flux<String> content = Flux.just("[{\"actor\":\"A\",\"movies\":[]}", ",{\"actor\":");
+
+        assertThrows(IllegalStateException.class, () -> converter.convert(content).collectList().block());
+    }
+
+    @Test
+    void should_describe_the_list_format() {
+        assertTrue(converter.getFormat().contains("\"actor\""));
+    }
+}
@@ -0,0 +1,82 @@
+package com.mcddhub.demo05.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mcddhub.demo05.entity.ActorFilms;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingJsonArrayParserTest {
+
+    private static final String ANSWER = """
+        Here you go:
+        ```json
+        [{"actor":"周星驰 🎬","movies":["功夫","少林足球"]},
+         {"actor":"Tom Hanks","movies":["Big","Cast Away"]}]
+        ```""";
+
+    private final StreamingJsonArrayParser<ActorFilms> parser =
+        new StreamingJsonArrayParser<>(new ObjectMapper(), ActorFilms.class);
+
+    @Test
+    void should_parse_answer_split_at_any_position() {
+        List<ActorFilms> expected = List.of(
+            new ActorFilms("周星驰 🎬", List.of("功夫", "少林足球")),
+            new ActorFilms("Tom Hanks", List.of("Big", "Cast Away")));
+        for (int size = 1; size <= 8; size++) {
+            parser.reset();
+            List<ActorFilms> parsed = new ArrayList<>();
+            for (int i = 0; i < ANSWER.length(); i += size) {
+                parser.feed(ANSWER.substring(i, Math.min(ANSWER.length(), i + size)), parsed::add);
+            }
+            parser.finish();
+            assertEquals(expected, parsed, "chunk size " + size);
+        }
+    }
+
+    @Test
+    void should_emit_each_element_as_soon_as_it_is_closed() {
+        List<ActorFilms> parsed = new ArrayList<>();
+
+        parser.feed("[{\"actor\":\"A\",\"movies\":[\"x\"]}", parsed::add);
+        assertEquals(1, parsed.size());
+        parser.feed(",{\"actor\":\"B\",\"movies\":[", parsed::add);
+        assertEquals(1, parsed.size());
+        parser.feed("]}]", parsed::add);
+
+        assertEquals(2, parsed.size());
+        assertEquals(2, parser.elements());
+        parser.finish();
+    }
+
+    @Test
+    void should_replace_unpaired_surrogates() {
+        List<ActorFilms> parsed = new ArrayList<>();
+
+        parser.feed("[{\"actor\":\"a\uD83D", parsed::add);
+        parser.feed("b\uDE00c\uD83D\uD83D\uDE00\",\"movies\":[]}]", parsed::add);
+        parser.finish();
+
+        assertEquals(List.of(new ActorFilms("a\uFFFDb\uFFFDc\uFFFD\uD83D\uDE00", List.of())), parsed);
+    }
+
+    @Test
+    void should_fail_on_truncated_or_malformed_answers() {
+        parser.feed("[{\"actor\":\"A\"", element -> {
+        });
+        assertThrows(IllegalStateException.class, parser::finish);
+
+        parser.reset();
+        parser.feed("no json at all", element -> {
+        });
+        assertThrows(IllegalStateException.class, parser::finish);
+
+        parser.reset();
+        assertThrows(UncheckedIOException.class, () -> parser.feed("[{\"actor\":,", element -> {
+        }));
+    }
+}
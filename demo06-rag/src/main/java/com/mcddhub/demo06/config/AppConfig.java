@@ -0,0 +1,163 @@
+package com.mcddhub.demo06.config;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
+import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingModel;
+import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingOptions;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.EncodingType;
+import com.mcddhub.demo06.ingest.IngestionLedger;
+import com.mcddhub.demo06.ingest.IngestionPipeline;
+import com.mcddhub.demo06.rerank.DashScopeRerankModel;
+import com.mcddhub.demo06.rerank.RerankModel;
+import com.mcddhub.demo06.rerank.Reranker;
+import com.mcddhub.demo06.rerank.RerankingRetriever;
+import com.mcddhub.demo06.search.Bm25Index;
+import com.mcddhub.demo06.search.HybridRetriever;
+import com.mcddhub.demo06.store.HnswIndex;
+import com.mcddhub.demo06.store.HnswVectorStore;
+import com.mcddhub.demo06.store.VectorPages;
+import com.mcddhub.runtimesupport.transport.EmbeddingRetryInterceptor;
+import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties({VectorStoreProperties.class, IngestionProperties.class, HybridSearchProperties.class,
+    RerankProperties.class})
+public class AppConfig {
+    private static final RetryTemplate NO_RETRY = RetryTemplate.builder().maxAttempts(1).build();
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final RestClient.Builder restClientBuilder;
+    private final DashScopeApi dashScopeApi;
+
+    public AppConfig(@Value("${spring.ai.dashscope.base-url:https://dashscope.aliyuncs.com}") String baseUrl,
+                     @Value("${spring.ai.dashscope.api-key}") String apiKey,
+                     RestClient.Builder restClientBuilder,
+                     WebClient.Builder webClientBuilder) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.restClientBuilder = restClientBuilder;
+        // built from the Boot builders so that the pooled transport and its embedding retries apply
+        this.dashScopeApi = new DashScopeApi(baseUrl, apiKey, null, restClientBuilder.clone(), webClientBuilder,
+            RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER);
+    }
+
+    /**
+     * Single attempt while {@link EmbeddingRetryInterceptor} is present: the ingestion pipeline embeds in bulk,
+     * and one retry policy per call is enough.
+     */
+    @Bean
+    public EmbeddingModel embeddingModel(ObjectProvider<EmbeddingRetryInterceptor> embeddingRetryInterceptor) {
+        return new DashScopeEmbeddingModel(
+            dashScopeApi,
+            MetadataMode.EMBED,
+            DashScopeEmbeddingOptions.builder()
+                .withModel("text-embedding-v2")
+                .build(),
+            embeddingRetryInterceptor.getIfAvailable() != null ? NO_RETRY : RetryUtils.DEFAULT_RETRY_TEMPLATE);
+    }
+
+    @Bean
+    public Bm25Index keywordIndex(HybridSearchProperties properties) {
+        return new Bm25Index(properties.k1(), properties.b());
+    }
+
+    @Bean
+    public HnswVectorStore vectorStore(EmbeddingModel embeddingModel, VectorStoreProperties properties,
+                                       Bm25Index keywordIndex) {
+        HnswIndex index = new HnswIndex(
+            new VectorPages(properties.dimensions(), properties.vectorsPerPage()),
+            properties.m(),
+            properties.efConstruction(),
+            42L);
+        return new HnswVectorStore(
+            embeddingModel,
+            index,
+            properties.efSearch(),
+            properties.exact(),
+            properties.embeddingBatchSize(),
+            keywordIndex);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService hybridSearchExecutor(HybridSearchProperties properties) {
+        return Executors.newFixedThreadPool(properties.threads(), runnable -> {
+            Thread thread = new Thread(runnable, "hybrid-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean
+    public HybridRetriever hybridRetriever(HnswVectorStore vectorStore, Bm25Index keywordIndex,
+                                           @Qualifier("hybridSearchExecutor") ExecutorService executor,
+                                           HybridSearchProperties properties) {
+        return new HybridRetriever(vectorStore, keywordIndex, executor, properties.rrfK(),
+            properties.candidates());
+    }
+
+    @Bean
+    public RerankModel rerankModel(RerankProperties properties) {
+        return new DashScopeRerankModel(restClientBuilder.clone(), baseUrl, apiKey, properties.model(),
+            properties.connectTimeout(), properties.readTimeout());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService rerankExecutor(RerankProperties properties) {
+        return new ThreadPoolExecutor(properties.threads(), properties.threads(), 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(properties.queueCapacity()), runnable -> {
+                Thread thread = new Thread(runnable, "rerank");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @Bean
+    public RerankingRetriever rerankingRetriever(HybridRetriever hybridRetriever, RerankModel rerankModel,
+                                                 @Qualifier("rerankExecutor") ExecutorService executor,
+                                                 RerankProperties properties) {
+        Reranker reranker = new Reranker(
+            rerankModel,
+            executor,
+            properties.batchSize(),
+            properties.maxConcurrency(),
+            properties.confidence(),
+            properties.timeout(),
+            properties.cacheSize());
+        return new RerankingRetriever(hybridRetriever, reranker, properties.candidates());
+    }
+
+    @Bean(destroyMethod = "close")
+    public IngestionPipeline ingestionPipeline(EmbeddingModel embeddingModel, HnswVectorStore vectorStore,
+                                               IngestionProperties properties) {
+        return new IngestionPipeline(
+            embeddingModel,
+            vectorStore,
+            new IngestionLedger(),
+            Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE),
+            properties.readers(),
+            properties.embedders(),
+            properties.queueCapacity(),
+            properties.chunkTokens(),
+            properties.chunkOverlap(),
+            properties.embeddingBatchSize(),
+            properties.extensions());
+    }
+}
@@ -0,0 +1,16 @@
+package com.mcddhub.demo06.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param candidates how many hits the vector and keyword retrievers each pass to reciprocal-rank fusion
+ */
+@ConfigurationProperties("demo06.hybrid-search")
+public record HybridSearchProperties(
+    @DefaultValue("1.2") float k1,
+    @DefaultValue("0.75") float b,
+    @DefaultValue("60") int rrfK,
+    @DefaultValue("50") int candidates,
+    @DefaultValue("8") int threads) {
+}
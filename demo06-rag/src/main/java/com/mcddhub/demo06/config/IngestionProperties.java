@@ -0,0 +1,23 @@
+package com.mcddhub.demo06.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * @param root the only directory {@code /demo06/ingest} reads from; its {@code dir} parameter is resolved
+ *             against it
+ */
+@ConfigurationProperties("demo06.ingest")
+public record IngestionProperties(
+    @DefaultValue("docs") Path root,
+    @DefaultValue("2") int readers,
+    @DefaultValue("2") int embedders,
+    @DefaultValue("256") int queueCapacity,
+    @DefaultValue("512") int chunkTokens,
+    @DefaultValue("64") int chunkOverlap,
+    @DefaultValue("25") int embeddingBatchSize,
+    @DefaultValue({"txt", "md", "pdf"}) Set<String> extensions) {
+}
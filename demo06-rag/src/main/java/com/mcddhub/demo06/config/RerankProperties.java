@@ -0,0 +1,31 @@
+package com.mcddhub.demo06.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param candidates     how many hybrid search results are reranked
+ * @param maxConcurrency rerank batches one request may have in flight; {@code threads} bounds all requests
+ * @param confidence     score at which a candidate counts towards stopping early once {@code top-k} reach it
+ * @param timeout        the most latency the rerank stage may add; unscored candidates keep first-stage order
+ * @param connectTimeout of the HTTP client; independent of {@code timeout}, which only bounds the wait
+ * @param readTimeout    of the HTTP client; a call that outlives {@code timeout} keeps its thread until then
+ * @param queueCapacity  batches that may wait for one of the {@code threads}; beyond that, batches are left
+ *                       unscored
+ */
+@ConfigurationProperties("demo06.rerank")
+public record RerankProperties(
+    @DefaultValue("gte-rerank") String model,
+    @DefaultValue("50") int candidates,
+    @DefaultValue("10") int batchSize,
+    @DefaultValue("4") int maxConcurrency,
+    @DefaultValue("0.8") float confidence,
+    @DefaultValue("300ms") Duration timeout,
+    @DefaultValue("2s") Duration connectTimeout,
+    @DefaultValue("10s") Duration readTimeout,
+    @DefaultValue("10000") int cacheSize,
+    @DefaultValue("16") int threads,
+    @DefaultValue("64") int queueCapacity) {
+}
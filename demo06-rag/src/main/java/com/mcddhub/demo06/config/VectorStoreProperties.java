@@ -0,0 +1,15 @@
+package com.mcddhub.demo06.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("demo06.vector-store")
+public record VectorStoreProperties(
+    @DefaultValue("1536") int dimensions,
+    @DefaultValue("16") int m,
+    @DefaultValue("200") int efConstruction,
+    @DefaultValue("64") int efSearch,
+    @DefaultValue("false") boolean exact,
+    @DefaultValue("4096") int vectorsPerPage,
+    @DefaultValue("25") int embeddingBatchSize) {
+}
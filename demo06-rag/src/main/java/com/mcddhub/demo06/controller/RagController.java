@@ -0,0 +1,132 @@
+package com.mcddhub.demo06.controller;
+
+import com.mcddhub.demo06.config.IngestionProperties;
+import com.mcddhub.demo06.entity.DocumentRequest;
+import com.mcddhub.demo06.ingest.IngestionPipeline;
+import com.mcddhub.demo06.rerank.RerankingRetriever;
+import com.mcddhub.demo06.search.Bm25Index;
+import com.mcddhub.demo06.search.HybridRetriever;
+import com.mcddhub.demo06.store.HnswVectorStore;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/demo06")
+public class RagController {
+
+    private final HnswVectorStore vectorStore;
+    private final IngestionPipeline ingestionPipeline;
+    private final HybridRetriever hybridRetriever;
+    private final Bm25Index keywordIndex;
+    private final RerankingRetriever rerankingRetriever;
+    private final Path ingestionRoot;
+
+    public RagController(HnswVectorStore vectorStore, IngestionPipeline ingestionPipeline,
+                         HybridRetriever hybridRetriever, Bm25Index keywordIndex,
+                         RerankingRetriever rerankingRetriever, IngestionProperties ingestionProperties) {
+        this.vectorStore = vectorStore;
+        this.ingestionPipeline = ingestionPipeline;
+        this.hybridRetriever = hybridRetriever;
+        this.keywordIndex = keywordIndex;
+        this.rerankingRetriever = rerankingRetriever;
+        this.ingestionRoot = ingestionProperties.root();
+    }
+
+    @PostMapping("/documents")
+    public Map<String, Integer> add(@RequestBody List<DocumentRequest> requests) {
+        List<Document> documents = requests.stream()
+            .map(request -> request.id() == null
+                ? new Document(request.content(), request.metadata() == null ? Map.of() : request.metadata())
+                : new Document(request.id(), request.content(),
+                    request.metadata() == null ? Map.of() : request.metadata()))
+            .toList();
+        vectorStore.add(documents);
+        return Map.of("size", vectorStore.size());
+    }
+
+    @GetMapping("/search")
+    public List<Document> search(
+        @RequestParam(value = "query", defaultValue = "羽毛球拍") String query,
+        @RequestParam(value = "top-k", defaultValue = "4") int topK,
+        @RequestParam(value = "filter", required = false) String filter) {
+        SearchRequest request = SearchRequest.query(query).withTopK(topK);
+        if (filter != null) {
+            request = request.withFilterExpression(filter);
+        }
+        return vectorStore.similaritySearch(request);
+    }
+
+    @GetMapping("/hybrid-search")
+    public List<Document> hybridSearch(
+        @RequestParam(value = "query", defaultValue = "订单 2001") String query,
+        @RequestParam(value = "top-k", defaultValue = "4") int topK) {
+        return hybridRetriever.search(query, topK);
+    }
+
+    @GetMapping("/reranked-search")
+    public List<Document> rerankedSearch(
+        @RequestParam(value = "query", defaultValue = "订单 2001") String query,
+        @RequestParam(value = "top-k", defaultValue = "4") int topK) {
+        return rerankingRetriever.search(query, topK);
+    }
+
+    @GetMapping("/reranked-search/stats")
+    public Map<String, Object> rerankedSearchStats() {
+        return rerankingRetriever.stats();
+    }
+
+    /**
+     * Ingests {@code dir}, resolved against {@code demo06.ingest.root}. Symbolic links are resolved before
+     * the check, so neither {@code ..} nor a link can reach outside the root.
+     */
+    @PostMapping("/ingest")
+    public ResponseEntity<Map<String, Object>> ingest(@RequestParam(value = "dir", defaultValue = "") String dir) {
+        Path root;
+        try {
+            root = ingestionRoot.toRealPath();
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "ingestion root is missing: " + ingestionRoot));
+        }
+        Path directory;
+        try {
+            directory = root.resolve(dir).toRealPath();
+            if (!directory.startsWith(root)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "outside the ingestion root: " + dir));
+            }
+        } catch (IOException | InvalidPathException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "not a directory: " + dir));
+        }
+        if (!Files.isDirectory(directory)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "not a directory: " + dir));
+        }
+        if (!ingestionPipeline.start(directory)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ingestionPipeline.stats());
+        }
+        return ResponseEntity.accepted().body(ingestionPipeline.stats());
+    }
+
+    @GetMapping("/ingest/stats")
+    public Map<String, Object> ingestStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(ingestionPipeline.stats());
+        stats.put("size", vectorStore.size());
+        stats.put("keywordIndex", keywordIndex.stats());
+        return stats;
+    }
+}
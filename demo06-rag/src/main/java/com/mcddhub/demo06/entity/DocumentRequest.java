@@ -0,0 +1,6 @@
+package com.mcddhub.demo06.entity;
+
+import java.util.Map;
+
+public record DocumentRequest(String id, String content, Map<String, Object> metadata) {
+}
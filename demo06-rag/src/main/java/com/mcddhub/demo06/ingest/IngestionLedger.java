@@ -0,0 +1,96 @@
+package com.mcddhub.demo06.ingest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the content hash and chunk count of every fully ingested file, so a later run can skip files
+ * that did not change, delete the stale chunks of files that did, and purge the chunks of files that are gone.
+ * <p>
+ * Kept in memory only: it must live exactly as long as the in-process vector store it describes, or a restart
+ * would skip files whose chunks are gone.
+ */
+public class IngestionLedger {
+
+    private static final long WINDOW_BYTES = 64L * 1024 * 1024;
+
+    public record Entry(String hash, int chunks) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public Entry get(Path path) {
+        return entries.get(key(path));
+    }
+
+    public void record(Path path, Entry entry) {
+        entries.put(key(path), entry);
+    }
+
+    public Entry remove(Path path) {
+        return entries.remove(key(path));
+    }
+
+    /**
+     * The recorded files under {@code directory}.
+     */
+    public List<Path> paths(Path directory) {
+        Path prefix = directory.toAbsolutePath().normalize();
+        return entries.keySet().stream()
+            .map(Path::of)
+            .filter(path -> path.startsWith(prefix))
+            .toList();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * SHA-256 of the file content, read through memory-mapped windows.
+     */
+    public static String hash(Path path) throws IOException {
+        MessageDigest digest = sha256();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += WINDOW_BYTES) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(WINDOW_BYTES, size - position));
+                digest.update(window);
+            }
+        } catch (UnsupportedOperationException e) {
+            // not a default-file-system path, fall back to a plain stream
+            try (InputStream in = Files.newInputStream(path)) {
+                digest.reset();
+                byte[] buffer = new byte[64 * 1024];
+                for (int n; (n = in.read(buffer)) > 0; ) {
+                    digest.update(buffer, 0, n);
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String key(Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+}
@@ -0,0 +1,508 @@
+package com.mcddhub.demo06.ingest;
+
+import com.knuddels.jtokkit.api.Encoding;
+import com.mcddhub.demo06.store.HnswVectorStore;
+import com.mcddhub.demo06.store.VectorPages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Loads a directory of {@code .txt}, {@code .md} and {@code .pdf} files into an {@link HnswVectorStore}.
+ * <p>
+ * Four stages are connected by bounded queues: scan lists the files, read (parallel) hashes, streams and
+ * chunks them, embed (parallel) sends batches of chunks to the {@link EmbeddingModel}, and store adds them to
+ * the index. A slow stage fills its input queue and blocks the stages before it, so heap use depends on the
+ * queue capacity and batch size, not on the size of the corpus.
+ * <p>
+ * Files whose hash is already in the {@link IngestionLedger} are skipped. Changed files have their old chunks
+ * deleted before they are read again, and a file is recorded only once all of its chunks are stored. Once a
+ * run completes, recorded files under its directory that no longer exist have their chunks deleted too.
+ * <p>
+ * Symbolic links are not followed, so a link inside the directory cannot pull in files from outside it.
+ */
+public class IngestionPipeline implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionPipeline.class);
+
+    public static final String SOURCE = "source";
+    public static final String CHUNK = "chunk";
+    public static final String TOKENS = "tokens";
+
+    private static final Source END_OF_FILES = new Source(null, null);
+    private static final PendingChunk END_OF_CHUNKS = new PendingChunk(null, null, 0);
+    private static final EmbeddedBatch END_OF_BATCHES = new EmbeddedBatch(List.of(), List.of());
+
+    private final EmbeddingModel embeddingModel;
+    private final HnswVectorStore vectorStore;
+    private final IngestionLedger ledger;
+    private final Encoding encoding;
+    private final int readers;
+    private final int embedders;
+    private final int queueCapacity;
+    private final int chunkTokens;
+    private final int chunkOverlap;
+    private final int embeddingBatchSize;
+    private final Set<String> extensions;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService launcher = Executors.newSingleThreadExecutor(
+        runnable -> new Thread(runnable, "ingest-launcher"));
+    private volatile Run last;
+
+    private record Source(Path path, IngestionLedger.Entry previous) {
+    }
+
+    private record PendingChunk(FileProgress file, Document document, int tokens) {
+    }
+
+    private record EmbeddedBatch(List<PendingChunk> chunks, List<List<Double>> embeddings) {
+    }
+
+    public IngestionPipeline(EmbeddingModel embeddingModel, HnswVectorStore vectorStore, IngestionLedger ledger,
+                             Encoding encoding, int readers, int embedders, int queueCapacity, int chunkTokens,
+                             int chunkOverlap, int embeddingBatchSize, Set<String> extensions) {
+        this.embeddingModel = embeddingModel;
+        this.vectorStore = vectorStore;
+        this.ledger = ledger;
+        this.encoding = encoding;
+        this.readers = readers;
+        this.embedders = embedders;
+        this.queueCapacity = queueCapacity;
+        this.chunkTokens = chunkTokens;
+        this.chunkOverlap = chunkOverlap;
+        this.embeddingBatchSize = embeddingBatchSize;
+        this.extensions = extensions;
+    }
+
+    /**
+     * Starts ingesting {@code directory} in the background. Returns {@code false} if a run is in progress.
+     */
+    public boolean start(Path directory) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        launcher.execute(() -> {
+            try {
+                ingest(directory);
+            } catch (Exception e) {
+                logger.error("ingestion of {} failed", directory, e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Ingests {@code directory} on the calling thread and returns the final {@link #stats()}.
+     */
+    public Map<String, Object> run(Path directory) throws IOException, InterruptedException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("an ingestion run is already in progress");
+        }
+        try {
+            ingest(directory);
+        } finally {
+            running.set(false);
+        }
+        return stats();
+    }
+
+    public Map<String, Object> stats() {
+        Run run = last;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running.get());
+        stats.put("ledgerEntries", ledger.size());
+        if (run != null) {
+            stats.putAll(run.stats());
+        }
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        launcher.shutdownNow();
+    }
+
+    private void ingest(Path directory) throws IOException, InterruptedException {
+        Run run = new Run(directory);
+        last = run;
+        ExecutorService workers = Executors.newFixedThreadPool(readers + embedders + 1, new NamedThreads());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                futures.add(workers.submit(() -> run.read(), null));
+            }
+            for (int i = 0; i < embedders; i++) {
+                futures.add(workers.submit(() -> run.embed(), null));
+            }
+            futures.add(workers.submit(() -> run.store(), null));
+            run.scan();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            run.purge();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("ingestion worker failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+            run.finish();
+        }
+        logger.info("ingested {}: {}", directory, run.stats());
+    }
+
+    private final class Run {
+
+        private final Path directory;
+        private final long startNanos = System.nanoTime();
+        private volatile long endNanos;
+
+        private final BlockingQueue<Source> files = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<PendingChunk> chunks = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<EmbeddedBatch> batches = new ArrayBlockingQueue<>(
+            Math.max(1, queueCapacity / embeddingBatchSize));
+
+        private final StageMetrics scanMetrics = new StageMetrics("scan", "bytes", null);
+        private final StageMetrics readMetrics = new StageMetrics("read", "tokens", files);
+        private final StageMetrics embedMetrics = new StageMetrics("embed", "batches", chunks);
+        private final StageMetrics storeMetrics = new StageMetrics("store", "files", batches);
+
+        private final AtomicInteger activeReaders = new AtomicInteger(readers);
+        private final AtomicInteger activeEmbedders = new AtomicInteger(embedders);
+        private final LongAdder filesSkipped = new LongAdder();
+        private final LongAdder filesIngested = new LongAdder();
+        private final LongAdder filesFailed = new LongAdder();
+        private final LongAdder filesPurged = new LongAdder();
+
+        Run(Path directory) {
+            this.directory = directory;
+        }
+
+        void scan() throws IOException, InterruptedException {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                Iterator<Path> iterator = paths.iterator();
+                while (iterator.hasNext()) {
+                    Path path = iterator.next();
+                    long start = System.nanoTime();
+                    if (!isSource(path)) {
+                        continue;
+                    }
+                    long size = Files.size(path);
+                    files.put(new Source(path, ledger.get(path)));
+                    scanMetrics.record(1, size, start);
+                }
+            } finally {
+                files.put(END_OF_FILES);
+            }
+        }
+
+        void read() {
+            try {
+                while (true) {
+                    Source source = files.take();
+                    if (source == END_OF_FILES) {
+                        files.put(END_OF_FILES);
+                        break;
+                    }
+                    read(source);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (activeReaders.decrementAndGet() == 0) {
+                    files.remove(END_OF_FILES);
+                    putQuietly(chunks, END_OF_CHUNKS);
+                }
+            }
+        }
+
+        private void read(Source source) throws InterruptedException {
+            long start = System.nanoTime();
+            String hash;
+            try {
+                hash = IngestionLedger.hash(source.path());
+            } catch (IOException e) {
+                logger.warn("cannot hash {}", source.path(), e);
+                readMetrics.error();
+                filesFailed.increment();
+                return;
+            }
+            IngestionLedger.Entry previous = source.previous();
+            if (previous != null && previous.hash().equals(hash)) {
+                filesSkipped.increment();
+                return;
+            }
+            if (previous != null) {
+                vectorStore.delete(chunkIds(source.path(), previous.chunks()));
+            }
+
+            FileProgress file = new FileProgress(this, source.path(), hash);
+            String name = source.path().toString();
+            LongAdder tokens = new LongAdder();
+            TokenChunker chunker = new TokenChunker(encoding, chunkTokens, chunkOverlap, chunk -> {
+                Document document = new Document(chunkId(source.path(), chunk.index()), chunk.text(),
+                    Map.of(SOURCE, name, CHUNK, chunk.index(), TOKENS, chunk.tokens()));
+                file.add();
+                tokens.add(chunk.tokens());
+                try {
+                    chunks.put(new PendingChunk(file, document, chunk.tokens()));
+                } catch (InterruptedException e) {
+                    throw new Interrupted(e);
+                }
+            });
+            try {
+                TextSegments.read(source.path(), chunker::accept);
+                chunker.finish();
+            } catch (Interrupted e) {
+                throw e.cause;
+            } catch (IOException | RuntimeException e) {
+                logger.warn("cannot read {}", source.path(), e);
+                readMetrics.error();
+                file.failed = true;
+            }
+            file.chunks = chunker.chunkCount();
+            readMetrics.record(file.chunks, tokens.sum(), start);
+            file.done();
+        }
+
+        void embed() {
+            List<PendingChunk> batch = new ArrayList<>(embeddingBatchSize);
+            try {
+                boolean end = false;
+                while (!end) {
+                    batch.clear();
+                    batch.add(chunks.take());
+                    chunks.drainTo(batch, embeddingBatchSize - 1);
+                    end = batch.remove(END_OF_CHUNKS);
+                    if (end) {
+                        chunks.put(END_OF_CHUNKS);
+                    }
+                    if (!batch.isEmpty()) {
+                        embed(batch);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (activeEmbedders.decrementAndGet() == 0) {
+                    chunks.remove(END_OF_CHUNKS);
+                    putQuietly(batches, END_OF_BATCHES);
+                }
+            }
+        }
+
+        private void embed(List<PendingChunk> batch) throws InterruptedException {
+            long start = System.nanoTime();
+            List<List<Double>> embeddings;
+            try {
+                embeddings = embeddingModel.embed(batch.stream().map(chunk -> chunk.document().getContent()).toList());
+            } catch (RuntimeException e) {
+                logger.warn("embedding a batch of {} chunks failed", batch.size(), e);
+                embedMetrics.error();
+                for (PendingChunk chunk : batch) {
+                    chunk.file().failed = true;
+                    chunk.file().done();
+                }
+                return;
+            }
+            batches.put(new EmbeddedBatch(List.copyOf(batch), embeddings));
+            embedMetrics.record(batch.size(), 1, start);
+        }
+
+        void store() {
+            try {
+                while (true) {
+                    EmbeddedBatch batch = batches.take();
+                    if (batch == END_OF_BATCHES) {
+                        break;
+                    }
+                    long start = System.nanoTime();
+                    int completed = 0;
+                    for (int i = 0; i < batch.chunks().size(); i++) {
+                        PendingChunk chunk = batch.chunks().get(i);
+                        try {
+                            vectorStore.add(chunk.document(),
+                                VectorPages.normalize(toFloats(batch.embeddings().get(i))));
+                        } catch (RuntimeException e) {
+                            logger.warn("storing chunk {} failed", chunk.document().getId(), e);
+                            storeMetrics.error();
+                            chunk.file().failed = true;
+                        }
+                        if (chunk.file().done()) {
+                            completed++;
+                        }
+                    }
+                    storeMetrics.record(batch.chunks().size(), completed, start);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Deletes the chunks of recorded files under the directory that this run no longer found.
+         */
+        void purge() {
+            for (Path path : ledger.paths(directory)) {
+                if (isSource(path)) {
+                    continue;
+                }
+                IngestionLedger.Entry entry = ledger.remove(path);
+                if (entry != null) {
+                    vectorStore.delete(chunkIds(path, entry.chunks()));
+                    filesPurged.increment();
+                }
+            }
+        }
+
+        void finish() {
+            endNanos = System.nanoTime();
+        }
+
+        Map<String, Object> stats() {
+            long elapsed = (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos;
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("directory", directory.toString());
+            stats.put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(elapsed));
+            stats.put("filesSkipped", filesSkipped.sum());
+            stats.put("filesIngested", filesIngested.sum());
+            stats.put("filesFailed", filesFailed.sum());
+            stats.put("filesPurged", filesPurged.sum());
+            Map<String, Object> stages = new LinkedHashMap<>();
+            for (StageMetrics metrics : List.of(scanMetrics, readMetrics, embedMetrics, storeMetrics)) {
+                stages.put(metrics.name(), metrics.snapshot(elapsed));
+            }
+            stats.put("stages", stages);
+            return stats;
+        }
+    }
+
+    /**
+     * Tracks the chunks of one file that are still in flight. Starts at one on behalf of the reader, so the
+     * file cannot complete before it has been read to the end.
+     */
+    private final class FileProgress {
+
+        private final Run run;
+        private final Path path;
+        private final String hash;
+        private final AtomicInteger outstanding = new AtomicInteger(1);
+        private volatile boolean failed;
+        private volatile int chunks;
+
+        FileProgress(Run run, Path path, String hash) {
+            this.run = run;
+            this.path = path;
+            this.hash = hash;
+        }
+
+        void add() {
+            outstanding.incrementAndGet();
+        }
+
+        boolean done() {
+            if (outstanding.decrementAndGet() != 0) {
+                return false;
+            }
+            if (failed) {
+                run.filesFailed.increment();
+                return false;
+            }
+            ledger.record(path, new IngestionLedger.Entry(hash, chunks));
+            run.filesIngested.increment();
+            return true;
+        }
+    }
+
+    /**
+     * Carries an interruption out of the chunk callback, which cannot throw checked exceptions.
+     */
+    private static final class Interrupted extends RuntimeException {
+
+        private final InterruptedException cause;
+
+        Interrupted(InterruptedException cause) {
+            super(cause);
+            this.cause = cause;
+        }
+    }
+
+    private static final class NamedThreads implements ThreadFactory {
+
+        private final AtomicInteger ids = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ingest-" + ids.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    static List<String> chunkIds(Path path, int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(chunkId(path, i));
+        }
+        return ids;
+    }
+
+    static String chunkId(Path path, int index) {
+        String key = path.toAbsolutePath().normalize() + "#" + index;
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static <T> void putQuietly(BlockingQueue<T> queue, T item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isSource(Path path) {
+        return Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS) && extensions.contains(extension(path));
+    }
+
+    private static String extension(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static float[] toFloats(List<Double> embedding) {
+        float[] vector = new float[embedding.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = embedding.get(i).floatValue();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mcddhub.demo06.ingest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput counters of one pipeline stage. {@code busyMillis} is the time its workers spent on items,
+ * including time blocked on a full downstream queue, but not time waiting for input.
+ */
+class StageMetrics {
+
+    private final String name;
+    private final String unit;
+    private final BlockingQueue<?> input;
+
+    private final LongAdder items = new LongAdder();
+    private final LongAdder units = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+
+    StageMetrics(String name, String unit, BlockingQueue<?> input) {
+        this.name = name;
+        this.unit = unit;
+        this.input = input;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void record(long items, long units, long startNanos) {
+        this.items.add(items);
+        this.units.add(units);
+        busyNanos.add(System.nanoTime() - startNanos);
+    }
+
+    void error() {
+        errors.increment();
+    }
+
+    Map<String, Object> snapshot(long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("items", items.sum());
+        snapshot.put("itemsPerSecond", Math.round(items.sum() / seconds * 10) / 10.0);
+        snapshot.put(unit, units.sum());
+        snapshot.put(unit + "PerSecond", Math.round(units.sum() / seconds * 10) / 10.0);
+        snapshot.put("errors", errors.sum());
+        snapshot.put("busyMillis", TimeUnit.NANOSECONDS.toMillis(busyNanos.sum()));
+        if (input != null) {
+            snapshot.put("queued", input.size());
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,85 @@
+package com.mcddhub.demo06.ingest;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Streams the text of a file as a sequence of bounded segments, so a reader never holds a whole file in heap.
+ * Plain text and markdown are decoded from memory-mapped windows; PDFs are extracted one page at a time.
+ */
+final class TextSegments {
+
+    static final int SEGMENT_CHARS = 16 * 1024;
+    private static final long WINDOW_BYTES = 64L * 1024 * 1024;
+
+    private TextSegments() {
+    }
+
+    static void read(Path path, Consumer<String> segments) throws IOException {
+        if (path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".pdf")) {
+            readPdf(path, segments);
+        } else {
+            readText(path, segments);
+        }
+    }
+
+    private static void readText(Path path, Consumer<String> segments) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.allocate(SEGMENT_CHARS);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            do {
+                long length = Math.min(WINDOW_BYTES, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean last = position + length >= size;
+                while (decoder.decode(window, chars, last).isOverflow()) {
+                    emit(chars, segments);
+                }
+                // bytes of a character split across two windows are decoded again from the next window
+                position += window.position();
+                if (last) {
+                    decoder.flush(chars);
+                }
+            } while (position < size);
+        }
+        emit(chars, segments);
+    }
+
+    private static void readPdf(Path path, Consumer<String> segments) throws IOException {
+        try (PDDocument document = Loader.loadPDF(path.toFile())) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                String text = stripper.getText(document);
+                if (!text.isBlank()) {
+                    segments.accept(text);
+                }
+            }
+        }
+    }
+
+    private static void emit(CharBuffer chars, Consumer<String> segments) {
+        chars.flip();
+        if (chars.hasRemaining()) {
+            segments.accept(chars.toString());
+        }
+        chars.clear();
+    }
+}
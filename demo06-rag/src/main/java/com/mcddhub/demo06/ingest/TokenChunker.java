@@ -0,0 +1,122 @@
+package com.mcddhub.demo06.ingest;
+
+import com.knuddels.jtokkit.api.Encoding;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Incremental, token-aware chunker. Text is fed in arbitrary segments and cut into pieces at line and
+ * sentence boundaries; pieces are packed into chunks of at most {@code maxTokens}, and each chunk repeats
+ * up to {@code overlapTokens} of trailing pieces from the previous one. Token counts are summed per piece,
+ * so they can differ slightly from encoding the whole chunk at once.
+ * <p>
+ * Only the unfinished tail of the input and the current chunk are held in memory. Not thread-safe: use one
+ * instance per file.
+ */
+public class TokenChunker {
+
+    private static final int MAX_PENDING_CHARS = 8 * 1024;
+
+    private final Encoding encoding;
+    private final int maxTokens;
+    private final int overlapTokens;
+    private final Consumer<Chunk> chunks;
+
+    private final StringBuilder pending = new StringBuilder();
+    private final Deque<Piece> current = new ArrayDeque<>();
+    private int currentTokens;
+    private boolean currentEmitted;
+    private int index;
+
+    public record Chunk(int index, String text, int tokens) {
+    }
+
+    private record Piece(String text, int tokens) {
+    }
+
+    public TokenChunker(Encoding encoding, int maxTokens, int overlapTokens, Consumer<Chunk> chunks) {
+        if (overlapTokens >= maxTokens) {
+            throw new IllegalArgumentException("overlapTokens must be smaller than maxTokens");
+        }
+        this.encoding = encoding;
+        this.maxTokens = maxTokens;
+        this.overlapTokens = overlapTokens;
+        this.chunks = chunks;
+    }
+
+    public void accept(String segment) {
+        pending.append(segment);
+        int start = 0;
+        for (int i = 0; i < pending.length(); i++) {
+            char c = pending.charAt(i);
+            // a forced cut never falls between the two halves of a surrogate pair
+            if (isBoundary(c) || i - start >= MAX_PENDING_CHARS && !Character.isHighSurrogate(c)) {
+                piece(pending.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        pending.delete(0, start);
+    }
+
+    public void finish() {
+        if (!pending.isEmpty()) {
+            piece(pending.toString());
+            pending.setLength(0);
+        }
+        if (!currentEmitted && currentTokens > 0) {
+            emit();
+        }
+    }
+
+    public int chunkCount() {
+        return index;
+    }
+
+    private void piece(String text) {
+        if (text.isBlank()) {
+            return;
+        }
+        int tokens = encoding.countTokens(text);
+        if (tokens > maxTokens) {
+            // a single run without boundaries: split it by code points in proportion to its token count
+            int codePoints = text.codePointCount(0, text.length());
+            int step = Math.max(1, (int) ((long) codePoints * maxTokens / tokens) - 1);
+            for (int from = 0; from < text.length(); ) {
+                int to = from;
+                for (int n = 0; n < step && to < text.length(); n++) {
+                    to += Character.charCount(text.codePointAt(to));
+                }
+                piece(text.substring(from, to));
+                from = to;
+            }
+            return;
+        }
+        if (currentTokens + tokens > maxTokens && !current.isEmpty()) {
+            if (!currentEmitted) {
+                emit();
+            }
+            while (!current.isEmpty() && (currentTokens > overlapTokens || currentTokens + tokens > maxTokens)) {
+                currentTokens -= current.removeFirst().tokens();
+            }
+        }
+        current.addLast(new Piece(text, tokens));
+        currentTokens += tokens;
+        currentEmitted = false;
+    }
+
+    private void emit() {
+        StringBuilder text = new StringBuilder();
+        for (Piece piece : current) {
+            text.append(piece.text());
+        }
+        chunks.accept(new Chunk(index++, text.toString().strip(), currentTokens));
+        currentEmitted = true;
+    }
+
+    private static boolean isBoundary(char c) {
+        return c == '\n' || c == '.' || c == '!' || c == '?' || c == ';'
+            || c == '。' || c == '！' || c == '？' || c == '；';
+    }
+}
@@ -0,0 +1,74 @@
+package com.mcddhub.demo06.rerank;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link RerankModel} backed by the DashScope text rerank service ({@code gte-rerank}). Documents the
+ * service leaves out of its results score {@code 0}.
+ * <p>
+ * The connect and read timeouts are the HTTP client's own, not the rerank budget: the {@link Reranker} stops
+ * waiting at its budget, while a call it has given up on still finishes, or times out, on its thread.
+ */
+public class DashScopeRerankModel implements RerankModel {
+
+    private final RestClient restClient;
+    private final String model;
+
+    public DashScopeRerankModel(RestClient.Builder restClientBuilder, String baseUrl, String apiKey, String model,
+                                Duration connectTimeout, Duration readTimeout) {
+        this.restClient = restClientBuilder
+            .baseUrl(baseUrl)
+            .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+            .requestFactory(ClientHttpRequestFactories.get(ClientHttpRequestFactorySettings.DEFAULTS
+                .withConnectTimeout(connectTimeout)
+                .withReadTimeout(readTimeout)))
+            .build();
+        this.model = model;
+    }
+
+    @Override
+    public float[] score(String query, List<String> documents) {
+        Response response = restClient.post()
+            .uri("/api/v1/services/rerank/text-rerank/text-rerank")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(new Request(model, new Input(query, documents), new Parameters(false, documents.size())))
+            .retrieve()
+            .body(Response.class);
+        float[] scores = new float[documents.size()];
+        if (response != null && response.output() != null && response.output().results() != null) {
+            for (Result result : response.output().results()) {
+                if (result.index() >= 0 && result.index() < scores.length) {
+                    scores[result.index()] = result.relevanceScore();
+                }
+            }
+        }
+        return scores;
+    }
+
+    record Request(String model, Input input, Parameters parameters) {
+    }
+
+    record Input(String query, List<String> documents) {
+    }
+
+    record Parameters(@JsonProperty("return_documents") boolean returnDocuments,
+                      @JsonProperty("top_n") int topN) {
+    }
+
+    record Response(Output output) {
+    }
+
+    record Output(List<Result> results) {
+    }
+
+    record Result(int index, @JsonProperty("relevance_score") float relevanceScore) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.mcddhub.demo06.rerank;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-scale buckets 5% apart, from 1 µs to a few minutes. Percentiles are
+ * reported as the upper bound of their bucket, so they overstate by at most 5%; count, mean and max are exact.
+ */
+public class LatencyHistogram {
+
+    private static final double GROWTH = 1.05;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+    private static final int BUCKETS = 400;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    public void record(long nanos) {
+        int bucket = nanos < 1_000 ? 0 : Math.min(BUCKETS - 1, 1 + (int) (Math.log(nanos / 1_000.0) / LOG_GROWTH));
+        counts.incrementAndGet(bucket);
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    public double percentileMillis(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(Math.pow(GROWTH, i) / 1_000, maxNanos.get() / 1e6);
+            }
+        }
+        return maxNanos.get() / 1e6;
+    }
+
+    public Map<String, Object> snapshot() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", count);
+        snapshot.put("meanMillis", count == 0 ? 0.0 : round(totalNanos.sum() / 1e6 / count));
+        snapshot.put("p50Millis", round(percentileMillis(0.50)));
+        snapshot.put("p95Millis", round(percentileMillis(0.95)));
+        snapshot.put("p99Millis", round(percentileMillis(0.99)));
+        snapshot.put("maxMillis", round(maxNanos.get() / 1e6));
+        return snapshot;
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 100) / 100.0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.mcddhub.demo06.rerank;
+
+import java.util.List;
+
+/**
+ * Scores how relevant each document is to a query, one batch per call.
+ */
+public interface RerankModel {
+
+    /**
+     * @return one relevance score per document, in the order given; higher is more relevant
+     */
+    float[] score(String query, List<String> documents);
+}
@@ -0,0 +1,262 @@
+package com.mcddhub.demo06.rerank;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reorders first-stage candidates by {@link RerankModel} score.
+ * <p>
+ * Candidates whose (query, document) score is cached are not sent again; the rest go to the model in
+ * batches, in first-stage order, with at most {@code maxConcurrency} batches of one request in flight. Once
+ * {@code topK} candidates score at least {@code confidence}, the remaining batches are cancelled. Batches
+ * still running at {@code timeout} are cancelled too, so the stage adds at most that much latency; failed or
+ * cancelled candidates keep their first-stage order behind the scored ones, as do the remaining batches of a
+ * request once the executor rejects one.
+ */
+public class Reranker {
+
+    private static final Logger logger = LoggerFactory.getLogger(Reranker.class);
+
+    public static final String RERANK_SCORE = "rerank_score";
+
+    private final RerankModel model;
+    private final Executor executor;
+    private final int batchSize;
+    private final int maxConcurrency;
+    private final float confidence;
+    private final long timeoutNanos;
+    private final int cacheSize;
+
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    private final LinkedHashMap<Key, Float> cache;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder candidates = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder scored = new LongAdder();
+    private final LongAdder unscored = new LongAdder();
+    private final LongAdder shortCircuits = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public Reranker(RerankModel model, Executor executor, int batchSize, int maxConcurrency, float confidence,
+                    Duration timeout, int cacheSize) {
+        this.model = model;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxConcurrency = maxConcurrency;
+        this.confidence = confidence;
+        this.timeoutNanos = timeout.toNanos();
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Float> eldest) {
+                return size() > Reranker.this.cacheSize;
+            }
+        };
+    }
+
+    public List<Document> rerank(String query, List<Document> documents, int topK) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        requests.increment();
+        candidates.add(documents.size());
+
+        int count = documents.size();
+        float[] scores = new float[count];
+        Arrays.fill(scores, Float.NaN);
+        int confident = 0;
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Float cached = cached(key(query, documents.get(i)));
+            if (cached == null) {
+                pending.add(i);
+            } else {
+                cacheHits.increment();
+                scores[i] = cached;
+                if (cached >= confidence) {
+                    confident++;
+                }
+            }
+        }
+
+        if (confident < topK && !pending.isEmpty()) {
+            score(query, documents, pending, scores, confident, topK, deadline);
+        }
+        return order(documents, scores, topK);
+    }
+
+    private void score(String query, List<Document> documents, List<Integer> pending, float[] scores,
+                       int confident, int topK, long deadline) {
+        CompletionService<Batch> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Batch>> inFlight = new ArrayList<>();
+        int next = 0;
+        try {
+            while (next < pending.size() && inFlight.size() < maxConcurrency) {
+                next = submit(completion, inFlight, query, documents, pending, next);
+            }
+            while (!inFlight.isEmpty()) {
+                Future<Batch> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    timeouts.increment();
+                    return;
+                }
+                inFlight.remove(done);
+                try {
+                    Batch batch = done.get();
+                    for (int i = 0; i < batch.indexes().size(); i++) {
+                        int index = batch.indexes().get(i);
+                        scores[index] = batch.scores()[i];
+                        cache(key(query, documents.get(index)), batch.scores()[i]);
+                        if (batch.scores()[i] >= confidence) {
+                            confident++;
+                        }
+                    }
+                    scored.add(batch.indexes().size());
+                } catch (ExecutionException e) {
+                    errors.increment();
+                    logger.warn("rerank batch failed, keeping first-stage order for it", e.getCause());
+                }
+                if (confident >= topK) {
+                    if (next < pending.size() || !inFlight.isEmpty()) {
+                        shortCircuits.increment();
+                    }
+                    return;
+                }
+                if (next < pending.size()) {
+                    next = submit(completion, inFlight, query, documents, pending, next);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Future<Batch> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Submits the batch starting at {@code from} and returns where the next one starts, or the end of
+     * {@code pending} if the executor is saturated.
+     */
+    private int submit(CompletionService<Batch> completion, List<Future<Batch>> inFlight, String query,
+                       List<Document> documents, List<Integer> pending, int from) {
+        List<Integer> indexes = pending.subList(from, Math.min(from + batchSize, pending.size()));
+        List<String> contents = indexes.stream().map(i -> documents.get(i).getContent()).toList();
+        try {
+            inFlight.add(completion.submit(() -> {
+                float[] scores = model.score(query, contents);
+                if (scores.length != contents.size()) {
+                    throw new IllegalStateException(
+                        "expected " + contents.size() + " rerank scores but got " + scores.length);
+                }
+                return new Batch(indexes, scores);
+            }));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return pending.size();
+        }
+        batches.increment();
+        return from + batchSize;
+    }
+
+    private List<Document> order(List<Document> documents, float[] scores, int topK) {
+        List<Integer> ranked = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            ranked.add(i);
+        }
+        ranked.sort(Comparator.comparingInt((Integer i) -> Float.isNaN(scores[i]) ? 1 : 0)
+            .thenComparing(i -> Float.isNaN(scores[i]) ? 0f : -scores[i]));
+
+        List<Document> results = new ArrayList<>(Math.min(topK, ranked.size()));
+        for (int i : ranked) {
+            if (results.size() == topK) {
+                break;
+            }
+            Document document = documents.get(i);
+            if (Float.isNaN(scores[i])) {
+                unscored.increment();
+                results.add(document);
+                continue;
+            }
+            Map<String, Object> metadata = new HashMap<>(document.getMetadata());
+            metadata.put(RERANK_SCORE, scores[i]);
+            results.add(new Document(document.getId(), document.getContent(), metadata));
+        }
+        return results;
+    }
+
+    private static Key key(String query, Document document) {
+        return new Key(query, document.getId(), document.getContent().hashCode());
+    }
+
+    private Float cached(Key key) {
+        cacheLock.lock();
+        try {
+            return cache.get(key);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private void cache(Key key, float score) {
+        cacheLock.lock();
+        try {
+            cache.put(key, score);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    public int cacheSize() {
+        cacheLock.lock();
+        try {
+            return cache.size();
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", requests.sum());
+        stats.put("candidates", candidates.sum());
+        stats.put("cacheHits", cacheHits.sum());
+        stats.put("cacheSize", cacheSize());
+        stats.put("batches", batches.sum());
+        stats.put("scored", scored.sum());
+        stats.put("unscoredResults", unscored.sum());
+        stats.put("shortCircuits", shortCircuits.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("errors", errors.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    private record Key(String query, String id, int contentHash) {
+    }
+
+    private record Batch(List<Integer> indexes, float[] scores) {
+    }
+}
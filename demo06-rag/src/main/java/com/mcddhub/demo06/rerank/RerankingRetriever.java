@@ -0,0 +1,54 @@
+package com.mcddhub.demo06.rerank;
+
+import com.mcddhub.demo06.search.HybridRetriever;
+import org.springframework.ai.document.Document;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hybrid retrieval of {@code candidates} documents followed by a {@link Reranker} pass down to {@code topK}.
+ * Both stages are timed separately, so {@link #stats()} shows how much of the retrieval latency the rerank
+ * stage accounts for.
+ */
+public class RerankingRetriever {
+
+    private final HybridRetriever retriever;
+    private final Reranker reranker;
+    private final int candidates;
+
+    private final LatencyHistogram retrieval = new LatencyHistogram();
+    private final LatencyHistogram rerank = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    public RerankingRetriever(HybridRetriever retriever, Reranker reranker, int candidates) {
+        this.retriever = retriever;
+        this.reranker = reranker;
+        this.candidates = candidates;
+    }
+
+    public List<Document> search(String query, int topK) {
+        long start = System.nanoTime();
+        List<Document> found = retriever.search(query, Math.max(topK, candidates));
+        long retrieved = System.nanoTime();
+        List<Document> results = reranker.rerank(query, found, topK);
+        long end = System.nanoTime();
+        retrieval.record(retrieved - start);
+        rerank.record(end - retrieved);
+        total.record(end - start);
+        return results;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("retrieval", retrieval.snapshot());
+        stats.put("rerank", rerank.snapshot());
+        stats.put("total", total.snapshot());
+        long totalNanos = total.totalNanos();
+        stats.put("rerankShare", totalNanos == 0 ? 0.0
+            : Math.round(1000.0 * rerank.totalNanos() / totalNanos) / 1000.0);
+        stats.put("reranker", reranker.stats());
+        return stats;
+    }
+}
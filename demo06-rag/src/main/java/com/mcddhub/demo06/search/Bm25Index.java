@@ -0,0 +1,313 @@
+package com.mcddhub.demo06.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index scored with Okapi BM25.
+ * <p>
+ * Documents get dense {@code int} ids in insertion order, so every posting list is already sorted and is
+ * stored as varint-encoded (doc id delta, term frequency) pairs in a single {@code byte[]}; most postings
+ * take two or three bytes. Deleted or replaced documents are tombstoned and skipped at query time, like the
+ * vectors in {@code HnswVectorStore}. Queries are scored term at a time into a per-thread {@code float[]}
+ * accumulator, and only the documents it touched are read back and cleared.
+ */
+public class Bm25Index {
+
+    private final float k1;
+    private final float b;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private final Map<String, Integer> docs = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private final ThreadLocal<Accumulator> accumulators = ThreadLocal.withInitial(Accumulator::new);
+    private int[] lengths = new int[1024];
+    private long totalLength;
+
+    public Bm25Index(float k1, float b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    public void add(String id, String text) {
+        Map<String, int[]> frequencies = new HashMap<>();
+        TextTokenizer.tokenize(text, term -> frequencies.computeIfAbsent(term, t -> new int[1])[0]++);
+        int length = 0;
+        for (int[] frequency : frequencies.values()) {
+            length += frequency[0];
+        }
+
+        lock.writeLock().lock();
+        try {
+            remove(id);
+            int doc = ids.size();
+            ids.add(id);
+            docs.put(id, doc);
+            if (doc == lengths.length) {
+                lengths = Arrays.copyOf(lengths, doc * 2);
+            }
+            lengths[doc] = length;
+            totalLength += length;
+            for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(doc, entry.getValue()[0]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean delete(String id) {
+        lock.writeLock().lock();
+        try {
+            return remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean remove(String id) {
+        Integer doc = docs.remove(id);
+        if (doc == null) {
+            return false;
+        }
+        deleted.set(doc);
+        totalLength -= lengths[doc];
+        return true;
+    }
+
+    public List<Hit> search(String query, int topK) {
+        Set<String> terms = new LinkedHashSet<>();
+        TextTokenizer.tokenize(query, terms::add);
+        lock.readLock().lock();
+        try {
+            int live = docs.size();
+            if (live == 0 || terms.isEmpty() || topK <= 0) {
+                return List.of();
+            }
+            float averageLength = Math.max(1f, (float) totalLength / live);
+            float c0 = k1 * (1 - b);
+            float c1 = k1 * b / averageLength;
+            Accumulator accumulator = accumulators.get();
+            accumulator.ensureCapacity(ids.size());
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                // document frequencies still count tombstones, so cap them to keep the idf positive
+                int df = Math.min(list.count, live);
+                float idf = (float) Math.log(1 + (live - df + 0.5) / (df + 0.5));
+                list.score(idf * (k1 + 1), c0, c1, lengths, deleted, accumulator);
+            }
+            return accumulator.drain(topK, ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Shrinks every posting array to its encoded length, typically once after a bulk load.
+     */
+    public void trimToSize() {
+        lock.writeLock().lock();
+        try {
+            for (Postings list : postings.values()) {
+                list.trim();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            long entries = 0;
+            long bytes = 0;
+            long capacity = 0;
+            for (Postings list : postings.values()) {
+                entries += list.count;
+                bytes += list.size;
+                capacity += list.bytes.length;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("documents", docs.size());
+            stats.put("tombstones", deleted.cardinality());
+            stats.put("terms", postings.size());
+            stats.put("postings", entries);
+            stats.put("postingBytes", bytes);
+            stats.put("postingCapacityBytes", capacity);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public record Hit(String id, float score) {
+    }
+
+    private static final class Postings {
+
+        private byte[] bytes = new byte[8];
+        private int size;
+        private int count;
+        private int lastDoc;
+
+        void add(int doc, int frequency) {
+            if (size + 10 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length + (bytes.length >> 1) + 10);
+            }
+            write(doc - lastDoc);
+            write(frequency);
+            lastDoc = doc;
+            count++;
+        }
+
+        private void write(int value) {
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void trim() {
+            bytes = Arrays.copyOf(bytes, size);
+        }
+
+        void score(float weight, float c0, float c1, int[] lengths, BitSet deleted, Accumulator accumulator) {
+            byte[] data = bytes;
+            int position = 0;
+            int doc = 0;
+            for (int i = 0; i < count; i++) {
+                int delta = 0;
+                int shift = 0;
+                byte current;
+                do {
+                    current = data[position++];
+                    delta |= (current & 0x7F) << shift;
+                    shift += 7;
+                } while (current < 0);
+                doc += delta;
+                int frequency = 0;
+                shift = 0;
+                do {
+                    current = data[position++];
+                    frequency |= (current & 0x7F) << shift;
+                    shift += 7;
+                } while (current < 0);
+                if (!deleted.get(doc)) {
+                    accumulator.add(doc, weight * frequency / (frequency + c0 + c1 * lengths[doc]));
+                }
+            }
+        }
+    }
+
+    private static final class Accumulator {
+
+        private float[] scores = new float[0];
+        private int[] touched = new int[0];
+        private int touchedCount;
+        private long[] heap = new long[16];
+
+        void ensureCapacity(int docs) {
+            if (scores.length < docs) {
+                int capacity = Math.max(docs, scores.length * 2);
+                scores = Arrays.copyOf(scores, capacity);
+                touched = Arrays.copyOf(touched, capacity);
+            }
+        }
+
+        void add(int doc, float score) {
+            if (scores[doc] == 0) {
+                touched[touchedCount++] = doc;
+            }
+            scores[doc] += score;
+        }
+
+        /**
+         * Selects the best {@code k} documents with a min-heap of (score bits, inverted doc id) keys, which
+         * order like the positive scores they hold and break ties towards older documents, and clears the
+         * accumulator for the next query on this thread.
+         */
+        List<Hit> drain(int k, List<String> ids) {
+            if (heap.length < k) {
+                heap = new long[k];
+            }
+            int size = 0;
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                long key = ((long) Float.floatToIntBits(scores[doc]) << 32) | (0xFFFFFFFFL - doc);
+                scores[doc] = 0;
+                if (size < k) {
+                    siftUp(size++, key);
+                } else if (key > heap[0]) {
+                    siftDown(size, key);
+                }
+            }
+            touchedCount = 0;
+
+            Hit[] hits = new Hit[size];
+            for (int i = size - 1; i >= 0; i--) {
+                long top = heap[0];
+                if (i > 0) {
+                    siftDown(i, heap[i]);
+                }
+                int doc = (int) (0xFFFFFFFFL - (top & 0xFFFFFFFFL));
+                hits[i] = new Hit(ids.get(doc), Float.intBitsToFloat((int) (top >>> 32)));
+            }
+            return Arrays.asList(hits);
+        }
+
+        private void siftUp(int i, long key) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= key) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = key;
+        }
+
+        private void siftDown(int size, long key) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= key) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = key;
+        }
+    }
+}
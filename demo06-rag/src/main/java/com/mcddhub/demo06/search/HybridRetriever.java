@@ -0,0 +1,117 @@
+package com.mcddhub.demo06.search;
+
+import com.mcddhub.demo06.store.HnswVectorStore;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Combines vector search with {@link Bm25Index} keyword search through reciprocal-rank fusion.
+ * <p>
+ * The vector side, which has to embed the query first, runs on the executor while the keyword side runs on
+ * the calling thread. Each retriever contributes {@code 1 / (rrfK + rank)} per document, so exact matches
+ * on identifiers that embeddings blur still surface, and the raw BM25 and cosine scores never need to be
+ * put on the same scale. Keyword-only hits are resolved through the vector store, which owns the content.
+ */
+public class HybridRetriever {
+
+    public static final String RRF_SCORE = "rrf_score";
+    public static final String VECTOR_RANK = "vector_rank";
+    public static final String KEYWORD_RANK = "keyword_rank";
+    public static final String KEYWORD_SCORE = "bm25_score";
+
+    private final HnswVectorStore vectorStore;
+    private final Bm25Index keywordIndex;
+    private final Executor executor;
+    private final int rrfK;
+    private final int candidates;
+
+    /**
+     * @param candidates how many results each retriever contributes to the fusion; at least {@code topK}
+     */
+    public HybridRetriever(HnswVectorStore vectorStore, Bm25Index keywordIndex, Executor executor, int rrfK,
+                           int candidates) {
+        this.vectorStore = vectorStore;
+        this.keywordIndex = keywordIndex;
+        this.executor = executor;
+        this.rrfK = rrfK;
+        this.candidates = candidates;
+    }
+
+    public List<Document> search(String query, int topK) {
+        int depth = Math.max(topK, candidates);
+        CompletableFuture<List<Document>> dense = CompletableFuture.supplyAsync(
+            () -> vectorStore.similaritySearch(SearchRequest.query(query).withTopK(depth)), executor);
+        List<Bm25Index.Hit> keyword = keywordIndex.search(query, depth);
+        List<Document> vector;
+        try {
+            vector = dense.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return fuse(vector, keyword, topK);
+    }
+
+    List<Document> fuse(List<Document> vector, List<Bm25Index.Hit> keyword, int topK) {
+        Map<String, Fused> fused = new LinkedHashMap<>();
+        for (int i = 0; i < vector.size(); i++) {
+            Document document = vector.get(i);
+            Fused entry = fused.computeIfAbsent(document.getId(), id -> new Fused());
+            entry.document = document;
+            entry.vectorRank = i + 1;
+            entry.score += 1.0 / (rrfK + i + 1);
+        }
+        for (int i = 0; i < keyword.size(); i++) {
+            Bm25Index.Hit hit = keyword.get(i);
+            Fused entry = fused.computeIfAbsent(hit.id(), id -> new Fused());
+            entry.keywordRank = i + 1;
+            entry.keywordScore = hit.score();
+            entry.score += 1.0 / (rrfK + i + 1);
+        }
+
+        List<Map.Entry<String, Fused>> ranked = new ArrayList<>(fused.entrySet());
+        ranked.sort((left, right) -> Double.compare(right.getValue().score, left.getValue().score));
+        List<Document> results = new ArrayList<>(Math.min(topK, ranked.size()));
+        for (Map.Entry<String, Fused> candidate : ranked) {
+            if (results.size() == topK) {
+                break;
+            }
+            Fused entry = candidate.getValue();
+            Document document = entry.document != null ? entry.document : vectorStore.document(candidate.getKey());
+            if (document == null) {
+                continue;
+            }
+            Map<String, Object> metadata = new HashMap<>(document.getMetadata());
+            metadata.put(RRF_SCORE, entry.score);
+            if (entry.vectorRank > 0) {
+                metadata.put(VECTOR_RANK, entry.vectorRank);
+            }
+            if (entry.keywordRank > 0) {
+                metadata.put(KEYWORD_RANK, entry.keywordRank);
+                metadata.put(KEYWORD_SCORE, entry.keywordScore);
+            }
+            results.add(new Document(document.getId(), document.getContent(), metadata));
+        }
+        return results;
+    }
+
+    private static final class Fused {
+
+        private Document document;
+        private double score;
+        private int vectorRank;
+        private int keywordRank;
+        private float keywordScore;
+    }
+}
@@ -0,0 +1,60 @@
+package com.mcddhub.demo06.search;
+
+import java.util.function.Consumer;
+
+/**
+ * Splits text into index terms without a dictionary.
+ * <p>
+ * Runs of letters and digits become lowercased words, so identifiers such as {@code 2001} or {@code v2}
+ * stay whole. Han, kana and hangul characters are emitted as unigrams plus overlapping bigrams, so a query
+ * for {@code 球拍} matches {@code 羽毛球拍} and bigrams still rank phrase matches above scattered characters.
+ */
+public final class TextTokenizer {
+
+    static final int MAX_TERM_LENGTH = 64;
+
+    private TextTokenizer() {
+    }
+
+    public static void tokenize(CharSequence text, Consumer<String> terms) {
+        StringBuilder word = new StringBuilder();
+        int previous = -1;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = Character.codePointAt(text, i);
+            i += Character.charCount(codePoint);
+            if (isIdeographic(codePoint)) {
+                flush(word, terms);
+                String unigram = new String(Character.toChars(codePoint));
+                terms.accept(unigram);
+                if (previous >= 0) {
+                    terms.accept(new String(Character.toChars(previous)) + unigram);
+                }
+                previous = codePoint;
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                previous = -1;
+                if (word.length() < MAX_TERM_LENGTH) {
+                    word.appendCodePoint(Character.toLowerCase(codePoint));
+                }
+            } else {
+                previous = -1;
+                flush(word, terms);
+            }
+        }
+        flush(word, terms);
+    }
+
+    private static void flush(StringBuilder word, Consumer<String> terms) {
+        if (!word.isEmpty()) {
+            terms.accept(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static boolean isIdeographic(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+            || script == Character.UnicodeScript.HIRAGANA
+            || script == Character.UnicodeScript.KATAKANA
+            || script == Character.UnicodeScript.HANGUL;
+    }
+}
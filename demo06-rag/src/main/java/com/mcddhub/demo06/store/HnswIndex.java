@@ -0,0 +1,301 @@
+package com.mcddhub.demo06.store;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarchical navigable small world graph over the unit vectors of a {@link VectorPages}, scored by dot
+ * product (cosine similarity for unit vectors).
+ * <p>
+ * Neighbour lists are {@code int[]} arrays whose first element is the neighbour count. The index is not
+ * thread-safe for writes; callers serialise {@link #add(float[])} against searches.
+ */
+public final class HnswIndex {
+
+    private final VectorPages vectors;
+    private final int m;
+    private final int m0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+    private final ThreadLocal<Visited> visited = ThreadLocal.withInitial(Visited::new);
+
+    private int[][][] links = new int[1024][][];
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswIndex(VectorPages vectors, int m, int efConstruction, long seed) {
+        this.vectors = vectors;
+        this.m = m;
+        this.m0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = new SplittableRandom(seed);
+    }
+
+    public int size() {
+        return vectors.size();
+    }
+
+    public VectorPages vectors() {
+        return vectors;
+    }
+
+    public int add(float[] unitVector) {
+        int node = vectors.add(unitVector);
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        if (node == links.length) {
+            links = Arrays.copyOf(links, links.length * 2);
+        }
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[1 + maxLinks(l)];
+        }
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return node;
+        }
+
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedy(unitVector, ep, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            NodeQueue found = searchLayer(unitVector, ep, efConstruction, l, n -> true);
+            int count = found.size();
+            int[] candidates = new int[count];
+            float[] scores = new float[count];
+            for (int i = count - 1; i >= 0; i--) {
+                scores[i] = found.topScore();
+                candidates[i] = found.pop();
+            }
+            ep = candidates[0];
+            int[] selected = selectNeighbors(candidates, scores, m);
+            int[] own = links[node][l];
+            for (int neighbor : selected) {
+                own[++own[0]] = neighbor;
+                link(neighbor, node, l);
+            }
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+        return node;
+    }
+
+    public Hits search(float[] unitQuery, int k, int ef, IntPredicate accept) {
+        if (entryPoint < 0 || k <= 0) {
+            return Hits.EMPTY;
+        }
+        int ep = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            ep = greedy(unitQuery, ep, l);
+        }
+        NodeQueue found = searchLayer(unitQuery, ep, Math.max(ef, k), 0, accept);
+        while (found.size() > k) {
+            found.pop();
+        }
+        return Hits.of(found);
+    }
+
+    public Hits exactSearch(float[] unitQuery, int k, IntPredicate accept) {
+        if (k <= 0) {
+            return Hits.EMPTY;
+        }
+        NodeQueue best = new NodeQueue(false, k + 1);
+        for (int node = 0, size = vectors.size(); node < size; node++) {
+            if (!accept.test(node)) {
+                continue;
+            }
+            float score = vectors.dot(node, unitQuery);
+            if (best.size() < k) {
+                best.push(node, score);
+            } else if (score > best.topScore()) {
+                best.pop();
+                best.push(node, score);
+            }
+        }
+        return Hits.of(best);
+    }
+
+    private int maxLinks(int level) {
+        return level == 0 ? m0 : m;
+    }
+
+    private int greedy(float[] query, int ep, int level) {
+        int current = ep;
+        float currentScore = vectors.dot(current, query);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbors = links[current][level];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                float score = vectors.dot(neighbors[i], query);
+                if (score > currentScore) {
+                    currentScore = score;
+                    current = neighbors[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns up to {@code ef} accepted nodes in a min-queue, so the worst result is on top.
+     */
+    private NodeQueue searchLayer(float[] query, int ep, int ef, int level, IntPredicate accept) {
+        Visited seen = visited.get();
+        seen.reset(vectors.size());
+        NodeQueue candidates = new NodeQueue(true, ef * 2);
+        NodeQueue results = new NodeQueue(false, ef + 1);
+
+        seen.visit(ep);
+        float epScore = vectors.dot(ep, query);
+        candidates.push(ep, epScore);
+        if (accept.test(ep)) {
+            results.push(ep, epScore);
+        }
+        while (!candidates.isEmpty()) {
+            if (results.size() >= ef && candidates.topScore() < results.topScore()) {
+                break;
+            }
+            int candidate = candidates.pop();
+            int[] neighbors = links[candidate][level];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                int neighbor = neighbors[i];
+                if (!seen.visit(neighbor)) {
+                    continue;
+                }
+                float score = vectors.dot(neighbor, query);
+                if (results.size() < ef || score > results.topScore()) {
+                    candidates.push(neighbor, score);
+                    if (accept.test(neighbor)) {
+                        results.push(neighbor, score);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Neighbour selection heuristic from the HNSW paper: keep a candidate only if it is closer to the base
+     * than to every neighbour already kept, then top up with the closest pruned candidates.
+     * {@code candidates} must be sorted by descending score.
+     */
+    private int[] selectNeighbors(int[] candidates, float[] scores, int max) {
+        if (candidates.length <= max) {
+            return candidates;
+        }
+        int[] selected = new int[max];
+        boolean[] taken = new boolean[candidates.length];
+        int count = 0;
+        for (int i = 0; i < candidates.length && count < max; i++) {
+            boolean diverse = true;
+            for (int j = 0; j < count; j++) {
+                if (vectors.dot(candidates[i], selected[j]) > scores[i]) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count++] = candidates[i];
+                taken[i] = true;
+            }
+        }
+        for (int i = 0; i < candidates.length && count < max; i++) {
+            if (!taken[i]) {
+                selected[count++] = candidates[i];
+            }
+        }
+        return selected;
+    }
+
+    private void link(int from, int to, int level) {
+        int[] neighbors = links[from][level];
+        int max = maxLinks(level);
+        if (neighbors[0] < max) {
+            neighbors[++neighbors[0]] = to;
+            return;
+        }
+        int[] candidates = new int[max + 1];
+        float[] scores = new float[max + 1];
+        for (int i = 0; i < max; i++) {
+            candidates[i] = neighbors[i + 1];
+            scores[i] = vectors.dot(from, candidates[i]);
+        }
+        candidates[max] = to;
+        scores[max] = vectors.dot(from, to);
+        sortDescending(candidates, scores);
+        int[] selected = selectNeighbors(candidates, scores, max);
+        neighbors[0] = selected.length;
+        System.arraycopy(selected, 0, neighbors, 1, selected.length);
+    }
+
+    private static void sortDescending(int[] nodes, float[] scores) {
+        for (int i = 1; i < nodes.length; i++) {
+            int node = nodes[i];
+            float score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                nodes[j + 1] = nodes[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            nodes[j + 1] = node;
+            scores[j + 1] = score;
+        }
+    }
+
+    public record Hits(int[] nodes, float[] scores) {
+
+        static final Hits EMPTY = new Hits(new int[0], new float[0]);
+
+        static Hits of(NodeQueue minQueue) {
+            int count = minQueue.size();
+            int[] nodes = new int[count];
+            float[] scores = new float[count];
+            for (int i = count - 1; i >= 0; i--) {
+                scores[i] = minQueue.topScore();
+                nodes[i] = minQueue.pop();
+            }
+            return new Hits(nodes, scores);
+        }
+
+        public int size() {
+            return nodes.length;
+        }
+    }
+
+    private static final class Visited {
+
+        private int[] marks = new int[0];
+        private int epoch;
+
+        void reset(int size) {
+            if (marks.length < size) {
+                marks = new int[Math.max(size, marks.length * 2)];
+                epoch = 0;
+            }
+            if (++epoch == 0) {
+                Arrays.fill(marks, 0);
+                epoch = 1;
+            }
+        }
+
+        boolean visit(int node) {
+            if (marks[node] == epoch) {
+                return false;
+            }
+            marks[node] = epoch;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.mcddhub.demo06.store;
+
+import com.mcddhub.demo06.search.Bm25Index;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * In-process {@link VectorStore} backed by an {@link HnswIndex}.
+ * <p>
+ * Vectors are normalised once and kept in {@link VectorPages}, so similarity is a plain dot product.
+ * Deleted or replaced documents are tombstoned and skipped at query time. With {@code exact} set, every
+ * search scans all vectors instead of walking the graph, which is useful for recall checks. An optional
+ * {@link Bm25Index} is kept in step with every add and delete, so hybrid search sees the same documents.
+ */
+public class HnswVectorStore implements VectorStore {
+
+    public static final String DISTANCE = "distance";
+
+    private final EmbeddingModel embeddingModel;
+    private final HnswIndex index;
+    private final int efSearch;
+    private final boolean exact;
+    private final int embeddingBatchSize;
+    private final Bm25Index keywordIndex;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Document> documents = new ArrayList<>();
+    private final Map<String, Integer> nodes = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+
+    public HnswVectorStore(EmbeddingModel embeddingModel, HnswIndex index, int efSearch, boolean exact,
+                           int embeddingBatchSize) {
+        this(embeddingModel, index, efSearch, exact, embeddingBatchSize, null);
+    }
+
+    public HnswVectorStore(EmbeddingModel embeddingModel, HnswIndex index, int efSearch, boolean exact,
+                           int embeddingBatchSize, Bm25Index keywordIndex) {
+        this.embeddingModel = embeddingModel;
+        this.index = index;
+        this.efSearch = efSearch;
+        this.exact = exact;
+        this.embeddingBatchSize = embeddingBatchSize;
+        this.keywordIndex = keywordIndex;
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+        List<float[]> vectors = new ArrayList<>(documents.size());
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            List<Double> embedding = documents.get(i).getEmbedding();
+            if (embedding != null && !embedding.isEmpty()) {
+                vectors.add(VectorPages.normalize(toFloats(embedding)));
+            } else {
+                vectors.add(null);
+                pending.add(i);
+            }
+        }
+        for (int from = 0; from < pending.size(); from += embeddingBatchSize) {
+            List<Integer> batch = pending.subList(from, Math.min(from + embeddingBatchSize, pending.size()));
+            List<List<Double>> embeddings = embeddingModel.embed(
+                batch.stream().map(i -> documents.get(i).getContent()).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                vectors.set(batch.get(i), VectorPages.normalize(toFloats(embeddings.get(i))));
+            }
+        }
+        for (int i = 0; i < documents.size(); i++) {
+            add(documents.get(i), vectors.get(i));
+        }
+    }
+
+    public void add(Document document, float[] unitVector) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = nodes.get(document.getId());
+            if (previous != null) {
+                deleted.set(previous);
+            }
+            int node = index.add(unitVector);
+            this.documents.add(document);
+            nodes.put(document.getId(), node);
+            if (keywordIndex != null) {
+                keywordIndex.add(document.getId(), document.getContent());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Boolean> delete(List<String> idList) {
+        lock.writeLock().lock();
+        try {
+            boolean removed = false;
+            for (String id : idList) {
+                Integer node = nodes.remove(id);
+                if (node != null) {
+                    deleted.set(node);
+                    removed = true;
+                }
+                if (keywordIndex != null) {
+                    keywordIndex.delete(id);
+                }
+            }
+            return Optional.of(removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        float[] query = VectorPages.normalize(toFloats(embeddingModel.embed(request.getQuery())));
+        return similaritySearch(query, request.getTopK(), request.getSimilarityThreshold(),
+            request.getFilterExpression(), exact);
+    }
+
+    public List<Document> similaritySearch(float[] unitQuery, int topK, double similarityThreshold,
+                                           Filter.Expression filter, boolean exact) {
+        Predicate<Map<String, Object>> matches = MetadataFilter.of(filter);
+        lock.readLock().lock();
+        try {
+            IntPredicate accept = filter == null
+                ? node -> !deleted.get(node)
+                : node -> !deleted.get(node) && matches.test(documents.get(node).getMetadata());
+            HnswIndex.Hits hits = exact
+                ? index.exactSearch(unitQuery, topK, accept)
+                : index.search(unitQuery, topK, efSearch, accept);
+            List<Document> results = new ArrayList<>(hits.size());
+            for (int i = 0; i < hits.size(); i++) {
+                float score = hits.scores()[i];
+                if (score < similarityThreshold) {
+                    break;
+                }
+                Document document = documents.get(hits.nodes()[i]);
+                Map<String, Object> metadata = new HashMap<>(document.getMetadata());
+                metadata.put(DISTANCE, 1 - score);
+                results.add(new Document(document.getId(), document.getContent(), metadata));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the live document with this id, or {@code null}.
+     */
+    public Document document(String id) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodes.get(id);
+            return node == null ? null : documents.get(node);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static float[] toFloats(List<Double> embedding) {
+        float[] vector = new float[embedding.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = embedding.get(i).floatValue();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,85 @@
+package com.mcddhub.demo06.store;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates a portable {@link Filter.Expression} against document metadata in memory.
+ */
+public final class MetadataFilter {
+
+    private MetadataFilter() {
+    }
+
+    public static Predicate<Map<String, Object>> of(Filter.Expression expression) {
+        if (expression == null) {
+            return metadata -> true;
+        }
+        return switch (expression.type()) {
+            case AND -> of(operand(expression.left())).and(of(operand(expression.right())));
+            case OR -> of(operand(expression.left())).or(of(operand(expression.right())));
+            case NOT -> of(operand(expression.left())).negate();
+            case EQ -> compare(expression, c -> c == 0);
+            case NE -> compare(expression, c -> c != 0);
+            case GT -> compare(expression, c -> c > 0);
+            case GTE -> compare(expression, c -> c >= 0);
+            case LT -> compare(expression, c -> c < 0);
+            case LTE -> compare(expression, c -> c <= 0);
+            case IN -> in(expression);
+            case NIN -> in(expression).negate();
+            default -> throw new IllegalArgumentException("unsupported filter expression " + expression);
+        };
+    }
+
+    private static Filter.Expression operand(Filter.Operand operand) {
+        if (operand instanceof Filter.Group group) {
+            return group.content();
+        }
+        if (operand instanceof Filter.Expression expression) {
+            return expression;
+        }
+        throw new IllegalArgumentException("expected an expression but got " + operand);
+    }
+
+    private static Predicate<Map<String, Object>> compare(Filter.Expression expression,
+                                                          IntPredicate outcome) {
+        String key = ((Filter.Key) expression.left()).key();
+        Object expected = ((Filter.Value) expression.right()).value();
+        return metadata -> {
+            Object actual = metadata.get(key);
+            if (actual == null) {
+                return expression.type() == Filter.ExpressionType.NE;
+            }
+            return outcome.test(compare(actual, expected));
+        };
+    }
+
+    private static Predicate<Map<String, Object>> in(Filter.Expression expression) {
+        String key = ((Filter.Key) expression.left()).key();
+        Object values = ((Filter.Value) expression.right()).value();
+        Collection<?> candidates = values instanceof Collection<?> collection ? collection : List.of(values);
+        return metadata -> {
+            Object actual = metadata.get(key);
+            return actual != null && candidates.stream().anyMatch(candidate -> compare(actual, candidate) == 0);
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object actual, Object expected) {
+        if (actual instanceof Number a && expected instanceof Number b) {
+            return Double.compare(a.doubleValue(), b.doubleValue());
+        }
+        if (actual instanceof Comparable comparable && actual.getClass().isInstance(expected)) {
+            return comparable.compareTo(expected);
+        }
+        return Objects.equals(String.valueOf(actual), String.valueOf(expected))
+            ? 0
+            : String.valueOf(actual).compareTo(String.valueOf(expected));
+    }
+}
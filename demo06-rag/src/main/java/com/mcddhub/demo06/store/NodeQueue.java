@@ -0,0 +1,89 @@
+package com.mcddhub.demo06.store;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of (node, score) pairs kept in parallel primitive arrays. A max-queue pops the highest score
+ * first, a min-queue the lowest.
+ */
+final class NodeQueue {
+
+    private final boolean max;
+    private int[] nodes;
+    private float[] scores;
+    private int size;
+
+    NodeQueue(boolean max, int initialCapacity) {
+        this.max = max;
+        this.nodes = new int[Math.max(initialCapacity, 4)];
+        this.scores = new float[nodes.length];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int topNode() {
+        return nodes[0];
+    }
+
+    float topScore() {
+        return scores[0];
+    }
+
+    void push(int node, float score) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(score, scores[parent])) {
+                break;
+            }
+            nodes[i] = nodes[parent];
+            scores[i] = scores[parent];
+            i = parent;
+        }
+        nodes[i] = node;
+        scores[i] = score;
+    }
+
+    int pop() {
+        int top = nodes[0];
+        int lastNode = nodes[--size];
+        float lastScore = scores[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(scores[child + 1], scores[child])) {
+                child++;
+            }
+            if (!before(scores[child], lastScore)) {
+                break;
+            }
+            nodes[i] = nodes[child];
+            scores[i] = scores[child];
+            i = child;
+        }
+        nodes[i] = lastNode;
+        scores[i] = lastScore;
+        return top;
+    }
+
+    private boolean before(float a, float b) {
+        return max ? a > b : a < b;
+    }
+}
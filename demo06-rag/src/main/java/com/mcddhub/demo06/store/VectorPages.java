@@ -0,0 +1,81 @@
+package com.mcddhub.demo06.store;
+
+import java.util.Arrays;
+
+/**
+ * Append-only storage of unit-length vectors in contiguous {@code float[]} pages, addressed by a dense int id.
+ */
+public final class VectorPages {
+
+    private final int dimensions;
+    private final int vectorsPerPage;
+    private float[][] pages = new float[0][];
+    private int size;
+
+    public VectorPages(int dimensions, int vectorsPerPage) {
+        this.dimensions = dimensions;
+        this.vectorsPerPage = vectorsPerPage;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int add(float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException(
+                "expected " + dimensions + " dimensions but got " + vector.length);
+        }
+        int id = size;
+        int page = id / vectorsPerPage;
+        if (page == pages.length) {
+            pages = Arrays.copyOf(pages, page + 1);
+            pages[page] = new float[vectorsPerPage * dimensions];
+        }
+        System.arraycopy(vector, 0, pages[page], (id % vectorsPerPage) * dimensions, dimensions);
+        size++;
+        return id;
+    }
+
+    public float dot(int id, float[] query) {
+        float[] page = pages[id / vectorsPerPage];
+        int offset = (id % vectorsPerPage) * dimensions;
+        float sum = 0f;
+        for (int i = 0; i < dimensions; i++) {
+            sum += page[offset + i] * query[i];
+        }
+        return sum;
+    }
+
+    public float dot(int a, int b) {
+        float[] pageA = pages[a / vectorsPerPage];
+        float[] pageB = pages[b / vectorsPerPage];
+        int offsetA = (a % vectorsPerPage) * dimensions;
+        int offsetB = (b % vectorsPerPage) * dimensions;
+        float sum = 0f;
+        for (int i = 0; i < dimensions; i++) {
+            sum += pageA[offsetA + i] * pageB[offsetB + i];
+        }
+        return sum;
+    }
+
+    public static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,180 @@
+package com.mcddhub.demo06.ingest;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import com.mcddhub.demo06.store.HnswIndex;
+import com.mcddhub.demo06.store.HnswVectorStore;
+import com.mcddhub.demo06.store.VectorPages;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestionPipelineTest {
+
+    private static final Encoding ENCODING = Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
+
+    @TempDir
+    Path corpus;
+
+    private CountingEmbeddingModel embeddingModel;
+    private HnswVectorStore vectorStore;
+    private IngestionPipeline pipeline;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        embeddingModel = new CountingEmbeddingModel();
+        vectorStore = new HnswVectorStore(embeddingModel, new HnswIndex(new VectorPages(8, 64), 8, 32, 1), 32,
+            false, 25);
+        pipeline = new IngestionPipeline(embeddingModel, vectorStore, new IngestionLedger(), ENCODING,
+            2, 2, 8, 64, 8, 4, Set.of("txt", "md"));
+        Files.writeString(corpus.resolve("a.txt"), "The quick brown fox jumps over the lazy dog. ".repeat(200));
+        Files.writeString(corpus.resolve("b.md"), "# 标题\n今天天气很好。我们去打羽毛球吧！\n".repeat(50));
+        Files.writeString(corpus.resolve("ignored.bin"), "binary");
+    }
+
+    @Test
+    void should_chunk_embed_and_store_every_file() throws Exception {
+        Map<String, Object> stats = pipeline.run(corpus);
+
+        assertEquals(2L, stats.get("filesIngested"));
+        assertEquals(0L, stats.get("filesFailed"));
+        assertTrue(vectorStore.size() > 10);
+        assertEquals(vectorStore.size(), embeddingModel.texts.get());
+        assertTrue(embeddingModel.largestBatch.get() <= 4);
+    }
+
+    @Test
+    void should_skip_unchanged_files_and_replace_changed_ones() throws Exception {
+        pipeline.run(corpus);
+        int embedded = embeddingModel.texts.get();
+
+        Map<String, Object> unchanged = pipeline.run(corpus);
+        assertEquals(2L, unchanged.get("filesSkipped"));
+        assertEquals(embedded, embeddingModel.texts.get());
+
+        Files.writeString(corpus.resolve("a.txt"), "A single short sentence.");
+        int before = vectorStore.size();
+        Map<String, Object> changed = pipeline.run(corpus);
+        assertEquals(1L, changed.get("filesSkipped"));
+        assertEquals(1L, changed.get("filesIngested"));
+        assertEquals(embedded + 1, embeddingModel.texts.get());
+        assertTrue(vectorStore.size() < before);
+    }
+
+    @Test
+    void should_purge_the_chunks_of_deleted_files() throws Exception {
+        Files.writeString(corpus.resolve("a.txt"), "A single short sentence.");
+        pipeline.run(corpus);
+        int embedded = embeddingModel.texts.get();
+
+        Files.delete(corpus.resolve("b.md"));
+        Map<String, Object> stats = pipeline.run(corpus);
+
+        assertEquals(1L, stats.get("filesSkipped"));
+        assertEquals(1L, stats.get("filesPurged"));
+        assertEquals(1, stats.get("ledgerEntries"));
+        assertEquals(1, vectorStore.size());
+        assertEquals(embedded, embeddingModel.texts.get());
+    }
+
+    @Test
+    void should_not_follow_links_out_of_the_directory(@TempDir Path outside) throws Exception {
+        Files.writeString(outside.resolve("secret.txt"), "not for the index");
+        Files.createSymbolicLink(corpus.resolve("secret.txt"), outside.resolve("secret.txt"));
+
+        Map<String, Object> stats = pipeline.run(corpus);
+
+        assertEquals(2L, stats.get("filesIngested"));
+        assertEquals(vectorStore.size(), embeddingModel.texts.get());
+        assertFalse(embeddingModel.seen.contains("not for the index"));
+    }
+
+    @Test
+    void chunks_respect_token_budget_and_overlap() {
+        List<TokenChunker.Chunk> chunks = new ArrayList<>();
+        TokenChunker chunker = new TokenChunker(ENCODING, 32, 8, chunks::add);
+        String text = "Sentence number one is here. ".repeat(100);
+        for (int i = 0; i < text.length(); i += 37) {
+            chunker.accept(text.substring(i, Math.min(text.length(), i + 37)));
+        }
+        chunker.finish();
+
+        assertTrue(chunks.size() > 1);
+        for (int i = 0; i < chunks.size(); i++) {
+            assertEquals(i, chunks.get(i).index());
+            assertTrue(chunks.get(i).tokens() <= 32, "chunk over budget: " + chunks.get(i));
+        }
+        assertTrue(chunks.get(1).text().startsWith("Sentence number one is here."));
+    }
+
+    @Test
+    void chunks_never_split_a_surrogate_pair() {
+        List<TokenChunker.Chunk> chunks = new ArrayList<>();
+        TokenChunker chunker = new TokenChunker(ENCODING, 16, 4, chunks::add);
+        // long runs without boundaries, forcing both the pending cut and the split by token count
+        String text = "x".repeat(8_191) + "😀".repeat(5_000);
+        for (int i = 0; i < text.length(); i += 4093) {
+            chunker.accept(text.substring(i, Math.min(text.length(), i + 4093)));
+        }
+        chunker.finish();
+
+        assertTrue(chunks.size() > 1);
+        for (TokenChunker.Chunk chunk : chunks) {
+            String chunkText = chunk.text();
+            for (int i = 0; i < chunkText.length(); i++) {
+                char c = chunkText.charAt(i);
+                if (Character.isHighSurrogate(c)) {
+                    assertTrue(i + 1 < chunkText.length() && Character.isLowSurrogate(chunkText.charAt(++i)),
+                        "lone high surrogate in chunk " + chunk.index());
+                } else {
+                    assertFalse(Character.isLowSurrogate(c), "lone low surrogate in chunk " + chunk.index());
+                }
+            }
+        }
+    }
+
+    private static class CountingEmbeddingModel implements EmbeddingModel {
+
+        final AtomicInteger texts = new AtomicInteger();
+        final AtomicInteger largestBatch = new AtomicInteger();
+        final Set<String> seen = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            texts.addAndGet(request.getInstructions().size());
+            largestBatch.accumulateAndGet(request.getInstructions().size(), Math::max);
+            seen.addAll(request.getInstructions());
+            List<Embedding> embeddings = new ArrayList<>();
+            for (String text : request.getInstructions()) {
+                List<Double> embedding = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    embedding.add((double) ((text.hashCode() >>> (i * 4)) & 0xF) + 1);
+                }
+                embeddings.add(new Embedding(embedding, embeddings.size()));
+            }
+            return new EmbeddingResponse(embeddings);
+        }
+
+        @Override
+        public List<Double> embed(Document document) {
+            return embed(document.getContent());
+        }
+    }
+}
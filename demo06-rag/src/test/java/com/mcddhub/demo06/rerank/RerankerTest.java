@@ -0,0 +1,145 @@
+package com.mcddhub.demo06.rerank;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RerankerTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void should_score_in_batches_and_reorder() {
+        StubRerankModel model = new StubRerankModel(0);
+        Reranker reranker = new Reranker(model, executor, 10, 2, 2f, Duration.ofSeconds(5), 100);
+
+        List<Document> results = reranker.rerank("q", candidates(25), 3);
+
+        assertEquals(List.of("doc-24", "doc-23", "doc-22"), ids(results));
+        assertEquals(3, model.calls.get());
+        assertTrue(model.maxInFlight.get() <= 2);
+        assertEquals(0.24f, (float) results.get(0).getMetadata().get(Reranker.RERANK_SCORE), 1e-6);
+    }
+
+    @Test
+    void should_stop_once_top_k_is_confident() {
+        StubRerankModel model = new StubRerankModel(0);
+        Reranker reranker = new Reranker(model, executor, 10, 1, 0.05f, Duration.ofSeconds(5), 100);
+
+        List<Document> results = reranker.rerank("q", candidates(40), 3);
+
+        assertEquals(1, model.calls.get());
+        assertEquals(List.of("doc-9", "doc-8", "doc-7"), ids(results));
+        assertEquals(1L, reranker.stats().get("shortCircuits"));
+    }
+
+    @Test
+    void should_reuse_cached_scores() {
+        StubRerankModel model = new StubRerankModel(0);
+        Reranker reranker = new Reranker(model, executor, 10, 2, 2f, Duration.ofSeconds(5), 100);
+
+        List<Document> first = reranker.rerank("q", candidates(15), 5);
+        List<Document> second = reranker.rerank("q", candidates(15), 5);
+
+        assertEquals(2, model.calls.get());
+        assertEquals(ids(first), ids(second));
+        assertEquals(15L, reranker.stats().get("cacheHits"));
+        reranker.rerank("other", candidates(15), 5);
+        assertEquals(4, model.calls.get());
+    }
+
+    @Test
+    void should_keep_first_stage_order_after_timeout() {
+        StubRerankModel model = new StubRerankModel(2_000);
+        Reranker reranker = new Reranker(model, executor, 10, 2, 2f, Duration.ofMillis(50), 100);
+
+        long start = System.nanoTime();
+        List<Document> results = reranker.rerank("q", candidates(20), 3);
+
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+        assertEquals(List.of("doc-0", "doc-1", "doc-2"), ids(results));
+        assertEquals(1L, reranker.stats().get("timeouts"));
+        assertEquals(0, reranker.cacheSize());
+    }
+
+    @Test
+    void should_leave_batches_unscored_when_the_pool_is_saturated() {
+        StubRerankModel model = new StubRerankModel(50);
+        ThreadPoolExecutor saturated = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1));
+        try {
+            Reranker reranker = new Reranker(model, saturated, 10, 4, 2f, Duration.ofSeconds(5), 100);
+
+            List<Document> results = reranker.rerank("q", candidates(40), 3);
+
+            assertEquals(List.of("doc-19", "doc-18", "doc-17"), ids(results));
+            assertEquals(2, model.calls.get());
+            assertEquals(1L, reranker.stats().get("rejected"));
+        } finally {
+            saturated.shutdownNow();
+        }
+    }
+
+    private static List<Document> candidates(int count) {
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            documents.add(new Document("doc-" + i, String.valueOf(i), Map.of()));
+        }
+        return documents;
+    }
+
+    private static List<String> ids(List<Document> documents) {
+        return documents.stream().map(Document::getId).toList();
+    }
+
+    /**
+     * Deterministic local reranker: a document whose content is the number {@code n} scores {@code n / 100}.
+     */
+    private static class StubRerankModel implements RerankModel {
+
+        private final long latencyMillis;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        StubRerankModel(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public float[] score(String query, List<String> documents) {
+            calls.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(latencyMillis == 0 ? 5 : latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            float[] scores = new float[documents.size()];
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = Integer.parseInt(documents.get(i)) / 100f;
+            }
+            return scores;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.mcddhub.demo06.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Bm25IndexTest {
+
+    private Bm25Index index;
+
+    @BeforeEach
+    void setUp() {
+        index = new Bm25Index(1.2f, 0.75f);
+        index.add("racket", "尤尼克斯羽毛球拍, 订单编号 2001");
+        index.add("weather", "杭州今天晴转多云, 气温 32 摄氏度");
+        index.add("shoes", "羽毛球鞋, 订单编号 2002");
+    }
+
+    @Test
+    void should_split_words_and_han_bigrams() {
+        List<String> terms = new ArrayList<>();
+
+        TextTokenizer.tokenize("球拍, 订单 2001 iPhone15", terms::add);
+
+        assertEquals(List.of("球", "拍", "球拍", "订", "单", "订单", "2001", "iphone15"), terms);
+    }
+
+    @Test
+    void should_rank_exact_identifier_first() {
+        List<Bm25Index.Hit> hits = index.search("订单 2001", 3);
+
+        assertEquals(List.of("racket", "shoes"), hits.stream().map(Bm25Index.Hit::id).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+        assertEquals(List.of("weather"), index.search("天气 杭州", 3).stream().map(Bm25Index.Hit::id).toList());
+        assertTrue(index.search("2003", 3).isEmpty());
+    }
+
+    @Test
+    void should_skip_deleted_and_replaced_documents() {
+        assertTrue(index.delete("racket"));
+        index.add("shoes", "网球鞋");
+
+        assertTrue(index.search("2001", 3).isEmpty());
+        assertTrue(index.search("2002", 3).isEmpty());
+        assertEquals("shoes", index.search("网球", 3).get(0).id());
+        assertEquals(2, index.size());
+        assertFalse(index.delete("racket"));
+    }
+
+    @Test
+    void should_match_brute_force_scores_over_varint_postings() {
+        Bm25Index large = new Bm25Index(1.2f, 0.75f);
+        Random random = new Random(7);
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < 20; j++) {
+                text.append("w").append(random.nextInt(random.nextBoolean() ? 20 : 5000)).append(' ');
+            }
+            texts.add(text.toString());
+            large.add("doc-" + i, text.toString());
+        }
+
+        List<Bm25Index.Hit> hits = large.search("w3 w4321", 5);
+
+        assertEquals(5, hits.size());
+        for (Bm25Index.Hit hit : hits) {
+            int doc = Integer.parseInt(hit.id().substring(4));
+            assertEquals(bruteForce(texts, doc, List.of("w3", "w4321")), hit.score(), 1e-4);
+        }
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).score() >= hits.get(i).score());
+        }
+        assertTrue((long) large.stats().get("postingBytes") < 3L * (long) large.stats().get("postings"));
+    }
+
+    private static double bruteForce(List<String> texts, int doc, List<String> query) {
+        double averageLength = texts.stream().mapToInt(text -> text.split(" ").length).average().orElse(1);
+        double score = 0;
+        for (String term : query) {
+            long df = texts.stream().filter(text -> List.of(text.split(" ")).contains(term)).count();
+            double idf = Math.log(1 + (texts.size() - df + 0.5) / (df + 0.5));
+            String[] words = texts.get(doc).split(" ");
+            long tf = List.of(words).stream().filter(term::equals).count();
+            score += idf * tf * 2.2 / (tf + 1.2 * (0.25 + 0.75 * words.length / averageLength));
+        }
+        return score;
+    }
+}
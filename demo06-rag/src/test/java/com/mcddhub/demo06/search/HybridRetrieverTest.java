@@ -0,0 +1,101 @@
+package com.mcddhub.demo06.search;
+
+import com.mcddhub.demo06.store.HnswIndex;
+import com.mcddhub.demo06.store.HnswVectorStore;
+import com.mcddhub.demo06.store.VectorPages;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HybridRetrieverTest {
+
+    private ExecutorService executor;
+    private HnswVectorStore store;
+    private HybridRetriever retriever;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        Bm25Index keywordIndex = new Bm25Index(1.2f, 0.75f);
+        store = new HnswVectorStore(new LetterEmbeddingModel(), new HnswIndex(new VectorPages(26, 64), 8, 64, 1),
+            32, true, 25, keywordIndex);
+        store.add(List.of(
+            new Document("pirates", "pirates sail ships across the sea", Map.of()),
+            new Document("order", "order 2001 shipped", Map.of()),
+            new Document("pirate-order", "pirates order 2001", Map.of()),
+            new Document("weather", "sunny with clouds", Map.of())));
+        retriever = new HybridRetriever(store, keywordIndex, executor, 60, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void should_rank_documents_found_by_both_retrievers_first() {
+        List<Document> results = retriever.search("pirates 2001", 2);
+
+        assertEquals(2, results.size());
+        Document first = results.get(0);
+        assertEquals("pirate-order", first.getId());
+        assertTrue(first.getMetadata().containsKey(HybridRetriever.VECTOR_RANK));
+        assertEquals(1, first.getMetadata().get(HybridRetriever.KEYWORD_RANK));
+        assertTrue((double) first.getMetadata().get(HybridRetriever.RRF_SCORE)
+            > (double) results.get(1).getMetadata().get(HybridRetriever.RRF_SCORE));
+    }
+
+    @Test
+    void should_resolve_keyword_only_hits_and_follow_deletes() {
+        List<Document> results = retriever.search("2001", 4);
+
+        assertTrue(results.stream().anyMatch(d -> d.getId().equals("order")
+            && d.getContent().equals("order 2001 shipped")
+            && d.getMetadata().containsKey(HybridRetriever.KEYWORD_SCORE)));
+
+        store.delete(List.of("order", "pirate-order"));
+
+        assertTrue(retriever.search("2001", 4).stream()
+            .noneMatch(d -> d.getId().equals("order") || d.getId().equals("pirate-order")));
+    }
+
+    private static class LetterEmbeddingModel implements EmbeddingModel {
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            List<Embedding> embeddings = new ArrayList<>();
+            for (String text : request.getInstructions()) {
+                List<Double> embedding = new ArrayList<>();
+                double[] counts = new double[26];
+                for (char c : text.toLowerCase().toCharArray()) {
+                    if (c >= 'a' && c <= 'z') {
+                        counts[c - 'a']++;
+                    }
+                }
+                for (double count : counts) {
+                    embedding.add(count);
+                }
+                embeddings.add(new Embedding(embedding, embeddings.size()));
+            }
+            return new EmbeddingResponse(embeddings);
+        }
+
+        @Override
+        public List<Double> embed(Document document) {
+            return embed(document.getContent());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.mcddhub.demo06.store;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnswVectorStoreTest {
+
+    private HnswVectorStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new HnswVectorStore(new LetterEmbeddingModel(), new HnswIndex(new VectorPages(26, 64), 8, 64, 1),
+            32, false, 25);
+        List<Document> documents = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < 12; j++) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+            documents.add(new Document("doc-" + i, text.toString(), Map.of("shard", i % 5)));
+        }
+        documents.add(new Document("pirates", "pirates pirates", Map.of("shard", 9)));
+        store.add(documents);
+    }
+
+    @Test
+    void should_find_nearest_document() {
+        List<Document> results = store.similaritySearch(SearchRequest.query("pirate ships").withTopK(3));
+
+        assertEquals(3, results.size());
+        assertEquals("pirates", results.get(0).getId());
+        assertTrue(results.get(0).getMetadata().containsKey(HnswVectorStore.DISTANCE));
+    }
+
+    @Test
+    void should_agree_with_exact_search_and_apply_filters() {
+        float[] query = VectorPages.normalize(new LetterEmbeddingModel().vector("hnsw graph"));
+
+        List<Document> approximate = store.similaritySearch(query, 10, 0.0, null, false);
+        List<Document> exact = store.similaritySearch(query, 10, 0.0, null, true);
+        assertTrue(approximate.stream().filter(d -> ids(exact).contains(d.getId())).count() >= 8,
+            "recall@10 below 0.8: " + ids(approximate) + " vs " + ids(exact));
+
+        List<Document> filtered = store.similaritySearch(
+            SearchRequest.query("pirate ships").withTopK(5).withFilterExpression("shard == 3"));
+        assertEquals(5, filtered.size());
+        assertTrue(filtered.stream().allMatch(d -> Integer.valueOf(3).equals(d.getMetadata().get("shard"))));
+    }
+
+    @Test
+    void should_return_nothing_for_top_k_zero() {
+        float[] query = VectorPages.normalize(new LetterEmbeddingModel().vector("hnsw graph"));
+
+        assertTrue(store.similaritySearch(query, 0, 0.0, null, false).isEmpty());
+        assertTrue(store.similaritySearch(query, 0, 0.0, null, true).isEmpty());
+    }
+
+    @Test
+    void should_skip_deleted_documents() {
+        store.delete(List.of("pirates"));
+
+        List<Document> results = store.similaritySearch(SearchRequest.query("pirate ships").withTopK(3));
+
+        assertTrue(results.stream().noneMatch(d -> d.getId().equals("pirates")));
+        assertEquals(500, store.size());
+    }
+
+    private static List<String> ids(List<Document> documents) {
+        return documents.stream().map(Document::getId).toList();
+    }
+
+    private static class LetterEmbeddingModel implements EmbeddingModel {
+
+        float[] vector(String text) {
+            float[] counts = new float[26];
+            for (char c : text.toLowerCase().toCharArray()) {
+                if (c >= 'a' && c <= 'z') {
+                    counts[c - 'a']++;
+                }
+            }
+            return counts;
+        }
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            List<Embedding> embeddings = new ArrayList<>();
+            for (String text : request.getInstructions()) {
+                List<Double> embedding = new ArrayList<>();
+                for (float value : vector(text)) {
+                    embedding.add((double) value);
+                }
+                embeddings.add(new Embedding(embedding, embeddings.size()));
+            }
+            return new EmbeddingResponse(embeddings);
+        }
+
+        @Override
+        public List<Double> embed(Document document) {
+            return embed(document.getContent());
+        }
+    }
+}
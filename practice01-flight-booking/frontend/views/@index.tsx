@@ -1,6 +1,6 @@
 import {useEffect, useState} from "react";
 import {AssistantService, BookingService} from "Frontend/generated/endpoints";
-import BookingDetails from "../generated/ai/spring/demo/ai/playground/services/BookingTools/BookingDetails";
+import BookingDetails from "../generated/com/mcddhub/practice01/services/BookingTools/BookingDetails";
 import {GridColumn} from "@vaadin/react-components/GridColumn";
 import {Grid} from "@vaadin/react-components/Grid";
 import {MessageInput} from "@vaadin/react-components/MessageInput";
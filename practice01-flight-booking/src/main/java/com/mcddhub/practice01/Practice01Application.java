@@ -1,10 +1,13 @@
 package com.mcddhub.practice01;
 
+import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.theme.Theme;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication
-public class Practice01Application {
+@Theme("customer-support-agent")
+public class Practice01Application implements AppShellConfigurator {
     public static void main(String[] args) {
         SpringApplication.run(Practice01Application.class, args);
     }
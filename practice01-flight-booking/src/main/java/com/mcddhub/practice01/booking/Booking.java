@@ -0,0 +1,30 @@
+package com.mcddhub.practice01.booking;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable booking state. Every change produces a copy with {@code version + 1}, which is what
+ * {@link BookingStore} compares and swaps on.
+ */
+public record Booking(
+    String bookingNumber,
+    String name,
+    LocalDate date,
+    String from,
+    String to,
+    BookingStatus status,
+    BookingClass bookingClass,
+    long version) {
+
+    public Booking withTrip(LocalDate date, String from, String to) {
+        return new Booking(bookingNumber, name, date, from, to, status, bookingClass, version + 1);
+    }
+
+    public Booking withStatus(BookingStatus status) {
+        return new Booking(bookingNumber, name, date, from, to, status, bookingClass, version + 1);
+    }
+
+    public Booking withBookingClass(BookingClass bookingClass) {
+        return new Booking(bookingNumber, name, date, from, to, status, bookingClass, version + 1);
+    }
+}
@@ -0,0 +1,5 @@
+package com.mcddhub.practice01.booking;
+
+public enum BookingClass {
+    ECONOMY, PREMIUM_ECONOMY, BUSINESS
+}
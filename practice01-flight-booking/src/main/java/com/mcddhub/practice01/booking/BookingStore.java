@@ -0,0 +1,100 @@
+package com.mcddhub.practice01.booking;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory bookings keyed by booking number.
+ * <p>
+ * Bookings are immutable and versioned. Reads never lock; writes compute the next {@link Booking} from the
+ * current one and publish it with {@link ConcurrentHashMap#replace(Object, Object, Object)}, which only
+ * synchronises on the one hash bin involved, so sessions working on different bookings never wait for each
+ * other. Callers that hold a version from an earlier read use {@link #update(String, long, UnaryOperator)}
+ * and get a {@link StaleBookingException} if someone else got there first; {@link #update(String,
+ * UnaryOperator)} instead re-reads and re-applies the change until it wins.
+ */
+public class BookingStore {
+
+    private final ConcurrentHashMap<String, Booking> bookings = new ConcurrentHashMap<>();
+
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public void put(Booking booking) {
+        bookings.put(booking.bookingNumber(), booking);
+    }
+
+    public Optional<Booking> get(String bookingNumber) {
+        return Optional.ofNullable(bookings.get(bookingNumber));
+    }
+
+    public List<Booking> all() {
+        List<Booking> all = new ArrayList<>(bookings.values());
+        all.sort(Comparator.comparing(Booking::bookingNumber));
+        return all;
+    }
+
+    public int size() {
+        return bookings.size();
+    }
+
+    /**
+     * Applies {@code change} to the current booking, retrying on concurrent updates. {@code change} may run
+     * more than once and must not have side effects; it can throw to abort.
+     */
+    public Booking update(String bookingNumber, UnaryOperator<Booking> change) {
+        while (true) {
+            Booking current = require(bookingNumber);
+            Booking next = change.apply(current);
+            if (next == current || bookings.replace(bookingNumber, current, next)) {
+                updates.increment();
+                return next;
+            }
+            retries.increment();
+        }
+    }
+
+    /**
+     * Applies {@code change} only if the booking is still at {@code expectedVersion}.
+     */
+    public Booking update(String bookingNumber, long expectedVersion, UnaryOperator<Booking> change) {
+        Booking current = require(bookingNumber);
+        if (current.version() != expectedVersion) {
+            conflicts.increment();
+            throw new StaleBookingException(bookingNumber, expectedVersion, current.version());
+        }
+        Booking next = change.apply(current);
+        if (next != current && !bookings.replace(bookingNumber, current, next)) {
+            conflicts.increment();
+            throw new StaleBookingException(bookingNumber, expectedVersion, require(bookingNumber).version());
+        }
+        updates.increment();
+        return next;
+    }
+
+    private Booking require(String bookingNumber) {
+        Booking booking = bookings.get(bookingNumber);
+        if (booking == null) {
+            throw new NoSuchElementException("booking " + bookingNumber + " not found");
+        }
+        return booking;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("bookings", bookings.size());
+        stats.put("updates", updates.sum());
+        stats.put("retries", retries.sum());
+        stats.put("conflicts", conflicts.sum());
+        return stats;
+    }
+}
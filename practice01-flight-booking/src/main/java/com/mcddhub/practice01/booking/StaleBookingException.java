@@ -0,0 +1,24 @@
+package com.mcddhub.practice01.booking;
+
+/**
+ * Thrown when a booking changed between reading it and writing it back.
+ */
+public class StaleBookingException extends RuntimeException {
+
+    private final long expectedVersion;
+    private final long actualVersion;
+
+    public StaleBookingException(String bookingNumber, long expectedVersion, long actualVersion) {
+        super("booking " + bookingNumber + " is at version " + actualVersion + ", expected " + expectedVersion);
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    public long expectedVersion() {
+        return expectedVersion;
+    }
+
+    public long actualVersion() {
+        return actualVersion;
+    }
+}
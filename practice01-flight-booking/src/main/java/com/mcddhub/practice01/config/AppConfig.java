@@ -0,0 +1,91 @@
+package com.mcddhub.practice01.config;
+
+import com.mcddhub.practice01.booking.Booking;
+import com.mcddhub.practice01.booking.BookingClass;
+import com.mcddhub.practice01.booking.BookingStatus;
+import com.mcddhub.practice01.booking.BookingStore;
+import com.mcddhub.practice01.limit.PushRequestContextInterceptor;
+import com.mcddhub.practice01.limit.TokenBucketLimiter;
+import com.mcddhub.practice01.memory.BoundedChatMemory;
+import com.mcddhub.practice01.services.BookingAssistant;
+import org.atmosphere.cpr.ApplicationConfig;
+import org.atmosphere.cpr.AtmosphereServlet;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties({RateLimitProperties.class, ChatMemoryProperties.class})
+public class AppConfig {
+
+    private static final List<String> NAMES = List.of("云小宝", "李千问", "张百炼", "王通义", "刘魔搭");
+    private static final List<String> AIRPORTS = List.of("北京", "上海", "广州", "深圳", "杭州", "南京", "青岛",
+        "成都", "武汉", "西安", "重庆", "大连", "天津");
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
+    @Bean
+    public BookingStore bookingStore(Clock clock) {
+        BookingStore store = new BookingStore();
+        LocalDate today = LocalDate.now(clock);
+        for (int i = 0; i < NAMES.size(); i++) {
+            store.put(new Booking(
+                String.valueOf(101 + i),
+                NAMES.get(i),
+                today.plusDays(2L * i),
+                AIRPORTS.get(2 * i % AIRPORTS.size()),
+                AIRPORTS.get((2 * i + 3) % AIRPORTS.size()),
+                BookingStatus.CONFIRMED,
+                BookingClass.values()[i % BookingClass.values().length],
+                0));
+        }
+        return store;
+    }
+
+    @Bean
+    public TokenBucketLimiter tokenBucketLimiter(RateLimitProperties properties) {
+        return new TokenBucketLimiter(properties.capacity(), properties.refillPeriod());
+    }
+
+    /**
+     * Adds {@link PushRequestContextInterceptor} to the Atmosphere servlet Hilla registers for its push
+     * endpoint, so that calls arriving over the websocket are rate limited per client.
+     */
+    @Bean
+    public static BeanPostProcessor pushRequestContext() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof ServletRegistrationBean<?> registration
+                    && registration.getServlet() instanceof AtmosphereServlet) {
+                    registration.getInitParameters().merge(ApplicationConfig.ATMOSPHERE_INTERCEPTORS,
+                        PushRequestContextInterceptor.class.getName(), (existing, added) -> existing + "," + added);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public BoundedChatMemory chatMemory(ChatMemoryProperties properties) {
+        return new BoundedChatMemory(properties.maxConversations(), properties.maxMessages(),
+            properties.idleTimeout());
+    }
+
+    @Bean
+    public BookingAssistant bookingAssistant(ChatClient.Builder builder, BoundedChatMemory chatMemory,
+                                             TokenBucketLimiter tokenBucketLimiter, Clock clock,
+                                             ChatMemoryProperties properties) {
+        return new BookingAssistant(builder, chatMemory, tokenBucketLimiter, clock, properties.maxMessages());
+    }
+}
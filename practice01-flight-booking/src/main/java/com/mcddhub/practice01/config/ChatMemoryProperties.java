@@ -0,0 +1,18 @@
+package com.mcddhub.practice01.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param maxConversations conversations kept at once; the least recently used one is evicted beyond that
+ * @param maxMessages      messages kept per conversation, and sent with each request
+ * @param idleTimeout      how long an untouched conversation is kept
+ */
+@ConfigurationProperties("practice01.chat-memory")
+public record ChatMemoryProperties(
+    @DefaultValue("10000") int maxConversations,
+    @DefaultValue("100") int maxMessages,
+    @DefaultValue("30m") Duration idleTimeout) {
+}
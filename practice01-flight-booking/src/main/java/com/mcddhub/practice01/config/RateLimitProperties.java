@@ -0,0 +1,16 @@
+package com.mcddhub.practice01.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param capacity     chat requests a user may send in a burst
+ * @param refillPeriod time for one of them to become available again
+ */
+@ConfigurationProperties("practice01.rate-limit")
+public record RateLimitProperties(
+    @DefaultValue("10") int capacity,
+    @DefaultValue("6s") Duration refillPeriod) {
+}
@@ -0,0 +1,61 @@
+package com.mcddhub.practice01.controller;
+
+import com.mcddhub.practice01.booking.BookingStore;
+import com.mcddhub.practice01.limit.ClientKeys;
+import com.mcddhub.practice01.limit.TokenBucketLimiter;
+import com.mcddhub.practice01.memory.BoundedChatMemory;
+import com.mcddhub.practice01.services.BookingAssistant;
+import com.mcddhub.practice01.services.BookingTools;
+import com.mcddhub.practice01.services.FlightBookingService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/practice01")
+public class AssistantController {
+
+    private final BookingAssistant assistant;
+    private final FlightBookingService flightBookingService;
+    private final BookingStore bookingStore;
+    private final TokenBucketLimiter limiter;
+    private final BoundedChatMemory chatMemory;
+
+    public AssistantController(BookingAssistant assistant, FlightBookingService flightBookingService,
+                               BookingStore bookingStore, TokenBucketLimiter limiter,
+                               BoundedChatMemory chatMemory) {
+        this.assistant = assistant;
+        this.flightBookingService = flightBookingService;
+        this.bookingStore = bookingStore;
+        this.limiter = limiter;
+        this.chatMemory = chatMemory;
+    }
+
+    @GetMapping(value = "/chat", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<String> chat(
+        @RequestParam("chat-id") String chatId,
+        @RequestParam(value = "message", defaultValue = "你好, 请帮我查询预定 101, 我叫云小宝") String message,
+        HttpServletRequest request) {
+        return assistant.chat(ClientKeys.of(request), chatId, message);
+    }
+
+    @GetMapping("/bookings")
+    public List<BookingTools.BookingDetails> bookings() {
+        return flightBookingService.getBookings();
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return Map.of(
+            "bookings", bookingStore.stats(),
+            "rateLimit", limiter.stats(),
+            "chatMemory", chatMemory.stats());
+    }
+}
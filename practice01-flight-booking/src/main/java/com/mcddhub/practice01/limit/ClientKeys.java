@@ -0,0 +1,41 @@
+package com.mcddhub.practice01.limit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.security.Principal;
+
+/**
+ * Who a request is charged to in the {@link TokenBucketLimiter}: the authenticated user if there is one, the
+ * remote address otherwise. Never a request parameter, which a client could change on every call to get a
+ * fresh bucket. Behind a proxy, set {@code server.forward-headers-strategy} so that the remote address is the
+ * client's.
+ * <p>
+ * Hilla calls that return a {@link reactor.core.publisher.Flux} arrive over its push websocket, outside any
+ * servlet request; {@link PushRequestContextInterceptor} binds the push request there, so those calls are
+ * charged to the same principal or address as plain HTTP calls.
+ */
+public final class ClientKeys {
+
+    private ClientKeys() {
+    }
+
+    public static String of(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "user:" + principal.getName() : "address:" + request.getRemoteAddr();
+    }
+
+    /**
+     * The key of the servlet request bound to the current thread.
+     *
+     * @throws IllegalStateException if there is none; such calls are refused rather than charged to one bucket
+     *                               shared by every client
+     */
+    public static String current() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return of(attributes.getRequest());
+        }
+        throw new IllegalStateException("no request bound to this thread to charge the call to");
+    }
+}
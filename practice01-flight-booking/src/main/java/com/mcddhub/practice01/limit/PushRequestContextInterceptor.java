@@ -0,0 +1,43 @@
+package com.mcddhub.practice01.limit;
+
+import org.atmosphere.cpr.Action;
+import org.atmosphere.cpr.AtmosphereInterceptorAdapter;
+import org.atmosphere.cpr.AtmosphereRequest;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Binds the Atmosphere request to the thread while Hilla's push endpoint handles a message, so that
+ * {@link ClientKeys#current()} works inside {@code @BrowserCallable} methods invoked over the push websocket.
+ * Each websocket message is dispatched as a copy of the handshake request, carrying its principal and remote
+ * address. A request already bound, as with the long-polling transport, is left alone.
+ */
+public class PushRequestContextInterceptor extends AtmosphereInterceptorAdapter {
+
+    private static final String BOUND = PushRequestContextInterceptor.class.getName() + ".bound";
+
+    @Override
+    public Action inspect(AtmosphereResource resource) {
+        if (RequestContextHolder.getRequestAttributes() == null) {
+            AtmosphereRequest request = resource.getRequest();
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+            request.setAttribute(BOUND, Boolean.TRUE);
+        }
+        return super.inspect(resource);
+    }
+
+    @Override
+    public void postInspect(AtmosphereResource resource) {
+        AtmosphereRequest request = resource.getRequest();
+        if (request.getAttribute(BOUND) != null) {
+            request.removeAttribute(BOUND);
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Spring request context for Hilla push";
+    }
+}
@@ -0,0 +1,108 @@
+package com.mcddhub.practice01.limit;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-user token bucket holding up to {@code capacity} requests and regaining one every {@code refillPeriod}.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} in the GCRA form: it stores the time at which the bucket would
+ * be full again, a request is admitted if that time, pushed back by one refill period, is at most
+ * {@code capacity} periods ahead of now, and admission is one compare-and-set. Users never contend with each
+ * other, and there is no refill timer. Full buckets carry no state, so a sampled sweep drops them to keep
+ * the map bounded by the number of recently active users.
+ */
+public class TokenBucketLimiter {
+
+    private static final int SWEEP_ONE_IN = 4096;
+
+    private final long refillNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final long origin;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public TokenBucketLimiter(int capacity, Duration refillPeriod) {
+        this(capacity, refillPeriod, System::nanoTime);
+    }
+
+    TokenBucketLimiter(int capacity, Duration refillPeriod, LongSupplier nanoClock) {
+        this.refillNanos = refillPeriod.toNanos();
+        this.burstNanos = capacity * refillNanos;
+        this.nanoClock = nanoClock;
+        this.origin = nanoClock.getAsLong();
+    }
+
+    public boolean tryAcquire(String user) {
+        long now = now();
+        AtomicLong bucket = buckets.computeIfAbsent(user, u -> new AtomicLong(now));
+        while (true) {
+            long full = bucket.get();
+            long next = Math.max(full, now) + refillNanos;
+            if (next - now > burstNanos) {
+                rejected.increment();
+                return false;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                granted.increment();
+                if (ThreadLocalRandom.current().nextInt(SWEEP_ONE_IN) == 0) {
+                    sweep(now);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * How long until {@code user} may send another request; zero if a token is available now.
+     */
+    public Duration retryAfter(String user) {
+        AtomicLong bucket = buckets.get(user);
+        if (bucket == null) {
+            return Duration.ZERO;
+        }
+        long now = now();
+        return Duration.ofNanos(Math.max(0, Math.max(bucket.get(), now) + refillNanos - burstNanos - now));
+    }
+
+    /**
+     * Removes buckets that have refilled completely. A request racing with the removal of its user's bucket
+     * may be charged to the discarded one, handing that user at most one extra token.
+     */
+    void sweep(long now) {
+        if (sweeping.compareAndSet(false, true)) {
+            try {
+                buckets.values().removeIf(bucket -> bucket.get() < now);
+            } finally {
+                sweeping.set(false);
+            }
+        }
+    }
+
+    long now() {
+        return nanoClock.getAsLong() - origin;
+    }
+
+    public int users() {
+        return buckets.size();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("users", buckets.size());
+        stats.put("granted", granted.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,238 @@
+package com.mcddhub.practice01.memory;
+
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link ChatMemory} that keeps at most {@code maxMessages} messages for each of about {@code maxConversations}
+ * conversations.
+ * <p>
+ * Spring AI's {@code InMemoryChatMemory} keeps every message of every conversation until it is cleared, and
+ * nothing here clears it, so the heap grows with every chat. Here the oldest messages of a conversation are
+ * dropped past {@code maxMessages}, together with any answer left without its question.
+ * <p>
+ * Conversations live in a {@link ConcurrentHashMap} and each has its own lock, so concurrent sessions do not
+ * contend with each other. Eviction is a separate sweep, run by whichever caller finds it due and skipped by
+ * the others while it runs: it removes conversations idle for longer than {@code idleTimeout} and, once there
+ * are more than {@code maxConversations}, the least recently used ones, down to a sixteenth below the limit so
+ * that sweeps stay rare. A conversation found idle before the sweep gets to it is evicted on access.
+ */
+public class BoundedChatMemory implements ChatMemory {
+
+    private final int maxConversations;
+    private final int maxMessages;
+    private final long idleMillis;
+    private final long sweepMillis;
+    private final Clock clock;
+
+    private final ConcurrentHashMap<String, Conversation> conversations = new ConcurrentHashMap<>();
+    private final AtomicLong accesses = new AtomicLong();
+    private final Lock sweepLock = new ReentrantLock();
+    private volatile long nextSweep;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public BoundedChatMemory(int maxConversations, int maxMessages, Duration idleTimeout) {
+        this(maxConversations, maxMessages, idleTimeout, Clock.systemUTC());
+    }
+
+    BoundedChatMemory(int maxConversations, int maxMessages, Duration idleTimeout, Clock clock) {
+        this.maxConversations = maxConversations;
+        this.maxMessages = maxMessages;
+        this.idleMillis = idleTimeout.toMillis();
+        this.sweepMillis = Math.max(1, idleMillis / 4);
+        this.clock = clock;
+        this.nextSweep = clock.millis() + sweepMillis;
+    }
+
+    @Override
+    public void add(String conversationId, List<Message> messages) {
+        long now = clock.millis();
+        Conversation conversation;
+        do {
+            conversation = conversations.computeIfAbsent(conversationId, id -> new Conversation());
+        } while (!append(conversation, messages, now));
+        if (conversations.size() > maxConversations || now >= nextSweep) {
+            sweep(now);
+        }
+    }
+
+    @Override
+    public List<Message> get(String conversationId, int lastN) {
+        long now = clock.millis();
+        Conversation conversation = conversations.get(conversationId);
+        if (conversation == null) {
+            return List.of();
+        }
+        conversation.lock.lock();
+        try {
+            if (conversation.removed) {
+                return List.of();
+            }
+            if (now - conversation.lastAccess >= idleMillis) {
+                remove(conversationId, conversation);
+                return List.of();
+            }
+            conversation.touch(now, accesses.incrementAndGet());
+            List<Message> messages = new ArrayList<>(conversation.messages);
+            return messages.subList(Math.max(0, messages.size() - lastN), messages.size());
+        } finally {
+            conversation.lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear(String conversationId) {
+        Conversation conversation = conversations.get(conversationId);
+        if (conversation == null) {
+            return;
+        }
+        conversation.lock.lock();
+        try {
+            if (!conversation.removed) {
+                conversation.removed = true;
+                conversations.remove(conversationId, conversation);
+            }
+        } finally {
+            conversation.lock.unlock();
+        }
+    }
+
+    public int size() {
+        return conversations.size();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("conversations", size());
+        stats.put("dropped", dropped.sum());
+        stats.put("evicted", evicted.sum());
+        return stats;
+    }
+
+    /**
+     * Returns {@code false} if {@code conversation} was evicted after it was looked up; the caller then
+     * retries with a new one.
+     */
+    private boolean append(Conversation conversation, List<Message> messages, long now) {
+        conversation.lock.lock();
+        try {
+            if (conversation.removed) {
+                return false;
+            }
+            conversation.touch(now, accesses.incrementAndGet());
+            conversation.messages.addAll(messages);
+            while (conversation.messages.size() > maxMessages
+                || !conversation.messages.isEmpty()
+                && conversation.messages.peekFirst().getMessageType() == MessageType.ASSISTANT) {
+                conversation.messages.removeFirst();
+                dropped.increment();
+            }
+            return true;
+        } finally {
+            conversation.lock.unlock();
+        }
+    }
+
+    /**
+     * Evicts idle conversations, then the least recently used ones while over {@code maxConversations}.
+     * Callers that find a sweep already running return at once.
+     */
+    private void sweep(long now) {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            nextSweep = now + sweepMillis;
+            List<Candidate> live = new ArrayList<>(conversations.size());
+            for (Map.Entry<String, Conversation> entry : conversations.entrySet()) {
+                if (!evictIfIdle(entry.getKey(), entry.getValue(), now)) {
+                    live.add(new Candidate(entry.getKey(), entry.getValue(), entry.getValue().lastUse));
+                }
+            }
+            int excess = live.size() - (maxConversations - maxConversations / 16);
+            if (live.size() <= maxConversations || excess <= 0) {
+                return;
+            }
+            live.sort(Comparator.comparingLong(Candidate::lastUse));
+            for (int i = 0; i < excess; i++) {
+                evict(live.get(i).id(), live.get(i).conversation());
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private boolean evictIfIdle(String conversationId, Conversation conversation, long now) {
+        if (now - conversation.lastAccess < idleMillis) {
+            return false;
+        }
+        conversation.lock.lock();
+        try {
+            // it may have been used since it was read above
+            if (!conversation.removed && now - conversation.lastAccess >= idleMillis) {
+                remove(conversationId, conversation);
+            }
+            return conversation.removed;
+        } finally {
+            conversation.lock.unlock();
+        }
+    }
+
+    private void evict(String conversationId, Conversation conversation) {
+        conversation.lock.lock();
+        try {
+            if (!conversation.removed) {
+                remove(conversationId, conversation);
+            }
+        } finally {
+            conversation.lock.unlock();
+        }
+    }
+
+    /**
+     * Called with the conversation lock held. An {@link #add} that looked the conversation up just before
+     * sees {@link Conversation#removed} and starts a new one.
+     */
+    private void remove(String conversationId, Conversation conversation) {
+        conversation.removed = true;
+        conversations.remove(conversationId, conversation);
+        evicted.increment();
+    }
+
+    /**
+     * A conversation with its last use as of the sweep, so that the sort sees fixed keys.
+     */
+    private record Candidate(String id, Conversation conversation, long lastUse) {
+    }
+
+    private static final class Conversation {
+
+        private final Lock lock = new ReentrantLock();
+        private final ArrayDeque<Message> messages = new ArrayDeque<>();
+        private boolean removed;
+        private volatile long lastAccess;
+        private volatile long lastUse;
+
+        void touch(long now, long use) {
+            lastAccess = now;
+            lastUse = use;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.mcddhub.practice01.services;
+
+import com.mcddhub.practice01.limit.ClientKeys;
+import com.mcddhub.practice01.limit.RateLimitExceededException;
+import com.vaadin.flow.server.auth.AnonymousAllowed;
+import com.vaadin.hilla.BrowserCallable;
+import reactor.core.publisher.Flux;
+
+@BrowserCallable
+@AnonymousAllowed
+public class AssistantService {
+
+    private final BookingAssistant assistant;
+
+    public AssistantService(BookingAssistant assistant) {
+        this.assistant = assistant;
+    }
+
+    public Flux<String> chat(String chatId, String userMessage) {
+        try {
+            return assistant.chat(ClientKeys.current(), chatId, userMessage);
+        } catch (RateLimitExceededException e) {
+            return Flux.just("您发送消息太频繁了, 请 " + Math.max(1, e.retryAfter().toSeconds()) + " 秒后再试。");
+        }
+    }
+}
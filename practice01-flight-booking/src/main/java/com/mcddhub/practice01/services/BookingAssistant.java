@@ -0,0 +1,70 @@
+package com.mcddhub.practice01.services;
+
+import com.mcddhub.practice01.limit.ClientKeys;
+import com.mcddhub.practice01.limit.RateLimitExceededException;
+import com.mcddhub.practice01.limit.TokenBucketLimiter;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
+import org.springframework.ai.chat.memory.ChatMemory;
+import reactor.core.publisher.Flux;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+import static org.springframework.ai.chat.client.advisor.AbstractChatMemoryAdvisor.CHAT_MEMORY_CONVERSATION_ID_KEY;
+import static org.springframework.ai.chat.client.advisor.AbstractChatMemoryAdvisor.CHAT_MEMORY_RETRIEVE_SIZE_KEY;
+
+/**
+ * The Funnair support agent. Replies are streamed token by token, each conversation keeps its own memory, and
+ * every client is admitted through a {@link TokenBucketLimiter} before anything reaches the model. Nothing here
+ * blocks a thread per session: the limiter is a compare-and-set, and the reply is a {@link Flux} the caller
+ * subscribes to.
+ */
+public class BookingAssistant {
+
+    private static final String SYSTEM = """
+        您是 "Funnair" 航空公司的客户聊天支持代理。请以友好、乐于助人且愉快的方式来回复。
+        您正在通过在线聊天系统与客户互动。
+        在提供有关预定或取消预定的信息之前, 您必须始终从用户处获取以下信息: 预定号、客户姓名。
+        在询问用户之前, 请检查消息历史记录以获取此信息。
+        在更改预定之前, 您必须确保条款允许这样做。
+        使用提供的功能获取预定详细信息、更改预定和取消预定。
+        请讲中文。
+        今天的日期是 {current_date}。
+        """;
+
+    private final ChatClient chatClient;
+    private final TokenBucketLimiter limiter;
+    private final Clock clock;
+    private final int memorySize;
+
+    public BookingAssistant(ChatClient.Builder builder, ChatMemory chatMemory, TokenBucketLimiter limiter,
+                            Clock clock, int memorySize) {
+        this.chatClient = builder
+            .defaultSystem(SYSTEM)
+            .defaultAdvisors(new MessageChatMemoryAdvisor(chatMemory))
+            .defaultFunctions(BookingTools.FUNCTIONS)
+            .build();
+        this.limiter = limiter;
+        this.clock = clock;
+        this.memorySize = memorySize;
+    }
+
+    /**
+     * @param client the limiter key, from {@link ClientKeys}
+     * @throws RateLimitExceededException if {@code client} has no tokens left; the model is not called
+     */
+    public Flux<String> chat(String client, String chatId, String userMessage) {
+        if (!limiter.tryAcquire(client)) {
+            throw new RateLimitExceededException(client, limiter.retryAfter(client));
+        }
+        return chatClient.prompt()
+            .system(s -> s.param("current_date", LocalDate.now(clock).toString()))
+            .user(userMessage)
+            .advisors(a -> a
+                .param(CHAT_MEMORY_CONVERSATION_ID_KEY, chatId)
+                .param(CHAT_MEMORY_RETRIEVE_SIZE_KEY, memorySize))
+            .stream()
+            .content();
+    }
+}
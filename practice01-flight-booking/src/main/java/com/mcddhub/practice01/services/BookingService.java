@@ -0,0 +1,21 @@
+package com.mcddhub.practice01.services;
+
+import com.vaadin.flow.server.auth.AnonymousAllowed;
+import com.vaadin.hilla.BrowserCallable;
+
+import java.util.List;
+
+@BrowserCallable
+@AnonymousAllowed
+public class BookingService {
+
+    private final FlightBookingService flightBookingService;
+
+    public BookingService(FlightBookingService flightBookingService) {
+        this.flightBookingService = flightBookingService;
+    }
+
+    public List<BookingTools.BookingDetails> getBookings() {
+        return flightBookingService.getBookings();
+    }
+}
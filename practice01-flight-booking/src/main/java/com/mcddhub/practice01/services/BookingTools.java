@@ -0,0 +1,102 @@
+package com.mcddhub.practice01.services;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.mcddhub.practice01.booking.Booking;
+import com.mcddhub.practice01.booking.BookingClass;
+import com.mcddhub.practice01.booking.BookingStatus;
+import com.mcddhub.practice01.booking.StaleBookingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Description;
+
+import java.time.LocalDate;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Booking lookup, change and cancel, registered as functions the assistant's {@code ChatClient} can call by
+ * bean name. Rule violations are returned to the model as the {@code error} of a {@link Result} so it can
+ * explain them to the customer instead of failing the whole reply.
+ * <p>
+ * Change and cancel take the {@code version} from the booking details the model fetched; a booking changed
+ * since is reported back as an error asking it to look the booking up again and re-confirm with the customer.
+ */
+@Configuration
+public class BookingTools {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingTools.class);
+
+    public static final String[] FUNCTIONS = {"getBookingDetails", "changeBooking", "cancelBooking"};
+
+    private static final String VERSION = "预定版本号, 取自 getBookingDetails 返回的 version";
+
+    @Bean
+    @Description("获取机票预定详细信息")
+    public Function<BookingDetailsRequest, Result> getBookingDetails(FlightBookingService flightBookingService) {
+        return request -> call(() -> flightBookingService.getBookingDetails(request.bookingNumber(),
+            request.name()));
+    }
+
+    @Bean
+    @Description("修改机票预定日期和航线")
+    public Function<ChangeBookingRequest, Result> changeBooking(FlightBookingService flightBookingService) {
+        return request -> call(() -> flightBookingService.changeBooking(request.bookingNumber(), request.name(),
+            request.version(), LocalDate.parse(request.date()), request.from(), request.to()));
+    }
+
+    @Bean
+    @Description("取消机票预定")
+    public Function<CancelBookingRequest, Result> cancelBooking(FlightBookingService flightBookingService) {
+        return request -> call(() -> flightBookingService.cancelBooking(request.bookingNumber(),
+            request.name(), request.version()));
+    }
+
+    private static Result call(Supplier<BookingDetails> action) {
+        try {
+            return new Result(action.get(), null);
+        } catch (StaleBookingException e) {
+            logger.info("booking tool call lost a race: {}", e.getMessage());
+            return new Result(null, "预定在查询之后已被修改, 请重新获取预定详细信息并与客户确认后再试");
+        } catch (RuntimeException e) {
+            logger.warn("booking tool call failed: {}", e.getMessage());
+            return new Result(null, e.getMessage());
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Result(BookingDetails booking, String error) {
+    }
+
+    public record BookingDetails(String bookingNumber, String name, LocalDate date, String from, String to,
+                                 BookingStatus bookingStatus, BookingClass bookingClass, long version) {
+
+        static BookingDetails of(Booking booking) {
+            return new BookingDetails(booking.bookingNumber(), booking.name(), booking.date(), booking.from(),
+                booking.to(), booking.status(), booking.bookingClass(), booking.version());
+        }
+    }
+
+    public record BookingDetailsRequest(
+        @JsonProperty(required = true) @JsonPropertyDescription("预定号, 比如 101") String bookingNumber,
+        @JsonProperty(required = true) @JsonPropertyDescription("客户姓名") String name) {
+    }
+
+    public record ChangeBookingRequest(
+        @JsonProperty(required = true) @JsonPropertyDescription("预定号, 比如 101") String bookingNumber,
+        @JsonProperty(required = true) @JsonPropertyDescription("客户姓名") String name,
+        @JsonProperty(required = true) @JsonPropertyDescription(VERSION) long version,
+        @JsonProperty(required = true) @JsonPropertyDescription("新的出发日期, 格式为 yyyy-MM-dd") String date,
+        @JsonProperty(required = true) @JsonPropertyDescription("出发城市") String from,
+        @JsonProperty(required = true) @JsonPropertyDescription("到达城市") String to) {
+    }
+
+    public record CancelBookingRequest(
+        @JsonProperty(required = true) @JsonPropertyDescription("预定号, 比如 101") String bookingNumber,
+        @JsonProperty(required = true) @JsonPropertyDescription("客户姓名") String name,
+        @JsonProperty(required = true) @JsonPropertyDescription(VERSION) long version) {
+    }
+}
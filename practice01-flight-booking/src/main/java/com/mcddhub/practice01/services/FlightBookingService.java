@@ -0,0 +1,85 @@
+package com.mcddhub.practice01.services;
+
+import com.mcddhub.practice01.booking.Booking;
+import com.mcddhub.practice01.booking.BookingStatus;
+import com.mcddhub.practice01.booking.BookingStore;
+import com.mcddhub.practice01.booking.StaleBookingException;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Booking rules on top of the {@link BookingStore}: the customer name must match the booking, a booking can
+ * be changed up to a day and cancelled up to two days before departure. Checks run inside the store's
+ * update, so they always see the version that gets replaced.
+ * <p>
+ * Changes and cancellations carry the version the customer was shown. If the booking changed since, in
+ * another session or by another tool call, the write fails with a {@link StaleBookingException} instead of
+ * applying the customer's request to a booking they have not seen.
+ */
+@Service
+public class FlightBookingService {
+
+    private final BookingStore store;
+    private final Clock clock;
+
+    public FlightBookingService(BookingStore store, Clock clock) {
+        this.store = store;
+        this.clock = clock;
+    }
+
+    public List<BookingTools.BookingDetails> getBookings() {
+        return store.all().stream().map(BookingTools.BookingDetails::of).toList();
+    }
+
+    public BookingTools.BookingDetails getBookingDetails(String bookingNumber, String name) {
+        Booking booking = store.get(bookingNumber)
+            .orElseThrow(() -> new NoSuchElementException("未找到预定 " + bookingNumber));
+        checkName(booking, name);
+        return BookingTools.BookingDetails.of(booking);
+    }
+
+    /**
+     * @param version of the booking as returned by {@link #getBookingDetails(String, String)}
+     */
+    public BookingTools.BookingDetails changeBooking(String bookingNumber, String name, long version,
+                                                     LocalDate newDate, String from, String to) {
+        return BookingTools.BookingDetails.of(store.update(bookingNumber, version, booking -> {
+            checkName(booking, name);
+            checkConfirmed(booking);
+            if (booking.date().isBefore(LocalDate.now(clock).plusDays(1))) {
+                throw new IllegalStateException("出发前 24 小时内不能更改预定");
+            }
+            return booking.withTrip(newDate, from, to);
+        }));
+    }
+
+    /**
+     * @param version of the booking as returned by {@link #getBookingDetails(String, String)}
+     */
+    public BookingTools.BookingDetails cancelBooking(String bookingNumber, String name, long version) {
+        return BookingTools.BookingDetails.of(store.update(bookingNumber, version, booking -> {
+            checkName(booking, name);
+            checkConfirmed(booking);
+            if (booking.date().isBefore(LocalDate.now(clock).plusDays(2))) {
+                throw new IllegalStateException("出发前 48 小时内不能取消预定");
+            }
+            return booking.withStatus(BookingStatus.CANCELLED);
+        }));
+    }
+
+    private static void checkName(Booking booking, String name) {
+        if (!booking.name().equalsIgnoreCase(name)) {
+            throw new IllegalArgumentException("预定 " + booking.bookingNumber() + " 与姓名 " + name + " 不符");
+        }
+    }
+
+    private static void checkConfirmed(Booking booking) {
+        if (booking.status() != BookingStatus.CONFIRMED) {
+            throw new IllegalStateException("预定 " + booking.bookingNumber() + " 当前状态为 " + booking.status());
+        }
+    }
+}
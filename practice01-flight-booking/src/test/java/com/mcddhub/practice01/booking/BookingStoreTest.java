@@ -0,0 +1,81 @@
+package com.mcddhub.practice01.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingStoreTest {
+
+    private static final int BOOKINGS = 50;
+
+    private BookingStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new BookingStore();
+        for (int i = 0; i < BOOKINGS; i++) {
+            store.put(new Booking(String.valueOf(i), "name-" + i, LocalDate.of(2024, 10, 1), "北京", "上海",
+                BookingStatus.CONFIRMED, BookingClass.ECONOMY, 0));
+        }
+    }
+
+    @Test
+    void should_reject_stale_versions() {
+        Booking read = store.get("1").orElseThrow();
+        store.update("1", read.version(), booking -> booking.withStatus(BookingStatus.CANCELLED));
+
+        StaleBookingException e = assertThrows(StaleBookingException.class,
+            () -> store.update("1", read.version(), booking -> booking.withBookingClass(BookingClass.BUSINESS)));
+
+        assertEquals(1, e.actualVersion());
+        assertEquals(BookingClass.ECONOMY, store.get("1").orElseThrow().bookingClass());
+        assertThrows(NoSuchElementException.class, () -> store.update("missing", booking -> booking));
+    }
+
+    @Test
+    void should_not_lose_updates_under_concurrent_sessions() throws Exception {
+        int sessions = 2000;
+        int changesPerSession = 20;
+        AtomicLongArray applied = new AtomicLongArray(BOOKINGS);
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int s = 0; s < sessions; s++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < changesPerSession; i++) {
+                        int booking = random.nextInt(BOOKINGS);
+                        LocalDate date = LocalDate.of(2024, 10, 1).plusDays(random.nextInt(30));
+                        store.update(String.valueOf(booking), current -> current.withTrip(date, "杭州", "成都"));
+                        applied.incrementAndGet(booking);
+                        store.get(String.valueOf(random.nextInt(BOOKINGS))).orElseThrow();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long total = 0;
+        for (int i = 0; i < BOOKINGS; i++) {
+            assertEquals(applied.get(i), store.get(String.valueOf(i)).orElseThrow().version());
+            total += applied.get(i);
+        }
+        assertEquals((long) sessions * changesPerSession, total);
+        assertEquals(total, store.stats().get("updates"));
+    }
+}
@@ -0,0 +1,42 @@
+package com.mcddhub.practice01.limit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientKeysTest {
+
+    @Test
+    void should_ignore_request_parameters() {
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        first.setRemoteAddr("10.0.0.1");
+        first.setParameter("chat-id", "1");
+        MockHttpServletRequest second = new MockHttpServletRequest();
+        second.setRemoteAddr("10.0.0.1");
+        second.setParameter("chat-id", "2");
+
+        assertEquals("address:10.0.0.1", ClientKeys.of(first));
+        assertEquals(ClientKeys.of(first), ClientKeys.of(second));
+
+        second.setUserPrincipal(() -> "alice");
+        assertEquals("user:alice", ClientKeys.of(second));
+    }
+
+    @Test
+    void should_refuse_calls_without_a_bound_request() {
+        RequestContextHolder.resetRequestAttributes();
+        assertThrows(IllegalStateException.class, ClientKeys::current);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.2");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            assertEquals("address:10.0.0.2", ClientKeys.current());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+}
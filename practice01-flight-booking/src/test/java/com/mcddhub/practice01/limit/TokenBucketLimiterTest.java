@@ -0,0 +1,79 @@
+package com.mcddhub.practice01.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final TokenBucketLimiter limiter = new TokenBucketLimiter(3, Duration.ofSeconds(1), nanos::get);
+
+    @Test
+    void should_allow_burst_then_refill_one_token_per_period() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("alice"));
+        }
+        assertFalse(limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("bob"));
+        assertEquals(Duration.ofSeconds(1), limiter.retryAfter("alice"));
+
+        nanos.addAndGet(Duration.ofMillis(1500).toNanos());
+
+        assertEquals(Duration.ZERO, limiter.retryAfter("alice"));
+        assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.tryAcquire("alice"));
+    }
+
+    @Test
+    void should_drop_refilled_buckets() {
+        limiter.tryAcquire("alice");
+        limiter.tryAcquire("bob");
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        limiter.tryAcquire("bob");
+        limiter.tryAcquire("bob");
+
+        limiter.sweep(limiter.now());
+
+        assertEquals(1, limiter.users());
+    }
+
+    @Test
+    void should_grant_exactly_capacity_per_user_under_contention() throws Exception {
+        int users = 2000;
+        int attempts = 8;
+        LongAdder granted = new LongAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 64; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < attempts; i++) {
+                        for (int user = 0; user < users; user++) {
+                            if (limiter.tryAcquire("user-" + user)) {
+                                granted.increment();
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(3L * users, granted.sum());
+        assertEquals(3L * users, limiter.stats().get("granted"));
+    }
+}
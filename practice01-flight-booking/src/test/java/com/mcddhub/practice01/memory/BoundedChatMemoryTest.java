@@ -0,0 +1,115 @@
+package com.mcddhub.practice01.memory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedChatMemoryTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void should_keep_the_newest_messages_starting_with_a_question() {
+        BoundedChatMemory memory = new BoundedChatMemory(10, 3, Duration.ofMinutes(30), clock);
+
+        for (int i = 0; i < 3; i++) {
+            memory.add("c1", new UserMessage("question " + i));
+            memory.add("c1", new AssistantMessage("answer " + i));
+        }
+
+        // "answer 1" would lead the last three messages, so it goes too
+        assertEquals(List.of("question 2", "answer 2"), contents(memory.get("c1", 10)));
+        assertEquals(List.of("answer 2"), contents(memory.get("c1", 1)));
+        assertEquals(4L, memory.stats().get("dropped"));
+    }
+
+    @Test
+    void should_evict_idle_and_least_recently_used_conversations() {
+        BoundedChatMemory memory = new BoundedChatMemory(2, 10, Duration.ofMinutes(30), clock);
+
+        memory.add("c1", new UserMessage("hello"));
+        memory.add("c2", new UserMessage("hello"));
+        memory.get("c1", 10);
+        memory.add("c3", new UserMessage("hello"));
+        assertTrue(memory.get("c2", 10).isEmpty());
+        assertEquals(2, memory.size());
+
+        clock.advance(Duration.ofMinutes(31));
+        memory.add("c4", new UserMessage("hello"));
+        assertEquals(1, memory.size());
+        assertEquals(3L, memory.stats().get("evicted"));
+    }
+
+    @Test
+    void should_keep_concurrent_conversations_apart_and_bounded() throws Exception {
+        BoundedChatMemory memory = new BoundedChatMemory(64, 4, Duration.ofMinutes(30), clock);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        String id = "c" + (thread * 1_000 + i % 100);
+                        memory.add(id, List.of(new UserMessage(id + " question " + i),
+                            new AssistantMessage(id + " answer " + i)));
+                        for (String content : contents(memory.get(id, 4))) {
+                            assertTrue(content.startsWith(id + " "), content);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(memory.size() <= 64, "size " + memory.size());
+        assertTrue((long) memory.stats().get("evicted") >= threads * 100 - 64);
+    }
+
+    private static List<String> contents(List<Message> messages) {
+        return messages.stream().map(Message::getContent).toList();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-10-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
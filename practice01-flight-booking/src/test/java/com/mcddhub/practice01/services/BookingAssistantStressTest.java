@@ -0,0 +1,115 @@
+package com.mcddhub.practice01.services;
+
+import com.mcddhub.practice01.limit.RateLimitExceededException;
+import com.mcddhub.practice01.limit.TokenBucketLimiter;
+import com.mcddhub.practice01.memory.BoundedChatMemory;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Thousands of chat sessions streaming through one {@link BookingAssistant} at the same time, against a model
+ * stub that answers on a timer instead of on a thread, so the session count is not capped by a thread pool.
+ */
+class BookingAssistantStressTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingAssistantStressTest.class);
+
+    @Test
+    void should_stream_thousands_of_concurrent_sessions() {
+        int sessions = 5000;
+        int turns = 3;
+        StreamingChatModel model = new StreamingChatModel(List.of("您好", ", ", "云小宝"), Duration.ofMillis(20));
+        TokenBucketLimiter limiter = new TokenBucketLimiter(turns, Duration.ofMinutes(1));
+        BookingAssistant assistant = new BookingAssistant(ChatClient.builder(model),
+            new BoundedChatMemory(10_000, 100, Duration.ofMinutes(30)), limiter, Clock.systemUTC(), 10);
+
+        long start = System.nanoTime();
+        List<String> replies = Flux.range(0, sessions)
+            .flatMap(session -> Flux.range(0, turns)
+                .concatMap(turn -> assistant.chat("user-" + session, "chat-" + session, "第 " + turn + " 条消息")
+                    .collect(Collectors.joining())), sessions)
+            .collectList()
+            .block(Duration.ofSeconds(60));
+        long millis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        logger.info("{} sessions x {} turns in {} ms, peak concurrent streams {}, limiter {}",
+            sessions, turns, millis, model.peak.get(), limiter.stats());
+        assertNotNull(replies);
+        assertEquals(sessions * turns, replies.size());
+        assertTrue(replies.stream().allMatch("您好, 云小宝"::equals));
+        assertTrue(model.peak.get() > sessions / 2, "peak concurrent streams " + model.peak.get());
+        assertTrue(model.longestPrompt.get() >= 2 * turns, "conversation memory was not replayed");
+        assertEquals((long) sessions * turns, limiter.stats().get("granted"));
+    }
+
+    @Test
+    void should_reject_users_over_budget_before_calling_the_model() {
+        StreamingChatModel model = new StreamingChatModel(List.of("好的"), Duration.ZERO);
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, Duration.ofMinutes(1));
+        BookingAssistant assistant = new BookingAssistant(ChatClient.builder(model),
+            new BoundedChatMemory(10_000, 100, Duration.ofMinutes(30)), limiter, Clock.systemUTC(), 10);
+
+        assistant.chat("alice", "chat-1", "你好").blockLast();
+        assistant.chat("alice", "chat-2", "你好").blockLast();
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+            () -> assistant.chat("alice", "chat-3", "你好"));
+        assistant.chat("bob", "chat-4", "你好").blockLast();
+
+        assertTrue(e.retryAfter().compareTo(Duration.ZERO) > 0);
+        assertEquals(3, model.calls.get());
+    }
+
+    private static class StreamingChatModel implements ChatModel {
+
+        private final List<String> tokens;
+        private final Duration delay;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+        private final AtomicInteger longestPrompt = new AtomicInteger();
+
+        StreamingChatModel(List<String> tokens, Duration delay) {
+            this.tokens = tokens;
+            this.delay = delay;
+        }
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            calls.incrementAndGet();
+            longestPrompt.accumulateAndGet(prompt.getInstructions().size(), Math::max);
+            Flux<String> chunks = Flux.fromIterable(tokens);
+            if (!delay.isZero()) {
+                chunks = chunks.delayElements(delay);
+            }
+            return chunks
+                .map(token -> new ChatResponse(List.of(new Generation(token))))
+                .doOnSubscribe(subscription -> peak.accumulateAndGet(active.incrementAndGet(), Math::max))
+                .doFinally(signal -> active.decrementAndGet());
+        }
+
+        public ChatOptions getDefaultOptions() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.mcddhub.practice01.services;
+
+import com.mcddhub.practice01.booking.Booking;
+import com.mcddhub.practice01.booking.BookingClass;
+import com.mcddhub.practice01.booking.BookingStatus;
+import com.mcddhub.practice01.booking.BookingStore;
+import com.mcddhub.practice01.booking.StaleBookingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightBookingServiceTest {
+
+    private static final int BOOKINGS = 20;
+    private static final LocalDate TODAY = LocalDate.of(2024, 10, 1);
+
+    private BookingStore store;
+    private FlightBookingService service;
+
+    @BeforeEach
+    void setUp() {
+        store = new BookingStore();
+        for (int i = 0; i < BOOKINGS; i++) {
+            store.put(new Booking(String.valueOf(i), "name-" + i, TODAY.plusDays(30), "北京", "上海",
+                BookingStatus.CONFIRMED, BookingClass.ECONOMY, 0));
+        }
+        service = new FlightBookingService(store,
+            Clock.fixed(Instant.parse("2024-10-01T00:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    void should_refuse_to_cancel_a_booking_changed_since_it_was_read() {
+        BookingTools tools = new BookingTools();
+        BookingTools.Result read = tools.getBookingDetails(service)
+            .apply(new BookingTools.BookingDetailsRequest("1", "name-1"));
+        service.changeBooking("1", "name-1", read.booking().version(), TODAY.plusDays(40), "杭州", "成都");
+
+        BookingTools.Result cancelled = tools.cancelBooking(service)
+            .apply(new BookingTools.CancelBookingRequest("1", "name-1", read.booking().version()));
+
+        assertNull(cancelled.booking());
+        assertNotNull(cancelled.error());
+        assertEquals(BookingStatus.CONFIRMED, store.get("1").orElseThrow().status());
+        assertEquals(1L, store.stats().get("conflicts"));
+    }
+
+    @Test
+    void should_apply_each_change_to_the_version_it_read_under_concurrent_sessions() throws Exception {
+        int sessions = 1000;
+        int changesPerSession = 20;
+        AtomicLongArray applied = new AtomicLongArray(BOOKINGS);
+        LongAdder stale = new LongAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int s = 0; s < sessions; s++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < changesPerSession; i++) {
+                        int booking = random.nextInt(BOOKINGS);
+                        String number = String.valueOf(booking);
+                        BookingTools.BookingDetails read = service.getBookingDetails(number, "name-" + booking);
+                        LocalDate date = TODAY.plusDays(2 + random.nextInt(30));
+                        try {
+                            BookingTools.BookingDetails changed = service.changeBooking(number, "name-" + booking,
+                                read.version(), date, "杭州", "成都");
+                            assertEquals(read.version() + 1, changed.version());
+                            assertEquals(date, changed.date());
+                            applied.incrementAndGet(booking);
+                        } catch (StaleBookingException e) {
+                            assertTrue(e.actualVersion() > read.version());
+                            stale.increment();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long total = 0;
+        for (int i = 0; i < BOOKINGS; i++) {
+            assertEquals(applied.get(i), store.get(String.valueOf(i)).orElseThrow().version());
+            total += applied.get(i);
+        }
+        assertEquals((long) sessions * changesPerSession, total + stale.sum());
+        assertEquals(total, store.stats().get("updates"));
+        assertEquals(stale.sum(), store.stats().get("conflicts"));
+    }
+}
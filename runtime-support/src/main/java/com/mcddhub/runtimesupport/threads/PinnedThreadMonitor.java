@@ -0,0 +1,130 @@
+package com.mcddhub.runtimesupport.threads;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier, which on JDK 21 happens when they park
+ * inside a {@code synchronized} block or a native frame. Every such park takes a carrier out of the shared
+ * pool for its whole duration, so a few hot pinning sites can bring back the thread starvation virtual
+ * threads are meant to remove.
+ * <p>
+ * Listens to the JFR {@code jdk.VirtualThreadPinned} event in-process. Each pinning site, the first
+ * application frame of the pinned stack, is logged with its stack trace the first time it is seen and
+ * counted afterwards.
+ */
+public class PinnedThreadMonitor implements SmartLifecycle {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final Logger logger = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+    private static final int MAX_SITES = 100;
+    private static final int LOGGED_FRAMES = 20;
+
+    private final Duration threshold;
+    private final ConcurrentHashMap<String, Site> sites = new ConcurrentHashMap<>();
+    private final LongAdder events = new LongAdder();
+    private volatile RecordingStream stream;
+
+    public PinnedThreadMonitor(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        this.stream = stream;
+        logger.info("reporting virtual threads pinned for longer than {} ms", threshold.toMillis());
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream stream = this.stream;
+        this.stream = null;
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    void onPinned(RecordedEvent event) {
+        events.increment();
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String location = site(frames);
+        Site site = sites.get(location);
+        if (site == null) {
+            if (sites.size() >= MAX_SITES) {
+                location = "(other)";
+            }
+            site = sites.computeIfAbsent(location, key -> new Site());
+        }
+        site.count.increment();
+        site.nanos.add(event.getDuration().toNanos());
+        if (site.count.sum() == 1) {
+            logger.warn("virtual thread pinned for {} ms at {}\n{}", event.getDuration().toMillis(), location,
+                describe(event.getStackTrace()));
+        }
+    }
+
+    private static String site(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return frames.isEmpty() ? "(unknown)" : frames.get(0).getMethod().getType().getName()
+            + "." + frames.get(0).getMethod().getName();
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "    (no stack trace)";
+        }
+        return stackTrace.getFrames().stream()
+            .limit(LOGGED_FRAMES)
+            .map(frame -> "    at " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber())
+            .collect(Collectors.joining("\n"));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", isRunning());
+        stats.put("thresholdMillis", threshold.toMillis());
+        stats.put("events", events.sum());
+        Map<String, Object> bySite = new TreeMap<>();
+        sites.forEach((location, site) -> bySite.put(location, Map.of(
+            "count", site.count.sum(),
+            "totalMillis", site.nanos.sum() / 1_000_000)));
+        stats.put("sites", bySite);
+        return stats;
+    }
+
+    private static final class Site {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+}
@@ -0,0 +1,21 @@
+package com.mcddhub.runtimesupport.threads;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class UpstreamBusyException extends RuntimeException {
+
+    private final String model;
+
+    public UpstreamBusyException(String model, int limit, Duration waited) {
+        super("all " + limit + " upstream slots for " + model + " stayed busy for " + waited.toMillis() + " ms");
+        this.model = model;
+    }
+
+    public String model() {
+        return model;
+    }
+}
@@ -0,0 +1,126 @@
+package com.mcddhub.runtimesupport.threads;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the number of concurrent blocking upstream calls per model.
+ * <p>
+ * With request handling on virtual threads the Tomcat pool no longer limits how many calls reach the model
+ * provider at once, so this takes over: each model, read from the top-level {@code "model"} field of the JSON
+ * request body, gets its own {@link Semaphore}, and a call that cannot get a slot within
+ * {@code acquireTimeout} fails with {@link UpstreamBusyException} instead of queueing forever. Waiting on a
+ * semaphore parks a virtual thread without holding its carrier. Requests without a model are grouped by path.
+ * Streaming calls made through {@code WebClient} do not block a thread and are not limited here.
+ */
+public class UpstreamConcurrencyLimiter implements ClientHttpRequestInterceptor {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final Map<String, Integer> limits;
+    private final int defaultLimit;
+    private final long acquireTimeoutNanos;
+    private final ConcurrentHashMap<String, Slots> slots = new ConcurrentHashMap<>();
+
+    public UpstreamConcurrencyLimiter(Map<String, Integer> limits, int defaultLimit, Duration acquireTimeout) {
+        this.limits = Map.copyOf(limits);
+        this.defaultLimit = defaultLimit;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+        throws IOException {
+        String model = model(body);
+        String key = model != null ? model : request.getURI().getPath();
+        Slots slots = this.slots.computeIfAbsent(key, k -> new Slots(limits.getOrDefault(k, defaultLimit)));
+        long start = System.nanoTime();
+        try {
+            if (!slots.semaphore.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                slots.rejected.increment();
+                throw new UpstreamBusyException(key, slots.limit, Duration.ofNanos(acquireTimeoutNanos));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for an upstream slot for " + key);
+        }
+        slots.waitNanos.add(System.nanoTime() - start);
+        slots.calls.increment();
+        try {
+            return execution.execute(request, body);
+        } finally {
+            slots.semaphore.release();
+        }
+    }
+
+    /**
+     * The top-level {@code "model"} field of a JSON object, or {@code null}.
+     */
+    static String model(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("model".equals(field) && value == JsonToken.VALUE_STRING) {
+                    return parser.getText();
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new TreeMap<>();
+        slots.forEach((model, slots) -> {
+            long calls = slots.calls.sum();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("limit", slots.limit);
+            entry.put("inFlight", slots.limit - slots.semaphore.availablePermits());
+            entry.put("waiting", slots.semaphore.getQueueLength());
+            entry.put("calls", calls);
+            entry.put("rejected", slots.rejected.sum());
+            entry.put("avgWaitMillis", calls == 0 ? 0.0 : Math.round(slots.waitNanos.sum() / 1e3 / calls) / 1e3);
+            stats.put(model, entry);
+        });
+        return stats;
+    }
+
+    private static final class Slots {
+
+        private final int limit;
+        private final Semaphore semaphore;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+
+        Slots(int limit) {
+            this.limit = limit;
+            this.semaphore = new Semaphore(limit, true);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.mcddhub.runtimesupport.threads;
+
+import com.mcddhub.runtimesupport.transport.DashScopeTransport;
+import com.mcddhub.runtimesupport.transport.DashScopeTransportAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+
+/**
+ * Virtual-thread execution mode, active when {@code spring.threads.virtual.enabled=true} on Java 21 or later.
+ * <p>
+ * Spring Boot then already serves requests on virtual threads. This adds the client side: every
+ * {@code RestClient} built from the auto-configured builder, which includes the blocking DashScope calls,
+ * is capped per model by {@link UpstreamConcurrencyLimiter} and, unless the pooled {@link DashScopeTransport}
+ * is in use, sends through the JDK {@link HttpClient} running on virtual threads. Pinned virtual threads are
+ * reported by {@link PinnedThreadMonitor}. Both publish their numbers at {@code /runtime/virtual-threads}.
+ */
+@AutoConfiguration(after = DashScopeTransportAutoConfiguration.class)
+@ConditionalOnThreading(Threading.VIRTUAL)
+@EnableConfigurationProperties(VirtualThreadsProperties.class)
+public class VirtualThreadsAutoConfiguration {
+
+    @Bean
+    public UpstreamConcurrencyLimiter upstreamConcurrencyLimiter(VirtualThreadsProperties properties) {
+        return new UpstreamConcurrencyLimiter(properties.upstreamLimits(), properties.defaultUpstreamLimit(),
+            properties.acquireTimeout());
+    }
+
+    @Bean
+    @Order(0)
+    public RestClientCustomizer upstreamConcurrencyLimiterRestClientCustomizer(UpstreamConcurrencyLimiter limiter) {
+        return builder -> builder.requestInterceptor(limiter);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(DashScopeTransport.class)
+    public RestClientCustomizer virtualThreadRestClientCustomizer(VirtualThreadsProperties properties) {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(properties.connectTimeout())
+            .executor(new VirtualThreadTaskExecutor("upstream-http-"))
+            .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        return builder -> builder.requestFactory(requestFactory);
+    }
+
+    @Bean
+    public PinnedThreadMonitor pinnedThreadMonitor(VirtualThreadsProperties properties) {
+        return new PinnedThreadMonitor(properties.pinningThreshold());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public VirtualThreadsController virtualThreadsController(UpstreamConcurrencyLimiter limiter,
+                                                             PinnedThreadMonitor monitor) {
+        return new VirtualThreadsController(limiter, monitor);
+    }
+}
@@ -0,0 +1,28 @@
+package com.mcddhub.runtimesupport.threads;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+public class VirtualThreadsController {
+
+    private final UpstreamConcurrencyLimiter upstreamConcurrencyLimiter;
+    private final PinnedThreadMonitor pinnedThreadMonitor;
+
+    public VirtualThreadsController(UpstreamConcurrencyLimiter upstreamConcurrencyLimiter,
+                                    PinnedThreadMonitor pinnedThreadMonitor) {
+        this.upstreamConcurrencyLimiter = upstreamConcurrencyLimiter;
+        this.pinnedThreadMonitor = pinnedThreadMonitor;
+    }
+
+    @GetMapping("/runtime/virtual-threads")
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("upstream", upstreamConcurrencyLimiter.stats());
+        stats.put("pinning", pinnedThreadMonitor.stats());
+        return stats;
+    }
+}
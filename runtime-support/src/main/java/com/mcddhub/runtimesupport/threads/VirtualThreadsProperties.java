@@ -0,0 +1,25 @@
+package com.mcddhub.runtimesupport.threads;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Settings of the virtual-thread mode, which itself is switched on with {@code spring.threads.virtual.enabled}.
+ *
+ * @param upstreamLimits       maximum concurrent upstream calls per model, e.g. {@code qwen-plus: 32}
+ * @param defaultUpstreamLimit limit for models not listed in {@code upstreamLimits}
+ * @param acquireTimeout       how long a call waits for a free slot before failing with 503
+ * @param connectTimeout       connect timeout of the upstream HTTP client
+ * @param pinningThreshold     shortest pinned virtual thread park that is reported
+ */
+@ConfigurationProperties("runtime.virtual-threads")
+public record VirtualThreadsProperties(
+    @DefaultValue Map<String, Integer> upstreamLimits,
+    @DefaultValue("64") int defaultUpstreamLimit,
+    @DefaultValue("30s") Duration acquireTimeout,
+    @DefaultValue("10s") Duration connectTimeout,
+    @DefaultValue("20ms") Duration pinningThreshold) {
+}
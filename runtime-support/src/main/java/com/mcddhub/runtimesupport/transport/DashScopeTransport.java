@@ -0,0 +1,168 @@
+package com.mcddhub.runtimesupport.transport;
+
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ReactorNettyClientRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * One pooled Reactor Netty client shared by every DashScope call of an application, blocking ones through
+ * {@link #requestFactory()} and streaming ones through {@link #connector()}.
+ * <p>
+ * Connections are kept alive for {@code maxIdleTime} and reused across calls, so the TCP and TLS setup is
+ * paid once per connection instead of once per burst; with {@code http2} the client offers HTTP/2 during the
+ * TLS handshake and multiplexes concurrent calls over a single connection when the server accepts it.
+ * {@link #warmUp(String, int, Duration)} opens connections ahead of the first request.
+ */
+public class DashScopeTransport implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashScopeTransport.class);
+
+    private final boolean http2;
+    private final int maxConnections;
+    private final ConnectionProvider connectionProvider;
+    private final HttpClient httpClient;
+    private final ReactorNettyClientRequestFactory requestFactory;
+    private final ReactorClientHttpConnector connector;
+
+    private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder open = new LongAdder();
+
+    public DashScopeTransport(DashScopeTransportProperties properties) {
+        this.http2 = properties.http2();
+        this.maxConnections = properties.maxConnections();
+        this.connectionProvider = ConnectionProvider.builder("dashscope")
+            .maxConnections(properties.maxConnections())
+            .maxIdleTime(properties.maxIdleTime())
+            .maxLifeTime(properties.maxLifeTime())
+            .pendingAcquireTimeout(properties.pendingAcquireTimeout())
+            // bounded by the timeout instead, a burst of streams must not be refused outright
+            .pendingAcquireMaxCount(-1)
+            .evictInBackground(properties.maxIdleTime())
+            .metrics(true, () -> new ConnectionProvider.MeterRegistrar() {
+                @Override
+                public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+                                            ConnectionPoolMetrics metrics) {
+                    pools.put(remoteAddress.toString(), metrics);
+                }
+
+                @Override
+                public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+                    pools.remove(remoteAddress.toString());
+                }
+            })
+            .build();
+        HttpClient client = HttpClient.create(connectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.connectTimeout().toMillis())
+            .keepAlive(true)
+            .responseTimeout(properties.readTimeout())
+            .doOnChannelInit((observer, channel, remoteAddress) -> {
+                opened.increment();
+                open.increment();
+                channel.closeFuture().addListener(future -> open.decrement());
+            });
+        if (http2) {
+            // only used for https URLs; plain http stays on HTTP/1.1
+            client = client
+                .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                .secure(spec -> spec.sslContext(Http2SslContextSpec.forClient()));
+        }
+        this.httpClient = client;
+        this.requestFactory = new ReactorNettyClientRequestFactory(httpClient);
+        // the factory defaults to a 5 s wait for the response headers, too short for a blocking completion
+        requestFactory.setExchangeTimeout(properties.readTimeout());
+        requestFactory.setReadTimeout(properties.readTimeout());
+        this.connector = new ReactorClientHttpConnector(httpClient);
+    }
+
+    public ClientHttpRequestFactory requestFactory() {
+        return requestFactory;
+    }
+
+    public ClientHttpConnector connector() {
+        return connector;
+    }
+
+    /**
+     * Opens up to {@code connections} connections to {@code baseUrl} by sending that many concurrent
+     * {@code HEAD} requests, whose responses do not matter. Failures are logged, not thrown, so an
+     * unreachable endpoint does not stop the application from starting.
+     */
+    public void warmUp(String baseUrl, int connections, Duration timeout) {
+        if (connections <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        long before = opened.sum();
+        try {
+            httpClient.warmup().block(timeout);
+            Flux.range(0, connections)
+                .flatMap(i -> httpClient.head().uri(baseUrl)
+                    .responseSingle((response, body) -> body.then())
+                    .onErrorResume(e -> Mono.empty()), connections)
+                .then()
+                .block(timeout);
+            logger.info("opened {} connections to {} in {} ms", opened.sum() - before, baseUrl,
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (RuntimeException e) {
+            logger.warn("warm-up of {} failed after {} ms: {}", baseUrl,
+                Duration.ofNanos(System.nanoTime() - start).toMillis(), e.toString());
+        }
+    }
+
+    public long connectionsOpened() {
+        return opened.sum();
+    }
+
+    public long connectionsOpen() {
+        return open.sum();
+    }
+
+    public int pooled(ToIntFunction<ConnectionPoolMetrics> metric) {
+        return pools.values().stream().mapToInt(metric).sum();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("http2", http2);
+        stats.put("maxConnections", maxConnections);
+        stats.put("connectionsOpened", connectionsOpened());
+        stats.put("connectionsOpen", connectionsOpen());
+        Map<String, Object> byRemote = new TreeMap<>();
+        pools.forEach((remote, metrics) -> {
+            Map<String, Object> pool = new LinkedHashMap<>();
+            pool.put("allocated", metrics.allocatedSize());
+            pool.put("acquired", metrics.acquiredSize());
+            pool.put("idle", metrics.idleSize());
+            pool.put("pendingAcquire", metrics.pendingAcquireSize());
+            byRemote.put(remote, pool);
+        });
+        stats.put("pools", byRemote);
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,95 @@
+package com.mcddhub.runtimesupport.transport;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import reactor.netty.resources.ConnectionPoolMetrics;
+
+/**
+ * Routes the {@code RestClient} and {@code WebClient} builders of the application, which the DashScope chat,
+ * embedding and image clients are built from, through one pooled {@link DashScopeTransport}, warms it up
+ * before the application takes traffic and retries embedding calls. Switched off with
+ * {@code runtime.dashscope-transport.enabled=false}.
+ */
+@AutoConfiguration
+@ConditionalOnProperty(prefix = "runtime.dashscope-transport", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(DashScopeTransportProperties.class)
+public class DashScopeTransportAutoConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public DashScopeTransport dashScopeTransport(DashScopeTransportProperties properties) {
+        return new DashScopeTransport(properties);
+    }
+
+    @Bean
+    public EmbeddingRetryInterceptor embeddingRetryInterceptor(DashScopeTransportProperties properties) {
+        return new EmbeddingRetryInterceptor(properties.retryMaxAttempts(), properties.retryInitialBackoff(),
+            properties.retryMaxBackoff());
+    }
+
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public RestClientCustomizer dashScopeTransportRestClientCustomizer(DashScopeTransport transport,
+                                                                       EmbeddingRetryInterceptor retryInterceptor) {
+        return builder -> builder
+            .requestFactory(transport.requestFactory())
+            .requestInterceptor(retryInterceptor);
+    }
+
+    @Bean
+    public WebClientCustomizer dashScopeTransportWebClientCustomizer(DashScopeTransport transport) {
+        return builder -> builder.clientConnector(transport.connector());
+    }
+
+    @Bean
+    public SmartInitializingSingleton dashScopeTransportWarmUp(
+        DashScopeTransport transport, DashScopeTransportProperties properties,
+        @Value("${spring.ai.dashscope.base-url:https://dashscope.aliyuncs.com}") String baseUrl) {
+        return () -> transport.warmUp(baseUrl, properties.warmupConnections(), properties.warmupTimeout());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public DashScopeTransportController dashScopeTransportController(DashScopeTransport transport,
+                                                                     EmbeddingRetryInterceptor retryInterceptor) {
+        return new DashScopeTransportController(transport, retryInterceptor);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterBinder.class)
+    static class DashScopeTransportMetricsConfiguration {
+
+        @Bean
+        public MeterBinder dashScopeTransportMetrics(DashScopeTransport transport) {
+            return registry -> {
+                FunctionCounter.builder("dashscope.transport.connections.opened", transport,
+                        DashScopeTransport::connectionsOpened)
+                    .register(registry);
+                Gauge.builder("dashscope.transport.connections.open", transport, DashScopeTransport::connectionsOpen)
+                    .register(registry);
+                Gauge.builder("dashscope.transport.pool.acquired", transport,
+                        t -> t.pooled(ConnectionPoolMetrics::acquiredSize))
+                    .register(registry);
+                Gauge.builder("dashscope.transport.pool.idle", transport,
+                        t -> t.pooled(ConnectionPoolMetrics::idleSize))
+                    .register(registry);
+                Gauge.builder("dashscope.transport.pool.pending", transport,
+                        t -> t.pooled(ConnectionPoolMetrics::pendingAcquireSize))
+                    .register(registry);
+            };
+        }
+    }
+}
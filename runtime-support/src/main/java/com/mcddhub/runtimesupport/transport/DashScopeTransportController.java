@@ -0,0 +1,27 @@
+package com.mcddhub.runtimesupport.transport;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+public class DashScopeTransportController {
+
+    private final DashScopeTransport dashScopeTransport;
+    private final EmbeddingRetryInterceptor embeddingRetryInterceptor;
+
+    public DashScopeTransportController(DashScopeTransport dashScopeTransport,
+                                        EmbeddingRetryInterceptor embeddingRetryInterceptor) {
+        this.dashScopeTransport = dashScopeTransport;
+        this.embeddingRetryInterceptor = embeddingRetryInterceptor;
+    }
+
+    @GetMapping("/runtime/dashscope-transport")
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(dashScopeTransport.stats());
+        stats.put("embeddingRetries", embeddingRetryInterceptor.stats());
+        return stats;
+    }
+}
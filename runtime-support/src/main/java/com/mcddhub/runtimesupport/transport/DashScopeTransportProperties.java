@@ -0,0 +1,37 @@
+package com.mcddhub.runtimesupport.transport;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the shared DashScope HTTP transport.
+ *
+ * @param http2                 negotiate HTTP/2 over TLS and multiplex requests on it, falling back to HTTP/1.1
+ * @param maxConnections        connections kept per remote address
+ * @param maxIdleTime           how long an idle connection is kept alive for reuse
+ * @param maxLifeTime           age after which a connection is retired, so DNS changes are eventually picked up
+ * @param pendingAcquireTimeout how long a request waits for a pooled connection
+ * @param readTimeout           for a blocking call the time to the response headers, for any call the longest
+ *                              gap between two reads, which covers slow streamed completions
+ * @param warmupConnections     connections opened at startup, 0 to skip the warm-up
+ * @param retryMaxAttempts      attempts of an embedding call, including the first one
+ * @param retryInitialBackoff   upper bound of the first jittered backoff, doubled on every retry
+ */
+@ConfigurationProperties("runtime.dashscope-transport")
+public record DashScopeTransportProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("true") boolean http2,
+    @DefaultValue("50") int maxConnections,
+    @DefaultValue("30s") Duration maxIdleTime,
+    @DefaultValue("5m") Duration maxLifeTime,
+    @DefaultValue("30s") Duration pendingAcquireTimeout,
+    @DefaultValue("5s") Duration connectTimeout,
+    @DefaultValue("60s") Duration readTimeout,
+    @DefaultValue("4") int warmupConnections,
+    @DefaultValue("2s") Duration warmupTimeout,
+    @DefaultValue("4") int retryMaxAttempts,
+    @DefaultValue("200ms") Duration retryInitialBackoff,
+    @DefaultValue("5s") Duration retryMaxBackoff) {
+}
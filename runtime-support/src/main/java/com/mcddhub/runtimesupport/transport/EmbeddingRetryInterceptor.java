@@ -0,0 +1,95 @@
+package com.mcddhub.runtimesupport.transport;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retries failed embedding calls with exponential backoff and full jitter.
+ * <p>
+ * An embedding is a pure function of its input, so sending it twice costs tokens but changes nothing.
+ * Completions and image tasks are neither free nor side-effect free to repeat and pass straight through.
+ * Connection errors and {@code 429} or {@code 5xx} gateway responses are retried; the wait before retry
+ * {@code n} is uniformly random in {@code [0, min(maxBackoff, initialBackoff * 2^(n-1))]}, which spreads
+ * the retries of a failed burst instead of sending them back in lockstep. Register it last, so that it
+ * retries only the actual exchange.
+ */
+public class EmbeddingRetryInterceptor implements ClientHttpRequestInterceptor {
+
+    static final String EMBEDDING_PATH = "/api/v1/services/embeddings/";
+
+    private static final Set<Integer> RETRYABLE_STATUS = Set.of(429, 500, 502, 503, 504);
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public EmbeddingRetryInterceptor(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+        throws IOException {
+        if (request.getMethod() != HttpMethod.POST || !request.getURI().getPath().startsWith(EMBEDDING_PATH)) {
+            return execution.execute(request, body);
+        }
+        calls.increment();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                if (!RETRYABLE_STATUS.contains(response.getStatusCode().value())) {
+                    return response;
+                }
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    return response;
+                }
+                response.close();
+            } catch (IOException e) {
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+            }
+            retries.increment();
+            backOff(attempt);
+        }
+    }
+
+    private void backOff(int attempt) throws InterruptedIOException {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while backing off an embedding retry");
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("calls", calls.sum());
+        stats.put("retries", retries.sum());
+        stats.put("exhausted", exhausted.sum());
+        return stats;
+    }
+}
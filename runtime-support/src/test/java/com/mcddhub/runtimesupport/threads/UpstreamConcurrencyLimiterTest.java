@@ -0,0 +1,141 @@
+package com.mcddhub.runtimesupport.threads;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamConcurrencyLimiterTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void should_read_the_top_level_model_field() {
+        assertEquals("qwen-plus", model("{\"input\":{\"model\":\"nested\"},\"model\":\"qwen-plus\"}"));
+        assertEquals("text-embedding-v2", model("{\"model\":\"text-embedding-v2\",\"input\":{\"texts\":[\"a\"]}}"));
+        assertNull(model("{\"input\":[{\"model\":\"nested\"}]}"));
+        assertNull(model("[\"model\"]"));
+        assertNull(model("not json"));
+        assertNull(model(""));
+    }
+
+    @Test
+    void should_cap_concurrent_calls_per_model() throws Exception {
+        UpstreamConcurrencyLimiter limiter = new UpstreamConcurrencyLimiter(Map.of("qwen-max", 2), 4,
+            Duration.ofSeconds(5));
+        Map<String, AtomicInteger> peaks = Map.of("qwen-max", new AtomicInteger(), "qwen-plus", new AtomicInteger());
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            String model = i % 2 == 0 ? "qwen-max" : "qwen-plus";
+            calls.add(executor.submit(() -> limiter.intercept(request(), body(model), (request, body) -> {
+                peaks.get(model).accumulateAndGet(inFlight(limiter, model), Math::max);
+                sleep(10);
+                return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+            })));
+        }
+        for (Future<?> call : calls) {
+            call.get(10, TimeUnit.SECONDS);
+        }
+
+        assertTrue(peaks.get("qwen-max").get() <= 2);
+        assertTrue(peaks.get("qwen-plus").get() <= 4);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> qwenMax = (Map<String, Object>) limiter.stats().get("qwen-max");
+        assertEquals(16L, qwenMax.get("calls"));
+        assertEquals(0, qwenMax.get("inFlight"));
+    }
+
+    @Test
+    void should_fail_fast_when_no_slot_frees_up() throws Exception {
+        UpstreamConcurrencyLimiter limiter = new UpstreamConcurrencyLimiter(Map.of(), 1, Duration.ofMillis(50));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = executor.submit(
+            () -> limiter.intercept(request(), body("qwen-plus"), blocking(entered, release)));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        UpstreamBusyException e = assertThrows(UpstreamBusyException.class,
+            () -> limiter.intercept(request(), body("qwen-plus"), blocking(new CountDownLatch(1), release)));
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+
+        assertEquals("qwen-plus", e.model());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) limiter.stats().get("qwen-plus");
+        assertEquals(1L, stats.get("rejected"));
+        assertEquals(1L, stats.get("calls"));
+    }
+
+    @Test
+    void should_group_requests_without_a_model_by_path() throws Exception {
+        UpstreamConcurrencyLimiter limiter = new UpstreamConcurrencyLimiter(Map.of(), 1, Duration.ofSeconds(1));
+
+        limiter.intercept(request(), new byte[0],
+            (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+
+        assertEquals(List.of("/api/v1/services/aigc/text-generation/generation"),
+            new ArrayList<>(limiter.stats().keySet()));
+    }
+
+    private static int inFlight(UpstreamConcurrencyLimiter limiter, String model) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) limiter.stats().get(model);
+        return (int) stats.get("inFlight");
+    }
+
+    private static ClientHttpRequestExecution blocking(CountDownLatch entered, CountDownLatch release) {
+        return (request, body) -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static MockClientHttpRequest request() {
+        return new MockClientHttpRequest(HttpMethod.POST,
+            URI.create("http://localhost/api/v1/services/aigc/text-generation/generation"));
+    }
+
+    private static byte[] body(String model) {
+        return ("{\"model\":\"" + model + "\",\"input\":{\"messages\":[]}}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String model(String body) {
+        return UpstreamConcurrencyLimiter.model(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
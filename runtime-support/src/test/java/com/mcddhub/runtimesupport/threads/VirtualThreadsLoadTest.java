@@ -0,0 +1,119 @@
+package com.mcddhub.runtimesupport.threads;
+
+import com.mcddhub.testsupport.dashscope.DashScopeStubServer;
+import com.mcddhub.testsupport.dashscope.StubSettings;
+import com.mcddhub.testsupport.load.LoadHarness;
+import com.mcddhub.testsupport.load.LoadReport;
+import com.mcddhub.testsupport.load.LoadScenario;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Holds about {@code load.concurrency} slow requests open at once against an endpoint that makes one blocking
+ * DashScope-style call per request, first on the default 200 platform Tomcat threads and then in the
+ * virtual-thread mode. Run with {@code mvn test -Dload=true -Dtest=VirtualThreadsLoadTest} on Java 21;
+ * {@code load.latency} sets the upstream latency in milliseconds.
+ */
+@EnabledIfSystemProperty(named = "load", matches = "true")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadsLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsLoadTest.class);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 2000);
+    private static final Duration LATENCY = Duration.ofMillis(Integer.getInteger("load.latency", 2000));
+    private static final DashScopeStubServer stub = DashScopeStubServer.start(StubSettings.instant()
+        .withLatency(LATENCY, Duration.ZERO).withTokens(16, Double.POSITIVE_INFINITY));
+
+    @AfterAll
+    static void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void should_hold_thousands_of_slow_requests_without_queueing() throws InterruptedException {
+        // requests arrive for one upstream latency at CONCURRENCY per latency, so that many are open at the peak
+        int rps = (int) (CONCURRENCY * 1000L / LATENCY.toMillis());
+        LoadScenario scenario = LoadScenario.get("slow", "/slow", rps, LATENCY).withWarmup(Duration.ZERO);
+
+        LoadReport platform = run("platform threads", false, scenario);
+        LoadReport virtual = run("virtual threads", true, scenario);
+
+        String table = LoadReport.table(List.of(platform, virtual));
+        logger.info("\n{}stub requests: {}", table, stub.requestCounts());
+        assertEquals(0, virtual.errors(), table);
+        assertTrue(virtual.p99Millis() < LATENCY.toMillis() * 2, table);
+        assertTrue(virtual.p99Millis() < platform.p99Millis(), table);
+    }
+
+    private static LoadReport run(String name, boolean virtualThreads, LoadScenario scenario)
+        throws InterruptedException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SlowApplication.class)
+            .properties(Map.of(
+                "server.port", 0,
+                "spring.threads.virtual.enabled", virtualThreads,
+                "runtime.virtual-threads.default-upstream-limit", CONCURRENCY * 2,
+                "runtime.dashscope-transport.max-connections", CONCURRENCY * 2,
+                "runtime.dashscope-transport.warmup-connections", 0,
+                "stub.base-url", stub.baseUrl()))
+            .run();
+             LoadHarness harness = new LoadHarness("http://localhost:"
+                 + ((WebServerApplicationContext) context).getWebServer().getPort())) {
+            LoadReport report = harness.run(new LoadScenario(name, scenario.path(), null, scenario.rps(),
+                scenario.warmup(), scenario.duration()));
+            if (virtualThreads) {
+                logger.info("virtual thread stats: upstream {}, pinning {}",
+                    context.getBean(UpstreamConcurrencyLimiter.class).stats(),
+                    context.getBean(PinnedThreadMonitor.class).stats());
+            }
+            return report;
+        }
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @Import(SlowController.class)
+    static class SlowApplication {
+    }
+
+    @RestController
+    static class SlowController {
+
+        private final RestClient restClient;
+
+        SlowController(RestClient.Builder builder, @Value("${stub.base-url}") String baseUrl) {
+            this.restClient = builder.baseUrl(baseUrl).build();
+        }
+
+        @GetMapping("/slow")
+        String slow() {
+            return restClient.post()
+                .uri(DashScopeStubServer.CHAT_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"model\":\"qwen-plus\",\"input\":{\"prompt\":\"给我讲个笑话吧\"}}")
+                .retrieve()
+                .body(String.class);
+        }
+    }
+}
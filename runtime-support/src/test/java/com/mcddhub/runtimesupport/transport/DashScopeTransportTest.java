@@ -0,0 +1,122 @@
+package com.mcddhub.runtimesupport.transport;
+
+import com.mcddhub.testsupport.dashscope.DashScopeStubServer;
+import com.mcddhub.testsupport.dashscope.StubSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The same burst of embedding calls through a {@code RestClient} with default settings, as the DashScope
+ * clients used to be built, and through the pooled transport, against a stub that charges every new
+ * connection a handshake delay. Each client first runs one unmeasured burst, so both are compared warm. Only
+ * the new connections are asserted; latencies depend on the machine and are logged.
+ */
+class DashScopeTransportTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashScopeTransportTest.class);
+    private static final int CONCURRENCY = 16;
+    private static final Duration HANDSHAKE = Duration.ofMillis(50);
+    private static final int CALLS_PER_THREAD = 40;
+    private static final String EMBEDDING = "{\"model\":\"text-embedding-v2\",\"input\":{\"texts\":[\"你好\"]}}";
+
+    private final DashScopeStubServer stub = DashScopeStubServer.start(StubSettings.instant()
+        .withLatency(Duration.ofMillis(2), Duration.ZERO)
+        .withHandshake(HANDSHAKE)
+        .withDimensions(8));
+    private final ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        stub.close();
+    }
+
+    @Test
+    void should_reuse_pooled_connections_once_warm() throws Exception {
+        RestClient defaultClient = RestClient.builder().baseUrl(stub.baseUrl()).build();
+        burst(defaultClient);
+        int before = stub.connectionCount();
+        long[] defaultLatencies = burst(defaultClient);
+        int defaultConnections = stub.connectionCount() - before;
+
+        try (DashScopeTransport transport = new DashScopeTransport(properties(CONCURRENCY))) {
+            RestClient pooledClient = RestClient.builder()
+                .baseUrl(stub.baseUrl())
+                .requestFactory(transport.requestFactory())
+                .build();
+            burst(pooledClient);
+            before = stub.connectionCount();
+            long[] pooledLatencies = burst(pooledClient);
+            int pooledConnections = stub.connectionCount() - before;
+
+            logger.info("default: {} new connections, p99 {} ms; pooled: {} new connections, p99 {} ms; {}",
+                defaultConnections, p99Millis(defaultLatencies), pooledConnections, p99Millis(pooledLatencies),
+                transport.stats());
+            assertTrue(transport.connectionsOpened() <= CONCURRENCY, transport.stats().toString());
+            assertEquals(0, pooledConnections, transport.stats().toString());
+            assertTrue(pooledConnections <= defaultConnections,
+                pooledConnections + " pooled vs " + defaultConnections + " default connections");
+        }
+    }
+
+    @Test
+    void should_survive_an_unreachable_warm_up_target() {
+        try (DashScopeTransport transport = new DashScopeTransport(properties(2))) {
+            transport.warmUp("http://127.0.0.1:1", 2, Duration.ofSeconds(2));
+
+            assertEquals(0L, transport.connectionsOpen());
+        }
+    }
+
+    private long[] burst(RestClient client) throws Exception {
+        List<Future<long[]>> threads = new ArrayList<>();
+        for (int t = 0; t < CONCURRENCY; t++) {
+            threads.add(executor.submit(() -> {
+                long[] latencies = new long[CALLS_PER_THREAD];
+                for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                    long start = System.nanoTime();
+                    client.post()
+                        .uri(DashScopeStubServer.EMBEDDING_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(EMBEDDING)
+                        .retrieve()
+                        .body(String.class);
+                    latencies[i] = System.nanoTime() - start;
+                }
+                return latencies;
+            }));
+        }
+        long[] all = new long[CONCURRENCY * CALLS_PER_THREAD];
+        for (int t = 0; t < CONCURRENCY; t++) {
+            System.arraycopy(threads.get(t).get(60, TimeUnit.SECONDS), 0, all, t * CALLS_PER_THREAD,
+                CALLS_PER_THREAD);
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    private static double p99Millis(long[] sortedNanos) {
+        return sortedNanos[(int) Math.ceil(0.99 * sortedNanos.length) - 1] / 1e6;
+    }
+
+    private static DashScopeTransportProperties properties(int maxConnections) {
+        return new DashScopeTransportProperties(true, true, maxConnections, Duration.ofSeconds(30),
+            Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofSeconds(1), Duration.ofSeconds(10), 0,
+            Duration.ofSeconds(2), 4, Duration.ofMillis(200), Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,102 @@
+package com.mcddhub.runtimesupport.transport;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingRetryInterceptorTest {
+
+    private static final String EMBEDDING = "/api/v1/services/embeddings/text-embedding/text-embedding";
+    private static final String CHAT = "/api/v1/services/aigc/text-generation/generation";
+
+    private final EmbeddingRetryInterceptor interceptor =
+        new EmbeddingRetryInterceptor(4, Duration.ofMillis(5), Duration.ofMillis(20));
+
+    @Test
+    void should_retry_embedding_calls_until_they_succeed() throws IOException {
+        ScriptedExecution execution = new ScriptedExecution(
+            HttpStatus.TOO_MANY_REQUESTS, new ConnectException("refused"), HttpStatus.BAD_GATEWAY, HttpStatus.OK);
+
+        ClientHttpResponse response = interceptor.intercept(request(EMBEDDING), new byte[0], execution);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(4, execution.calls);
+        assertEquals(3L, interceptor.stats().get("retries"));
+        assertEquals(0L, interceptor.stats().get("exhausted"));
+    }
+
+    @Test
+    void should_give_up_after_max_attempts() throws IOException {
+        ScriptedExecution execution = new ScriptedExecution(HttpStatus.SERVICE_UNAVAILABLE,
+            HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE,
+            HttpStatus.OK);
+
+        ClientHttpResponse response = interceptor.intercept(request(EMBEDDING), new byte[0], execution);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals(4, execution.calls);
+        assertEquals(1L, interceptor.stats().get("exhausted"));
+    }
+
+    @Test
+    void should_not_retry_client_errors() throws IOException {
+        ScriptedExecution execution = new ScriptedExecution(HttpStatus.BAD_REQUEST, HttpStatus.OK);
+
+        ClientHttpResponse response = interceptor.intercept(request(EMBEDDING), new byte[0], execution);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(1, execution.calls);
+    }
+
+    @Test
+    void should_never_retry_completions() {
+        ScriptedExecution execution = new ScriptedExecution(new ConnectException("refused"), HttpStatus.OK);
+
+        assertThrows(ConnectException.class,
+            () -> interceptor.intercept(request(CHAT), new byte[0], execution));
+        assertEquals(1, execution.calls);
+        assertEquals(0L, interceptor.stats().get("calls"));
+    }
+
+    private static MockClientHttpRequest request(String path) {
+        return new MockClientHttpRequest(HttpMethod.POST, URI.create("https://dashscope.aliyuncs.com" + path));
+    }
+
+    /**
+     * Answers each call with the next scripted status, or throws the next scripted exception.
+     */
+    private static class ScriptedExecution implements ClientHttpRequestExecution {
+
+        private final Deque<Object> outcomes;
+        private int calls;
+
+        ScriptedExecution(Object... outcomes) {
+            this.outcomes = new ArrayDeque<>(List.of(outcomes));
+        }
+
+        @Override
+        public ClientHttpResponse execute(HttpRequest request, byte[] body) throws IOException {
+            calls++;
+            Object outcome = outcomes.removeFirst();
+            if (outcome instanceof IOException e) {
+                throw e;
+            }
+            return new MockClientHttpResponse(new byte[0], (HttpStatus) outcome);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.mcddhub.testsupport.dashscope;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process HTTP server that speaks enough of the DashScope API for the demo modules: text and multimodal
+ * generation (sync and SSE), text embeddings, and asynchronous text-to-image tasks.
+ * <p>
+ * Point an application at it with {@code spring.ai.dashscope.base-url=}{@link #baseUrl()}. Latency, token
+ * rate and error injection come from {@link StubSettings} and can be changed while the server runs.
+ * Completions are plain filler text; tool calls are not emulated.
+ */
+public class DashScopeStubServer implements AutoCloseable {
+
+    public static final String CHAT_PATH = "/api/v1/services/aigc/text-generation/generation";
+    public static final String MULTIMODAL_PATH = "/api/v1/services/aigc/multimodal-generation/generation";
+    public static final String EMBEDDING_PATH = "/api/v1/services/embeddings/text-embedding/text-embedding";
+    public static final String IMAGE_PATH = "/api/v1/services/aigc/text2image/image-synthesis";
+    public static final String TASK_PATH = "/api/v1/tasks/";
+    public static final String IMAGE_FILE_PATH = "/files/";
+
+    private static final String[] WORDS = {"从前", "有", "一只", "小猫", ", ", "它", "很", "喜欢", "讲", "笑话", "。"};
+    // 1x1 transparent PNG
+    private static final byte[] PNG = Base64.getDecoder().decode(
+        "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAQAAAC1HAwCAAAAC0lEQVR42mNkYAAAAAYAAjCB0C8AAAAASUVORK5CYII=");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+    private volatile StubSettings settings;
+
+    private DashScopeStubServer(StubSettings settings) throws IOException {
+        this.settings = settings;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        AtomicInteger ids = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "dashscope-stub-" + ids.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(CHAT_PATH, handler("chat", this::chat));
+        server.createContext(MULTIMODAL_PATH, handler("chat", this::chat));
+        server.createContext(EMBEDDING_PATH, handler("embedding", this::embedding));
+        server.createContext(IMAGE_PATH, handler("image", this::image));
+        server.createContext(TASK_PATH, handler("task", this::task));
+        server.createContext(IMAGE_FILE_PATH, exchange -> respond(exchange, 200, "image/png", PNG));
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                handshake(exchange, this.settings);
+                exchange.sendResponseHeaders(404, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+
+    public static DashScopeStubServer start(StubSettings settings) {
+        try {
+            return new DashScopeStubServer(settings);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static DashScopeStubServer start() {
+        return start(StubSettings.defaults());
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public StubSettings settings() {
+        return settings;
+    }
+
+    public void settings(StubSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Requests served per endpoint kind ({@code chat}, {@code embedding}, {@code image}, {@code task}).
+     */
+    public Map<String, Long> requestCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        requests.forEach((kind, count) -> counts.put(kind, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Distinct client connections that have sent at least one request, told apart by their remote address.
+     */
+    public int connectionCount() {
+        return connections.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private interface Endpoint {
+        void handle(HttpExchange exchange, StubSettings settings) throws IOException, InterruptedException;
+    }
+
+    private HttpHandler handler(String kind, Endpoint endpoint) {
+        return exchange -> {
+            requests.computeIfAbsent(kind, k -> new LongAdder()).increment();
+            StubSettings current = settings;
+            try (exchange) {
+                handshake(exchange, current);
+                sleep(current.latency().toNanos() + jitter(current));
+                if (current.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < current.errorRate()) {
+                    respondJson(exchange, current.errorStatus(), Map.of(
+                        "code", current.errorStatus() == 429 ? "Throttling.RateQuota" : "InternalError",
+                        "message", "error injected by DashScopeStubServer",
+                        "request_id", requestId()));
+                    return;
+                }
+                endpoint.handle(exchange, current);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    private void handshake(HttpExchange exchange, StubSettings settings) throws InterruptedException {
+        if (connections.add(exchange.getRemoteAddress())) {
+            sleep(settings.handshake().toNanos());
+        }
+    }
+
+    private void chat(HttpExchange exchange, StubSettings settings) throws IOException, InterruptedException {
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        int inputTokens = Math.max(1, request.path("input").toString().length() / 4);
+        JsonNode parameters = request.path("parameters");
+        boolean incremental = parameters.path("incremental_output").asBoolean(false);
+        boolean messageFormat = !"text".equals(parameters.path("result_format").asText("message"));
+        String requestId = requestId();
+        long nanosPerToken = Double.isInfinite(settings.tokensPerSecond())
+            ? 0 : (long) (1e9 / settings.tokensPerSecond());
+
+        if (!isStreaming(exchange)) {
+            sleep(nanosPerToken * settings.outputTokens());
+            respondJson(exchange, 200, completion(text(0, settings.outputTokens()), "stop", messageFormat,
+                inputTokens, settings.outputTokens(), requestId));
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream;charset=UTF-8");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream body = exchange.getResponseBody();
+        for (int token = 1; token <= settings.outputTokens(); token++) {
+            if (token > 1) {
+                sleep(nanosPerToken);
+            }
+            boolean last = token == settings.outputTokens();
+            String content = incremental ? text(token - 1, token) : text(0, token);
+            Map<String, Object> event = completion(content, last ? "stop" : "null", messageFormat, inputTokens,
+                token, requestId);
+            String frame = "id:" + token + "\nevent:result\n:HTTP_STATUS/200\ndata:"
+                + objectMapper.writeValueAsString(event) + "\n\n";
+            body.write(frame.getBytes(StandardCharsets.UTF_8));
+            body.flush();
+        }
+    }
+
+    private void embedding(HttpExchange exchange, StubSettings settings) throws IOException {
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        List<Map<String, Object>> embeddings = new ArrayList<>();
+        int tokens = 0;
+        int index = 0;
+        for (JsonNode text : request.path("input").path("texts")) {
+            embeddings.add(Map.of("text_index", index++, "embedding", vector(text.asText(), settings.dimensions())));
+            tokens += Math.max(1, text.asText().length() / 4);
+        }
+        respondJson(exchange, 200, Map.of(
+            "output", Map.of("embeddings", embeddings),
+            "usage", Map.of("total_tokens", tokens),
+            "request_id", requestId()));
+    }
+
+    private void image(HttpExchange exchange, StubSettings settings) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        respondJson(exchange, 200, Map.of(
+            "output", Map.of("task_id", UUID.randomUUID().toString(), "task_status", "PENDING"),
+            "request_id", requestId()));
+    }
+
+    private void task(HttpExchange exchange, StubSettings settings) throws IOException {
+        String taskId = exchange.getRequestURI().getPath().substring(TASK_PATH.length());
+        respondJson(exchange, 200, Map.of(
+            "output", Map.of(
+                "task_id", taskId,
+                "task_status", "SUCCEEDED",
+                "results", List.of(Map.of("url", baseUrl() + IMAGE_FILE_PATH + taskId + ".png"))),
+            "usage", Map.of("image_count", 1),
+            "request_id", requestId()));
+    }
+
+    private static Map<String, Object> completion(String content, String finishReason, boolean messageFormat,
+                                                  int inputTokens, int outputTokens, String requestId) {
+        Map<String, Object> output = messageFormat
+            ? Map.of("choices", List.of(Map.of(
+                "finish_reason", finishReason,
+                "message", Map.of("role", "assistant", "content", content))))
+            : Map.of("text", content, "finish_reason", finishReason);
+        return Map.of(
+            "output", output,
+            "usage", Map.of(
+                "input_tokens", inputTokens,
+                "output_tokens", outputTokens,
+                "total_tokens", inputTokens + outputTokens),
+            "request_id", requestId);
+    }
+
+    private static String text(int fromToken, int toToken) {
+        StringBuilder text = new StringBuilder();
+        for (int i = fromToken; i < toToken; i++) {
+            text.append(WORDS[i % WORDS.length]);
+        }
+        return text.toString();
+    }
+
+    private static List<Double> vector(String text, int dimensions) {
+        Random random = new Random(text.hashCode());
+        double[] values = new double[dimensions];
+        double norm = 0;
+        for (int i = 0; i < dimensions; i++) {
+            values[i] = random.nextGaussian();
+            norm += values[i] * values[i];
+        }
+        norm = Math.sqrt(norm);
+        List<Double> vector = new ArrayList<>(dimensions);
+        for (double value : values) {
+            vector.add(value / norm);
+        }
+        return vector;
+    }
+
+    private static boolean isStreaming(HttpExchange exchange) {
+        String sse = exchange.getRequestHeaders().getFirst("X-DashScope-SSE");
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        return "enable".equalsIgnoreCase(sse) || (accept != null && accept.contains("text/event-stream"));
+    }
+
+    private void respondJson(HttpExchange exchange, int status, Object body) throws IOException {
+        respond(exchange, status, "application/json", objectMapper.writeValueAsBytes(body));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body)
+        throws IOException {
+        try (exchange) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private static long jitter(StubSettings settings) {
+        long jitter = settings.jitter().toNanos();
+        return jitter <= 0 ? 0 : ThreadLocalRandom.current().nextLong(jitter);
+    }
+
+    private static void sleep(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        }
+    }
+
+    private static String requestId() {
+        return UUID.randomUUID().toString();
+    }
+}
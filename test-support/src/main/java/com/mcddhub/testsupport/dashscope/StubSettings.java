@@ -0,0 +1,64 @@
+package com.mcddhub.testsupport.dashscope;
+
+import java.time.Duration;
+
+/**
+ * Behaviour of a {@link DashScopeStubServer}.
+ *
+ * @param latency         delay before the first byte of every response
+ * @param jitter          extra random delay, uniformly distributed in {@code [0, jitter)}
+ * @param outputTokens    tokens in every chat completion
+ * @param tokensPerSecond rate at which completion tokens are produced, for both sync and streaming calls
+ * @param errorRate       fraction of requests answered with {@code errorStatus}, between 0 and 1
+ * @param errorStatus     HTTP status of injected errors, e.g. 429 or 500
+ * @param dimensions      size of the returned embeddings
+ * @param handshake       extra delay on the first request of every new client connection, standing in for the
+ *                        TCP and TLS setup a real remote endpoint costs
+ */
+public record StubSettings(
+    Duration latency,
+    Duration jitter,
+    int outputTokens,
+    double tokensPerSecond,
+    double errorRate,
+    int errorStatus,
+    int dimensions,
+    Duration handshake) {
+
+    public static StubSettings defaults() {
+        return new StubSettings(Duration.ofMillis(50), Duration.ZERO, 64, 200, 0, 500, 1536, Duration.ZERO);
+    }
+
+    /**
+     * No artificial delays, for measuring client-side overhead only.
+     */
+    public static StubSettings instant() {
+        return new StubSettings(Duration.ZERO, Duration.ZERO, 64, Double.POSITIVE_INFINITY, 0, 500, 1536,
+            Duration.ZERO);
+    }
+
+    public StubSettings withLatency(Duration latency, Duration jitter) {
+        return new StubSettings(latency, jitter, outputTokens, tokensPerSecond, errorRate, errorStatus, dimensions,
+            handshake);
+    }
+
+    public StubSettings withTokens(int outputTokens, double tokensPerSecond) {
+        return new StubSettings(latency, jitter, outputTokens, tokensPerSecond, errorRate, errorStatus, dimensions,
+            handshake);
+    }
+
+    public StubSettings withErrors(double errorRate, int errorStatus) {
+        return new StubSettings(latency, jitter, outputTokens, tokensPerSecond, errorRate, errorStatus, dimensions,
+            handshake);
+    }
+
+    public StubSettings withDimensions(int dimensions) {
+        return new StubSettings(latency, jitter, outputTokens, tokensPerSecond, errorRate, errorStatus, dimensions,
+            handshake);
+    }
+
+    public StubSettings withHandshake(Duration handshake) {
+        return new StubSettings(latency, jitter, outputTokens, tokensPerSecond, errorRate, errorStatus, dimensions,
+            handshake);
+    }
+}
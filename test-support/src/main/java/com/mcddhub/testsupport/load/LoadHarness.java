@@ -0,0 +1,243 @@
+package com.mcddhub.testsupport.load;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open-loop load generator: requests are started on a fixed schedule whether or not earlier ones have
+ * completed, which is how real traffic behaves and what keeps slow responses from hiding in the results.
+ */
+public class LoadHarness implements AutoCloseable {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    private final URI baseUri;
+    private final HttpClient client;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "load-harness");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LoadHarness(String baseUrl) {
+        this.baseUri = URI.create(baseUrl);
+        this.client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "load-harness-client");
+                thread.setDaemon(true);
+                return thread;
+            }))
+            .build();
+    }
+
+    public List<LoadReport> runAll(List<LoadScenario> scenarios) throws InterruptedException {
+        List<LoadReport> reports = new ArrayList<>(scenarios.size());
+        for (LoadScenario scenario : scenarios) {
+            reports.add(run(scenario));
+        }
+        return reports;
+    }
+
+    public LoadReport run(LoadScenario scenario) throws InterruptedException {
+        HttpRequest request = request(scenario);
+        if (!scenario.warmup().isZero()) {
+            drive(request, scenario.rps(), scenario.warmup(), null);
+        }
+        Samples samples = new Samples((int) (scenario.rps() * scenario.duration().toMillis() / 1000) + 1);
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        drive(request, scenario.rps(), scenario.duration(), samples);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double allocatedMb = (allocatedBytes() - allocatedBefore) / (1024.0 * 1024.0);
+
+        long[] latencies = samples.latencies();
+        long[] ttfts = samples.ttfts();
+        return new LoadReport(
+            scenario.name(),
+            scenario.rps(),
+            samples.count(),
+            samples.errors.sum(),
+            latencies.length / seconds,
+            percentile(latencies, 0.50),
+            percentile(latencies, 0.99),
+            percentile(ttfts, 0.50),
+            percentile(ttfts, 0.99),
+            allocatedMb < 0 ? Double.NaN : allocatedMb / seconds);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void drive(HttpRequest request, int rps, Duration duration, Samples samples)
+        throws InterruptedException {
+        long periodNanos = 1_000_000_000L / rps;
+        long total = duration.toNanos() / periodNanos;
+        long start = System.nanoTime();
+        AtomicLong sequence = new AtomicLong();
+        Phaser inFlight = new Phaser(1);
+        ScheduledFuture<?> ticker = scheduler.scheduleAtFixedRate(() -> {
+            long n = sequence.getAndIncrement();
+            if (n >= total) {
+                return;
+            }
+            long scheduledAt = start + n * periodNanos;
+            FirstByteSubscriber body = new FirstByteSubscriber();
+            inFlight.register();
+            client.sendAsync(request, HttpResponse.BodyHandlers.fromSubscriber(body, subscriber -> subscriber))
+                .whenComplete((response, failure) -> {
+                    long end = System.nanoTime();
+                    if (samples != null) {
+                        if (failure != null || response.statusCode() >= 400 || body.failed) {
+                            samples.errors.increment();
+                        } else {
+                            samples.add(end - scheduledAt, body.firstByteAt == 0 ? -1 : body.firstByteAt - scheduledAt);
+                        }
+                    }
+                    inFlight.arriveAndDeregister();
+                });
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+        while (sequence.get() < total) {
+            Thread.sleep(10);
+        }
+        ticker.cancel(false);
+        try {
+            inFlight.awaitAdvanceInterruptibly(inFlight.arrive(), DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("requests still in flight after " + DRAIN_TIMEOUT, e);
+        }
+    }
+
+    private HttpRequest request(LoadScenario scenario) {
+        int question = scenario.path().indexOf('?');
+        String path = question < 0 ? scenario.path() : scenario.path().substring(0, question);
+        String query = question < 0 ? null : scenario.path().substring(question + 1);
+        URI uri;
+        try {
+            // the multi-argument constructor quotes illegal characters, toASCIIString encodes non-ASCII ones
+            uri = URI.create(new URI(baseUri.getScheme(), null, baseUri.getHost(), baseUri.getPort(), path, query, null)
+                .toASCIIString());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(scenario.path(), e);
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60));
+        if (scenario.body() == null) {
+            return builder.GET().build();
+        }
+        return builder
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(scenario.body()))
+            .build();
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1e6;
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean hotspot) || !hotspot.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long allocated : hotspot.getThreadAllocatedBytes(hotspot.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+
+    private static final class Samples {
+
+        private final long[] latencies;
+        private final long[] ttfts;
+        private final AtomicInteger size = new AtomicInteger();
+        private final LongAdder errors = new LongAdder();
+
+        Samples(int capacity) {
+            this.latencies = new long[capacity];
+            this.ttfts = new long[capacity];
+        }
+
+        void add(long latency, long ttft) {
+            int index = size.getAndIncrement();
+            if (index < latencies.length) {
+                latencies[index] = latency;
+                ttfts[index] = ttft;
+            }
+        }
+
+        long count() {
+            return Math.min(size.get(), latencies.length) + errors.sum();
+        }
+
+        long[] latencies() {
+            long[] sorted = Arrays.copyOf(latencies, Math.min(size.get(), latencies.length));
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        long[] ttfts() {
+            long[] sorted = Arrays.stream(ttfts, 0, Math.min(size.get(), ttfts.length)).filter(t -> t >= 0).toArray();
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    /**
+     * Discards the response body but records when its first byte arrived.
+     */
+    private static final class FirstByteSubscriber implements Flow.Subscriber<List<ByteBuffer>> {
+
+        private volatile long firstByteAt;
+        private volatile boolean failed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            if (firstByteAt == 0 && buffers.stream().anyMatch(ByteBuffer::hasRemaining)) {
+                firstByteAt = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            failed = true;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.mcddhub.testsupport.load;
+
+import java.util.List;
+
+/**
+ * Result of one {@link LoadScenario}. Latencies are measured from the time a request was scheduled, not sent,
+ * so a stalled client or server shows up in the percentiles instead of lowering the request rate.
+ * Time to first token is the time to the first response body byte.
+ *
+ * @param allocatedMbPerSecond heap allocated by all live threads of this JVM during the run, so it covers the
+ *                             application under test only when it runs in the same process as the harness
+ */
+public record LoadReport(
+    String name,
+    int targetRps,
+    long requests,
+    long errors,
+    double throughput,
+    double p50Millis,
+    double p99Millis,
+    double ttftP50Millis,
+    double ttftP99Millis,
+    double allocatedMbPerSecond) {
+
+    private static final String ROW = "%-28s %7s %8s %7s %10s %9s %9s %10s %10s %10s%n";
+
+    public static String table(List<LoadReport> reports) {
+        StringBuilder table = new StringBuilder(String.format(ROW,
+            "scenario", "rps", "requests", "errors", "req/s", "p50 ms", "p99 ms", "ttft p50", "ttft p99", "alloc MB/s"));
+        for (LoadReport report : reports) {
+            table.append(String.format(ROW,
+                report.name(),
+                report.targetRps(),
+                report.requests(),
+                report.errors(),
+                format(report.throughput()),
+                format(report.p50Millis()),
+                format(report.p99Millis()),
+                format(report.ttftP50Millis()),
+                format(report.ttftP99Millis()),
+                format(report.allocatedMbPerSecond())));
+        }
+        return table.toString();
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "-" : String.format("%.1f", value);
+    }
+}
@@ -0,0 +1,24 @@
+package com.mcddhub.testsupport.load;
+
+import java.time.Duration;
+
+/**
+ * One endpoint driven at a fixed request rate.
+ *
+ * @param path  path with an optional, unencoded query, e.g. {@code /demo01/sync?input=给我讲个笑话吧}
+ * @param body  JSON request body, or {@code null} for a GET
+ */
+public record LoadScenario(String name, String path, String body, int rps, Duration warmup, Duration duration) {
+
+    public static LoadScenario get(String name, String path, int rps, Duration duration) {
+        return new LoadScenario(name, path, null, rps, Duration.ofSeconds(3), duration);
+    }
+
+    public static LoadScenario post(String name, String path, String body, int rps, Duration duration) {
+        return new LoadScenario(name, path, body, rps, Duration.ofSeconds(3), duration);
+    }
+
+    public LoadScenario withWarmup(Duration warmup) {
+        return new LoadScenario(name, path, body, rps, warmup, duration);
+    }
+}
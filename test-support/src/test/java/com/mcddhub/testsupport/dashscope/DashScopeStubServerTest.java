@@ -0,0 +1,94 @@
+package com.mcddhub.testsupport.dashscope;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashScopeStubServerTest {
+
+    private static final String CHAT = """
+        {"model":"qwen-plus","input":{"messages":[{"role":"user","content":"给我讲个笑话吧"}]},
+         "parameters":{"result_format":"message","incremental_output":true}}""";
+
+    private final DashScopeStubServer server = DashScopeStubServer.start(
+        StubSettings.instant().withTokens(4, Double.POSITIVE_INFINITY).withDimensions(8));
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void should_answer_chat_completions() throws Exception {
+        HttpResponse<String> response = post(DashScopeStubServer.CHAT_PATH, CHAT, false);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"finish_reason\":\"stop\""), response.body());
+        assertTrue(response.body().contains("\"output_tokens\":4"), response.body());
+    }
+
+    @Test
+    void should_stream_one_event_per_token() throws Exception {
+        HttpResponse<String> response = post(DashScopeStubServer.CHAT_PATH, CHAT, true);
+
+        assertEquals(200, response.statusCode());
+        assertEquals(4, response.body().split("event:result").length - 1);
+        assertTrue(response.body().trim().endsWith("}"), response.body());
+    }
+
+    @Test
+    void should_return_one_embedding_per_text() throws Exception {
+        HttpResponse<String> response = post(DashScopeStubServer.EMBEDDING_PATH,
+            "{\"model\":\"text-embedding-v2\",\"input\":{\"texts\":[\"a\",\"b\",\"c\"]}}", false);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"text_index\":2"), response.body());
+    }
+
+    @Test
+    void should_inject_errors_and_latency() throws Exception {
+        server.settings(server.settings().withErrors(1.0, 429).withLatency(Duration.ofMillis(100), Duration.ZERO));
+
+        long start = System.nanoTime();
+        HttpResponse<String> response = post(DashScopeStubServer.CHAT_PATH, CHAT, false);
+
+        assertEquals(429, response.statusCode());
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(100).toNanos());
+        assertEquals(1L, server.requestCounts().get("chat"));
+    }
+
+    @Test
+    void should_delay_only_the_first_request_of_a_connection() throws Exception {
+        server.settings(server.settings().withHandshake(Duration.ofMillis(200)));
+        String body = "{\"model\":\"text-embedding-v2\",\"input\":{\"texts\":[\"a\"]}}";
+
+        long start = System.nanoTime();
+        post(DashScopeStubServer.EMBEDDING_PATH, body, false);
+        long first = System.nanoTime() - start;
+        start = System.nanoTime();
+        post(DashScopeStubServer.EMBEDDING_PATH, body, false);
+        long second = System.nanoTime() - start;
+
+        assertTrue(first >= Duration.ofMillis(200).toNanos());
+        assertTrue(second < Duration.ofMillis(200).toNanos());
+        assertEquals(1, server.connectionCount());
+    }
+
+    private HttpResponse<String> post(String path, String body, boolean stream) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(server.baseUrl() + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (stream) {
+            request.header("X-DashScope-SSE", "enable");
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,29 @@
+package com.mcddhub.testsupport.load;
+
+import com.mcddhub.testsupport.dashscope.DashScopeStubServer;
+import com.mcddhub.testsupport.dashscope.StubSettings;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadHarnessTest {
+
+    @Test
+    void should_drive_endpoint_at_fixed_rate_and_report_latency() throws Exception {
+        StubSettings settings = StubSettings.defaults().withLatency(Duration.ofMillis(20), Duration.ZERO)
+            .withTokens(1, Double.POSITIVE_INFINITY).withDimensions(8);
+        try (DashScopeStubServer server = DashScopeStubServer.start(settings);
+             LoadHarness harness = new LoadHarness(server.baseUrl())) {
+            LoadReport report = harness.run(LoadScenario.post("embedding", DashScopeStubServer.EMBEDDING_PATH,
+                "{\"input\":{\"texts\":[\"你好\"]}}", 50, Duration.ofSeconds(1)).withWarmup(Duration.ZERO));
+
+            assertEquals(50, report.requests());
+            assertEquals(0, report.errors());
+            assertTrue(report.p50Millis() >= 20, "p50 below stub latency: " + report);
+            assertTrue(report.p99Millis() >= report.p50Millis());
+            assertTrue(report.ttftP50Millis() <= report.p50Millis());
+        }
+    }
+}